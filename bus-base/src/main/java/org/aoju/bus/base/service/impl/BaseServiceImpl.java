@@ -28,16 +28,22 @@ import org.aoju.bus.base.entity.BaseEntity;
 import org.aoju.bus.base.entity.Result;
 import org.aoju.bus.base.mapper.BaseMapper;
 import org.aoju.bus.base.service.BaseService;
+import org.aoju.bus.core.consts.Symbol;
 import org.aoju.bus.core.utils.ArrayUtils;
 import org.aoju.bus.core.utils.EntityUtils;
 import org.aoju.bus.core.utils.ObjectUtils;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.mapper.entity.Condition;
+import org.aoju.bus.mapper.executor.BatchInsert;
+import org.aoju.bus.mapper.executor.IdsBatch;
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.PageContext;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -55,6 +61,9 @@ public class BaseServiceImpl<Mapper extends BaseMapper<T>, T extends BaseEntity>
     @Autowired
     protected Mapper mapper;
 
+    @Autowired
+    protected ObjectProvider<SqlSessionFactory> sqlSessionFactory;
+
     @Override
     public String insert(T entity) {
         this.setValue(entity);
@@ -71,24 +80,60 @@ public class BaseServiceImpl<Mapper extends BaseMapper<T>, T extends BaseEntity>
 
     @Override
     public Object insertBatch(List<T> list) {
-        List<String> data = new ArrayList<>();
-        list.forEach(item -> {
-            String id = insertSelective(item);
-            data.add(id);
-        });
-        return data;
+        return insertBatch(list, "insertSelective");
     }
 
     @Override
     public Object insertBatchSelective(List<T> list) {
+        return insertBatch(list, "insertSelective");
+    }
+
+    /**
+     * 使用 BATCH 执行器批量插入，无法确定 SqlSessionFactory 或插入语句时逐条插入
+     * <p>
+     * insertSelective 只插入非空字段，空字段使用列的默认值，非空字段相同的连续行共用一个批次；
+     * insert 插入全部字段，空字段写入 NULL 而不使用列的默认值，但所有行共用一个批次，
+     * 实体没有依赖默认值的字段时，子类可以使用 insertBatch(list, "insert")
+     *
+     * @param list   实体列表
+     * @param method 插入方法，insertSelective 或 insert
+     * @return 主键列表
+     */
+    protected Object insertBatch(List<T> list, String method) {
         List<String> data = new ArrayList<>();
-        list.forEach(item -> {
-            String id = insertSelective(item);
-            data.add(id);
-        });
+        SqlSessionFactory factory = sqlSessionFactory.getIfUnique();
+        String statement = getStatement(method);
+        if (factory == null || statement == null || !factory.getConfiguration().hasStatement(statement)) {
+            list.forEach(item -> {
+                String id = insertSelective(item);
+                data.add(id);
+            });
+            return data;
+        }
+        list.forEach(this::setValue);
+        BatchInsert.insert(factory, statement, list, getBatchSize());
+        list.forEach(item -> data.add(item.getId()));
         return data;
     }
 
+    /**
+     * 批量插入时每批执行的行数
+     *
+     * @return 行数
+     */
+    protected int getBatchSize() {
+        return BatchInsert.DEFAULT_BATCH_SIZE;
+    }
+
+    private String getStatement(String method) {
+        for (Class<?> face : mapper.getClass().getInterfaces()) {
+            if (BaseMapper.class.isAssignableFrom(face)) {
+                return face.getName() + "." + method;
+            }
+        }
+        return null;
+    }
+
     @Override
     public void delete(T entity) {
         mapper.delete(entity);
@@ -101,7 +146,7 @@ public class BaseServiceImpl<Mapper extends BaseMapper<T>, T extends BaseEntity>
 
     @Override
     public int deleteByIds(String id) {
-        return mapper.deleteByIds(StringUtils.split(id));
+        return IdsBatch.deleteByIds(mapper, Arrays.asList(StringUtils.split(id, Symbol.COMMA)), IdsBatch.DEFAULT_CHUNK_SIZE);
     }
 
     @Override
@@ -179,7 +224,7 @@ public class BaseServiceImpl<Mapper extends BaseMapper<T>, T extends BaseEntity>
 
     @Override
     public List<T> selectListByIds(String id) {
-        return mapper.selectByIds(StringUtils.split(id));
+        return IdsBatch.selectByIds(mapper, Arrays.asList(StringUtils.split(id, Symbol.COMMA)), IdsBatch.DEFAULT_CHUNK_SIZE, null);
     }
 
     @Override
@@ -67,6 +67,23 @@ import java.util.*;
  * the updated response if it has changed, or a short 'not modified' response if the client's copy
  * is still valid. Such responses increment both the network count and hit count.
  *
+ * <p>Hits are also split per tier by {@linkplain #memoryHitCount() Memory Hit Count} and {@linkplain
+ * #diskHitCount() Disk Hit Count}; their sum equals the hit count.
+ *
+ * <h3>Memory Tier</h3>
+ *
+ * <p>Small, frequently requested responses such as configuration or feature flags can be kept in an
+ * optional in-memory tier in front of the disk cache. It holds the response metadata and the body
+ * as a {@link ByteString}, is bounded by bytes and evicts least recently used entries first. Only
+ * bodies no larger than the configured entry size are kept in memory; larger ones are served from
+ * disk as usual. Entries are admitted when a response is written to the cache and when a small
+ * response is read back from disk. Memory hits honor {@code Vary} and conditional requests exactly
+ * like disk hits, and a {@code 304 Not Modified} updates both tiers: <pre>   {@code
+ *
+ *   // 50 MiB on disk, 2 MiB in memory for bodies up to 16 KiB.
+ *   Cache cache = new Cache(cacheDir, 50 * 1024 * 1024, 2 * 1024 * 1024, 16 * 1024);
+ * }</pre>
+ *
  * <p>The best way to improve the cache hit rate is by configuring the web server to return
  * cacheable responses. Although this client honors all <a
  * href="http://tools.ietf.org/html/rfc7234">HTTP/1.1 (RFC 7234)</a> cache headers, it doesn't cache
@@ -148,6 +165,13 @@ public final class Cache implements Closeable, Flushable {
     private int networkCount;
     private int hitCount;
     private int requestCount;
+    private int memoryHitCount;
+    private int diskHitCount;
+    /* memory tier, all guarded by 'this' */
+    private final long memoryMaxSize;
+    private final long memoryEntryMaxSize;
+    private final LinkedHashMap<String, MemoryEntry> memory = new LinkedHashMap<>(0, 0.75f, true);
+    private long memorySize;
     final InternalCache internalCache = new InternalCache() {
 
         @Override
@@ -182,11 +206,32 @@ public final class Cache implements Closeable, Flushable {
     };
 
     public Cache(File directory, long maxSize) {
-        this(directory, maxSize, FileSystem.SYSTEM);
+        this(directory, maxSize, 0, 0, FileSystem.SYSTEM);
+    }
+
+    /**
+     * Creates a cache with an in-memory tier in front of the disk cache.
+     *
+     * @param directory          the disk cache directory
+     * @param maxSize            the maximum number of bytes stored on disk
+     * @param memoryMaxSize      the maximum number of bytes held in memory, or 0 to disable the tier
+     * @param memoryEntryMaxSize the largest response body, in bytes, kept in memory
+     */
+    public Cache(File directory, long maxSize, long memoryMaxSize, long memoryEntryMaxSize) {
+        this(directory, maxSize, memoryMaxSize, memoryEntryMaxSize, FileSystem.SYSTEM);
     }
 
     Cache(File directory, long maxSize, FileSystem fileSystem) {
+        this(directory, maxSize, 0, 0, fileSystem);
+    }
+
+    Cache(File directory, long maxSize, long memoryMaxSize, long memoryEntryMaxSize,
+          FileSystem fileSystem) {
+        if (memoryMaxSize < 0) throw new IllegalArgumentException("memoryMaxSize < 0");
+        if (memoryEntryMaxSize < 0) throw new IllegalArgumentException("memoryEntryMaxSize < 0");
         this.cache = DiskLruCache.create(fileSystem, directory, VERSION, ENTRY_COUNT, maxSize);
+        this.memoryMaxSize = memoryMaxSize;
+        this.memoryEntryMaxSize = Math.min(memoryEntryMaxSize, memoryMaxSize);
     }
 
     public static String key(HttpUrl url) {
@@ -208,6 +253,13 @@ public final class Cache implements Closeable, Flushable {
 
     Response get(Request request) {
         String key = key(request.url());
+
+        MemoryEntry memoryEntry = memoryGet(key);
+        if (memoryEntry != null) {
+            Response response = memoryEntry.response(key, false);
+            return memoryEntry.entry.matches(request, response) ? response : null;
+        }
+
         DiskLruCache.Snapshot snapshot;
         Entry entry;
         try {
@@ -234,6 +286,20 @@ public final class Cache implements Closeable, Flushable {
             return null;
         }
 
+        // Promote small bodies so that subsequent hits skip the disk entirely.
+        if (memoryMaxSize > 0 && snapshot.getLength(ENTRY_BODY) <= memoryEntryMaxSize) {
+            try {
+                ByteString body = response.body().source().readByteString();
+                memoryEntry = new MemoryEntry(entry, body);
+                memoryPut(key, memoryEntry);
+                return memoryEntry.response(key, true);
+            } catch (IOException e) {
+                return null;
+            } finally {
+                Internal.closeQuietly(response.body());
+            }
+        }
+
         return response;
     }
 
@@ -260,14 +326,16 @@ public final class Cache implements Closeable, Flushable {
         }
 
         Entry entry = new Entry(response);
+        String key = key(response.request().url());
         DiskLruCache.Editor editor = null;
         try {
-            editor = cache.edit(key(response.request().url()));
+            editor = cache.edit(key);
             if (editor == null) {
                 return null;
             }
+            memoryRemove(key);
             entry.writeTo(editor);
-            return new CacheRequestImpl(editor);
+            return new CacheRequestImpl(editor, key, entry);
         } catch (IOException e) {
             abortQuietly(editor);
             return null;
@@ -275,11 +343,21 @@ public final class Cache implements Closeable, Flushable {
     }
 
     void remove(Request request) throws IOException {
-        cache.remove(key(request.url()));
+        String key = key(request.url());
+        memoryRemove(key);
+        cache.remove(key);
     }
 
     void update(Response cached, Response network) {
         Entry entry = new Entry(network);
+        if (cached.body() instanceof MemoryResponseBody) {
+            updateMemory(entry, cached);
+            return;
+        }
+
+        synchronized (this) {
+            diskHitCount++;
+        }
         DiskLruCache.Snapshot snapshot = ((CacheResponseBody) cached.body()).snapshot;
         DiskLruCache.Editor editor = null;
         try {
@@ -293,6 +371,72 @@ public final class Cache implements Closeable, Flushable {
         }
     }
 
+    /**
+     * Replaces the metadata of a memory entry after a conditional hit. The disk entry is rewritten
+     * in full because it may already have been evicted from disk while still being held in memory.
+     */
+    private void updateMemory(Entry entry, Response cached) {
+        MemoryResponseBody body = (MemoryResponseBody) cached.body();
+        synchronized (this) {
+            if (isMemoryHit(cached)) {
+                memoryHitCount++;
+            } else {
+                diskHitCount++;
+            }
+            if (memory.get(body.key) == body.memoryEntry) {
+                memoryPut(body.key, new MemoryEntry(entry, body.memoryEntry.body));
+            }
+        }
+
+        DiskLruCache.Editor editor = null;
+        try {
+            editor = cache.edit(body.key);
+            if (editor != null) {
+                entry.writeTo(editor);
+                BufferedSink sink = IoUtils.buffer(editor.newSink(ENTRY_BODY));
+                sink.write(body.memoryEntry.body);
+                sink.close();
+                editor.commit();
+            }
+        } catch (IOException e) {
+            abortQuietly(editor);
+        }
+    }
+
+    private synchronized MemoryEntry memoryGet(String key) {
+        return memoryMaxSize > 0 ? memory.get(key) : null;
+    }
+
+    private synchronized void memoryPut(String key, MemoryEntry memoryEntry) {
+        if (memoryEntry.size > memoryMaxSize) {
+            return;
+        }
+        MemoryEntry previous = memory.put(key, memoryEntry);
+        if (previous != null) {
+            memorySize -= previous.size;
+        }
+        memorySize += memoryEntry.size;
+
+        // Evict least recently used entries until the tier fits again.
+        Iterator<MemoryEntry> i = memory.values().iterator();
+        while (memorySize > memoryMaxSize && i.hasNext()) {
+            memorySize -= i.next().size;
+            i.remove();
+        }
+    }
+
+    private synchronized void memoryRemove(String key) {
+        MemoryEntry previous = memory.remove(key);
+        if (previous != null) {
+            memorySize -= previous.size;
+        }
+    }
+
+    private synchronized void memoryClear() {
+        memory.clear();
+        memorySize = 0;
+    }
+
     private void abortQuietly(DiskLruCache.Editor editor) {
         // Give up because the cache cannot be written.
         try {
@@ -327,6 +471,7 @@ public final class Cache implements Closeable, Flushable {
      * @throws IOException if an I/O error occurs
      */
     public void delete() throws IOException {
+        memoryClear();
         cache.delete();
     }
 
@@ -337,6 +482,7 @@ public final class Cache implements Closeable, Flushable {
      * @throws IOException if an I/O error occurs
      */
     public void evictAll() throws IOException {
+        memoryClear();
         cache.evictAll();
     }
 
@@ -344,7 +490,7 @@ public final class Cache implements Closeable, Flushable {
      * Returns an iterator over the URLs in this cache. This iterator doesn't throw {@code
      * ConcurrentModificationException}, but if new responses are added while iterating, their URLs
      * will not be returned. If existing responses are evicted during iteration, they will be absent
-     * (unless they were already returned).
+     * (unless they were already returned). Responses held only by the memory tier are not returned.
      *
      * <p>The iterator supports {@linkplain Iterator#remove}. Removing a URL from the iterator evicts
      * the corresponding response from the cache. Use this to evict selected responses.
@@ -357,6 +503,8 @@ public final class Cache implements Closeable, Flushable {
             final Iterator<DiskLruCache.Snapshot> delegate = cache.snapshots();
 
             String nextUrl;
+            String nextKey;
+            String removeKey;
             boolean canRemove;
 
             @Override
@@ -369,6 +517,7 @@ public final class Cache implements Closeable, Flushable {
                     try {
                         BufferedSource metadata = IoUtils.buffer(snapshot.getSource(ENTRY_METADATA));
                         nextUrl = metadata.readUtf8LineStrict();
+                        nextKey = snapshot.key();
                         return true;
                     } catch (IOException ignored) {
                         // We couldn't read the metadata for this snapshot; possibly because the host filesystem
@@ -386,6 +535,7 @@ public final class Cache implements Closeable, Flushable {
                 if (!hasNext()) throw new NoSuchElementException();
                 String result = nextUrl;
                 nextUrl = null;
+                removeKey = nextKey;
                 canRemove = true;
                 return result;
             }
@@ -394,6 +544,8 @@ public final class Cache implements Closeable, Flushable {
             public void remove() {
                 if (!canRemove) throw new IllegalStateException("remove() before next()");
                 delegate.remove();
+                // The memory tier is keyed the same way; drop it so get() can't serve the removed entry.
+                memoryRemove(removeKey);
             }
         };
     }
@@ -414,6 +566,20 @@ public final class Cache implements Closeable, Flushable {
         return cache.getMaxSize();
     }
 
+    /**
+     * @return the number of bytes currently held by the memory tier
+     */
+    public synchronized long memorySize() {
+        return memorySize;
+    }
+
+    /**
+     * @return the maximum number of bytes held by the memory tier, or 0 if it is disabled
+     */
+    public long memoryMaxSize() {
+        return memoryMaxSize;
+    }
+
     @Override
     public void flush() throws IOException {
         cache.flush();
@@ -421,6 +587,7 @@ public final class Cache implements Closeable, Flushable {
 
     @Override
     public void close() throws IOException {
+        memoryClear();
         cache.close();
     }
 
@@ -441,10 +608,21 @@ public final class Cache implements Closeable, Flushable {
         } else if (cacheStrategy.cacheResponse != null) {
             // This response uses the cache and not the network. That's a cache hit.
             hitCount++;
+            if (isMemoryHit(cacheStrategy.cacheResponse)) {
+                memoryHitCount++;
+            } else {
+                diskHitCount++;
+            }
         }
     }
 
+    private static boolean isMemoryHit(Response cacheResponse) {
+        return cacheResponse.body() instanceof MemoryResponseBody
+                && !((MemoryResponseBody) cacheResponse.body()).fromDisk;
+    }
+
     synchronized void trackConditionalCacheHit() {
+        // The tier is counted by update(), which sees the cached response.
         hitCount++;
     }
 
@@ -460,6 +638,20 @@ public final class Cache implements Closeable, Flushable {
         return requestCount;
     }
 
+    /**
+     * @return the number of hits served by the memory tier
+     */
+    public synchronized int memoryHitCount() {
+        return memoryHitCount;
+    }
+
+    /**
+     * @return the number of hits served by the disk tier
+     */
+    public synchronized int diskHitCount() {
+        return diskHitCount;
+    }
+
     private static final class Entry {
         /**
          * Synthetic response header: the local time when the request was sent.
@@ -647,6 +839,20 @@ public final class Cache implements Closeable, Flushable {
             return url.startsWith("https://");
         }
 
+        /**
+         * Returns an estimate of the bytes this entry's metadata occupies in memory.
+         */
+        long metadataSize() {
+            long size = url.length() + requestMethod.length() + message.length();
+            for (int i = 0, count = varyHeaders.size(); i < count; i++) {
+                size += varyHeaders.name(i).length() + varyHeaders.value(i).length();
+            }
+            for (int i = 0, count = responseHeaders.size(); i < count; i++) {
+                size += responseHeaders.name(i).length() + responseHeaders.value(i).length();
+            }
+            return size;
+        }
+
         private List<Certificate> readCertificateList(BufferedSource source) throws IOException {
             int length = readInt(source);
             if (length == -1) return Collections.emptyList(); // HttpClient v1.2 used -1 to indicate null.
@@ -691,6 +897,10 @@ public final class Cache implements Closeable, Flushable {
         public Response response(DiskLruCache.Snapshot snapshot) {
             String contentType = responseHeaders.get("Content-Type");
             String contentLength = responseHeaders.get("Content-Length");
+            return response(new CacheResponseBody(snapshot, contentType, contentLength));
+        }
+
+        Response response(ResponseBody body) {
             Request cacheRequest = new Request.Builder()
                     .url(url)
                     .method(requestMethod, null)
@@ -702,7 +912,7 @@ public final class Cache implements Closeable, Flushable {
                     .code(code)
                     .message(message)
                     .headers(responseHeaders)
-                    .body(new CacheResponseBody(snapshot, contentType, contentLength))
+                    .body(body)
                     .handshake(handshake)
                     .sentRequestAtMillis(sentRequestMillis)
                     .receivedResponseAtMillis(receivedResponseMillis)
@@ -710,6 +920,66 @@ public final class Cache implements Closeable, Flushable {
         }
     }
 
+    /**
+     * A response held by the memory tier: its metadata and its complete body.
+     */
+    private static final class MemoryEntry {
+        final Entry entry;
+        final ByteString body;
+        final long size;
+
+        MemoryEntry(Entry entry, ByteString body) {
+            this.entry = entry;
+            this.body = body;
+            this.size = body.size() + entry.metadataSize();
+        }
+
+        Response response(String key, boolean fromDisk) {
+            String contentType = entry.responseHeaders.get("Content-Type");
+            String contentLength = entry.responseHeaders.get("Content-Length");
+            return entry.response(new MemoryResponseBody(key, this, fromDisk, contentType, contentLength));
+        }
+    }
+
+    private static final class MemoryResponseBody extends ResponseBody {
+        final String key;
+        final MemoryEntry memoryEntry;
+        /* true if this body was just promoted from disk, so the hit belongs to the disk tier */
+        final boolean fromDisk;
+        private final BufferedSource bodySource;
+        private final String contentType;
+        private final String contentLength;
+
+        MemoryResponseBody(String key, MemoryEntry memoryEntry, boolean fromDisk,
+                           String contentType, String contentLength) {
+            this.key = key;
+            this.memoryEntry = memoryEntry;
+            this.fromDisk = fromDisk;
+            this.contentType = contentType;
+            this.contentLength = contentLength;
+            this.bodySource = new Buffer().write(memoryEntry.body);
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType != null ? MediaType.get(contentType) : null;
+        }
+
+        @Override
+        public long contentLength() {
+            try {
+                return contentLength != null ? Long.parseLong(contentLength) : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public BufferedSource source() {
+            return bodySource;
+        }
+    }
+
     private static class CacheResponseBody extends ResponseBody {
         final DiskLruCache.Snapshot snapshot;
         private final BufferedSource bodySource;
@@ -757,11 +1027,26 @@ public final class Cache implements Closeable, Flushable {
         boolean done;
         private Sink cacheOut;
         private Sink body;
+        /* a copy of the body for the memory tier, or null once it grows too large */
+        private Buffer memoryBody;
 
-        CacheRequestImpl(final DiskLruCache.Editor editor) {
+        CacheRequestImpl(final DiskLruCache.Editor editor, final String key, final Entry entry) {
             this.editor = editor;
             this.cacheOut = editor.newSink(ENTRY_BODY);
+            this.memoryBody = memoryMaxSize > 0 ? new Buffer() : null;
             this.body = new ForwardingSink(cacheOut) {
+                @Override
+                public void write(Buffer source, long byteCount) throws IOException {
+                    if (memoryBody != null) {
+                        if (memoryBody.size() + byteCount > memoryEntryMaxSize) {
+                            memoryBody = null;
+                        } else {
+                            source.copyTo(memoryBody, 0, byteCount);
+                        }
+                    }
+                    super.write(source, byteCount);
+                }
+
                 @Override
                 public void close() throws IOException {
                     synchronized (Cache.this) {
@@ -773,6 +1058,10 @@ public final class Cache implements Closeable, Flushable {
                     }
                     super.close();
                     editor.commit();
+                    if (memoryBody != null) {
+                        memoryPut(key, new MemoryEntry(entry, memoryBody.readByteString()));
+                        memoryBody = null;
+                    }
                 }
             };
         }
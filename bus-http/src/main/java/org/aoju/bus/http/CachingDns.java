@@ -0,0 +1,497 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+import org.aoju.bus.http.internal.Internal;
+import org.aoju.bus.http.internal.platform.Platform;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.Security;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Dns} that caches the results of a delegate in process. Unlike the JVM's own address
+ * cache this one is bounded, configurable per client and observable:
+ *
+ * <ul>
+ * <li>Successful lookups are cached for {@code ttl}. Lookups arriving during the last
+ * {@code refreshAhead} of an entry's lifetime return the cached value and refresh it in the
+ * background, so callers don't see resolver latency for hot hosts.</li>
+ * <li>Failed lookups are cached for {@code negativeTtl}.</li>
+ * <li>Expired entries are resolved again, but are kept until that lookup succeeds: for
+ * {@code staleTtl} after expiry, a failed lookup serves the stale addresses instead of the
+ * error.</li>
+ * <li>Concurrent misses for the same host share a single lookup.</li>
+ * <li>Lookups that miss the cache are bounded by {@code lookupTimeout} so that a slow resolver
+ * doesn't block the calling thread inside route selection indefinitely.</li>
+ * <li>Entries from a hosts file are consulted before the cache and never expire.</li>
+ * </ul>
+ *
+ * <p>The delegate doesn't report record TTLs, so {@code ttl} defaults to the JVM's
+ * {@code networkaddress.cache.ttl} security property when set, or 30 seconds otherwise.
+ *
+ * <p>Lookup timings are observable per call through {@link EventListener#dnsStart} and {@link
+ * EventListener#dnsEnd}; the counters here describe the cache itself.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class CachingDns implements Dns {
+
+    private static final long DEFAULT_TTL_SECONDS = 30;
+    private static final long DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+
+    private final Dns delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long staleTtlNanos;
+    private final long refreshAheadNanos;
+    private final long lookupTimeoutMillis;
+    private final ExecutorService executor;
+    private final Map<String, List<InetAddress>> hosts;
+
+    /**
+     * Access ordered so that the least recently used entry is evicted first. Guarded by this.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Lookups in flight, keyed by host, so that concurrent misses share one delegate call.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<List<InetAddress>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    CachingDns(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxEntries = builder.maxEntries;
+        this.ttlNanos = builder.ttlNanos;
+        this.negativeTtlNanos = builder.negativeTtlNanos;
+        this.staleTtlNanos = builder.staleTtlNanos;
+        this.refreshAheadNanos = Math.min(builder.refreshAheadNanos, builder.ttlNanos);
+        this.lookupTimeoutMillis = builder.lookupTimeoutMillis;
+        this.executor = builder.executor != null
+                ? builder.executor
+                : new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), Internal.threadFactory("HttpClient CachingDns", true));
+        this.hosts = Collections.unmodifiableMap(new LinkedHashMap<>(builder.hosts));
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingDns.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static long defaultTtlNanos() {
+        try {
+            String value = Security.getProperty("networkaddress.cache.ttl");
+            if (value != null) {
+                long seconds = Long.parseLong(value.trim());
+                if (seconds > 0) return TimeUnit.SECONDS.toNanos(seconds);
+            }
+        } catch (NumberFormatException | SecurityException ignored) {
+        }
+        return TimeUnit.SECONDS.toNanos(DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Parses a hosts file in the format of {@code /etc/hosts}: an IP address literal followed by
+     * one or more host names, with {@code #} starting a comment.
+     */
+    static Map<String, List<InetAddress>> parseHosts(File file) throws IOException {
+        Map<String, List<InetAddress>> result = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                int comment = line.indexOf('#');
+                if (comment != -1) line = line.substring(0, comment);
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length < 2) continue;
+                if (!Internal.verifyAsIpAddress(parts[0]) && parts[0].indexOf(':') == -1) continue;
+                byte[] address;
+                try {
+                    address = InetAddress.getByName(parts[0]).getAddress();
+                } catch (UnknownHostException e) {
+                    continue;
+                }
+                for (int i = 1; i < parts.length; i++) {
+                    String host = parts[i].toLowerCase(Locale.US);
+                    result.computeIfAbsent(host, k -> new ArrayList<>())
+                            .add(InetAddress.getByAddress(host, address));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        if (hostname == null) throw new UnknownHostException("hostname == null");
+        String key = hostname.toLowerCase(Locale.US);
+
+        List<InetAddress> override = hosts.get(key);
+        if (override != null) {
+            hitCount.incrementAndGet();
+            return override;
+        }
+
+        long now = System.nanoTime();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null && now - entry.expiresAt < 0) {
+            if (entry.failure != null) {
+                negativeHitCount.incrementAndGet();
+                throw copyOf(entry.failure);
+            }
+            hitCount.incrementAndGet();
+            if (now - (entry.expiresAt - refreshAheadNanos) >= 0) {
+                refreshAsync(key, entry);
+            }
+            return entry.addresses;
+        }
+
+        missCount.incrementAndGet();
+        CompletableFuture<List<InetAddress>> future = new CompletableFuture<>();
+        CompletableFuture<List<InetAddress>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) return await(existing, hostname);
+
+        try {
+            List<InetAddress> addresses = resolve(key, hostname, entry);
+            future.complete(addresses);
+            return addresses;
+        } catch (UnknownHostException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Resolves a host that missed the cache. The expired entry, if any, stays in the cache until
+     * this lookup succeeds; if it fails within {@code staleTtl} of expiry the stale addresses are
+     * returned instead.
+     */
+    private List<InetAddress> resolve(String key, String hostname, Entry previous)
+            throws UnknownHostException {
+        try {
+            List<InetAddress> addresses = lookupWithTimeout(hostname);
+            put(key, Entry.success(addresses, System.nanoTime() + ttlNanos));
+            return addresses;
+        } catch (UnknownHostException e) {
+            failureCount.incrementAndGet();
+            if (previous != null && previous.addresses != null
+                    && System.nanoTime() - (previous.expiresAt + staleTtlNanos) < 0) {
+                staleCount.incrementAndGet();
+                return previous.addresses;
+            }
+            if (negativeTtlNanos > 0) {
+                put(key, Entry.failure(e, System.nanoTime() + negativeTtlNanos));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a lookup started by another thread for the same host.
+     */
+    private static List<InetAddress> await(CompletableFuture<List<InetAddress>> future,
+                                           String hostname) throws UnknownHostException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException) throw copyOf((UnknownHostException) cause);
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            UnknownHostException unknownHostException =
+                    new UnknownHostException("Broken dns lookup of " + hostname);
+            unknownHostException.initCause(cause);
+            throw unknownHostException;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException("Interrupted resolving " + hostname);
+        }
+    }
+
+    private List<InetAddress> lookupWithTimeout(String hostname) throws UnknownHostException {
+        if (lookupTimeoutMillis <= 0) return immutable(delegate.lookup(hostname));
+
+        Future<List<InetAddress>> future = executor.submit(() -> delegate.lookup(hostname));
+        try {
+            return immutable(future.get(lookupTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownHostException) throw (UnknownHostException) cause;
+            UnknownHostException unknownHostException =
+                    new UnknownHostException("Broken dns lookup of " + hostname);
+            unknownHostException.initCause(cause);
+            throw unknownHostException;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new UnknownHostException("Timed out resolving " + hostname
+                    + " after " + lookupTimeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException("Interrupted resolving " + hostname);
+        }
+    }
+
+    private void refreshAsync(String key, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    List<InetAddress> addresses = immutable(delegate.lookup(key));
+                    refreshCount.incrementAndGet();
+                    put(key, Entry.success(addresses, System.nanoTime() + ttlNanos));
+                } catch (UnknownHostException e) {
+                    // Keep serving the existing entry until it is no longer usable.
+                    failureCount.incrementAndGet();
+                    entry.refreshing.set(false);
+                } catch (RuntimeException e) {
+                    Platform.get().log(Platform.WARN, "Dns refresh failed for " + key, e);
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    private static List<InetAddress> immutable(List<InetAddress> addresses) throws UnknownHostException {
+        if (addresses == null || addresses.isEmpty()) {
+            throw new UnknownHostException("No addresses returned");
+        }
+        return Collections.unmodifiableList(new ArrayList<>(addresses));
+    }
+
+    private static UnknownHostException copyOf(UnknownHostException failure) {
+        UnknownHostException result = new UnknownHostException(failure.getMessage());
+        result.initCause(failure);
+        return result;
+    }
+
+    /**
+     * Removes all cached entries. Hosts file overrides are retained.
+     */
+    public synchronized void evictAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of lookups answered with expired addresses because resolving them again
+     * failed.
+     */
+    public long staleCount() {
+        return staleCount.get();
+    }
+
+    public long negativeHitCount() {
+        return negativeHitCount.get();
+    }
+
+    public long failureCount() {
+        return failureCount.get();
+    }
+
+    public long refreshCount() {
+        return refreshCount.get();
+    }
+
+    public long evictionCount() {
+        return evictionCount.get();
+    }
+
+    static final class Entry {
+        final List<InetAddress> addresses;
+        final UnknownHostException failure;
+        final long expiresAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(List<InetAddress> addresses, UnknownHostException failure, long expiresAt) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+
+        static Entry success(List<InetAddress> addresses, long expiresAt) {
+            return new Entry(addresses, null, expiresAt);
+        }
+
+        static Entry failure(UnknownHostException failure, long expiresAt) {
+            return new Entry(null, failure, expiresAt);
+        }
+    }
+
+    public static final class Builder {
+        Dns delegate = Dns.SYSTEM;
+        int maxEntries = 1024;
+        long ttlNanos = defaultTtlNanos();
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(DEFAULT_NEGATIVE_TTL_SECONDS);
+        long staleTtlNanos = TimeUnit.MINUTES.toNanos(5);
+        long refreshAheadNanos = TimeUnit.SECONDS.toNanos(5);
+        long lookupTimeoutMillis;
+        ExecutorService executor;
+        Map<String, List<InetAddress>> hosts = new LinkedHashMap<>();
+
+        public Builder delegate(Dns delegate) {
+            if (delegate == null) throw new NullPointerException("delegate == null");
+            this.delegate = delegate;
+            return this;
+        }
+
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries <= 0: " + maxEntries);
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder ttl(long duration, TimeUnit unit) {
+            if (duration <= 0) throw new IllegalArgumentException("ttl <= 0: " + duration);
+            this.ttlNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets how long failed lookups are remembered. Zero disables negative caching.
+         */
+        public Builder negativeTtl(long duration, TimeUnit unit) {
+            if (duration < 0) throw new IllegalArgumentException("negativeTtl < 0: " + duration);
+            this.negativeTtlNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets how long after expiry the previous addresses are served when resolving the host
+         * again fails. Zero disables stale serving.
+         */
+        public Builder staleTtl(long duration, TimeUnit unit) {
+            if (duration < 0) throw new IllegalArgumentException("staleTtl < 0: " + duration);
+            this.staleTtlNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the window before expiry in which a hit triggers a refresh on the {@linkplain
+         * #executor executor}; the hit itself returns the cached addresses without waiting. Zero
+         * disables refresh ahead. Expired entries are never refreshed in the background: the next
+         * lookup resolves them on the calling thread, bounded by {@link #lookupTimeout}, and only
+         * falls back to the stale addresses if that lookup fails within {@link #staleTtl}.
+         */
+        public Builder refreshAhead(long duration, TimeUnit unit) {
+            if (duration < 0) throw new IllegalArgumentException("refreshAhead < 0: " + duration);
+            this.refreshAheadNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Bounds how long a cache miss may block the caller. Zero, the default, resolves on the
+         * calling thread without a timeout.
+         */
+        public Builder lookupTimeout(long duration, TimeUnit unit) {
+            if (duration < 0) throw new IllegalArgumentException("lookupTimeout < 0: " + duration);
+            this.lookupTimeoutMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Sets the executor used for background refreshes and bounded lookups.
+         */
+        public Builder executor(ExecutorService executor) {
+            if (executor == null) throw new NullPointerException("executor == null");
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder host(String hostname, InetAddress... addresses) {
+            if (hostname == null) throw new NullPointerException("hostname == null");
+            if (addresses.length == 0) throw new IllegalArgumentException("addresses is empty");
+            this.hosts.put(hostname.toLowerCase(Locale.US), Collections.unmodifiableList(Arrays.asList(addresses.clone())));
+            return this;
+        }
+
+        /**
+         * Adds overrides from a file in {@code /etc/hosts} format.
+         */
+        public Builder hosts(File file) throws IOException {
+            for (Map.Entry<String, List<InetAddress>> entry : parseHosts(file).entrySet()) {
+                this.hosts.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            return this;
+        }
+
+        public CachingDns build() {
+            return new CachingDns(this);
+        }
+    }
+
+}
@@ -26,22 +26,36 @@ package org.aoju.bus.http;
 import org.aoju.bus.http.internal.Internal;
 import org.aoju.bus.http.internal.connection.RealConnection;
 import org.aoju.bus.http.internal.connection.RouteDatabase;
+import org.aoju.bus.http.internal.connection.RouteException;
+import org.aoju.bus.http.internal.connection.RouteSelector;
 import org.aoju.bus.http.internal.connection.StreamAllocation;
+import org.aoju.bus.http.internal.http.RetryAndFollowUpInterceptor;
 import org.aoju.bus.http.internal.platform.Platform;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.ref.Reference;
 import java.net.Socket;
 import java.util.*;
-import java.util.concurrent.Executor;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages reuse of HTTP and HTTP/2 connections for reduced network latency. HTTP requests that
  * share the same {@link Address} may share a {@link Connection}. This class implements the policy
  * of which connections to keep open for future use.
  *
+ * <p>Connections are indexed by {@link Address}. Each address has its own lock, which also guards
+ * the {@link StreamAllocation stream allocations} for that address, so calls to different hosts
+ * don't contend with each other. Idle and total connection limits may be set per host in addition
+ * to the pool-wide idle limit.
+ *
+ * <p>An HTTP/2 connection may also carry calls to another host that resolves to the same IP
+ * address and is covered by its certificate (connection coalescing). Such a call holds its own
+ * address's lock and takes the connection's address lock as well. To keep lock acquisition
+ * ordered, calls only coalesce onto connections of addresses that were pooled before their own.
+ *
  * @author Kimi Liu
  * @version 3.0.5
  * @since JDK 1.8
@@ -58,11 +72,30 @@ public final class ConnectionPool {
             new SynchronousQueue<Runnable>(), Internal.threadFactory("HttpClient ConnectionPool", true));
     final RouteDatabase routeDatabase = new RouteDatabase();
     /**
-     * The maximum number of idle connections for each address.
+     * The maximum number of idle connections across all addresses.
      */
     private final int maxIdleConnections;
+    /**
+     * The default maximum number of idle connections for each address.
+     */
+    private final int maxIdlePerAddress;
+    /**
+     * The default maximum number of connections, in use or idle, for each address.
+     */
+    private final int maxConnectionsPerAddress;
     private final long keepAliveDurationNs;
-    private final Deque<RealConnection> connections = new ArrayDeque<>();
+    private final ConcurrentMap<Address, AddressPool> pools = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, int[]> hostLimits = new ConcurrentHashMap<>();
+    private final AtomicLong poolIds = new AtomicLong();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    /**
+     * Guarded by this, which is also the monitor the cleanup thread sleeps on.
+     */
     boolean cleanupRunning;
     private final Runnable cleanupRunnable = new Runnable() {
         @Override
@@ -94,19 +127,58 @@ public final class ConnectionPool {
     }
 
     public ConnectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit timeUnit) {
+        this(maxIdleConnections, maxIdleConnections, Integer.MAX_VALUE, keepAliveDuration, timeUnit);
+    }
+
+    /**
+     * @param maxIdleConnections       the maximum number of idle connections across all addresses.
+     * @param maxIdlePerAddress        the default maximum number of idle connections per address.
+     * @param maxConnectionsPerAddress the default maximum number of connections per address. Calls
+     *                                 that need a new connection to an address at this limit wait
+     *                                 up to their connect timeout for a connection to be released.
+     * @param keepAliveDuration        how long idle connections are kept.
+     * @param timeUnit                 the unit of {@code keepAliveDuration}.
+     */
+    public ConnectionPool(int maxIdleConnections, int maxIdlePerAddress, int maxConnectionsPerAddress,
+                          long keepAliveDuration, TimeUnit timeUnit) {
         this.maxIdleConnections = maxIdleConnections;
+        this.maxIdlePerAddress = maxIdlePerAddress;
+        this.maxConnectionsPerAddress = maxConnectionsPerAddress;
         this.keepAliveDurationNs = timeUnit.toNanos(keepAliveDuration);
 
         // Put a floor on the keep alive duration, otherwise cleanup will spin loop.
         if (keepAliveDuration <= 0) {
             throw new IllegalArgumentException("keepAliveDuration <= 0: " + keepAliveDuration);
         }
+        if (maxConnectionsPerAddress <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerAddress <= 0: " + maxConnectionsPerAddress);
+        }
     }
 
-    public synchronized int idleConnectionCount() {
+    /**
+     * Overrides the idle and total connection limits for every address whose host is {@code host}.
+     */
+    public void setHostLimits(String host, int maxIdle, int maxConnections) {
+        if (maxIdle < 0) throw new IllegalArgumentException("maxIdle < 0: " + maxIdle);
+        if (maxConnections <= 0) throw new IllegalArgumentException("maxConnections <= 0: " + maxConnections);
+        hostLimits.put(host, new int[]{maxIdle, maxConnections});
+        for (AddressPool pool : pools.values()) {
+            if (pool.address.url().host().equals(host)) {
+                synchronized (pool) {
+                    pool.maxIdle = maxIdle;
+                    pool.maxConnections = maxConnections;
+                    pool.notifyAll();
+                }
+            }
+        }
+    }
+
+    public int idleConnectionCount() {
         int total = 0;
-        for (RealConnection connection : connections) {
-            if (connection.allocations.isEmpty()) total++;
+        for (AddressPool pool : pools.values()) {
+            synchronized (pool) {
+                total += pool.idleCount();
+            }
         }
         return total;
     }
@@ -117,24 +189,203 @@ public final class ConnectionPool {
      * both active and inactive. Use {@link #idleConnectionCount()} to count connections not currently
      * in use.
      */
-    public synchronized int connectionCount() {
-        return connections.size();
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Returns the number of connections to {@code host}, in use or idle.
+     */
+    public int connectionCount(String host) {
+        int total = 0;
+        for (AddressPool pool : pools.values()) {
+            if (pool.address.url().host().equals(host)) {
+                synchronized (pool) {
+                    total += pool.connections.size();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of times a call was served by a pooled connection.
+     */
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of times a call had to open a new connection.
+     */
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of connections closed because they were idle for too long, or because
+     * there were too many idle connections.
+     */
+    public long evictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns the number of times a call waited because its address was at its connection limit.
+     */
+    public long waitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * Returns the total time calls spent waiting for an address to drop below its connection limit.
+     */
+    public long waitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    /**
+     * Opens up to {@code count} connections to {@code url}'s host so that the first calls to it
+     * don't pay for TCP and TLS handshakes. Connections are opened sequentially on the calling
+     * thread using {@code client}'s configuration, and are subject to the idle limits and keep
+     * alive duration of this pool.
+     *
+     * @return the number of connections that were opened.
+     */
+    public int prewarm(HttpClient client, String url, int count) throws IOException {
+        Request request = new Request.Builder().url(url).build();
+        Call call = client.newCall(request);
+        Address address = RetryAndFollowUpInterceptor.createAddress(client, request.url());
+        AddressPool pool = pool(address);
+        RouteSelector routeSelector = new RouteSelector(address, routeDatabase, call, EventListener.NONE);
+
+        int opened = 0;
+        IOException failure = null;
+        while (opened < count && routeSelector.hasNext()) {
+            RouteSelector.Selection selection = routeSelector.next();
+            Route route = null;
+            while (opened < count && (route != null || selection.hasNext())) {
+                if (route == null) route = selection.next();
+                synchronized (pool) {
+                    if (pool.removed) {
+                        // Pruned since we looked it up; retry this route with its replacement.
+                        pool = pool(address);
+                        continue;
+                    }
+                    if (pool.connections.size() + pool.connecting >= pool.maxConnections
+                            || pool.idleCount() >= pool.maxIdle) {
+                        return opened;
+                    }
+                    pool.connecting++;
+                }
+                RealConnection connection = new RealConnection(this, route);
+                boolean connected = false;
+                try {
+                    connection.connect(client.connectTimeoutMillis(), client.readTimeoutMillis(),
+                            client.writeTimeoutMillis(), client,
+                            client.retryOnConnectionFailure(), call, EventListener.NONE);
+                    connected = true;
+                } catch (RouteException e) {
+                    routeSelector.connectFailed(route, e.getLastConnectException());
+                    if (failure == null) failure = e.getFirstConnectException();
+                    route = null;
+                    continue;
+                } finally {
+                    if (!connected) {
+                        synchronized (pool) {
+                            connectFailed(address);
+                        }
+                    }
+                }
+                routeDatabase.connected(route);
+                synchronized (pool) {
+                    connection.idleAtNanos = System.nanoTime();
+                    put(connection);
+                }
+                opened++;
+            }
+        }
+        if (opened == 0 && failure != null) throw failure;
+        return opened;
+    }
+
+    /**
+     * Returns the lock that guards connections and stream allocations for {@code address}.
+     */
+    Object lock(Address address) {
+        return pool(address);
+    }
+
+    /**
+     * Returns the lock for {@code address} and registers {@code streamAllocation} with it, so that
+     * the address's pool is not pruned while the allocation may still use it.
+     */
+    Object lock(Address address, StreamAllocation streamAllocation) {
+        while (true) {
+            AddressPool pool = pool(address);
+            synchronized (pool) {
+                if (pool.removed) continue;
+                pool.allocations.add(streamAllocation);
+                return pool;
+            }
+        }
+    }
+
+    /**
+     * Deregisters {@code streamAllocation}, which has been released and holds no connection, from
+     * {@code lock}. Callers must hold {@code lock}.
+     */
+    void unlock(Object lock, StreamAllocation streamAllocation) {
+        AddressPool pool = (AddressPool) lock;
+        assert (Thread.holdsLock(pool));
+        pool.allocations.remove(streamAllocation);
+    }
+
+    private AddressPool pool(Address address) {
+        AddressPool pool = pools.get(address);
+        if (pool != null) return pool;
+        int[] limits = hostLimits.get(address.url().host());
+        long id = poolIds.incrementAndGet();
+        AddressPool created = limits != null
+                ? new AddressPool(id, address, limits[0], limits[1])
+                : new AddressPool(id, address, maxIdlePerAddress, maxConnectionsPerAddress);
+        pool = pools.putIfAbsent(address, created);
+        return pool != null ? pool : created;
     }
 
     RealConnection get(Address address, StreamAllocation streamAllocation, Route route) {
-        assert (Thread.holdsLock(this));
-        for (RealConnection connection : connections) {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        for (RealConnection connection : pool.connections) {
             if (connection.isEligible(address, route)) {
                 streamAllocation.acquire(connection, true);
+                hitCount.incrementAndGet();
                 return connection;
             }
         }
+        if (route == null) return null;
+
+        // With a resolved route, an HTTP/2 connection to another host may be coalesced. Only older
+        // pools are searched so that nested address locks are always taken in descending id order.
+        for (AddressPool other : pools.values()) {
+            if (other.id >= pool.id) continue;
+            synchronized (other) {
+                for (RealConnection connection : other.connections) {
+                    if (connection.isMultiplexed() && connection.isEligible(address, route)) {
+                        streamAllocation.acquire(connection, true);
+                        hitCount.incrementAndGet();
+                        return connection;
+                    }
+                }
+            }
+        }
         return null;
     }
 
     Socket deduplicate(Address address, StreamAllocation streamAllocation) {
-        assert (Thread.holdsLock(this));
-        for (RealConnection connection : connections) {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        for (RealConnection connection : pool.connections) {
             if (connection.isEligible(address, null)
                     && connection.isMultiplexed()
                     && connection != streamAllocation.connection()) {
@@ -144,36 +395,101 @@ public final class ConnectionPool {
         return null;
     }
 
+    /**
+     * Returns true if a new connection may be opened to {@code address} without exceeding its
+     * connection limit.
+     */
+    boolean hasCapacity(Address address) {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        return pool.connections.size() + pool.connecting < pool.maxConnections;
+    }
+
+    /**
+     * Waits on the address lock for up to {@code timeoutNanos} for a connection to be released or
+     * closed. Returns the remaining time.
+     */
+    long awaitCapacity(Address address, long timeoutNanos) throws InterruptedIOException {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        long start = System.nanoTime();
+        try {
+            long waitMillis = timeoutNanos / 1000000L;
+            pool.wait(waitMillis, (int) (timeoutNanos - waitMillis * 1000000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for a connection");
+        } finally {
+            long waited = System.nanoTime() - start;
+            waitCount.incrementAndGet();
+            waitNanos.addAndGet(waited);
+            timeoutNanos -= waited;
+        }
+        return timeoutNanos;
+    }
+
+    /**
+     * Reserves a slot for a connection to {@code address} that is about to be established. The
+     * reservation is released by {@link #put} or {@link #connectFailed}.
+     */
+    void connecting(Address address) {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        pool.connecting++;
+        missCount.incrementAndGet();
+    }
+
+    void connectFailed(Address address) {
+        AddressPool pool = pool(address);
+        assert (Thread.holdsLock(pool));
+        pool.connecting--;
+        pool.notifyAll();
+    }
+
     void put(RealConnection connection) {
-        assert (Thread.holdsLock(this));
-        if (!cleanupRunning) {
-            cleanupRunning = true;
-            executor.execute(cleanupRunnable);
+        AddressPool pool = pool(connection.route().address());
+        assert (Thread.holdsLock(pool));
+        pool.connections.add(connection);
+        if (pool.connecting > 0) pool.connecting--;
+        connectionCount.incrementAndGet();
+        synchronized (this) {
+            if (!cleanupRunning) {
+                cleanupRunning = true;
+                executor.execute(cleanupRunnable);
+            }
         }
-        connections.add(connection);
     }
 
     boolean connectionBecameIdle(RealConnection connection) {
-        assert (Thread.holdsLock(this));
-        if (connection.noNewStreams || maxIdleConnections == 0) {
-            connections.remove(connection);
+        AddressPool pool = pool(connection.route().address());
+        assert (Thread.holdsLock(pool));
+        pool.notifyAll(); // Awake calls waiting for capacity on this address.
+        if (connection.noNewStreams || maxIdleConnections == 0 || pool.maxIdle == 0) {
+            if (pool.connections.remove(connection)) connectionCount.decrementAndGet();
             return true;
         } else {
-            notifyAll(); // Awake the cleanup thread: we may have exceeded the idle connection limit.
+            synchronized (this) {
+                notifyAll(); // Awake the cleanup thread: we may have exceeded the idle connection limit.
+            }
             return false;
         }
     }
 
     public void evictAll() {
         List<RealConnection> evictedConnections = new ArrayList<>();
-        synchronized (this) {
-            for (Iterator<RealConnection> i = connections.iterator(); i.hasNext(); ) {
-                RealConnection connection = i.next();
-                if (connection.allocations.isEmpty()) {
-                    connection.noNewStreams = true;
-                    evictedConnections.add(connection);
-                    i.remove();
+        for (AddressPool pool : pools.values()) {
+            synchronized (pool) {
+                for (Iterator<RealConnection> i = pool.connections.iterator(); i.hasNext(); ) {
+                    RealConnection connection = i.next();
+                    if (connection.allocations.isEmpty()) {
+                        connection.noNewStreams = true;
+                        evictedConnections.add(connection);
+                        i.remove();
+                        connectionCount.decrementAndGet();
+                    }
                 }
+                pool.notifyAll();
+                prune(pool);
             }
         }
 
@@ -184,7 +500,8 @@ public final class ConnectionPool {
 
     /**
      * Performs maintenance on this pool, evicting the connection that has been idle the longest if
-     * either it has exceeded the keep alive limit or the idle connections limit.
+     * either it has exceeded the keep alive limit or the idle connections limit, either for its
+     * address or for the whole pool.
      *
      * @param now long
      * @return the duration in nanos to sleep until the next scheduled call to this method. Returns
@@ -193,52 +510,111 @@ public final class ConnectionPool {
     long cleanup(long now) {
         int inUseConnectionCount = 0;
         int idleConnectionCount = 0;
+        AddressPool longestIdlePool = null;
         RealConnection longestIdleConnection = null;
         long longestIdleDurationNs = Long.MIN_VALUE;
+        List<RealConnection> evicted = new ArrayList<>();
 
-        // Find either a connection to evict, or the time that the next eviction is due.
-        synchronized (this) {
-            for (Iterator<RealConnection> i = connections.iterator(); i.hasNext(); ) {
-                RealConnection connection = i.next();
+        // Find either a connection to evict, or the time that the next eviction is due. Each address
+        // is visited under its own lock, and connections over their address's limits are evicted
+        // right away.
+        for (AddressPool pool : pools.values()) {
+            synchronized (pool) {
+                int poolIdleCount = 0;
+                RealConnection poolLongestIdle = null;
+                long poolLongestIdleNs = Long.MIN_VALUE;
+                for (RealConnection connection : pool.connections) {
+                    // If the connection is in use, keep searching.
+                    if (pruneAndGetAllocationCount(connection, now) > 0) {
+                        inUseConnectionCount++;
+                        continue;
+                    }
+
+                    poolIdleCount++;
+                    long idleDurationNs = now - connection.idleAtNanos;
+                    if (idleDurationNs > poolLongestIdleNs) {
+                        poolLongestIdleNs = idleDurationNs;
+                        poolLongestIdle = connection;
+                    }
+                }
 
-                // If the connection is in use, keep searching.
-                if (pruneAndGetAllocationCount(connection, now) > 0) {
-                    inUseConnectionCount++;
+                if (poolLongestIdle != null && (poolLongestIdleNs >= keepAliveDurationNs
+                        || poolIdleCount > pool.maxIdle)) {
+                    pool.connections.remove(poolLongestIdle);
+                    connectionCount.decrementAndGet();
+                    pool.notifyAll();
+                    evicted.add(poolLongestIdle);
+                    poolIdleCount--;
                     continue;
                 }
 
-                idleConnectionCount++;
+                if (prune(pool)) continue;
 
-                // If the connection is ready to be evicted, we're done.
-                long idleDurationNs = now - connection.idleAtNanos;
-                if (idleDurationNs > longestIdleDurationNs) {
-                    longestIdleDurationNs = idleDurationNs;
-                    longestIdleConnection = connection;
+                idleConnectionCount += poolIdleCount;
+                if (poolLongestIdleNs > longestIdleDurationNs) {
+                    longestIdleDurationNs = poolLongestIdleNs;
+                    longestIdleConnection = poolLongestIdle;
+                    longestIdlePool = pool;
                 }
             }
+        }
+
+        if (evicted.isEmpty() && idleConnectionCount > this.maxIdleConnections) {
+            // We've exceeded the pool-wide idle limit. Evict the longest idle connection if it is
+            // still idle now that we hold its address lock again.
+            synchronized (longestIdlePool) {
+                if (longestIdleConnection.allocations.isEmpty()
+                        && longestIdlePool.connections.remove(longestIdleConnection)) {
+                    connectionCount.decrementAndGet();
+                    longestIdlePool.notifyAll();
+                    evicted.add(longestIdleConnection);
+                }
+            }
+        }
 
-            if (longestIdleDurationNs >= this.keepAliveDurationNs
-                    || idleConnectionCount > this.maxIdleConnections) {
-                // We've found a connection to evict. Remove it from the list, then close it below (outside
-                // of the synchronized block).
-                connections.remove(longestIdleConnection);
-            } else if (idleConnectionCount > 0) {
-                // A connection will be ready to evict soon.
-                return keepAliveDurationNs - longestIdleDurationNs;
-            } else if (inUseConnectionCount > 0) {
-                // All connections are in use. It'll be at least the keep alive duration 'til we run again.
-                return keepAliveDurationNs;
-            } else {
-                // No connections, idle or in use.
-                cleanupRunning = false;
-                return -1;
+        if (!evicted.isEmpty()) {
+            evictionCount.addAndGet(evicted.size());
+            for (RealConnection connection : evicted) {
+                Internal.closeQuietly(connection.socket());
             }
+            // Cleanup again immediately.
+            return 0;
         }
 
-        Internal.closeQuietly(longestIdleConnection.socket());
+        if (idleConnectionCount > 0) {
+            // A connection will be ready to evict soon.
+            return keepAliveDurationNs - longestIdleDurationNs;
+        } else if (inUseConnectionCount > 0) {
+            // All connections are in use. It'll be at least the keep alive duration 'til we run again.
+            return keepAliveDurationNs;
+        }
+        synchronized (this) {
+            if (connectionCount.get() > 0) {
+                // A connection was added since we looked.
+                return 0;
+            }
+            // No connections, idle or in use.
+            cleanupRunning = false;
+            return -1;
+        }
+    }
 
-        // Cleanup again immediately.
-        return 0;
+    /**
+     * Removes {@code pool} from this connection pool if it has no connections, no connections being
+     * established and no live stream allocations. Allocations deregister when they are released and
+     * leaked ones are dropped once collected. Its lock may still be held by such allocations, so it is
+     * marked removed and a later lookup of its address creates a new pool.
+     *
+     * @return true if the pool was removed.
+     */
+    private boolean prune(AddressPool pool) {
+        assert (Thread.holdsLock(pool));
+        if (!pool.connections.isEmpty() || pool.connecting > 0 || !pool.allocations.isEmpty()) {
+            return false;
+        }
+        pool.removed = true;
+        pools.remove(pool.address, pool);
+        return true;
     }
 
     private int pruneAndGetAllocationCount(RealConnection connection, long now) {
@@ -270,4 +646,47 @@ public final class ConnectionPool {
         return references.size();
     }
 
+    /**
+     * The connections to a single address. Instances are also the lock for that address.
+     */
+    static final class AddressPool {
+        /**
+         * Increases with creation order; nested address locks are taken in descending id order.
+         */
+        final long id;
+        final Address address;
+        final Deque<RealConnection> connections = new ArrayDeque<>();
+        /**
+         * Connections being established that count against {@link #maxConnections}.
+         */
+        int connecting;
+        /**
+         * Stream allocations that use this pool as their lock. They are removed when released, and
+         * weakly held so that leaked allocations don't pin the pool.
+         */
+        final Set<StreamAllocation> allocations =
+                Collections.newSetFromMap(new WeakHashMap<StreamAllocation, Boolean>());
+        /**
+         * True once this pool has been removed from {@link ConnectionPool#pools}.
+         */
+        boolean removed;
+        int maxIdle;
+        int maxConnections;
+
+        AddressPool(long id, Address address, int maxIdle, int maxConnections) {
+            this.id = id;
+            this.address = address;
+            this.maxIdle = maxIdle;
+            this.maxConnections = maxConnections;
+        }
+
+        int idleCount() {
+            int total = 0;
+            for (RealConnection connection : connections) {
+                if (connection.allocations.isEmpty()) total++;
+            }
+            return total;
+        }
+    }
+
 }
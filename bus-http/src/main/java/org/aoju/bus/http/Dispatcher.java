@@ -25,6 +25,7 @@ package org.aoju.bus.http;
 
 import org.aoju.bus.http.internal.Internal;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
@@ -38,6 +39,12 @@ import java.util.concurrent.TimeUnit;
  * own executor, it should be able to run {@linkplain #getMaxRequests the configured maximum} number
  * of calls concurrently.
  *
+ * <p>Ready calls are queued per host. When capacity frees up, calls are promoted from the hosts
+ * that are below {@linkplain #getMaxRequestsPerHost their limit} in round-robin order, so a host
+ * with a deep backlog can't starve the others, and promoting a call takes constant time regardless
+ * of how many calls are queued. The number of queued calls may be bounded with {@link
+ * #setMaxQueuedCalls}; calls enqueued beyond it fail immediately.
+ *
  * @author Kimi Liu
  * @version 3.0.5
  * @since JDK 1.8
@@ -45,25 +52,37 @@ import java.util.concurrent.TimeUnit;
 public final class Dispatcher {
 
     /**
-     * Ready async calls in the order they'll be run.
+     * Ready async calls and running async calls, by host.
+     */
+    private final Map<String, HostCalls> hosts = new HashMap<>();
+    /**
+     * Hosts with ready calls that are below their limit, in the order they'll be served.
      */
-    private final Deque<RealCall.AsyncCall> readyAsyncCalls = new ArrayDeque<>();
+    private final Deque<HostCalls> readyHosts = new ArrayDeque<>();
     /**
      * Running asynchronous calls. Includes canceled calls that haven't finished yet.
      */
-    private final Deque<RealCall.AsyncCall> runningAsyncCalls = new ArrayDeque<>();
+    private final Set<RealCall.AsyncCall> runningAsyncCalls = new LinkedHashSet<>();
     /**
      * Running synchronous calls. Includes canceled calls that haven't finished yet.
      */
     private final Deque<RealCall> runningSyncCalls = new ArrayDeque<>();
     private int maxRequests = 64;
     private int maxRequestsPerHost = 5;
+    private int maxQueuedCalls = Integer.MAX_VALUE;
     private Runnable idleCallback;
     /**
      * Executes calls. Created lazily.
      */
     private ExecutorService executorService;
 
+    /* statistics, all guarded by 'this' */
+    private int queuedCallsCount;
+    private long promotedCount;
+    private long rejectedCount;
+    private long waitTimeNanos;
+    private long maxWaitTimeNanos;
+
     public Dispatcher(ExecutorService executorService) {
         this.executorService = executorService;
     }
@@ -103,24 +122,65 @@ public final class Dispatcher {
         }
         synchronized (this) {
             this.maxRequestsPerHost = maxRequestsPerHost;
+            for (HostCalls hostCalls : hosts.values()) {
+                scheduleIfReady(hostCalls);
+            }
         }
         promoteAndExecute();
     }
 
+    public synchronized int getMaxQueuedCalls() {
+        return maxQueuedCalls;
+    }
+
+    /**
+     * Sets the maximum number of async calls waiting to run. Calls enqueued while the queue is full
+     * fail with an {@link IOException} without being sent. Calls already queued are kept. The
+     * default is unbounded.
+     *
+     * @param maxQueuedCalls the maximum number of queued calls
+     */
+    public synchronized void setMaxQueuedCalls(int maxQueuedCalls) {
+        if (maxQueuedCalls < 0) {
+            throw new IllegalArgumentException("max < 0: " + maxQueuedCalls);
+        }
+        this.maxQueuedCalls = maxQueuedCalls;
+    }
+
     public synchronized void setIdleCallback(Runnable idleCallback) {
         this.idleCallback = idleCallback;
     }
 
     void enqueue(RealCall.AsyncCall call) {
+        boolean rejected;
         synchronized (this) {
-            readyAsyncCalls.add(call);
+            rejected = queuedCallsCount >= maxQueuedCalls;
+            if (rejected) {
+                rejectedCount++;
+            } else {
+                HostCalls hostCalls = hosts.get(call.host());
+                if (hostCalls == null) {
+                    hostCalls = new HostCalls();
+                    hosts.put(call.host(), hostCalls);
+                }
+                call.enqueuedAtNanos = System.nanoTime();
+                hostCalls.ready.add(call);
+                queuedCallsCount++;
+                scheduleIfReady(hostCalls);
+            }
+        }
+        if (rejected) {
+            call.rejected(new IOException("dispatcher rejected: " + maxQueuedCalls + " calls queued"));
+            return;
         }
         promoteAndExecute();
     }
 
     public synchronized void cancelAll() {
-        for (RealCall.AsyncCall call : readyAsyncCalls) {
-            call.get().cancel();
+        for (HostCalls hostCalls : hosts.values()) {
+            for (RealCall.AsyncCall call : hostCalls.ready) {
+                call.get().cancel();
+            }
         }
 
         for (RealCall.AsyncCall call : runningAsyncCalls) {
@@ -138,15 +198,31 @@ public final class Dispatcher {
         List<RealCall.AsyncCall> executableCalls = new ArrayList<>();
         boolean isRunning;
         synchronized (this) {
-            for (Iterator<RealCall.AsyncCall> i = readyAsyncCalls.iterator(); i.hasNext(); ) {
-                RealCall.AsyncCall asyncCall = i.next();
-
-                if (runningAsyncCalls.size() >= maxRequests) break; // Max capacity.
-                if (runningCallsForHost(asyncCall) >= maxRequestsPerHost) continue; // Host max capacity.
-
-                i.remove();
+            long now = System.nanoTime();
+            while (runningAsyncCalls.size() < maxRequests && !readyHosts.isEmpty()) {
+                HostCalls hostCalls = readyHosts.poll();
+                hostCalls.scheduled = false;
+                // The per-host limit may have been lowered since this host was scheduled. It is
+                // scheduled again when one of its running calls finishes.
+                if (!mayRun(hostCalls)) continue;
+
+                RealCall.AsyncCall asyncCall = hostCalls.ready.poll();
+                queuedCallsCount--;
+                if (asyncCall.get().forWebSocket) {
+                    hostCalls.webSockets++;
+                } else {
+                    hostCalls.running++;
+                }
                 executableCalls.add(asyncCall);
                 runningAsyncCalls.add(asyncCall);
+
+                long waitTime = now - asyncCall.enqueuedAtNanos;
+                promotedCount++;
+                waitTimeNanos += waitTime;
+                maxWaitTimeNanos = Math.max(maxWaitTimeNanos, waitTime);
+
+                // Go to the back of the line so other hosts get their turn.
+                scheduleIfReady(hostCalls);
             }
             isRunning = runningCallsCount() > 0;
         }
@@ -159,13 +235,21 @@ public final class Dispatcher {
         return isRunning;
     }
 
-    private int runningCallsForHost(RealCall.AsyncCall call) {
-        int result = 0;
-        for (RealCall.AsyncCall c : runningAsyncCalls) {
-            if (c.get().forWebSocket) continue;
-            if (c.host().equals(call.host())) result++;
-        }
-        return result;
+    /**
+     * Adds {@code hostCalls} to the ready hosts if it has a call that may run now.
+     */
+    private void scheduleIfReady(HostCalls hostCalls) {
+        if (hostCalls.scheduled || hostCalls.ready.isEmpty() || !mayRun(hostCalls)) return;
+        hostCalls.scheduled = true;
+        readyHosts.add(hostCalls);
+    }
+
+    /**
+     * Returns true if the next ready call of {@code hostCalls} is within the per-host limit.
+     * Web socket calls are long-lived and don't count against it.
+     */
+    private boolean mayRun(HostCalls hostCalls) {
+        return hostCalls.running < maxRequestsPerHost || hostCalls.ready.peek().get().forWebSocket;
     }
 
     synchronized void executed(RealCall call) {
@@ -173,20 +257,35 @@ public final class Dispatcher {
     }
 
     void finished(RealCall.AsyncCall call) {
-        finished(runningAsyncCalls, call);
+        Runnable idleCallback;
+        synchronized (this) {
+            if (!runningAsyncCalls.remove(call)) throw new AssertionError("Call wasn't in-flight!");
+            HostCalls hostCalls = hosts.get(call.host());
+            if (call.get().forWebSocket) {
+                hostCalls.webSockets--;
+            } else {
+                hostCalls.running--;
+            }
+            if (hostCalls.running == 0 && hostCalls.webSockets == 0 && hostCalls.ready.isEmpty()) {
+                hosts.remove(call.host());
+            } else {
+                scheduleIfReady(hostCalls);
+            }
+            idleCallback = this.idleCallback;
+        }
+        finished(idleCallback);
     }
 
     void finished(RealCall call) {
-        finished(runningSyncCalls, call);
-    }
-
-    private <T> void finished(Deque<T> calls, T call) {
         Runnable idleCallback;
         synchronized (this) {
-            if (!calls.remove(call)) throw new AssertionError("Call wasn't in-flight!");
+            if (!runningSyncCalls.remove(call)) throw new AssertionError("Call wasn't in-flight!");
             idleCallback = this.idleCallback;
         }
+        finished(idleCallback);
+    }
 
+    private void finished(Runnable idleCallback) {
         boolean isRunning = promoteAndExecute();
 
         if (!isRunning && idleCallback != null) {
@@ -196,8 +295,10 @@ public final class Dispatcher {
 
     public synchronized List<Call> queuedCalls() {
         List<Call> result = new ArrayList<>();
-        for (RealCall.AsyncCall asyncCall : readyAsyncCalls) {
-            result.add(asyncCall.get());
+        for (HostCalls hostCalls : hosts.values()) {
+            for (RealCall.AsyncCall asyncCall : hostCalls.ready) {
+                result.add(asyncCall.get());
+            }
         }
         return Collections.unmodifiableList(result);
     }
@@ -212,10 +313,72 @@ public final class Dispatcher {
     }
 
     public synchronized int queuedCallsCount() {
-        return readyAsyncCalls.size();
+        return queuedCallsCount;
     }
 
     public synchronized int runningCallsCount() {
         return runningAsyncCalls.size() + runningSyncCalls.size();
     }
+
+    /**
+     * @param host the host name
+     * @return the number of async calls to {@code host} waiting to run
+     */
+    public synchronized int queuedCallsCount(String host) {
+        HostCalls hostCalls = hosts.get(host);
+        return hostCalls != null ? hostCalls.ready.size() : 0;
+    }
+
+    /**
+     * @param host the host name
+     * @return the number of running async calls to {@code host}, excluding web sockets
+     */
+    public synchronized int runningCallsCount(String host) {
+        HostCalls hostCalls = hosts.get(host);
+        return hostCalls != null ? hostCalls.running : 0;
+    }
+
+    /**
+     * @return the number of async calls that have left the queue to run
+     */
+    public synchronized long promotedCount() {
+        return promotedCount;
+    }
+
+    /**
+     * @return the number of async calls that failed because the queue was full
+     */
+    public synchronized long rejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return the total time async calls spent queued, in milliseconds
+     */
+    public synchronized long waitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos);
+    }
+
+    /**
+     * @return the longest time an async call spent queued, in milliseconds
+     */
+    public synchronized long maxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos);
+    }
+
+    /**
+     * The async calls of a single host.
+     */
+    private static final class HostCalls {
+        final Deque<RealCall.AsyncCall> ready = new ArrayDeque<>();
+        /**
+         * Running calls, excluding web sockets which don't count towards the host's limit.
+         */
+        int running;
+        int webSockets;
+        /**
+         * True if this is in {@link #readyHosts}.
+         */
+        boolean scheduled;
+    }
 }
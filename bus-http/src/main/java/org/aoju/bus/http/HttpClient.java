@@ -28,6 +28,7 @@ import org.aoju.bus.http.internal.cache.InternalCache;
 import org.aoju.bus.http.internal.connection.RealConnection;
 import org.aoju.bus.http.internal.connection.RouteDatabase;
 import org.aoju.bus.http.internal.connection.StreamAllocation;
+import org.aoju.bus.http.internal.http.HedgingInterceptor;
 import org.aoju.bus.http.internal.platform.Platform;
 import org.aoju.bus.http.internal.proxy.NullProxySelector;
 import org.aoju.bus.http.internal.tls.CertificateChainCleaner;
@@ -37,6 +38,7 @@ import org.aoju.bus.http.internal.ws.RealWebSocket;
 import javax.net.SocketFactory;
 import javax.net.ssl.*;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.Proxy;
 import java.net.ProxySelector;
 import java.net.Socket;
@@ -182,6 +184,42 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
                 return connectionPool.routeDatabase;
             }
 
+            @Override
+            public Object lock(ConnectionPool pool, Address address) {
+                return pool.lock(address);
+            }
+
+            @Override
+            public Object lock(ConnectionPool pool, Address address, StreamAllocation streamAllocation) {
+                return pool.lock(address, streamAllocation);
+            }
+
+            @Override
+            public void unlock(ConnectionPool pool, Object lock, StreamAllocation streamAllocation) {
+                pool.unlock(lock, streamAllocation);
+            }
+
+            @Override
+            public boolean hasCapacity(ConnectionPool pool, Address address) {
+                return pool.hasCapacity(address);
+            }
+
+            @Override
+            public long awaitCapacity(ConnectionPool pool, Address address, long timeoutNanos)
+                    throws InterruptedIOException {
+                return pool.awaitCapacity(address, timeoutNanos);
+            }
+
+            @Override
+            public void connecting(ConnectionPool pool, Address address) {
+                pool.connecting(address);
+            }
+
+            @Override
+            public void connectFailed(ConnectionPool pool, Address address) {
+                pool.connectFailed(address);
+            }
+
             @Override
             public int code(Response.Builder responseBuilder) {
                 return responseBuilder.code;
@@ -202,6 +240,11 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
                 return ((RealCall) call).streamAllocation();
             }
 
+            @Override
+            public void abandon(Call call) {
+                ((RealCall) call).retryAndFollowUpInterceptor.abandon();
+            }
+
             @Override
             public IOException timeoutExit(Call call, IOException e) {
                 return ((RealCall) call).timeoutExit(e);
@@ -242,6 +285,19 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
     final int readTimeout;
     final int writeTimeout;
     final int pingInterval;
+    final boolean webSocketCompression;
+    final boolean webSocketNoContextTakeover;
+    final int webSocketServerMaxWindowBits;
+    final long minWebSocketMessageToCompress;
+    final int http2ConnectionWindowSize;
+    final int http2StreamWindowSize;
+    final int http2MaxConcurrentStreams;
+    final boolean http2AdaptiveWindow;
+    final boolean fastFallback;
+    final int connectionAttemptDelay;
+    final double hedgePercentile;
+    final RetryBudget retryBudget;
+    final HedgingInterceptor hedgingInterceptor;
 
     public HttpClient() {
         this(new Builder());
@@ -294,6 +350,19 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
         this.readTimeout = builder.readTimeout;
         this.writeTimeout = builder.writeTimeout;
         this.pingInterval = builder.pingInterval;
+        this.webSocketCompression = builder.webSocketCompression;
+        this.webSocketNoContextTakeover = builder.webSocketNoContextTakeover;
+        this.webSocketServerMaxWindowBits = builder.webSocketServerMaxWindowBits;
+        this.minWebSocketMessageToCompress = builder.minWebSocketMessageToCompress;
+        this.http2ConnectionWindowSize = builder.http2ConnectionWindowSize;
+        this.http2StreamWindowSize = builder.http2StreamWindowSize;
+        this.http2MaxConcurrentStreams = builder.http2MaxConcurrentStreams;
+        this.http2AdaptiveWindow = builder.http2AdaptiveWindow;
+        this.fastFallback = builder.fastFallback;
+        this.connectionAttemptDelay = builder.connectionAttemptDelay;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.retryBudget = builder.retryBudget;
+        this.hedgingInterceptor = hedgePercentile > 0 ? new HedgingInterceptor(this, hedgePercentile) : null;
 
         if (interceptors.contains(null)) {
             throw new IllegalStateException("Null interceptor: " + interceptors);
@@ -333,6 +402,77 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
         return pingInterval;
     }
 
+    public boolean webSocketCompression() {
+        return webSocketCompression;
+    }
+
+    public boolean webSocketNoContextTakeover() {
+        return webSocketNoContextTakeover;
+    }
+
+    /**
+     * @return the {@code server_max_window_bits} offered to web socket servers, or -1 to let the
+     * server choose
+     */
+    public int webSocketServerMaxWindowBits() {
+        return webSocketServerMaxWindowBits;
+    }
+
+    public long minWebSocketMessageToCompress() {
+        return minWebSocketMessageToCompress;
+    }
+
+    public int http2ConnectionWindowSize() {
+        return http2ConnectionWindowSize;
+    }
+
+    public int http2StreamWindowSize() {
+        return http2StreamWindowSize;
+    }
+
+    public int http2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public boolean http2AdaptiveWindow() {
+        return http2AdaptiveWindow;
+    }
+
+    public boolean fastFallback() {
+        return fastFallback;
+    }
+
+    public int connectionAttemptDelayMillis() {
+        return connectionAttemptDelay;
+    }
+
+    /**
+     * @return the latency percentile after which idempotent requests are hedged, or 0 if hedging
+     * is disabled
+     */
+    public double hedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public RetryBudget retryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * Returns the rolling latency histogram used to hedge requests to {@code host}, or null if
+     * hedging is disabled.
+     *
+     * @param host the host name
+     * @return the histogram
+     */
+    public LatencyHistogram latencyHistogram(String host) {
+        return hedgingInterceptor != null ? hedgingInterceptor.histogram(host) : null;
+    }
+
+    HedgingInterceptor hedgingInterceptor() {
+        return hedgingInterceptor;
+    }
+
     public Proxy proxy() {
         return proxy;
     }
@@ -466,6 +606,18 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
         int readTimeout;
         int writeTimeout;
         int pingInterval;
+        boolean webSocketCompression;
+        boolean webSocketNoContextTakeover;
+        int webSocketServerMaxWindowBits;
+        long minWebSocketMessageToCompress;
+        int http2ConnectionWindowSize;
+        int http2StreamWindowSize;
+        int http2MaxConcurrentStreams;
+        boolean http2AdaptiveWindow;
+        boolean fastFallback;
+        int connectionAttemptDelay;
+        double hedgePercentile;
+        RetryBudget retryBudget;
 
         public Builder() {
             dispatcher = new Dispatcher();
@@ -492,6 +644,16 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
             readTimeout = 30_000;
             writeTimeout = 30_000;
             pingInterval = 0;
+            webSocketCompression = false;
+            webSocketNoContextTakeover = false;
+            webSocketServerMaxWindowBits = -1;
+            minWebSocketMessageToCompress = 1024;
+            http2ConnectionWindowSize = 16 * 1024 * 1024;
+            http2StreamWindowSize = 16 * 1024 * 1024;
+            http2MaxConcurrentStreams = Integer.MAX_VALUE;
+            http2AdaptiveWindow = false;
+            fastFallback = false;
+            connectionAttemptDelay = 250;
         }
 
         Builder(HttpClient httpClient) {
@@ -523,6 +685,18 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
             this.readTimeout = httpClient.readTimeout;
             this.writeTimeout = httpClient.writeTimeout;
             this.pingInterval = httpClient.pingInterval;
+            this.webSocketCompression = httpClient.webSocketCompression;
+            this.webSocketNoContextTakeover = httpClient.webSocketNoContextTakeover;
+            this.webSocketServerMaxWindowBits = httpClient.webSocketServerMaxWindowBits;
+            this.minWebSocketMessageToCompress = httpClient.minWebSocketMessageToCompress;
+            this.http2ConnectionWindowSize = httpClient.http2ConnectionWindowSize;
+            this.http2StreamWindowSize = httpClient.http2StreamWindowSize;
+            this.http2MaxConcurrentStreams = httpClient.http2MaxConcurrentStreams;
+            this.http2AdaptiveWindow = httpClient.http2AdaptiveWindow;
+            this.fastFallback = httpClient.fastFallback;
+            this.connectionAttemptDelay = httpClient.connectionAttemptDelay;
+            this.hedgePercentile = httpClient.hedgePercentile;
+            this.retryBudget = httpClient.retryBudget;
         }
 
 
@@ -576,6 +750,127 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
             return this;
         }
 
+        /**
+         * Configure this client to offer the {@code permessage-deflate} extension (RFC 7692) when
+         * opening web sockets. If the server accepts it, messages larger than {@link
+         * #minWebSocketMessageToCompress} are compressed. Requests that already carry a {@code
+         * Sec-WebSocket-Extensions} header are sent as-is.
+         *
+         * <p>This is disabled by default.
+         *
+         * @param webSocketCompression true to offer compression
+         * @return the builder
+         */
+        public Builder webSocketCompression(boolean webSocketCompression) {
+            this.webSocketCompression = webSocketCompression;
+            return this;
+        }
+
+        /**
+         * Configure whether the compression context is reset after every web socket message. This
+         * trades compression ratio for memory: with {@code true} neither peer retains a 32 KiB
+         * sliding window between messages. Both the client and the server are asked to reset
+         * their context.
+         *
+         * @param noContextTakeover true to reset the context after every message
+         * @return the builder
+         */
+        public Builder webSocketNoContextTakeover(boolean noContextTakeover) {
+            this.webSocketNoContextTakeover = noContextTakeover;
+            return this;
+        }
+
+        /**
+         * Sets the {@code server_max_window_bits} parameter offered to web socket servers. Smaller
+         * windows use less memory on the server at the cost of compression ratio.
+         *
+         * @param bits the base-2 logarithm of the window size in [8, 15], or -1 to not offer one
+         * @return the builder
+         */
+        public Builder webSocketServerMaxWindowBits(int bits) {
+            if (bits != -1 && (bits < 8 || bits > 15)) {
+                throw new IllegalArgumentException("bits < 8 || bits > 15: " + bits);
+            }
+            this.webSocketServerMaxWindowBits = bits;
+            return this;
+        }
+
+        /**
+         * Sets the smallest web socket message that is compressed. Small messages often grow when
+         * deflated and aren't worth the CPU. The default is 1024 bytes.
+         *
+         * @param bytes the minimum message size in bytes
+         * @return the builder
+         */
+        public Builder minWebSocketMessageToCompress(long bytes) {
+            if (bytes < 0) throw new IllegalArgumentException("bytes < 0: " + bytes);
+            this.minWebSocketMessageToCompress = bytes;
+            return this;
+        }
+
+        /**
+         * Sets the receive window shared by all streams of an HTTP/2 connection. A window at least
+         * as large as the sum of the stream windows of the streams you expect to run concurrently
+         * prevents one slowly-read response from stalling the others. The default is 16 MiB.
+         *
+         * @param bytes the window size, at least 65535 bytes
+         * @return the builder
+         */
+        public Builder http2ConnectionWindowSize(int bytes) {
+            if (bytes < 65535) throw new IllegalArgumentException("bytes < 65535: " + bytes);
+            this.http2ConnectionWindowSize = bytes;
+            return this;
+        }
+
+        /**
+         * Sets the initial receive window of each HTTP/2 stream. This bounds how much of a
+         * response the server may send ahead of the application reading it. The default is 16 MiB.
+         *
+         * @param bytes the window size
+         * @return the builder
+         */
+        public Builder http2StreamWindowSize(int bytes) {
+            if (bytes <= 0) throw new IllegalArgumentException("bytes <= 0: " + bytes);
+            this.http2StreamWindowSize = bytes;
+            return this;
+        }
+
+        /**
+         * Sets the most streams this client carries on one HTTP/2 connection. The lower of this and
+         * the server's {@code SETTINGS_MAX_CONCURRENT_STREAMS} applies. Once every connection to a
+         * host is full, calls open another connection, subject to the connection pool's per-address
+         * limit. Lowering this spreads concurrent calls over several connections so that a bulk
+         * transfer doesn't share a congestion window with latency-sensitive calls.
+         *
+         * <p>By default there is no limit beyond the server's.
+         *
+         * @param maxConcurrentStreams the maximum streams per connection
+         * @return the builder
+         */
+        public Builder http2MaxConcurrentStreams(int maxConcurrentStreams) {
+            if (maxConcurrentStreams <= 0) {
+                throw new IllegalArgumentException("maxConcurrentStreams <= 0: " + maxConcurrentStreams);
+            }
+            this.http2MaxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * Configure whether HTTP/2 receive windows grow to fit the network. While data is
+         * arriving, the client measures how much arrives per ping round trip and, if that nearly
+         * fills the stream window, doubles the window up to 16 MiB. Combine this with a small
+         * {@link #http2StreamWindowSize} so that windows start small and only grow on fast links.
+         *
+         * <p>This is disabled by default.
+         *
+         * @param adaptiveWindow true to grow windows to the bandwidth-delay product
+         * @return the builder
+         */
+        public Builder http2AdaptiveWindow(boolean adaptiveWindow) {
+            this.http2AdaptiveWindow = adaptiveWindow;
+            return this;
+        }
+
         public Builder proxy(Proxy proxy) {
             this.proxy = proxy;
             return this;
@@ -677,6 +972,67 @@ public class HttpClient implements Cloneable, Call.Factory, WebSocket.Factory {
             return this;
         }
 
+        /**
+         * Configure this client to race connections to the resolved addresses of a host, as
+         * described by <a href="https://tools.ietf.org/html/rfc8305">RFC 8305</a>. When enabled, a
+         * connection attempt to the next address starts if the previous one hasn't completed
+         * within {@link #connectionAttemptDelay}, and the first to connect is used. Addresses are
+         * interleaved by family so an unreachable IPv6 network doesn't delay IPv4.
+         *
+         * <p>This is disabled by default, in which case addresses are tried one after another.
+         */
+        public Builder fastFallback(boolean fastFallback) {
+            this.fastFallback = fastFallback;
+            return this;
+        }
+
+        /**
+         * Sets the delay between starting concurrent connection attempts when {@link
+         * #fastFallback} is enabled. The default is 250 milliseconds.
+         */
+        public Builder connectionAttemptDelay(long delay, TimeUnit unit) {
+            connectionAttemptDelay = Internal.checkDuration("delay", delay, unit);
+            return this;
+        }
+
+        public Builder connectionAttemptDelay(Duration duration) {
+            connectionAttemptDelay = Internal.checkDuration("delay", duration.toMillis(), TimeUnit.MILLISECONDS);
+            return this;
+        }
+
+        /**
+         * Configure this client to hedge idempotent {@code GET} and {@code HEAD} requests. If a
+         * request hasn't received response headers within {@code percentile} of the recent
+         * latencies to its host, a second attempt is sent and the first response is used. Hosts
+         * are only hedged once enough latencies have been recorded for them. Combine this with a
+         * {@link #retryBudget} to bound the extra load.
+         *
+         * <p>This is disabled by default. Pass 0 to disable it.
+         *
+         * @param percentile the latency percentile in (0, 1), for example {@code 0.95}
+         * @return the builder
+         */
+        public Builder hedging(double percentile) {
+            if (percentile < 0 || percentile >= 1) {
+                throw new IllegalArgumentException("percentile < 0 || percentile >= 1: " + percentile);
+            }
+            this.hedgePercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the budget that hedged requests and retries after connection failures draw from.
+         * By default there is no budget and retries are limited only by {@link
+         * #retryOnConnectionFailure}.
+         *
+         * @param retryBudget the budget, or null for none
+         * @return the builder
+         */
+        public Builder retryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return this;
+        }
+
         public Builder dispatcher(Dispatcher dispatcher) {
             if (dispatcher == null) throw new IllegalArgumentException("dispatcher == null");
             this.dispatcher = dispatcher;
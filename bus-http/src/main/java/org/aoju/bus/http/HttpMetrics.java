@@ -0,0 +1,451 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link EventListener.Factory} that records the latency of every phase of a call, per host.
+ * Install it on a client and read the results with {@link #snapshot()}: <pre>   {@code
+ *
+ *   HttpMetrics metrics = new HttpMetrics();
+ *   HttpClient client = new HttpClient.Builder()
+ *       .eventListenerFactory(metrics)
+ *       .build();
+ *   ...
+ *   HttpMetrics.Snapshot snapshot = metrics.snapshot().get("publicobject.com");
+ *   long p99 = snapshot.getCall().getP99Micros();
+ * }</pre>
+ *
+ * <p>For each host this tracks {@linkplain LatencyHistogram histograms} of DNS lookups, connects,
+ * TLS handshakes, time to first byte (from sending the request headers until the response headers
+ * have been read) and whole calls, plus counts of new and reused connections and of request and
+ * response body bytes. Histograms cover a rolling window, counters are totals.
+ *
+ * <p>At most {@link #DEFAULT_MAX_HOSTS} hosts are tracked unless another bound is given. When a new
+ * host would exceed it, the host that was called least recently is forgotten, so a long-running
+ * client that talks to many hosts doesn't accumulate metrics without limit.
+ *
+ * <p>Recording allocates one small listener per call and takes no lock shared between hosts, so the
+ * listener is cheap enough to leave enabled. The metrics may also be published over JMX with
+ * {@link #registerMBean}.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class HttpMetrics implements EventListener.Factory, HttpMetricsMXBean {
+
+    public static final int DEFAULT_MAX_HOSTS = 1024;
+
+    private final long window;
+    private final TimeUnit unit;
+    private final int maxHosts;
+    private final ConcurrentMap<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates metrics whose histograms cover the last one to two minutes.
+     */
+    public HttpMetrics() {
+        this(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param window the rolling window of the histograms
+     * @param unit   the unit of {@code window}
+     */
+    public HttpMetrics(long window, TimeUnit unit) {
+        this(window, unit, DEFAULT_MAX_HOSTS);
+    }
+
+    /**
+     * @param window   the rolling window of the histograms
+     * @param unit     the unit of {@code window}
+     * @param maxHosts the number of hosts to keep metrics for
+     */
+    public HttpMetrics(long window, TimeUnit unit, int maxHosts) {
+        if (window <= 0) throw new IllegalArgumentException("window <= 0: " + window);
+        if (maxHosts < 1) throw new IllegalArgumentException("maxHosts < 1: " + maxHosts);
+        this.window = window;
+        this.unit = unit;
+        this.maxHosts = maxHosts;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallMetrics(host(call.request().url().host()));
+    }
+
+    private HostMetrics host(String host) {
+        HostMetrics result = hosts.get(host);
+        if (result == null) {
+            result = new HostMetrics();
+            HostMetrics existing = hosts.putIfAbsent(host, result);
+            if (existing != null) {
+                result = existing;
+            } else if (hosts.size() > maxHosts) {
+                evictLeastRecentlyUsed(result);
+            }
+        }
+        result.lastUsedNanos = System.nanoTime();
+        return result;
+    }
+
+    /**
+     * Forgets the host that was called least recently, other than {@code keep}. Concurrent
+     * evictions may briefly leave the map a few entries above or below the bound.
+     */
+    private void evictLeastRecentlyUsed(HostMetrics keep) {
+        long now = System.nanoTime();
+        Map.Entry<String, HostMetrics> eldest = null;
+        for (Map.Entry<String, HostMetrics> entry : hosts.entrySet()) {
+            HostMetrics candidate = entry.getValue();
+            if (candidate == keep) continue;
+            if (eldest == null || now - candidate.lastUsedNanos > now - eldest.getValue().lastUsedNanos) {
+                eldest = entry;
+            }
+        }
+        if (eldest != null) hosts.remove(eldest.getKey(), eldest.getValue());
+    }
+
+    /**
+     * Returns the current metrics of every host that has been called.
+     *
+     * @return snapshots by host name
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        for (Map.Entry<String, HostMetrics> entry : hosts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public Map<String, Snapshot> getHosts() {
+        return snapshot();
+    }
+
+    /**
+     * Forgets all recorded metrics.
+     */
+    @Override
+    public void reset() {
+        hosts.clear();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as {@code
+     * org.aoju.bus.http:type=HttpMetrics,name=<name>}.
+     *
+     * @param name the name that identifies the client
+     * @return the object name the metrics were registered with
+     * @throws JMException if the name is invalid or already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("org.aoju.bus.http:type=HttpMetrics,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * The metrics of a single host.
+     */
+    final class HostMetrics {
+        final LatencyHistogram dns = new LatencyHistogram(window, unit, 1);
+        final LatencyHistogram connect = new LatencyHistogram(window, unit, 1);
+        final LatencyHistogram tls = new LatencyHistogram(window, unit, 1);
+        final LatencyHistogram timeToFirstByte = new LatencyHistogram(window, unit, 1);
+        final LatencyHistogram call = new LatencyHistogram(window, unit, 1);
+        final LongAdder calls = new LongAdder();
+        final LongAdder failedCalls = new LongAdder();
+        final LongAdder newConnections = new LongAdder();
+        final LongAdder reusedConnections = new LongAdder();
+        final LongAdder bytesSent = new LongAdder();
+        final LongAdder bytesReceived = new LongAdder();
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Snapshot snapshot() {
+            return new Snapshot(new Timer(dns), new Timer(connect), new Timer(tls),
+                    new Timer(timeToFirstByte), new Timer(call), calls.sum(), failedCalls.sum(),
+                    newConnections.sum(), reusedConnections.sum(), bytesSent.sum(),
+                    bytesReceived.sum());
+        }
+    }
+
+    /**
+     * Times the phases of one call. Connects may run concurrently when racing routes, so their
+     * start times are kept by address. TLS callbacks don't carry the address, but each attempt
+     * performs its handshake on a single thread, so handshake start times are kept by thread.
+     */
+    static final class CallMetrics extends EventListener {
+        private final HostMetrics host;
+        private long callStart;
+        private long dnsStart;
+        private Map<InetSocketAddress, Long> connectStarts;
+        private Map<Thread, Long> secureConnectStarts;
+        private long requestHeadersStart;
+        private boolean connected;
+
+        CallMetrics(HostMetrics host) {
+            this.host = host;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            host.dns.record(System.nanoTime() - dnsStart, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            if (connectStarts == null) connectStarts = new HashMap<>();
+            connectStarts.put(inetSocketAddress, System.nanoTime());
+            connected = true;
+        }
+
+        @Override
+        public synchronized void secureConnectStart(Call call) {
+            if (secureConnectStarts == null) secureConnectStarts = new HashMap<>();
+            secureConnectStarts.put(Thread.currentThread(), System.nanoTime());
+        }
+
+        @Override
+        public synchronized void secureConnectEnd(Call call, Handshake handshake) {
+            Long start = secureConnectStarts != null
+                    ? secureConnectStarts.remove(Thread.currentThread()) : null;
+            if (start != null) host.tls.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                            Protocol protocol) {
+            Long start = connectStarts.remove(inetSocketAddress);
+            if (start != null) host.connect.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                               Protocol protocol, IOException ioe) {
+            if (connectStarts != null) connectStarts.remove(inetSocketAddress);
+            if (secureConnectStarts != null) secureConnectStarts.remove(Thread.currentThread());
+        }
+
+        @Override
+        public synchronized void connectionAcquired(Call call, Connection connection) {
+            if (connected) {
+                host.newConnections.increment();
+            } else {
+                host.reusedConnections.increment();
+            }
+            connected = false;
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestHeadersStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            host.bytesSent.add(byteCount);
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            host.timeToFirstByte.record(System.nanoTime() - requestHeadersStart, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            host.bytesReceived.add(byteCount);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            host.calls.increment();
+            host.call.record(System.nanoTime() - callStart, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            host.calls.increment();
+            host.failedCalls.increment();
+            host.call.record(System.nanoTime() - callStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Percentiles of one phase, in microseconds. Percentiles are -1 if nothing was recorded in the
+     * current window.
+     */
+    public static final class Timer {
+        private final long count;
+        private final long p50Micros;
+        private final long p90Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        Timer(LatencyHistogram histogram) {
+            this.count = histogram.count();
+            this.p50Micros = histogram.percentile(0.5, TimeUnit.MICROSECONDS);
+            this.p90Micros = histogram.percentile(0.9, TimeUnit.MICROSECONDS);
+            this.p99Micros = histogram.percentile(0.99, TimeUnit.MICROSECONDS);
+            this.maxMicros = histogram.percentile(1, TimeUnit.MICROSECONDS);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP90Micros() {
+            return p90Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + " p50=" + p50Micros + "us p90=" + p90Micros + "us p99="
+                    + p99Micros + "us max=" + maxMicros + "us";
+        }
+    }
+
+    /**
+     * The metrics of a host at one point in time.
+     */
+    public static final class Snapshot {
+        private final Timer dns;
+        private final Timer connect;
+        private final Timer tls;
+        private final Timer timeToFirstByte;
+        private final Timer call;
+        private final long calls;
+        private final long failedCalls;
+        private final long newConnections;
+        private final long reusedConnections;
+        private final long bytesSent;
+        private final long bytesReceived;
+
+        Snapshot(Timer dns, Timer connect, Timer tls, Timer timeToFirstByte, Timer call,
+                 long calls, long failedCalls, long newConnections, long reusedConnections,
+                 long bytesSent, long bytesReceived) {
+            this.dns = dns;
+            this.connect = connect;
+            this.tls = tls;
+            this.timeToFirstByte = timeToFirstByte;
+            this.call = call;
+            this.calls = calls;
+            this.failedCalls = failedCalls;
+            this.newConnections = newConnections;
+            this.reusedConnections = reusedConnections;
+            this.bytesSent = bytesSent;
+            this.bytesReceived = bytesReceived;
+        }
+
+        public Timer getDns() {
+            return dns;
+        }
+
+        public Timer getConnect() {
+            return connect;
+        }
+
+        public Timer getTls() {
+            return tls;
+        }
+
+        public Timer getTimeToFirstByte() {
+            return timeToFirstByte;
+        }
+
+        public Timer getCall() {
+            return call;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFailedCalls() {
+            return failedCalls;
+        }
+
+        public long getNewConnections() {
+            return newConnections;
+        }
+
+        public long getReusedConnections() {
+            return reusedConnections;
+        }
+
+        public long getBytesSent() {
+            return bytesSent;
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived;
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls + " failed=" + failedCalls + " new=" + newConnections
+                    + " reused=" + reusedConnections + " sent=" + bytesSent + " received=" + bytesReceived
+                    + " {dns: " + dns + "; connect: " + connect + "; tls: " + tls
+                    + "; ttfb: " + timeToFirstByte + "; call: " + call + "}";
+        }
+    }
+
+}
@@ -21,28 +21,27 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package org.aoju.bus.socket.netty;
+package org.aoju.bus.http;
 
-import org.aoju.bus.core.thread.ThreadFactoryBuilder;
-
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 /**
+ * The JMX view of {@link HttpMetrics}.
+ *
  * @author Kimi Liu
  * @version 3.0.5
  * @since JDK 1.8
  */
-public class ChannelExecutor {
-
-    private static ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNamePrefix("channel-check-%d").build());
+public interface HttpMetricsMXBean {
 
-    private static void execute(Runnable command) {
-        executor.scheduleAtFixedRate(command, 0, 60, TimeUnit.SECONDS);
-    }
+    /**
+     * @return the current metrics by host name
+     */
+    Map<String, HttpMetrics.Snapshot> getHosts();
 
-    public static void start() {
-        execute(new ChannelCommand());
-    }
+    /**
+     * Forgets all recorded metrics.
+     */
+    void reset();
 
 }
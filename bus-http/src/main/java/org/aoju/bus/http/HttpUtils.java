@@ -24,10 +24,12 @@
 package org.aoju.bus.http;
 
 import org.aoju.bus.core.consts.MediaType;
+import org.aoju.bus.core.io.StreamProgress;
 import org.aoju.bus.core.lang.exception.HttpUncheckException;
 import org.aoju.bus.core.utils.JsonUtils;
 import org.aoju.bus.core.utils.ObjectUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
@@ -243,6 +245,49 @@ public class HttpUtils {
         call.enqueue(callback);
     }
 
+    /**
+     * sync download of a GET request straight into a file, without buffering the whole response
+     *
+     * @param url      url
+     * @param file     the file to write, replaced if it exists
+     * @param progress progress callback, may be null
+     * @return the number of bytes written
+     */
+    public static long download(String url, File file, StreamProgress progress) throws HttpUncheckException {
+        Request request = new Request.Builder().url(url)
+                .get().build();
+        Call call = client.newCall(request);
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected code " + response.code() + " downloading " + url);
+            }
+            return response.body().writeTo(file, progress);
+        } catch (IOException e) {
+            throw new HttpUncheckException(e);
+        }
+    }
+
+    /**
+     * sync upload of a file as the body of a POST request, streamed from disk
+     *
+     * @param url       url
+     * @param file      the file to send
+     * @param mediaType mediaType
+     * @param progress  progress callback, may be null
+     * @return The result of the request is output<code>String</code>。
+     */
+    public static String upload(String url, File file, MediaType mediaType, StreamProgress progress) throws HttpUncheckException {
+        RequestBody requestBody = RequestBody.create(mediaType, file.toPath(), progress);
+        Request request = new Request.Builder().url(url)
+                .post(requestBody).build();
+        Call call = client.newCall(request);
+        try (Response response = call.execute()) {
+            return response.body().string();
+        } catch (IOException e) {
+            throw new HttpUncheckException(e);
+        }
+    }
+
     /**
      * Process the Http request Map
      *
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rolling histogram of response latencies. Samples are counted in logarithmic buckets with eight
+ * sub-buckets per power of two, so percentiles are accurate to within 12.5% while recording costs
+ * no allocation. The histogram covers the current and the previous window; older samples are
+ * forgotten so that percentiles follow the server as its latency changes.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (64 - 4) * SUB_BUCKETS;
+
+    private final long windowNanos;
+    private final int minSamples;
+
+    /* all guarded by 'this' */
+    private long[] current = new long[BUCKET_COUNT];
+    private long[] previous = new long[BUCKET_COUNT];
+    private long currentCount;
+    private long previousCount;
+    private long windowStart = System.nanoTime();
+
+    /**
+     * @param window     how long samples are kept before they start to be forgotten
+     * @param unit       the unit of {@code window}
+     * @param minSamples the number of samples needed before {@link #percentile} returns a value
+     */
+    public LatencyHistogram(long window, TimeUnit unit, int minSamples) {
+        if (window <= 0) throw new IllegalArgumentException("window <= 0: " + window);
+        if (minSamples < 1) throw new IllegalArgumentException("minSamples < 1: " + minSamples);
+        this.windowNanos = unit.toNanos(window);
+        this.minSamples = minSamples;
+    }
+
+    static int bucket(long micros) {
+        if (micros < LINEAR_BUCKETS) return (int) Math.max(micros, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value, in microseconds, that falls into {@code bucket}.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + sub) << shift) + (1L << shift) - 1;
+    }
+
+    public synchronized void record(long latency, TimeUnit unit) {
+        roll(System.nanoTime());
+        current[bucket(unit.toMicros(latency))]++;
+        currentCount++;
+    }
+
+    /**
+     * Returns the latency below which {@code quantile} of the samples fall, or -1 if fewer than the
+     * minimum number of samples have been recorded.
+     *
+     * @param quantile a value in (0, 1], for example {@code 0.95}
+     * @param unit     the unit of the returned latency
+     * @return the latency in {@code unit}, rounded up
+     */
+    public synchronized long percentile(double quantile, TimeUnit unit) {
+        if (quantile <= 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile <= 0 || quantile > 1: " + quantile);
+        }
+        roll(System.nanoTime());
+        long count = currentCount + previousCount;
+        if (count < minSamples) return -1;
+
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += current[i] + previous[i];
+            if (seen >= rank) {
+                long micros = upperBound(i);
+                long result = unit.convert(micros, TimeUnit.MICROSECONDS);
+                return unit.toMicros(result) < micros ? result + 1 : result;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    public synchronized long count() {
+        roll(System.nanoTime());
+        return currentCount + previousCount;
+    }
+
+    private void roll(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < windowNanos) return;
+
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        if (elapsed < 2 * windowNanos) {
+            previous = current;
+            previousCount = currentCount;
+        } else {
+            Arrays.fill(current, 0L);
+            previous = current;
+            previousCount = 0;
+        }
+        current = recycled;
+        currentCount = 0;
+        windowStart = now;
+    }
+
+}
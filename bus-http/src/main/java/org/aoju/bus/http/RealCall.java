@@ -189,6 +189,9 @@ final class RealCall implements Call {
     Response getResponseWithInterceptorChain() throws IOException {
         // Build a full stack of interceptors.
         List<Interceptor> interceptors = new ArrayList<>();
+        if (client.hedgingInterceptor() != null && !forWebSocket) {
+            interceptors.add(client.hedgingInterceptor());
+        }
         interceptors.addAll(client.interceptors());
         interceptors.add(retryAndFollowUpInterceptor);
         interceptors.add(new BridgeInterceptor(client.cookieJar()));
@@ -208,6 +211,10 @@ final class RealCall implements Call {
 
     final class AsyncCall extends NamedRunnable {
         private final Callback responseCallback;
+        /**
+         * When this call was queued by the dispatcher, for its wait time statistics.
+         */
+        long enqueuedAtNanos;
 
         AsyncCall(Callback responseCallback) {
             super("HttpClient %s", redactedUrl());
@@ -248,6 +255,15 @@ final class RealCall implements Call {
             }
         }
 
+        /**
+         * Reports this call as failed because the dispatcher refused to queue it.
+         */
+        void rejected(IOException e) {
+            assert (!Thread.holdsLock(client.dispatcher()));
+            eventListener.callFailed(RealCall.this, e);
+            responseCallback.onFailure(RealCall.this, e);
+        }
+
         @Override
         protected void execute() {
             boolean signalledCallback = false;
@@ -27,12 +27,16 @@ import org.aoju.bus.core.consts.MediaType;
 import org.aoju.bus.core.io.BufferedSink;
 import org.aoju.bus.core.io.ByteString;
 import org.aoju.bus.core.io.Source;
+import org.aoju.bus.core.io.StreamProgress;
 import org.aoju.bus.core.utils.IoUtils;
 import org.aoju.bus.http.internal.Internal;
+import org.aoju.bus.http.internal.http.FileRequestBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 /**
  * @author Kimi Liu
@@ -127,6 +131,50 @@ public abstract class RequestBody {
         };
     }
 
+    /**
+     * Returns a new request body that transmits the content of {@code path}. On plain HTTP/1.1
+     * connections whose sockets have channels the file is sent with {@link FileChannel#transferTo},
+     * skipping copies through the heap.
+     *
+     * @param contentType the media type, may be null
+     * @param path        the file to send
+     * @return the request body
+     */
+    public static RequestBody create(final MediaType contentType, final Path path) {
+        return create(contentType, path, null);
+    }
+
+    /**
+     * Returns a new request body that transmits the content of {@code path}, reporting how many
+     * bytes have been written to {@code progress}.
+     *
+     * @param contentType the media type, may be null
+     * @param path        the file to send
+     * @param progress    notified as the file is sent, may be null
+     * @return the request body
+     */
+    public static RequestBody create(final MediaType contentType, final Path path,
+                                     final StreamProgress progress) {
+        if (path == null) throw new NullPointerException("path == null");
+        return new FileRequestBody(contentType, path, null, 0, -1, progress);
+    }
+
+    /**
+     * Returns a new request body that transmits {@code channel} from its current position to its
+     * end. The channel is read with absolute positions, so its position isn't changed, and it isn't
+     * closed.
+     *
+     * @param contentType the media type, may be null
+     * @param channel     the file to send
+     * @return the request body
+     * @throws IOException if the position of the channel can't be read
+     */
+    public static RequestBody create(final MediaType contentType, final FileChannel channel)
+            throws IOException {
+        if (channel == null) throw new NullPointerException("channel == null");
+        return new FileRequestBody(contentType, null, channel, channel.position(), -1, null);
+    }
+
     public abstract MediaType contentType();
 
     public long contentLength() throws IOException {
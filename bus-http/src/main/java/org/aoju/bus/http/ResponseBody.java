@@ -27,10 +27,13 @@ import org.aoju.bus.core.consts.MediaType;
 import org.aoju.bus.core.io.Buffer;
 import org.aoju.bus.core.io.BufferedSource;
 import org.aoju.bus.core.io.ByteString;
+import org.aoju.bus.core.io.StreamProgress;
 import org.aoju.bus.http.internal.Internal;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 
 /**
  * A first-shot stream from the origin server to the client application with the raw bytes of the
@@ -109,6 +112,11 @@ import java.nio.charset.Charset;
  */
 public abstract class ResponseBody implements Closeable {
 
+    /**
+     * The most bytes moved into a file at once by {@link #writeTo(File, StreamProgress)}.
+     */
+    private static final long TRANSFER_SIZE = 1024 * 1024;
+
     /**
      * Multiple calls to {@link #charStream()} must return the same instance.
      */
@@ -210,6 +218,49 @@ public abstract class ResponseBody implements Closeable {
         }
     }
 
+    /**
+     * Writes this body to {@code file}, replacing its content, and closes this body. The bytes are
+     * moved into the file with {@link FileChannel#transferFrom}, straight from the body's buffer.
+     *
+     * @param file the file to write
+     * @return the number of bytes written
+     * @throws IOException if the body can't be read or the file can't be written
+     */
+    public final long writeTo(File file) throws IOException {
+        return writeTo(file, null);
+    }
+
+    /**
+     * Writes this body to {@code file} like {@link #writeTo(File)}, reporting how many bytes have
+     * been written to {@code progress}.
+     *
+     * @param file     the file to write
+     * @param progress notified as the body is written, may be null
+     * @return the number of bytes written
+     * @throws IOException if the body can't be read or the file can't be written
+     */
+    public final long writeTo(File file, StreamProgress progress) throws IOException {
+        BufferedSource source = source();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (progress != null) progress.start();
+            long written = 0;
+            for (long transferred; (transferred = channel.transferFrom(source, written, TRANSFER_SIZE)) > 0; ) {
+                written += transferred;
+                if (progress != null) progress.progress(written);
+            }
+            long contentLength = contentLength();
+            if (contentLength != -1 && contentLength != written) {
+                throw new IOException("Content-Length (" + contentLength
+                        + ") and stream length (" + written + ") disagree");
+            }
+            if (progress != null) progress.finish();
+            return written;
+        } finally {
+            Internal.closeQuietly(source);
+        }
+    }
+
     private Charset charset() {
         MediaType contentType = contentType();
         return contentType != null ? contentType.charset(org.aoju.bus.core.consts.Charset.UTF_8) : org.aoju.bus.core.consts.Charset.UTF_8;
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+/**
+ * A token bucket that limits how many extra attempts, retries and hedged requests, a client may
+ * send relative to its original requests. Every original request deposits {@code ratio} tokens and
+ * every extra attempt withdraws one; when the bucket is empty extra attempts are refused. During an
+ * outage this keeps retries from multiplying the load on a server that is already failing, while
+ * in normal operation it permits roughly one extra attempt per {@code 1 / ratio} requests.
+ *
+ * <p>The bucket starts full so that a client that has just started may still retry.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    /* all guarded by 'this' */
+    private double tokens;
+    private long acquiredCount;
+    private long rejectedCount;
+
+    /**
+     * @param ratio     the tokens deposited by each original request, for example {@code 0.1} to
+     *                  allow one extra attempt per ten requests
+     * @param maxTokens the maximum number of tokens that may be saved up
+     */
+    public RetryBudget(double ratio, int maxTokens) {
+        if (ratio <= 0 || ratio > 1) throw new IllegalArgumentException("ratio <= 0 || ratio > 1: " + ratio);
+        if (maxTokens < 1) throw new IllegalArgumentException("maxTokens < 1: " + maxTokens);
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Records an original request.
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Withdraws a token for an extra attempt.
+     *
+     * @return true if the attempt may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            rejectedCount++;
+            return false;
+        }
+        tokens--;
+        acquiredCount++;
+        return true;
+    }
+
+    public synchronized double tokens() {
+        return tokens;
+    }
+
+    public synchronized long acquiredCount() {
+        return acquiredCount;
+    }
+
+    public synchronized long rejectedCount() {
+        return rejectedCount;
+    }
+
+    public double ratio() {
+        return ratio;
+    }
+
+    public double maxTokens() {
+        return maxTokens;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+/**
+ * The relative weight of an HTTP/2 stream. Attach one to a request with {@code
+ * Request.Builder.tag(StreamPriority.class, StreamPriority.weight(256))} to ask the server to
+ * favor it over other streams on the same connection. Servers are free to ignore priorities, and
+ * requests sent over HTTP/1 ignore them.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class StreamPriority {
+
+    /**
+     * The weight streams get when they don't send a priority.
+     */
+    public static final StreamPriority DEFAULT = new StreamPriority(16);
+
+    /**
+     * The lowest weight, suitable for bulk transfers that may yield to everything else.
+     */
+    public static final StreamPriority BACKGROUND = new StreamPriority(1);
+
+    private final int weight;
+
+    private StreamPriority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @param weight the stream's weight relative to its siblings, in [1..256]
+     * @return a priority with {@code weight}
+     */
+    public static StreamPriority weight(int weight) {
+        if (weight < 1 || weight > 256) {
+            throw new IllegalArgumentException("weight < 1 || weight > 256: " + weight);
+        }
+        return new StreamPriority(weight);
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof StreamPriority && ((StreamPriority) other).weight == weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamPriority{weight=" + weight + "}";
+    }
+}
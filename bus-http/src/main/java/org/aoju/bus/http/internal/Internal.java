@@ -714,6 +714,21 @@ public abstract class Internal {
 
     public abstract RouteDatabase routeDatabase(ConnectionPool connectionPool);
 
+    public abstract Object lock(ConnectionPool pool, Address address);
+
+    public abstract Object lock(ConnectionPool pool, Address address, StreamAllocation streamAllocation);
+
+    public abstract void unlock(ConnectionPool pool, Object lock, StreamAllocation streamAllocation);
+
+    public abstract boolean hasCapacity(ConnectionPool pool, Address address);
+
+    public abstract long awaitCapacity(ConnectionPool pool, Address address, long timeoutNanos)
+            throws InterruptedIOException;
+
+    public abstract void connecting(ConnectionPool pool, Address address);
+
+    public abstract void connectFailed(ConnectionPool pool, Address address);
+
     public abstract int code(Response.Builder responseBuilder);
 
     public abstract void apply(ConnectionSpec tlsConfiguration, SSLSocket sslSocket,
@@ -723,6 +738,8 @@ public abstract class Internal {
 
     public abstract StreamAllocation streamAllocation(Call call);
 
+    public abstract void abandon(Call call);
+
     public abstract IOException timeoutExit(Call call, IOException e);
 
     public abstract Call newWebSocketCall(HttpClient client, Request request);
@@ -0,0 +1,321 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.connection;
+
+import org.aoju.bus.http.*;
+import org.aoju.bus.http.internal.Internal;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Races connections to several routes of the same address, staggered by a fixed delay, in the
+ * manner of <a href="https://tools.ietf.org/html/rfc8305">RFC 8305 Happy Eyeballs</a>. The first
+ * route to complete its TCP and TLS handshakes wins; the remaining attempts are canceled and
+ * recorded in the {@link RouteDatabase}.
+ *
+ * <p>A new attempt is started when the delay elapses without a winner, or immediately when an
+ * attempt fails. Routes are interleaved by address family so that a blackholed IPv6 network costs
+ * at most one delay before IPv4 is tried.
+ *
+ * <p>Connect events of the racing attempts are delivered to the call's {@link EventListener} one
+ * at a time, never concurrently. Once the race is over, attempts that are still connecting are
+ * reported as {@linkplain EventListener#connectFailed failed} and their later events are dropped.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+final class FastFallbackConnector {
+
+    private static final Executor executor = new ThreadPoolExecutor(0 /* corePoolSize */,
+            Integer.MAX_VALUE /* maximumPoolSize */, 60L /* keepAliveTime */, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), Internal.threadFactory("HttpClient FastFallback", true));
+
+    private final ConnectionPool connectionPool;
+    private final RouteSelector routeSelector;
+    private final RouteDatabase routeDatabase;
+    private final List<Route> routes;
+    private final long attemptDelayNanos;
+    private final BlockingQueue<Attempt> results = new LinkedBlockingQueue<>();
+
+    // Guarded by this.
+    private final List<RealConnection> connections = new ArrayList<>();
+    private final List<AttemptListener> listeners = new ArrayList<>();
+    private boolean finished;
+
+    FastFallbackConnector(ConnectionPool connectionPool, RouteSelector routeSelector,
+                          RouteDatabase routeDatabase, List<Route> routes, long attemptDelayMillis) {
+        this.connectionPool = connectionPool;
+        this.routeSelector = routeSelector;
+        this.routeDatabase = routeDatabase;
+        this.routes = interleave(routes);
+        this.attemptDelayNanos = TimeUnit.MILLISECONDS.toNanos(attemptDelayMillis);
+    }
+
+    /**
+     * Reorders {@code routes} so that address families alternate, starting with the family of the
+     * first route.
+     */
+    static List<Route> interleave(List<Route> routes) {
+        List<Route> first = new ArrayList<>();
+        List<Route> second = new ArrayList<>();
+        boolean firstIsIpv6 = isIpv6(routes.get(0));
+        for (Route route : routes) {
+            (isIpv6(route) == firstIsIpv6 ? first : second).add(route);
+        }
+        List<Route> result = new ArrayList<>(routes.size());
+        for (int i = 0; i < first.size() || i < second.size(); i++) {
+            if (i < first.size()) result.add(first.get(i));
+            if (i < second.size()) result.add(second.get(i));
+        }
+        return result;
+    }
+
+    private static boolean isIpv6(Route route) {
+        return route.socketAddress().getAddress() instanceof Inet6Address;
+    }
+
+    /**
+     * Returns the first connection to complete its handshakes. The returned connection is not yet
+     * pooled or acquired by any allocation.
+     */
+    RealConnection connect(int connectTimeout, int readTimeout, int writeTimeout,
+                           HttpClient client, boolean connectionRetryEnabled, Call call,
+                           EventListener eventListener) throws IOException {
+        RealConnection winner = null;
+        RouteException failure = null;
+        int next = 0;
+        int running = 0;
+        long nextAttemptAt = System.nanoTime();
+        try {
+            while (true) {
+                if (next < routes.size() && nextAttemptAt - System.nanoTime() <= 0) {
+                    RealConnection connection = start(routes.get(next++), connectTimeout, readTimeout,
+                            writeTimeout, client, connectionRetryEnabled, call, eventListener);
+                    if (connection == null) throw new IOException("Canceled");
+                    running++;
+                    nextAttemptAt = System.nanoTime() + attemptDelayNanos;
+                }
+                if (running == 0) {
+                    throw failure;
+                }
+
+                Attempt attempt;
+                if (next < routes.size()) {
+                    attempt = results.poll(Math.max(0, nextAttemptAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (attempt == null) continue;
+                } else {
+                    attempt = results.take();
+                }
+                if (attempt == Attempt.CANCELED) throw new IOException("Canceled");
+
+                running--;
+                if (attempt.failure == null) {
+                    winner = attempt.connection;
+                    return winner;
+                }
+
+                synchronized (this) {
+                    // Failed attempts are recorded as failures, not as losers of the race.
+                    connections.remove(attempt.connection);
+                }
+                routeSelector.connectFailed(attempt.connection.route(), attempt.failure.getLastConnectException());
+                if (failure == null) {
+                    failure = attempt.failure;
+                } else {
+                    failure.addConnectException(attempt.failure.getFirstConnectException());
+                }
+                nextAttemptAt = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            finish(winner);
+        }
+    }
+
+    private RealConnection start(Route route, int connectTimeout, int readTimeout, int writeTimeout,
+                                 HttpClient client, boolean connectionRetryEnabled, Call call,
+                                 EventListener eventListener) {
+        RealConnection connection = new RealConnection(connectionPool, route);
+        AttemptListener attemptListener = new AttemptListener(connection, eventListener);
+        synchronized (this) {
+            if (finished) return null;
+            connections.add(connection);
+            listeners.add(attemptListener);
+        }
+        executor.execute(() -> {
+            Attempt attempt;
+            try {
+                connection.connect(connectTimeout, readTimeout, writeTimeout, client,
+                        connectionRetryEnabled, call, attemptListener);
+                attempt = new Attempt(connection, null);
+            } catch (RouteException e) {
+                attempt = new Attempt(connection, e);
+            } catch (RuntimeException e) {
+                attempt = new Attempt(connection, new RouteException(new IOException(e)));
+            }
+            boolean late;
+            synchronized (this) {
+                late = finished;
+            }
+            if (late) {
+                // The race is over; this connection lost after being canceled too early to notice.
+                if (attempt.failure == null) Internal.closeQuietly(connection.socket());
+            } else {
+                results.add(attempt);
+            }
+        });
+        return connection;
+    }
+
+    private void finish(RealConnection winner) {
+        List<RealConnection> losers;
+        synchronized (this) {
+            finished = true;
+            losers = new ArrayList<>(connections);
+            losers.remove(winner);
+            for (AttemptListener listener : listeners) {
+                if (listener.connection != winner) listener.cancelled();
+            }
+        }
+        for (RealConnection loser : losers) {
+            loser.cancel();
+            routeDatabase.cancelled();
+        }
+        // Close connections that completed after the winner but before we stopped listening.
+        for (Attempt attempt; (attempt = results.poll()) != null; ) {
+            if (attempt.connection != null && attempt.failure == null) {
+                Internal.closeQuietly(attempt.connection.socket());
+            }
+        }
+    }
+
+    /**
+     * Cancels all in-flight attempts. Safe to call from any thread.
+     */
+    void cancel() {
+        List<RealConnection> toCancel;
+        synchronized (this) {
+            toCancel = new ArrayList<>(connections);
+        }
+        for (RealConnection connection : toCancel) {
+            connection.cancel();
+        }
+        results.add(Attempt.CANCELED);
+    }
+
+    /**
+     * Forwards the connect events of one attempt to the call's listener while holding the
+     * connector's lock, so that the listener never sees callbacks from two attempts at once.
+     */
+    final class AttemptListener extends EventListener {
+        final RealConnection connection;
+        private final EventListener delegate;
+        // Guarded by FastFallbackConnector.this.
+        private Call call;
+        private InetSocketAddress connecting;
+        private Proxy proxy;
+
+        AttemptListener(RealConnection connection, EventListener delegate) {
+            this.connection = connection;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            synchronized (FastFallbackConnector.this) {
+                if (finished) return;
+                this.call = call;
+                this.connecting = inetSocketAddress;
+                this.proxy = proxy;
+                delegate.connectStart(call, inetSocketAddress, proxy);
+            }
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            synchronized (FastFallbackConnector.this) {
+                if (!finished) delegate.secureConnectStart(call);
+            }
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            synchronized (FastFallbackConnector.this) {
+                if (!finished) delegate.secureConnectEnd(call, handshake);
+            }
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                               Protocol protocol) {
+            synchronized (FastFallbackConnector.this) {
+                if (finished) return;
+                connecting = null;
+                delegate.connectEnd(call, inetSocketAddress, proxy, protocol);
+            }
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            synchronized (FastFallbackConnector.this) {
+                if (finished) return;
+                connecting = null;
+                delegate.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+            }
+        }
+
+        /**
+         * Reports an attempt that lost the race while still connecting. Called with the lock held
+         * after {@code finished} is set.
+         */
+        void cancelled() {
+            if (connecting == null) return;
+            delegate.connectFailed(call, connecting, proxy, null, new IOException("Canceled"));
+            connecting = null;
+        }
+    }
+
+    static final class Attempt {
+        static final Attempt CANCELED = new Attempt(null, null);
+
+        final RealConnection connection;
+        final RouteException failure;
+
+        Attempt(RealConnection connection, RouteException failure) {
+            this.connection = connection;
+            this.failure = failure;
+        }
+    }
+
+}
@@ -41,6 +41,7 @@ import org.aoju.bus.http.internal.platform.Platform;
 import org.aoju.bus.http.internal.tls.OkHostnameVerifier;
 import org.aoju.bus.http.internal.ws.RealWebSocket;
 
+import javax.net.SocketFactory;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
@@ -71,6 +72,10 @@ public final class RealConnection extends Http2Connection.Listener implements Co
      */
     public final List<Reference<StreamAllocation>> allocations = new ArrayList<>();
     private final ConnectionPool connectionPool;
+    /**
+     * The connection pool's lock for this connection's address.
+     */
+    private final Object lock;
 
     // The fields below are initialized by connect() and never reassigned.
     private final Route route;
@@ -84,6 +89,11 @@ public final class RealConnection extends Http2Connection.Listener implements Co
      * allocations.size() < allocationLimit} then new streams can be created on this connection.
      */
     public int allocationLimit = 1;
+    /**
+     * The most streams this client opens on an HTTP/2 connection, regardless of what the peer allows.
+     * Further streams go to another connection to the same address.
+     */
+    private int maxConcurrentStreams = Integer.MAX_VALUE;
     /**
      * Nanotime timestamp when {@code allocations.size()} reached zero.
      */
@@ -98,7 +108,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
      */
     private Socket socket;
 
-    // The fields below track connection state and are guarded by connectionPool.
+    // The fields below track connection state and are guarded by lock.
     private Handshake handshake;
     private Protocol protocol;
     private Http2Connection http2Connection;
@@ -108,6 +118,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
     public RealConnection(ConnectionPool connectionPool, Route route) {
         this.connectionPool = connectionPool;
         this.route = route;
+        this.lock = Internal.instance.lock(connectionPool, route.address());
     }
 
     public static RealConnection testConnection(
@@ -119,7 +130,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
     }
 
     public void connect(int connectTimeout, int readTimeout, int writeTimeout,
-                        int pingIntervalMillis, boolean connectionRetryEnabled, Call call,
+                        HttpClient client, boolean connectionRetryEnabled, Call call,
                         EventListener eventListener) {
         if (protocol != null) throw new IllegalStateException("already connected");
 
@@ -155,7 +166,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
                 } else {
                     connectSocket(connectTimeout, readTimeout, call, eventListener);
                 }
-                establishProtocol(connectionSpecSelector, pingIntervalMillis, call, eventListener);
+                establishProtocol(connectionSpecSelector, client, call, eventListener);
                 eventListener.connectEnd(call, route.socketAddress(), route.proxy(), protocol);
                 break;
             } catch (IOException e) {
@@ -190,8 +201,8 @@ public final class RealConnection extends Http2Connection.Listener implements Co
         }
 
         if (http2Connection != null) {
-            synchronized (connectionPool) {
-                allocationLimit = http2Connection.maxConcurrentStreams();
+            synchronized (lock) {
+                allocationLimit = Math.min(http2Connection.maxConcurrentStreams(), maxConcurrentStreams);
             }
         }
     }
@@ -228,8 +239,15 @@ public final class RealConnection extends Http2Connection.Listener implements Co
         Proxy proxy = route.proxy();
         Address address = route.address();
 
+        SocketFactory socketFactory = address.socketFactory();
+        if (socketFactory instanceof ChannelSocketFactory
+                && (address.sslSocketFactory() != null || address.protocols().contains(Protocol.H2_PRIOR_KNOWLEDGE))) {
+            // Channel sockets only pay off for plain HTTP/1.1. Before JDK 13 the channel socket's
+            // blocking read holds blockingLock(), which a write from the HTTP/2 writer would wait on.
+            socketFactory = SocketFactory.getDefault();
+        }
         rawSocket = proxy.type() == Proxy.Type.DIRECT || proxy.type() == Proxy.Type.HTTP
-                ? address.socketFactory().createSocket()
+                ? socketFactory.createSocket()
                 : new Socket(proxy);
 
         eventListener.connectStart(call, route.socketAddress(), proxy);
@@ -256,12 +274,12 @@ public final class RealConnection extends Http2Connection.Listener implements Co
     }
 
     private void establishProtocol(ConnectionSpecSelector connectionSpecSelector,
-                                   int pingIntervalMillis, Call call, EventListener eventListener) throws IOException {
+                                   HttpClient client, Call call, EventListener eventListener) throws IOException {
         if (route.address().sslSocketFactory() == null) {
             if (route.address().protocols().contains(Protocol.H2_PRIOR_KNOWLEDGE)) {
                 socket = rawSocket;
                 protocol = Protocol.H2_PRIOR_KNOWLEDGE;
-                startHttp2(pingIntervalMillis);
+                startHttp2(client);
                 return;
             }
 
@@ -275,16 +293,20 @@ public final class RealConnection extends Http2Connection.Listener implements Co
         eventListener.secureConnectEnd(call, handshake);
 
         if (protocol == Protocol.HTTP_2) {
-            startHttp2(pingIntervalMillis);
+            startHttp2(client);
         }
     }
 
-    private void startHttp2(int pingIntervalMillis) throws IOException {
+    private void startHttp2(HttpClient client) throws IOException {
         socket.setSoTimeout(0); // HTTP/2 connection timeouts are set per-stream.
+        maxConcurrentStreams = client.http2MaxConcurrentStreams();
         http2Connection = new Http2Connection.Builder(true)
                 .socket(socket, route.address().url().host(), source, sink)
                 .listener(this)
-                .pingIntervalMillis(pingIntervalMillis)
+                .pingIntervalMillis(client.pingIntervalMillis())
+                .connectionWindowSize(client.http2ConnectionWindowSize())
+                .streamWindowSize(client.http2StreamWindowSize())
+                .adaptiveWindow(client.http2AdaptiveWindow())
                 .build();
         http2Connection.start();
     }
@@ -487,6 +509,14 @@ public final class RealConnection extends Http2Connection.Listener implements Co
         return true; // The caller's address can be carried by this connection.
     }
 
+    /**
+     * Returns the connection pool's lock for this connection's address, which guards its
+     * allocations even when they come from calls to other, coalesced hosts.
+     */
+    Object lock() {
+        return lock;
+    }
+
     public boolean supportsUrl(HttpUrl url) {
         if (url.port() != route.address().url().port()) {
             return false; // Port mismatch.
@@ -584,8 +614,8 @@ public final class RealConnection extends Http2Connection.Listener implements Co
      */
     @Override
     public void onSettings(Http2Connection connection) {
-        synchronized (connectionPool) {
-            allocationLimit = connection.maxConcurrentStreams();
+        synchronized (lock) {
+            allocationLimit = Math.min(connection.maxConcurrentStreams(), maxConcurrentStreams);
         }
     }
 
@@ -41,6 +41,7 @@ import java.util.Set;
 public final class RouteDatabase {
 
     private final Set<Route> failedRoutes = new LinkedHashSet<>();
+    private int cancelledCount;
 
     /**
      * Records a failure connecting to {@code failedRoute}.
@@ -56,6 +57,21 @@ public final class RouteDatabase {
         failedRoutes.remove(route);
     }
 
+    /**
+     * Records that a connection attempt was canceled because a concurrent attempt to another route
+     * of the same address won. This doesn't count against the canceled route.
+     */
+    public synchronized void cancelled() {
+        cancelledCount++;
+    }
+
+    /**
+     * Returns the number of connection attempts canceled after losing a fast fallback race.
+     */
+    public synchronized int cancelledCount() {
+        return cancelledCount;
+    }
+
     /**
      * Returns true if {@code route} has failed recently and should be avoided.
      */
@@ -33,7 +33,9 @@ import java.io.IOException;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class coordinates the relationship between three entities:
@@ -83,7 +85,11 @@ public final class StreamAllocation {
     public final EventListener eventListener;
     private final ConnectionPool connectionPool;
     private final Object callStackTrace;
-    // State guarded by connectionPool.
+    /**
+     * The connection pool's lock for {@link #address}.
+     */
+    private final Object lock;
+    // State guarded by lock.
     private final RouteSelector routeSelector;
     private RouteSelector.Selection routeSelection;
     private Route route;
@@ -93,6 +99,7 @@ public final class StreamAllocation {
     private boolean released;
     private boolean canceled;
     private HttpCodec codec;
+    private FastFallbackConnector fastFallbackConnector;
 
     public StreamAllocation(ConnectionPool connectionPool, Address address, Call call,
                             EventListener eventListener, Object callStackTrace) {
@@ -100,6 +107,7 @@ public final class StreamAllocation {
         this.address = address;
         this.call = call;
         this.eventListener = eventListener;
+        this.lock = Internal.instance.lock(connectionPool, address, this);
         this.routeSelector = new RouteSelector(address, routeDatabase(), call, eventListener);
         this.callStackTrace = callStackTrace;
     }
@@ -109,15 +117,16 @@ public final class StreamAllocation {
         int connectTimeout = chain.connectTimeoutMillis();
         int readTimeout = chain.readTimeoutMillis();
         int writeTimeout = chain.writeTimeoutMillis();
-        int pingIntervalMillis = client.pingIntervalMillis();
         boolean connectionRetryEnabled = client.retryOnConnectionFailure();
+        int connectionAttemptDelay = client.fastFallback() ? client.connectionAttemptDelayMillis() : -1;
 
         try {
             RealConnection resultConnection = findHealthyConnection(connectTimeout, readTimeout,
-                    writeTimeout, pingIntervalMillis, connectionRetryEnabled, doExtensiveHealthChecks);
+                    writeTimeout, client, connectionRetryEnabled, connectionAttemptDelay,
+                    doExtensiveHealthChecks);
             HttpCodec resultCodec = resultConnection.newCodec(client, chain, this);
 
-            synchronized (connectionPool) {
+            synchronized (lock) {
                 codec = resultCodec;
                 return resultCodec;
             }
@@ -131,14 +140,14 @@ public final class StreamAllocation {
      * until a healthy connection is found.
      */
     private RealConnection findHealthyConnection(int connectTimeout, int readTimeout,
-                                                 int writeTimeout, int pingIntervalMillis, boolean connectionRetryEnabled,
-                                                 boolean doExtensiveHealthChecks) throws IOException {
+                                                 int writeTimeout, HttpClient client, boolean connectionRetryEnabled,
+                                                 int connectionAttemptDelay, boolean doExtensiveHealthChecks) throws IOException {
         while (true) {
             RealConnection candidate = findConnection(connectTimeout, readTimeout, writeTimeout,
-                    pingIntervalMillis, connectionRetryEnabled);
+                    client, connectionRetryEnabled, connectionAttemptDelay);
 
             // If this is a brand new connection, we can skip the extensive health checks.
-            synchronized (connectionPool) {
+            synchronized (lock) {
                 if (candidate.successCount == 0) {
                     return candidate;
                 }
@@ -158,15 +167,21 @@ public final class StreamAllocation {
     /**
      * Returns a connection to host a new stream. This prefers the existing connection if it exists,
      * then the pool, finally building a new connection.
+     *
+     * <p>If {@code connectionAttemptDelay} is non-negative and the route selection offers more than
+     * one route, new connections race across the remaining routes of the selection, with
+     * attempts staggered by that many milliseconds.
      */
     private RealConnection findConnection(int connectTimeout, int readTimeout, int writeTimeout,
-                                          int pingIntervalMillis, boolean connectionRetryEnabled) throws IOException {
+                                          HttpClient client, boolean connectionRetryEnabled,
+                                          int connectionAttemptDelay) throws IOException {
         boolean foundPooledConnection = false;
         RealConnection result = null;
         Route selectedRoute = null;
         Connection releasedConnection;
         Socket toClose;
-        synchronized (connectionPool) {
+        FastFallbackConnector connector = null;
+        synchronized (lock) {
             if (released) throw new IllegalStateException("released");
             if (codec != null) throw new IllegalStateException("codec != null");
             if (canceled) throw new IOException("Canceled");
@@ -216,7 +231,7 @@ public final class StreamAllocation {
             routeSelection = routeSelector.next();
         }
 
-        synchronized (connectionPool) {
+        synchronized (lock) {
             if (canceled) throw new IOException("Canceled");
 
             if (newRouteSelection) {
@@ -235,17 +250,47 @@ public final class StreamAllocation {
                 }
             }
 
+            // If the address is at its connection limit, wait for one of its connections to be
+            // released or closed.
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(connectTimeout);
+            while (!foundPooledConnection && !Internal.instance.hasCapacity(connectionPool, address)) {
+                if (connectTimeout != 0 && remainingNanos <= 0) {
+                    throw new IOException("Timed out waiting for a connection to " + address.url().host());
+                }
+                remainingNanos = Internal.instance.awaitCapacity(connectionPool, address, remainingNanos);
+                if (canceled) throw new IOException("Canceled");
+                Internal.instance.get(connectionPool, address, this, null);
+                if (connection != null) {
+                    foundPooledConnection = true;
+                    result = connection;
+                }
+            }
+
             if (!foundPooledConnection) {
                 if (selectedRoute == null) {
                     selectedRoute = routeSelection.next();
                 }
-
-                // Create a connection and assign it to this allocation immediately. This makes it possible
-                // for an asynchronous cancel() to interrupt the handshake we're about to do.
-                route = selectedRoute;
-                refusedStreamCount = 0;
-                result = new RealConnection(connectionPool, selectedRoute);
-                acquire(result, false);
+                Internal.instance.connecting(connectionPool, address);
+
+                if (connectionAttemptDelay >= 0 && routeSelection.hasNext()) {
+                    // Race the remaining routes. The connector is reachable from cancel() so that an
+                    // asynchronous cancel interrupts every attempt.
+                    List<Route> candidates = new ArrayList<>();
+                    candidates.add(selectedRoute);
+                    while (routeSelection.hasNext()) {
+                        candidates.add(routeSelection.next());
+                    }
+                    connector = new FastFallbackConnector(connectionPool, routeSelector,
+                            routeDatabase(), candidates, connectionAttemptDelay);
+                    fastFallbackConnector = connector;
+                } else {
+                    // Create a connection and assign it to this allocation immediately. This makes it possible
+                    // for an asynchronous cancel() to interrupt the handshake we're about to do.
+                    route = selectedRoute;
+                    refusedStreamCount = 0;
+                    result = new RealConnection(connectionPool, selectedRoute);
+                    acquire(result, false);
+                }
             }
         }
 
@@ -255,13 +300,44 @@ public final class StreamAllocation {
             return result;
         }
 
-        // Do TCP + TLS handshakes. This is a blocking operation.
-        result.connect(connectTimeout, readTimeout, writeTimeout, pingIntervalMillis,
-                connectionRetryEnabled, call, eventListener);
+        // Do TCP + TLS handshakes. This is a blocking operation. Until the connection is pooled it
+        // holds a reservation against the address's connection limit.
+        boolean connected = false;
+        try {
+            if (connector != null) {
+                try {
+                    result = connector.connect(connectTimeout, readTimeout, writeTimeout, client,
+                            connectionRetryEnabled, call, eventListener);
+                } finally {
+                    synchronized (lock) {
+                        fastFallbackConnector = null;
+                    }
+                }
+                synchronized (lock) {
+                    if (canceled) {
+                        Internal.closeQuietly(result.socket());
+                        throw new IOException("Canceled");
+                    }
+                    route = result.route();
+                    refusedStreamCount = 0;
+                    acquire(result, false);
+                }
+            } else {
+                result.connect(connectTimeout, readTimeout, writeTimeout, client,
+                        connectionRetryEnabled, call, eventListener);
+            }
+            connected = true;
+        } finally {
+            if (!connected) {
+                synchronized (lock) {
+                    Internal.instance.connectFailed(connectionPool, address);
+                }
+            }
+        }
         routeDatabase().connected(result.route());
 
         Socket socket = null;
-        synchronized (connectionPool) {
+        synchronized (lock) {
             reportedAcquired = true;
 
             // Pool the connection.
@@ -287,7 +363,7 @@ public final class StreamAllocation {
      * a follow-up request.
      */
     private Socket releaseIfNoNewStreams() {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(lock));
         RealConnection allocatedConnection = this.connection;
         if (allocatedConnection != null && allocatedConnection.noNewStreams) {
             return deallocate(false, false, true);
@@ -301,7 +377,7 @@ public final class StreamAllocation {
         Socket socket;
         Connection releasedConnection;
         boolean callEnd;
-        synchronized (connectionPool) {
+        synchronized (lock) {
             if (codec == null || codec != this.codec) {
                 throw new IllegalStateException("expected " + this.codec + " but was " + codec);
             }
@@ -328,7 +404,7 @@ public final class StreamAllocation {
     }
 
     public HttpCodec codec() {
-        synchronized (connectionPool) {
+        synchronized (lock) {
             return codec;
         }
     }
@@ -348,7 +424,7 @@ public final class StreamAllocation {
     public void release() {
         Socket socket;
         Connection releasedConnection;
-        synchronized (connectionPool) {
+        synchronized (lock) {
             releasedConnection = connection;
             socket = deallocate(false, true, false);
             if (connection != null) releasedConnection = null;
@@ -367,7 +443,7 @@ public final class StreamAllocation {
     public void noNewStreams() {
         Socket socket;
         Connection releasedConnection;
-        synchronized (connectionPool) {
+        synchronized (lock) {
             releasedConnection = connection;
             socket = deallocate(true, false, false);
             if (connection != null) releasedConnection = null;
@@ -380,13 +456,14 @@ public final class StreamAllocation {
 
     /**
      * Releases resources held by this allocation. If sufficient resources are allocated, the
-     * connection will be detached or closed. Callers must be synchronized on the connection pool.
+     * connection will be detached or closed. Callers must be synchronized on the connection pool's
+     * lock for this allocation's address.
      *
      * <p>Returns a closeable that the caller should pass to {@link Internal#closeQuietly} upon completion
-     * of the synchronized block. (We don't do I/O while synchronized on the connection pool.)
+     * of the synchronized block. (We don't do I/O while holding the connection pool's lock.)
      */
     private Socket deallocate(boolean noNewStreams, boolean released, boolean streamFinished) {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(lock));
 
         if (streamFinished) {
             this.codec = null;
@@ -396,19 +473,42 @@ public final class StreamAllocation {
         }
         Socket socket = null;
         if (connection != null) {
-            if (noNewStreams) {
-                connection.noNewStreams = true;
+            Object connectionLock = connection.lock();
+            if (connectionLock == lock) {
+                socket = detach(noNewStreams);
+            } else {
+                // A coalesced connection is guarded by the lock of the address it was opened for.
+                synchronized (connectionLock) {
+                    socket = detach(noNewStreams);
+                }
             }
-            if (this.codec == null && (this.released || connection.noNewStreams)) {
-                release(connection);
-                if (connection.allocations.isEmpty()) {
-                    connection.idleAtNanos = System.nanoTime();
-                    if (Internal.instance.connectionBecameIdle(connectionPool, connection)) {
-                        socket = connection.socket();
-                    }
+        }
+        if (this.released && connection == null) {
+            // This allocation won't use its address's lock again.
+            Internal.instance.unlock(connectionPool, lock, this);
+        }
+        return socket;
+    }
+
+    /**
+     * Releases the connection if it has no stream and either this allocation is released or the
+     * connection accepts no new streams. Callers must hold this allocation's and the connection's
+     * locks.
+     */
+    private Socket detach(boolean noNewStreams) {
+        Socket socket = null;
+        if (noNewStreams) {
+            connection.noNewStreams = true;
+        }
+        if (this.codec == null && (this.released || connection.noNewStreams)) {
+            release(connection);
+            if (connection.allocations.isEmpty()) {
+                connection.idleAtNanos = System.nanoTime();
+                if (Internal.instance.connectionBecameIdle(connectionPool, connection)) {
+                    socket = connection.socket();
                 }
-                connection = null;
             }
+            connection = null;
         }
         return socket;
     }
@@ -416,15 +516,20 @@ public final class StreamAllocation {
     public void cancel() {
         HttpCodec codecToCancel;
         RealConnection connectionToCancel;
-        synchronized (connectionPool) {
+        FastFallbackConnector connectorToCancel;
+        synchronized (lock) {
             canceled = true;
             codecToCancel = codec;
             connectionToCancel = connection;
+            connectorToCancel = fastFallbackConnector;
+            lock.notifyAll(); // Wake this allocation if it is waiting for a connection.
         }
         if (codecToCancel != null) {
             codecToCancel.cancel();
         } else if (connectionToCancel != null) {
             connectionToCancel.cancel();
+        } else if (connectorToCancel != null) {
+            connectorToCancel.cancel();
         }
     }
 
@@ -433,7 +538,7 @@ public final class StreamAllocation {
         Connection releasedConnection;
         boolean noNewStreams = false;
 
-        synchronized (connectionPool) {
+        synchronized (lock) {
             if (e instanceof StreamResetException) {
                 ErrorCode errorCode = ((StreamResetException) e).errorCode;
                 if (errorCode == ErrorCode.REFUSED_STREAM) {
@@ -476,7 +581,7 @@ public final class StreamAllocation {
      * {@link #release} on the same connection.
      */
     public void acquire(RealConnection connection, boolean reportedAcquired) {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(lock));
         if (this.connection != null) throw new IllegalStateException();
 
         this.connection = connection;
@@ -504,10 +609,10 @@ public final class StreamAllocation {
      * newConnection}. Typically this occurs when concurrently connecting to an HTTP/2 webserver.
      *
      * <p>Returns a closeable that the caller should pass to {@link Internal#closeQuietly} upon completion
-     * of the synchronized block. (We don't do I/O while synchronized on the connection pool.)
+     * of the synchronized block. (We don't do I/O while holding the connection pool's lock.)
      */
     public Socket releaseAndAcquire(RealConnection newConnection) {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(lock));
         if (codec != null || connection.allocations.size() != 1) throw new IllegalStateException();
 
         // Release the old connection.
@@ -34,6 +34,7 @@ import org.aoju.bus.http.Response;
 import org.aoju.bus.http.internal.Internal;
 import org.aoju.bus.http.internal.connection.RealConnection;
 import org.aoju.bus.http.internal.connection.StreamAllocation;
+import org.aoju.bus.http.internal.http.first.Http1Codec;
 
 import java.io.IOException;
 import java.net.ProtocolException;
@@ -84,12 +85,23 @@ public final class CallServerInterceptor implements Interceptor {
                 long contentLength = request.body().contentLength();
                 CountingSink requestBodyOut =
                         new CountingSink(httpCodec.createRequestBody(request, contentLength));
-                BufferedSink bufferedRequestBody = IoUtils.buffer(requestBodyOut);
 
-                request.body().writeTo(bufferedRequestBody);
-                bufferedRequestBody.close();
-                realChain.eventListener()
-                        .requestBodyEnd(realChain.call(), requestBodyOut.successfulCount);
+                long transferred = -1;
+                if (request.body() instanceof FileRequestBody && httpCodec instanceof Http1Codec) {
+                    transferred = ((Http1Codec) httpCodec).transferRequestBody(
+                            requestBodyOut.delegate(), (FileRequestBody) request.body());
+                }
+                if (transferred != -1) {
+                    // The file went straight to the socket.
+                    requestBodyOut.close();
+                    realChain.eventListener().requestBodyEnd(realChain.call(), transferred);
+                } else {
+                    BufferedSink bufferedRequestBody = IoUtils.buffer(requestBodyOut);
+                    request.body().writeTo(bufferedRequestBody);
+                    bufferedRequestBody.close();
+                    realChain.eventListener()
+                            .requestBodyEnd(realChain.call(), requestBodyOut.successfulCount);
+                }
             } else if (!connection.isMultiplexed()) {
                 // If the "Expect: 100-continue" expectation wasn't met, prevent the HTTP/1 connection
                 // from being reused. Otherwise we're still obligated to transmit the request body to
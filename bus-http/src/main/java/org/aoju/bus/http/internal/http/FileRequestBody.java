@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.http;
+
+import org.aoju.bus.core.consts.MediaType;
+import org.aoju.bus.core.io.BufferedSink;
+import org.aoju.bus.core.io.StreamProgress;
+import org.aoju.bus.http.RequestBody;
+import org.aoju.bus.http.internal.Internal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A request body that is a region of a file. It is read with absolute positions so it may be sent
+ * more than once, for example after a retry or a redirect.
+ *
+ * <p>On a plain HTTP/1.1 connection whose socket has a channel the region is sent with {@link
+ * FileChannel#transferTo}, so the kernel copies it to the socket without passing through the heap.
+ * Otherwise, such as over TLS, it is transferred to the sink through a small heap buffer. The file
+ * is never memory-mapped: mappings are only released by the garbage collector, so mapping large
+ * uploads would exhaust the address space.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class FileRequestBody extends RequestBody {
+
+    /**
+     * The most bytes transferred at once, so that progress is reported regularly.
+     */
+    private static final long TRANSFER_SIZE = 1024 * 1024;
+
+    private final MediaType contentType;
+    private final Path path;
+    private final FileChannel channel;
+    private final long position;
+    private final long count;
+    private final StreamProgress progress;
+
+    /**
+     * @param contentType the media type, may be null
+     * @param path        the file to open for each write, or null to use {@code channel}
+     * @param channel     an open channel, used if {@code path} is null. It isn't closed
+     * @param position    the offset of the region in the file
+     * @param count       the length of the region, or -1 to read to the end of the file
+     * @param progress    notified as the body is written, may be null
+     */
+    public FileRequestBody(MediaType contentType, Path path, FileChannel channel,
+                           long position, long count, StreamProgress progress) {
+        if (path == null && channel == null) throw new NullPointerException("path == null && channel == null");
+        if (position < 0) throw new IllegalArgumentException("position < 0: " + position);
+        this.contentType = contentType;
+        this.path = path;
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+        this.progress = progress;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        if (count != -1) return count;
+        long size = path != null ? path.toFile().length() : channel.size();
+        return Math.max(size - position, 0);
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        transferTo(sink);
+    }
+
+    /**
+     * Writes this body to {@code target} with {@link FileChannel#transferTo}.
+     *
+     * @param target the channel to write to
+     * @return the number of bytes written, which is less than the content length if the file was
+     * truncated
+     * @throws IOException if an I/O error occurs
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        FileChannel file = open();
+        try {
+            long byteCount = contentLength();
+            long written = 0;
+            start();
+            while (written < byteCount) {
+                long transferred = file.transferTo(position + written,
+                        Math.min(byteCount - written, TRANSFER_SIZE), target);
+                if (transferred <= 0) break; // The file was truncated.
+                written += transferred;
+                progress(written);
+            }
+            finish();
+            return written;
+        } finally {
+            close(file);
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return path != null ? FileChannel.open(path, StandardOpenOption.READ) : channel;
+    }
+
+    private void close(FileChannel file) {
+        if (path != null) Internal.closeQuietly(file);
+    }
+
+    private void start() {
+        if (progress != null) progress.start();
+    }
+
+    private void progress(long progressSize) {
+        if (progress != null) progress.progress(progressSize);
+    }
+
+    private void finish() {
+        if (progress != null) progress.finish();
+    }
+
+}
@@ -0,0 +1,470 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.http;
+
+import org.aoju.bus.http.*;
+import org.aoju.bus.http.internal.Internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * This interceptor hedges idempotent requests to cut tail latency. If the first attempt hasn't
+ * received response headers within the configured percentile of recent latencies to the same host,
+ * a second attempt is sent on another connection. Whichever attempt responds first is returned and
+ * the other is canceled. Hedges are only sent while the client's {@link RetryBudget} allows it, so
+ * that a slow server isn't sent twice the traffic.
+ *
+ * <p>The first attempt proceeds on the call's own chain and thread. The hedge is a call of a copy
+ * of the client that doesn't hedge; it is {@linkplain Dispatcher enqueued} so that it counts
+ * against the dispatcher's limits, and runs the application interceptors, follow-ups and the cache
+ * individually. Its events are reported to the call's {@link EventListener}, one at a time with
+ * those of the first attempt, except for the call start and end which the call reports once.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class HedgingInterceptor implements Interceptor {
+
+    /**
+     * Samples needed for a host before its requests are hedged.
+     */
+    private static final int MIN_SAMPLES = 20;
+    /**
+     * Hosts whose latencies are kept. Beyond this the host with the fewest recent samples is
+     * forgotten; hosts idle for two windows have none.
+     */
+    private static final int MAX_HOSTS = 1024;
+    /**
+     * How often a call waiting for its hedge checks whether it was canceled.
+     */
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    /**
+     * Starts hedges when their delay elapses. A single daemon thread serves every client.
+     */
+    private static final ScheduledExecutorService timer = newTimer();
+
+    private final HttpClient client;
+    private final double percentile;
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile HttpClient attemptClient;
+
+    public HedgingInterceptor(HttpClient client, double percentile) {
+        this.client = client;
+        this.percentile = percentile;
+    }
+
+    private static ScheduledExecutorService newTimer() {
+        ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1,
+                Internal.threadFactory("HttpClient Hedging", true));
+        result.setRemoveOnCancelPolicy(true);
+        return result;
+    }
+
+    /**
+     * Returns true if {@code request} is the hedge of another call.
+     */
+    static boolean isHedge(Request request) {
+        return request.tag(Race.class) != null;
+    }
+
+    /**
+     * Returns the latency histogram of {@code host}, creating it if necessary.
+     *
+     * @param host the host name
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String host) {
+        LatencyHistogram histogram = histograms.get(host);
+        if (histogram == null) {
+            histogram = new LatencyHistogram(1, TimeUnit.MINUTES, MIN_SAMPLES);
+            LatencyHistogram existing = histograms.putIfAbsent(host, histogram);
+            if (existing != null) {
+                histogram = existing;
+            } else if (histograms.size() > MAX_HOSTS) {
+                evictLeastSampled(histogram);
+            }
+        }
+        return histogram;
+    }
+
+    private void evictLeastSampled(LatencyHistogram keep) {
+        Map.Entry<String, LatencyHistogram> least = null;
+        long leastCount = Long.MAX_VALUE;
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getValue() == keep) continue;
+            long count = entry.getValue().count();
+            if (count < leastCount) {
+                least = entry;
+                leastCount = count;
+                if (count == 0) break;
+            }
+        }
+        if (least != null) histograms.remove(least.getKey(), least.getValue());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        LatencyHistogram histogram = histogram(request.url().host());
+
+        long delay = isIdempotent(request) ? histogram.percentile(percentile, TimeUnit.MILLISECONDS) : -1;
+        if (delay == -1) {
+            long start = System.nanoTime();
+            Response response = chain.proceed(request);
+            histogram.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return response;
+        }
+
+        RealInterceptorChain realChain = (RealInterceptorChain) chain;
+        Race race = new Race(realChain.call(), request, realChain.eventListener());
+        long start = System.nanoTime();
+        Response response = race.run(realChain, delay);
+        histogram.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return response;
+    }
+
+    private boolean isIdempotent(Request request) {
+        return request.method().equals("GET") || request.method().equals("HEAD");
+    }
+
+    private HttpClient attemptClient() {
+        HttpClient result = attemptClient;
+        if (result == null) {
+            result = client.newBuilder()
+                    .hedging(0)
+                    .eventListenerFactory(call -> {
+                        Race race = call.request().tag(Race.class);
+                        return race != null ? race.hedgeListener : EventListener.NONE;
+                    })
+                    .build();
+            attemptClient = result;
+        }
+        return result;
+    }
+
+    /**
+     * The first attempt of a call and its hedge; the first response wins and the other attempt is
+     * abandoned.
+     */
+    final class Race implements Callback {
+        private final Call call;
+        private final Request request;
+        final AttemptListener primaryListener;
+        final AttemptListener hedgeListener;
+
+        /* all guarded by 'this' */
+        private boolean done;
+        private Call hedge;
+        private Response hedgeResponse;
+        private IOException hedgeFailure;
+
+        Race(Call call, Request request, EventListener eventListener) {
+            this.call = call;
+            this.request = request;
+            this.primaryListener = new AttemptListener(this, call, eventListener, true);
+            this.hedgeListener = new AttemptListener(this, call, eventListener, false);
+        }
+
+        /**
+         * Proceeds with the first attempt on the calling thread, hedging it after {@code
+         * hedgeDelayMillis} or as soon as it fails.
+         */
+        Response run(RealInterceptorChain chain, long hedgeDelayMillis) throws IOException {
+            ScheduledFuture<?> hedgeTimer;
+            try {
+                hedgeTimer = timer.schedule(this::hedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                hedgeTimer = null;
+            }
+            try {
+                Response response = chain.withEventListener(primaryListener).proceed(request);
+                Call loser;
+                synchronized (this) {
+                    if (done) {
+                        // The hedge responded first; this attempt wasn't abandoned in time.
+                        Internal.closeQuietly(response);
+                        return hedgeResponse;
+                    }
+                    done = true;
+                    hedgeListener.lost = true;
+                    loser = hedge;
+                }
+                if (loser != null) loser.cancel();
+                return response;
+            } catch (IOException e) {
+                if (call.isCanceled()) {
+                    cancelHedge();
+                    throw e;
+                }
+                hedge();
+                return awaitHedge(e);
+            } finally {
+                if (hedgeTimer != null) hedgeTimer.cancel(false);
+            }
+        }
+
+        /**
+         * Sends the hedge unless the race is over, it was already sent, or the budget is spent.
+         */
+        void hedge() {
+            Call attempt;
+            synchronized (this) {
+                if (done || hedge != null) return;
+                RetryBudget budget = client.retryBudget();
+                if (budget != null && !budget.tryAcquire()) return;
+                attempt = attemptClient().newCall(request.newBuilder().tag(Race.class, this).build());
+                hedge = attempt;
+            }
+            attempt.enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call attempt, Response response) {
+            synchronized (this) {
+                if (done) {
+                    Internal.closeQuietly(response);
+                    return;
+                }
+                done = true;
+                hedgeResponse = response;
+                primaryListener.lost = true;
+                hedgeListener.won = true;
+                notifyAll();
+            }
+            Internal.instance.abandon(call);
+        }
+
+        @Override
+        public synchronized void onFailure(Call attempt, IOException e) {
+            hedgeFailure = e;
+            notifyAll();
+        }
+
+        /**
+         * Waits for the hedge after the first attempt failed with {@code failure}.
+         */
+        private synchronized Response awaitHedge(IOException failure) throws IOException {
+            try {
+                while (hedgeResponse == null) {
+                    if (hedge == null || hedgeFailure != null) {
+                        done = true;
+                        if (hedgeFailure != null && hedgeFailure != failure) {
+                            failure.addSuppressed(hedgeFailure);
+                        }
+                        throw failure;
+                    }
+                    if (call.isCanceled()) {
+                        done = true;
+                        hedge.cancel();
+                        throw new IOException("Canceled");
+                    }
+                    TimeUnit.MILLISECONDS.timedWait(this, CANCEL_POLL_MILLIS);
+                }
+                return hedgeResponse;
+            } catch (InterruptedException e) {
+                done = true;
+                hedge.cancel();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        private void cancelHedge() {
+            Call attempt;
+            synchronized (this) {
+                done = true;
+                hedgeListener.lost = true;
+                attempt = hedge;
+            }
+            if (attempt != null) attempt.cancel();
+        }
+    }
+
+    /**
+     * Reports the events of one attempt to the call's listener, holding the race's lock so that
+     * the listener never sees callbacks from both attempts at once. Events are attributed to the
+     * call rather than to the hedge's own call. The call reports its start itself, the end is
+     * reported by whichever attempt won, and the events of an attempt that lost are dropped.
+     */
+    static final class AttemptListener extends EventListener {
+        private final Object lock;
+        private final Call call;
+        private final EventListener delegate;
+        /* guarded by lock */
+        boolean won;
+        boolean lost;
+
+        AttemptListener(Object lock, Call call, EventListener delegate, boolean won) {
+            this.lock = lock;
+            this.call = call;
+            this.delegate = delegate;
+            this.won = won;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            synchronized (lock) {
+                if (!lost) delegate.dnsStart(this.call, domainName);
+            }
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            synchronized (lock) {
+                if (!lost) delegate.dnsEnd(this.call, domainName, inetAddressList);
+            }
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            synchronized (lock) {
+                if (!lost) delegate.connectStart(this.call, inetSocketAddress, proxy);
+            }
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            synchronized (lock) {
+                if (!lost) delegate.secureConnectStart(this.call);
+            }
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            synchronized (lock) {
+                if (!lost) delegate.secureConnectEnd(this.call, handshake);
+            }
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                               Protocol protocol) {
+            synchronized (lock) {
+                if (!lost) delegate.connectEnd(this.call, inetSocketAddress, proxy, protocol);
+            }
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            synchronized (lock) {
+                if (!lost) delegate.connectFailed(this.call, inetSocketAddress, proxy, protocol, ioe);
+            }
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            synchronized (lock) {
+                if (!lost) delegate.connectionAcquired(this.call, connection);
+            }
+        }
+
+        @Override
+        public void connectionReleased(Call call, Connection connection) {
+            synchronized (lock) {
+                if (!lost) delegate.connectionReleased(this.call, connection);
+            }
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            synchronized (lock) {
+                if (!lost) delegate.requestHeadersStart(this.call);
+            }
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            synchronized (lock) {
+                if (!lost) delegate.requestHeadersEnd(this.call, request);
+            }
+        }
+
+        @Override
+        public void requestBodyStart(Call call) {
+            synchronized (lock) {
+                if (!lost) delegate.requestBodyStart(this.call);
+            }
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            synchronized (lock) {
+                if (!lost) delegate.requestBodyEnd(this.call, byteCount);
+            }
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            synchronized (lock) {
+                if (!lost) delegate.responseHeadersStart(this.call);
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            synchronized (lock) {
+                if (!lost) delegate.responseHeadersEnd(this.call, response);
+            }
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            synchronized (lock) {
+                if (!lost) delegate.responseBodyStart(this.call);
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            synchronized (lock) {
+                if (!lost) delegate.responseBodyEnd(this.call, byteCount);
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            synchronized (lock) {
+                if (won && !lost) delegate.callEnd(this.call);
+            }
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            synchronized (lock) {
+                if (won && !lost) delegate.callFailed(this.call, ioe);
+            }
+        }
+    }
+
+}
@@ -112,6 +112,15 @@ public final class RealInterceptorChain implements Interceptor.Chain {
                 request, call, eventListener, connectTimeout, readTimeout, millis);
     }
 
+    /**
+     * Returns a copy of this chain that reports the events of the rest of the call to {@code
+     * eventListener}.
+     */
+    public RealInterceptorChain withEventListener(EventListener eventListener) {
+        return new RealInterceptorChain(interceptors, streamAllocation, httpCodec, connection, index,
+                request, call, eventListener, connectTimeout, readTimeout, writeTimeout);
+    }
+
     public StreamAllocation streamAllocation() {
         return streamAllocation;
     }
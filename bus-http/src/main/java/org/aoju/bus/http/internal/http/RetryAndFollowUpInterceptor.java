@@ -58,6 +58,7 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
     private volatile StreamAllocation streamAllocation;
     private Object callStackTrace;
     private volatile boolean canceled;
+    private volatile boolean abandoned;
 
     public RetryAndFollowUpInterceptor(HttpClient client, boolean forWebSocket) {
         this.client = client;
@@ -83,6 +84,16 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
         return canceled;
     }
 
+    /**
+     * Stops the current attempt without canceling the call: its stream is closed and it is not
+     * retried. Used when a hedged attempt of the same call has already responded.
+     */
+    public void abandon() {
+        abandoned = true;
+        StreamAllocation streamAllocation = this.streamAllocation;
+        if (streamAllocation != null) streamAllocation.cancel();
+    }
+
     public void setCallStackTrace(Object callStackTrace) {
         this.callStackTrace = callStackTrace;
     }
@@ -98,6 +109,11 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
         Call call = realChain.call();
         EventListener eventListener = realChain.eventListener();
 
+        // Hedges are paid for by the budget, so only the call that was hedged earns a deposit.
+        if (client.retryBudget() != null && !HedgingInterceptor.isHedge(request)) {
+            client.retryBudget().deposit();
+        }
+
         StreamAllocation streamAllocation = new StreamAllocation(client.connectionPool(),
                 createAddress(request.url()), call, eventListener, callStackTrace);
         this.streamAllocation = streamAllocation;
@@ -105,7 +121,7 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
         int followUpCount = 0;
         Response priorResponse = null;
         while (true) {
-            if (canceled) {
+            if (canceled || abandoned) {
                 streamAllocation.release();
                 throw new IOException("Canceled");
             }
@@ -186,6 +202,13 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
     }
 
     private Address createAddress(HttpUrl url) {
+        return createAddress(client, url);
+    }
+
+    /**
+     * Returns the address that {@code client} uses for connections to {@code url}.
+     */
+    public static Address createAddress(HttpClient client, HttpUrl url) {
         SSLSocketFactory sslSocketFactory = null;
         HostnameVerifier hostnameVerifier = null;
         CertificatePinner certificatePinner = null;
@@ -210,6 +233,9 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
                             boolean requestSendStarted, Request userRequest) {
         streamAllocation.streamFailed(e);
 
+        // A hedge of this call has won.
+        if (abandoned) return false;
+
         // The application layer has forbidden retries.
         if (!client.retryOnConnectionFailure()) return false;
 
@@ -222,6 +248,9 @@ public final class RetryAndFollowUpInterceptor implements Interceptor {
         // No more routes to attempt.
         if (!streamAllocation.hasMoreRoutes()) return false;
 
+        // Retrying would exceed the retry budget.
+        if (client.retryBudget() != null && !client.retryBudget().tryAcquire()) return false;
+
         // For failure recovery, use the same route selector with a new connection.
         return true;
     }
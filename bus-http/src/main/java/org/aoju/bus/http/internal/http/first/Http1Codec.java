@@ -34,6 +34,8 @@ import org.aoju.bus.http.internal.http.*;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.ProtocolException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -109,6 +111,35 @@ public final class Http1Codec implements HttpCodec {
                 "Cannot stream a request body without chunked encoding or a known content length!");
     }
 
+    /**
+     * Sends {@code body} through {@code requestBody}, a sink returned by {@link
+     * #createRequestBody}, with {@link FileChannel#transferTo}. This only works for bodies of a
+     * known length on plain connections whose socket has a blocking channel; otherwise nothing is
+     * written and the body must be written to the sink as usual.
+     *
+     * <p>The kernel writes directly to the socket, so the write timeout doesn't apply.
+     *
+     * @param requestBody the request body sink
+     * @param body        the file region to send
+     * @return the number of bytes sent, or -1 if the body wasn't sent
+     * @throws IOException if the body can't be sent
+     */
+    public long transferRequestBody(Sink requestBody, FileRequestBody body) throws IOException {
+        if (!(requestBody instanceof FixedLengthSink) || streamAllocation == null) return -1;
+        SocketChannel channel = streamAllocation.connection().socket().getChannel();
+        if (channel == null || !channel.isBlocking()) return -1;
+
+        FixedLengthSink fixedLengthSink = (FixedLengthSink) requestBody;
+        sink.flush();
+        long byteCount = body.transferTo(channel);
+        if (byteCount > fixedLengthSink.bytesRemaining) {
+            throw new ProtocolException("expected " + fixedLengthSink.bytesRemaining
+                    + " bytes but received " + byteCount);
+        }
+        fixedLengthSink.bytesRemaining -= byteCount;
+        return byteCount;
+    }
+
     @Override
     public void cancel() {
         RealConnection connection = streamAllocation.connection();
@@ -153,7 +153,9 @@ public final class Http2Codec implements HttpCodec {
 
         boolean hasRequestBody = request.body() != null;
         List<Header> requestHeaders = http2HeadersList(request);
-        stream = connection.newStream(requestHeaders, hasRequestBody);
+        StreamPriority priority = request.tag(StreamPriority.class);
+        stream = connection.newStream(requestHeaders, hasRequestBody,
+                priority != null ? priority.weight() : 0);
         stream.readTimeout().timeout(chain.readTimeoutMillis(), TimeUnit.MILLISECONDS);
         stream.writeTimeout().timeout(chain.writeTimeoutMillis(), TimeUnit.MILLISECONDS);
     }
@@ -73,6 +73,13 @@ public final class Http2Connection implements Closeable {
 
     static final int HTTP_CLIENT_WINDOW_SIZE = 16 * 1024 * 1024;
 
+    /**
+     * Payload of the pings used to estimate the bandwidth-delay product. Distinct from keep-alive
+     * pings so that their pongs can be told apart.
+     */
+    static final int BDP_PING_PAYLOAD1 = 0x42445020; // "BDP "
+    static final int BDP_PING_PAYLOAD2 = 0x70696e67; // "ping"
+
     /**
      * Shared executor to send notifications of incoming streams. This executor requires multiple
      * threads because listeners are not required to return promptly.
@@ -134,10 +141,26 @@ public final class Http2Connection implements Closeable {
      */
     Settings httpSettings = new Settings();
     boolean receivedInitialPeerSettings = false;
+    /**
+     * The size of the connection-level receive window we advertise to the peer.
+     */
+    int connectionWindowSize;
+    /**
+     * True to grow the receive windows as the bandwidth-delay product estimate grows.
+     */
+    final boolean adaptiveWindow;
     /**
      * True if we have sent a ping that is still awaiting a reply.
      */
     private boolean awaitingPong;
+    /**
+     * True if we have sent a bandwidth-delay product ping that is still awaiting a reply.
+     */
+    private boolean awaitingBdpPong;
+    /**
+     * Bytes of data received since the outstanding bandwidth-delay product ping was sent.
+     */
+    private long bdpBytesReceived;
 
     Http2Connection(Builder builder) {
         pushObserver = builder.pushObserver;
@@ -150,12 +173,16 @@ public final class Http2Connection implements Closeable {
         }
 
         // Flow control was designed more for servers, or proxies than edge clients.
-        // If we are a client, set the flow control window to 16MiB.  This avoids
+        // If we are a client, set the flow control window to 16MiB by default.  This avoids
         // thrashing window updates every 64KiB, yet small enough to avoid blowing
         // up the heap.
         if (builder.client) {
-            httpSettings.set(Settings.INITIAL_WINDOW_SIZE, HTTP_CLIENT_WINDOW_SIZE);
+            httpSettings.set(Settings.INITIAL_WINDOW_SIZE, builder.streamWindowSize);
+            connectionWindowSize = builder.connectionWindowSize;
+        } else {
+            connectionWindowSize = Settings.DEFAULT_INITIAL_WINDOW_SIZE;
         }
+        adaptiveWindow = builder.client && builder.adaptiveWindow;
 
         hostname = builder.hostname;
 
@@ -209,7 +236,7 @@ public final class Http2Connection implements Closeable {
 
     synchronized void updateConnectionFlowControl(long read) {
         unacknowledgedBytesRead += read;
-        if (unacknowledgedBytesRead >= httpSettings.getInitialWindowSize() / 2) {
+        if (unacknowledgedBytesRead >= connectionWindowSize / 2) {
             writeWindowUpdateLater(0, unacknowledgedBytesRead);
             unacknowledgedBytesRead = 0;
         }
@@ -225,7 +252,7 @@ public final class Http2Connection implements Closeable {
     public Http2Stream pushStream(int associatedStreamId, List<Header> requestHeaders, boolean out)
             throws IOException {
         if (client) throw new IllegalStateException("Client cannot push requests.");
-        return newStream(associatedStreamId, requestHeaders, out);
+        return newStream(associatedStreamId, requestHeaders, out, 0);
     }
 
     /**
@@ -235,11 +262,24 @@ public final class Http2Connection implements Closeable {
      *            Corresponds to {@code FLAG_FIN}.
      */
     public Http2Stream newStream(List<Header> requestHeaders, boolean out) throws IOException {
-        return newStream(0, requestHeaders, out);
+        return newStream(0, requestHeaders, out, 0);
     }
 
-    private Http2Stream newStream(
-            int associatedStreamId, List<Header> requestHeaders, boolean out) throws IOException {
+    /**
+     * Returns a new locally-initiated stream with a priority weight.
+     *
+     * @param out    true to create an output stream that we can use to send data to the remote peer.
+     *               Corresponds to {@code FLAG_FIN}.
+     * @param weight the stream's weight in [1..256] relative to its siblings, or 0 to send no
+     *               priority and get the default weight of 16.
+     */
+    public Http2Stream newStream(List<Header> requestHeaders, boolean out, int weight)
+            throws IOException {
+        return newStream(0, requestHeaders, out, weight);
+    }
+
+    private Http2Stream newStream(int associatedStreamId, List<Header> requestHeaders, boolean out,
+                                  int weight) throws IOException {
         boolean outFinished = !out;
         boolean inFinished = false;
         boolean flushHeaders;
@@ -263,7 +303,7 @@ public final class Http2Connection implements Closeable {
                 }
             }
             if (associatedStreamId == 0) {
-                writer.synStream(outFinished, streamId, associatedStreamId, requestHeaders);
+                writer.synStream(outFinished, streamId, associatedStreamId, weight, requestHeaders);
             } else if (client) {
                 throw new IllegalArgumentException("client streams shouldn't have associated stream IDs");
             } else { // HTTP/2 has a PUSH_PROMISE frame.
@@ -388,6 +428,84 @@ public final class Http2Connection implements Closeable {
         }
     }
 
+    /**
+     * Tracks {@code length} bytes of incoming data. When window adaptation is enabled and no
+     * bandwidth-delay product ping is in flight, this sends one. The bytes that arrive before its pong
+     * approximate what the network can deliver in one round trip.
+     */
+    void bdpDataReceived(int length) {
+        if (!adaptiveWindow) return;
+        synchronized (this) {
+            if (awaitingBdpPong) {
+                bdpBytesReceived += length;
+                return;
+            }
+            if (shutdown || httpSettings.getInitialWindowSize() >= HTTP_CLIENT_WINDOW_SIZE) return;
+            awaitingBdpPong = true;
+            bdpBytesReceived = length;
+        }
+        try {
+            writerExecutor.execute(new NamedRunnable("httpClient %s BDP ping", hostname) {
+                @Override
+                public void execute() {
+                    try {
+                        writer.ping(false, BDP_PING_PAYLOAD1, BDP_PING_PAYLOAD2);
+                    } catch (IOException e) {
+                        failConnection();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // This connection has been closed.
+        }
+    }
+
+    /**
+     * Grows the receive windows if the last round trip delivered nearly a full stream window. The
+     * stream window doubles the sample, up to {@link #HTTP_CLIENT_WINDOW_SIZE}, and the connection
+     * window is kept at least as large as the stream window.
+     */
+    void bdpPongReceived() {
+        final int streamWindowSize;
+        final int connectionWindowIncrement;
+        synchronized (this) {
+            awaitingBdpPong = false;
+            int current = httpSettings.getInitialWindowSize();
+            if (bdpBytesReceived < current * 2L / 3) return;
+            streamWindowSize = (int) Math.min(HTTP_CLIENT_WINDOW_SIZE, bdpBytesReceived * 2);
+            if (streamWindowSize <= current) return;
+            httpSettings.set(Settings.INITIAL_WINDOW_SIZE, streamWindowSize);
+            connectionWindowIncrement = Math.max(0, streamWindowSize - connectionWindowSize);
+            connectionWindowSize += connectionWindowIncrement;
+        }
+        try {
+            writerExecutor.execute(new NamedRunnable("httpClient %s window update", hostname) {
+                @Override
+                public void execute() {
+                    try {
+                        Settings settings = new Settings();
+                        settings.set(Settings.INITIAL_WINDOW_SIZE, streamWindowSize);
+                        writer.settings(settings);
+                        if (connectionWindowIncrement > 0) {
+                            writer.windowUpdate(0, connectionWindowIncrement);
+                        }
+                    } catch (IOException e) {
+                        failConnection();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // This connection has been closed.
+        }
+    }
+
+    /**
+     * Returns the receive window currently advertised for each stream.
+     */
+    public synchronized int streamWindowSize() {
+        return httpSettings.getInitialWindowSize();
+    }
+
     /**
      * For testing: sends a ping and waits for a pong.
      */
@@ -510,9 +628,8 @@ public final class Http2Connection implements Closeable {
         if (sendConnectionPreface) {
             writer.connectionPreface();
             writer.settings(httpSettings);
-            int windowSize = httpSettings.getInitialWindowSize();
-            if (windowSize != Settings.DEFAULT_INITIAL_WINDOW_SIZE) {
-                writer.windowUpdate(0, windowSize - Settings.DEFAULT_INITIAL_WINDOW_SIZE);
+            if (connectionWindowSize != Settings.DEFAULT_INITIAL_WINDOW_SIZE) {
+                writer.windowUpdate(0, connectionWindowSize - Settings.DEFAULT_INITIAL_WINDOW_SIZE);
             }
         }
         new Thread(readerRunnable).start(); // Not a daemon thread.
@@ -650,6 +767,9 @@ public final class Http2Connection implements Closeable {
         PushObserver pushObserver = PushObserver.CANCEL;
         boolean client;
         int pingIntervalMillis;
+        int connectionWindowSize = HTTP_CLIENT_WINDOW_SIZE;
+        int streamWindowSize = HTTP_CLIENT_WINDOW_SIZE;
+        boolean adaptiveWindow;
 
         /**
          * @param client true if this peer initiated the connection; false if this peer accepted the
@@ -688,6 +808,33 @@ public final class Http2Connection implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the connection-level receive window a client advertises. Servers always use the
+         * protocol default.
+         */
+        public Builder connectionWindowSize(int connectionWindowSize) {
+            this.connectionWindowSize = connectionWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the initial per-stream receive window a client advertises. Servers always use the
+         * protocol default.
+         */
+        public Builder streamWindowSize(int streamWindowSize) {
+            this.streamWindowSize = streamWindowSize;
+            return this;
+        }
+
+        /**
+         * Grow the receive windows of a client connection to match the bandwidth-delay product
+         * measured with pings.
+         */
+        public Builder adaptiveWindow(boolean adaptiveWindow) {
+            this.adaptiveWindow = adaptiveWindow;
+            return this;
+        }
+
         public Http2Connection build() {
             return new Http2Connection(this);
         }
@@ -782,6 +929,7 @@ public final class Http2Connection implements Closeable {
                 pushDataLater(streamId, source, length, inFinished);
                 return;
             }
+            bdpDataReceived(length);
             Http2Stream dataStream = getStream(streamId);
             if (dataStream == null) {
                 writeSynResetLater(streamId, ErrorCode.PROTOCOL_ERROR);
@@ -916,7 +1064,9 @@ public final class Http2Connection implements Closeable {
 
         @Override
         public void ping(boolean reply, int payload1, int payload2) {
-            if (reply) {
+            if (reply && payload1 == BDP_PING_PAYLOAD1 && payload2 == BDP_PING_PAYLOAD2) {
+                bdpPongReceived();
+            } else if (reply) {
                 synchronized (Http2Connection.this) {
                     awaitingPong = false;
                     Http2Connection.this.notifyAll();
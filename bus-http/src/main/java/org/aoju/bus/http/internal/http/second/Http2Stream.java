@@ -400,9 +400,10 @@ public final class Http2Stream {
         private final Buffer readBuffer = new Buffer();
 
         /**
-         * Maximum number of bytes to buffer before reporting a flow control error.
+         * Maximum number of bytes to buffer before reporting a flow control error. This grows with
+         * the connection's stream window.
          */
-        private final long maxByteCount;
+        private long maxByteCount;
 
         /**
          * True if the caller has closed this stream.
@@ -506,8 +507,10 @@ public final class Http2Stream {
             while (byteCount > 0) {
                 boolean finished;
                 boolean flowControlError;
+                long streamWindowSize = connection.streamWindowSize();
                 synchronized (Http2Stream.this) {
                     finished = this.finished;
+                    maxByteCount = Math.max(maxByteCount, streamWindowSize);
                     flowControlError = byteCount + readBuffer.size() > maxByteCount;
                 }
 
@@ -120,8 +120,17 @@ final class Http2Writer implements Closeable {
 
     public synchronized void synStream(boolean outFinished, int streamId,
                                        int associatedStreamId, List<Header> headerBlock) throws IOException {
+        synStream(outFinished, streamId, associatedStreamId, 0, headerBlock);
+    }
+
+    /**
+     * Writes a {@code HEADERS} frame that opens a stream. If {@code weight} is non-zero the frame
+     * carries a priority with that weight and no dependency.
+     */
+    public synchronized void synStream(boolean outFinished, int streamId, int associatedStreamId,
+                                       int weight, List<Header> headerBlock) throws IOException {
         if (closed) throw new IOException("closed");
-        headers(outFinished, streamId, headerBlock);
+        headers(outFinished, streamId, weight, headerBlock);
     }
 
     public synchronized void synReply(boolean outFinished, int streamId,
@@ -290,15 +299,26 @@ final class Http2Writer implements Closeable {
     }
 
     void headers(boolean outFinished, int streamId, List<Header> headerBlock) throws IOException {
+        headers(outFinished, streamId, 0, headerBlock);
+    }
+
+    void headers(boolean outFinished, int streamId, int weight, List<Header> headerBlock)
+            throws IOException {
         if (closed) throw new IOException("closed");
         hpackWriter.writeHeaders(headerBlock);
 
+        int priorityLength = weight != 0 ? 5 : 0; // Stream dependency (4 bytes) + weight (1 byte).
         long byteCount = hpackBuffer.size();
-        int length = (int) Math.min(maxFrameSize, byteCount);
+        int length = (int) Math.min(maxFrameSize - priorityLength, byteCount);
         byte type = Http2.TYPE_HEADERS;
         byte flags = byteCount == length ? Http2.FLAG_END_HEADERS : 0;
         if (outFinished) flags |= Http2.FLAG_END_STREAM;
-        frameHeader(streamId, length, type, flags);
+        if (weight != 0) flags |= Http2.FLAG_PRIORITY;
+        frameHeader(streamId, length + priorityLength, type, flags);
+        if (weight != 0) {
+            sink.writeInt(0); // Not exclusive, depends on the root.
+            sink.writeByte((weight - 1) & 0xff);
+        }
         sink.write(hpackBuffer, length);
 
         if (byteCount > length) writeContinuationFrames(streamId, byteCount - length);
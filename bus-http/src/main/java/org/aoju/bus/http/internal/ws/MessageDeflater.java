@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.ws;
+
+import org.aoju.bus.core.io.Buffer;
+import org.aoju.bus.core.io.ByteString;
+import org.aoju.bus.core.io.DeflaterSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses messages for permessage-deflate. The {@link Deflater} is reused for every message,
+ * and keeps its dictionary between messages unless context takeover is disabled.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+final class MessageDeflater implements Closeable {
+
+    /**
+     * The tail of a sync-flushed deflate stream, removed from each message per RFC 7692 7.2.1.
+     */
+    static final ByteString EMPTY_DEFLATE_BLOCK = ByteString.decodeHex("0000ffff");
+
+    private final boolean noContextTakeover;
+    private final Buffer deflatedBytes = new Buffer();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true /* nowrap */);
+    private final DeflaterSink deflaterSink = new DeflaterSink(deflatedBytes, deflater);
+    // Guarded by this.
+    private boolean closed;
+
+    MessageDeflater(boolean noContextTakeover) {
+        this.noContextTakeover = noContextTakeover;
+    }
+
+    /**
+     * Replaces the content of {@code buffer} with its compressed form.
+     */
+    synchronized void deflate(Buffer buffer) throws IOException {
+        if (closed) throw new IOException("closed");
+        if (deflatedBytes.size() != 0) throw new IllegalStateException();
+
+        if (noContextTakeover) {
+            deflater.reset();
+        }
+
+        deflaterSink.write(buffer, buffer.size());
+        deflaterSink.flush();
+
+        if (deflatedBytes.rangeEquals(deflatedBytes.size() - EMPTY_DEFLATE_BLOCK.size(), EMPTY_DEFLATE_BLOCK)) {
+            buffer.write(deflatedBytes, deflatedBytes.size() - EMPTY_DEFLATE_BLOCK.size());
+            deflatedBytes.clear();
+        } else {
+            // The message must still end on a block boundary; an empty final block does that.
+            deflatedBytes.writeByte(0x00);
+            buffer.write(deflatedBytes, deflatedBytes.size());
+        }
+    }
+
+    /**
+     * Releases the native memory of the {@link Deflater}. Messages can't be compressed afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        deflater.end();
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.ws;
+
+import org.aoju.bus.core.io.Buffer;
+import org.aoju.bus.core.io.InflaterSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses messages for permessage-deflate. The {@link Inflater} is reused for every message,
+ * and keeps its dictionary between messages unless the peer disabled context takeover.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+final class MessageInflater implements Closeable {
+
+    /**
+     * The tail of a sync-flushed deflate stream, which senders strip and receivers add back.
+     */
+    private static final int OCTETS_TO_ADD_BEFORE_INFLATION = 0x0000ffff;
+
+    private final boolean noContextTakeover;
+    private final Buffer deflatedBytes = new Buffer();
+    private final Inflater inflater = new Inflater(true /* nowrap */);
+    private final InflaterSource inflaterSource = new InflaterSource(deflatedBytes, inflater);
+    // Guarded by this.
+    private boolean closed;
+
+    MessageInflater(boolean noContextTakeover) {
+        this.noContextTakeover = noContextTakeover;
+    }
+
+    /**
+     * Replaces the content of {@code buffer} with its decompressed form.
+     */
+    synchronized void inflate(Buffer buffer) throws IOException {
+        if (closed) throw new IOException("closed");
+        // Release the input the inflater consumed for the previous message.
+        inflaterSource.refill();
+        if (deflatedBytes.size() != 0) throw new IllegalStateException();
+
+        if (noContextTakeover) {
+            inflater.reset();
+        }
+
+        deflatedBytes.writeAll(buffer);
+        deflatedBytes.writeInt(OCTETS_TO_ADD_BEFORE_INFLATION);
+
+        // Stop once all input is consumed: the message doesn't end the deflate stream, so reading
+        // further would fail on the exhausted source.
+        long totalBytesToRead = inflater.getBytesRead() + deflatedBytes.size();
+        do {
+            inflaterSource.read(buffer, Long.MAX_VALUE);
+        } while (inflater.getBytesRead() < totalBytesToRead);
+    }
+
+    /**
+     * Releases the native memory of the {@link Inflater}. Messages can't be decompressed afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        inflater.end();
+    }
+
+}
@@ -26,11 +26,11 @@ package org.aoju.bus.http.internal.ws;
 import org.aoju.bus.core.io.BufferedSink;
 import org.aoju.bus.core.io.BufferedSource;
 import org.aoju.bus.core.io.ByteString;
-import org.aoju.bus.core.utils.IoUtils;
 import org.aoju.bus.http.*;
 import org.aoju.bus.http.internal.Internal;
 import org.aoju.bus.http.internal.connection.StreamAllocation;
 
+import javax.net.SocketFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.ProtocolException;
@@ -72,6 +72,18 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
     private final Random random;
     private final long pingIntervalMillis;
     private final String key;
+    /**
+     * The negotiated extensions. None until this web socket is connected.
+     */
+    private WebSocketExtensions extensions = new WebSocketExtensions(false, -1, false, -1, false, false);
+    /**
+     * True to reset our compressor after each message even if the peer didn't ask for it.
+     */
+    private boolean noContextTakeover;
+    /**
+     * Messages smaller than this are sent uncompressed.
+     */
+    private long minimumDeflateSize;
     /**
      * This runnable processes the outgoing queues. Call {@link #runWriter()} to after enqueueing.
      */
@@ -91,7 +103,8 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
      */
     private Call call;
     /**
-     * Null until this web socket is connected. Only accessed by the reader thread.
+     * Null until this web socket is connected. Only read by the reader thread, except to be closed.
+     * Guarded by this.
      */
     private WebSocketReader reader;
     /**
@@ -202,16 +215,29 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
     }
 
     public void connect(HttpClient client) {
-        client = client.newBuilder()
+        HttpClient.Builder builder = client.newBuilder()
                 .eventListener(EventListener.NONE)
-                .protocols(ONLY_HTTP1)
-                .build();
-        final Request request = originalRequest.newBuilder()
+                .protocols(ONLY_HTTP1);
+        if (client.socketFactory() instanceof ChannelSocketFactory) {
+            // The reader thread blocks in read while the writer writes; on channel sockets before
+            // JDK 13 both contend for blockingLock().
+            builder.socketFactory(SocketFactory.getDefault());
+        }
+        client = builder.build();
+        Request.Builder requestBuilder = originalRequest.newBuilder()
                 .header("Upgrade", "websocket")
                 .header("Connection", "Upgrade")
                 .header("Sec-WebSocket-Key", key)
-                .header("Sec-WebSocket-Version", "13")
-                .build();
+                .header("Sec-WebSocket-Version", "13");
+        if (client.webSocketCompression()
+                && originalRequest.header(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION) == null) {
+            WebSocketExtensions offer = WebSocketExtensions.offer(
+                    client.webSocketNoContextTakeover(), client.webSocketServerMaxWindowBits());
+            requestBuilder.header(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION, offer.header());
+        }
+        noContextTakeover = client.webSocketNoContextTakeover();
+        minimumDeflateSize = client.minWebSocketMessageToCompress();
+        final Request request = requestBuilder.build();
         call = Internal.instance.newWebSocketCall(client, request);
         call.timeout().clearTimeout();
         call.enqueue(new Callback() {
@@ -219,6 +245,7 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
             public void onResponse(Call call, Response response) {
                 try {
                     checkResponse(response);
+                    checkExtensions(request, response);
                 } catch (ProtocolException e) {
                     failWebSocket(e, response);
                     Internal.closeQuietly(response);
@@ -276,10 +303,38 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
         }
     }
 
+    /**
+     * Accepts the extensions the server agreed to. It may only agree to extensions that were offered,
+     * and only with parameters this web socket can honor.
+     */
+    void checkExtensions(Request request, Response response) throws ProtocolException {
+        WebSocketExtensions extensions = WebSocketExtensions.parse(response.headers());
+        if (!extensions.perMessageDeflate && !extensions.unknownValues) return;
+
+        boolean offered = WebSocketExtensions.parse(request.headers()).perMessageDeflate;
+        if (!offered || !extensions.isValid()) {
+            throw new ProtocolException("Unexpected '" + WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION
+                    + "' header value '" + response.header(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION) + "'");
+        }
+        synchronized (this) {
+            this.extensions = extensions;
+        }
+    }
+
     public void initReaderAndWriter(String name, Streams streams) throws IOException {
+        boolean perMessageDeflate;
+        boolean readerNoContextTakeover;
         synchronized (this) {
+            perMessageDeflate = extensions.perMessageDeflate;
+            boolean writerNoContextTakeover = noContextTakeover || (streams.client
+                    ? extensions.clientNoContextTakeover
+                    : extensions.serverNoContextTakeover);
+            readerNoContextTakeover = streams.client
+                    ? extensions.serverNoContextTakeover
+                    : extensions.clientNoContextTakeover;
             this.streams = streams;
-            this.writer = new WebSocketWriter(streams.client, streams.sink, random);
+            this.writer = new WebSocketWriter(streams.client, streams.sink, random,
+                    perMessageDeflate, writerNoContextTakeover, minimumDeflateSize);
             this.executor = new ScheduledThreadPoolExecutor(1, Internal.threadFactory(name, false));
             if (pingIntervalMillis != 0) {
                 executor.scheduleAtFixedRate(
@@ -290,7 +345,14 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
             }
         }
 
-        reader = new WebSocketReader(streams.client, streams.source, this);
+        WebSocketReader reader = new WebSocketReader(streams.client, streams.source, this,
+                perMessageDeflate, readerNoContextTakeover);
+        boolean closed;
+        synchronized (this) {
+            this.reader = reader;
+            closed = this.streams == null;
+        }
+        if (closed) reader.close();
     }
 
     /**
@@ -399,6 +461,7 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
             }
         } finally {
             Internal.closeQuietly(toClose);
+            if (toClose != null) closeCodecs();
         }
     }
 
@@ -531,10 +594,7 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
 
             } else if (messageOrClose instanceof Message) {
                 ByteString data = ((Message) messageOrClose).data;
-                BufferedSink sink = IoUtils.buffer(writer.newMessageSink(
-                        ((Message) messageOrClose).formatOpcode, data.size()));
-                sink.write(data);
-                sink.close();
+                writer.writeMessage(((Message) messageOrClose).formatOpcode, data);
                 synchronized (this) {
                     queueSize -= data.size();
                 }
@@ -555,6 +615,7 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
             return true;
         } finally {
             Internal.closeQuietly(streamsToClose);
+            if (streamsToClose != null) closeCodecs();
         }
     }
 
@@ -598,7 +659,22 @@ public final class RealWebSocket implements WebSocket, WebSocketReader.FrameCall
             listener.onFailure(this, e, response);
         } finally {
             Internal.closeQuietly(streamsToClose);
+            if (streamsToClose != null) closeCodecs();
+        }
+    }
+
+    /**
+     * Releases the compression state of the reader and writer once the streams have been closed.
+     */
+    private void closeCodecs() {
+        WebSocketReader reader;
+        WebSocketWriter writer;
+        synchronized (this) {
+            reader = this.reader;
+            writer = this.writer;
         }
+        if (reader != null) reader.close();
+        if (writer != null) writer.close();
     }
 
     static final class Message {
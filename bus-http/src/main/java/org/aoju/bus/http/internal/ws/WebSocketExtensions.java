@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.ws;
+
+import org.aoju.bus.http.Headers;
+
+/**
+ * The <a href="https://tools.ietf.org/html/rfc7692">permessage-deflate</a> parameters of a web
+ * socket, as offered in a {@code Sec-WebSocket-Extensions} request header or accepted in the
+ * response.
+ *
+ * <p>{@link java.util.zip.Deflater} always uses a 32 KiB window, so a response that limits the
+ * client's window with {@code client_max_window_bits} can't be honored and is {@linkplain #isValid
+ * rejected}. The server's window may be limited freely, since an inflater with a 32 KiB window
+ * handles any smaller one.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class WebSocketExtensions {
+
+    static final String HEADER_WEB_SOCKET_EXTENSION = "Sec-WebSocket-Extensions";
+    static final String PER_MESSAGE_DEFLATE = "permessage-deflate";
+
+    /**
+     * True if permessage-deflate is in use.
+     */
+    final boolean perMessageDeflate;
+    /**
+     * The log2 of the client's window, or -1 if unspecified.
+     */
+    final int clientMaxWindowBits;
+    /**
+     * True if the client must reset its compressor after each message.
+     */
+    final boolean clientNoContextTakeover;
+    /**
+     * The log2 of the server's window, or -1 if unspecified.
+     */
+    final int serverMaxWindowBits;
+    /**
+     * True if the server must reset its compressor after each message.
+     */
+    final boolean serverNoContextTakeover;
+    /**
+     * True if the header had extensions or parameters that aren't understood.
+     */
+    final boolean unknownValues;
+
+    WebSocketExtensions(boolean perMessageDeflate, int clientMaxWindowBits,
+                        boolean clientNoContextTakeover, int serverMaxWindowBits,
+                        boolean serverNoContextTakeover, boolean unknownValues) {
+        this.perMessageDeflate = perMessageDeflate;
+        this.clientMaxWindowBits = clientMaxWindowBits;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+        this.serverMaxWindowBits = serverMaxWindowBits;
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.unknownValues = unknownValues;
+    }
+
+    /**
+     * Returns the client's offer.
+     *
+     * @param noContextTakeover   true to reset both compressors after each message
+     * @param serverMaxWindowBits the log2 of the server's window, or -1 for the default
+     * @return the offer
+     */
+    static WebSocketExtensions offer(boolean noContextTakeover, int serverMaxWindowBits) {
+        return new WebSocketExtensions(true, -1, noContextTakeover,
+                serverMaxWindowBits, noContextTakeover, false);
+    }
+
+    /**
+     * Parses the {@code Sec-WebSocket-Extensions} headers in {@code headers}.
+     */
+    static WebSocketExtensions parse(Headers headers) {
+        boolean perMessageDeflate = false;
+        int clientMaxWindowBits = -1;
+        boolean clientNoContextTakeover = false;
+        int serverMaxWindowBits = -1;
+        boolean serverNoContextTakeover = false;
+        boolean unknownValues = false;
+
+        for (String header : headers.values(HEADER_WEB_SOCKET_EXTENSION)) {
+            for (String extension : header.split(",")) {
+                String[] parameters = extension.split(";");
+                String name = parameters[0].trim();
+                if (name.isEmpty()) continue;
+                if (!name.equalsIgnoreCase(PER_MESSAGE_DEFLATE) || perMessageDeflate) {
+                    // Unknown or repeated extension.
+                    unknownValues = true;
+                    continue;
+                }
+                perMessageDeflate = true;
+
+                for (int i = 1; i < parameters.length; i++) {
+                    String parameter = parameters[i].trim();
+                    int equals = parameter.indexOf('=');
+                    String key = (equals != -1 ? parameter.substring(0, equals) : parameter).trim();
+                    String value = equals != -1 ? unquote(parameter.substring(equals + 1).trim()) : null;
+
+                    if (key.equalsIgnoreCase("client_max_window_bits")) {
+                        if (clientMaxWindowBits != -1) unknownValues = true;
+                        clientMaxWindowBits = value != null ? windowBits(value) : 15;
+                        if (clientMaxWindowBits == -1) unknownValues = true;
+                    } else if (key.equalsIgnoreCase("client_no_context_takeover")) {
+                        if (clientNoContextTakeover || value != null) unknownValues = true;
+                        clientNoContextTakeover = true;
+                    } else if (key.equalsIgnoreCase("server_max_window_bits")) {
+                        if (serverMaxWindowBits != -1) unknownValues = true;
+                        serverMaxWindowBits = value != null ? windowBits(value) : -1;
+                        if (serverMaxWindowBits == -1) unknownValues = true;
+                    } else if (key.equalsIgnoreCase("server_no_context_takeover")) {
+                        if (serverNoContextTakeover || value != null) unknownValues = true;
+                        serverNoContextTakeover = true;
+                    } else {
+                        unknownValues = true;
+                    }
+                }
+            }
+        }
+
+        return new WebSocketExtensions(perMessageDeflate, clientMaxWindowBits,
+                clientNoContextTakeover, serverMaxWindowBits, serverNoContextTakeover, unknownValues);
+    }
+
+    private static String unquote(String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                ? value.substring(1, value.length() - 1)
+                : value;
+    }
+
+    private static int windowBits(String value) {
+        try {
+            int bits = Integer.parseInt(value);
+            return bits >= 8 && bits <= 15 ? bits : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns true if a client may use these response parameters. The client's window can't be
+     * limited below the 15 bits that {@link java.util.zip.Deflater} uses.
+     */
+    boolean isValid() {
+        return !unknownValues && (clientMaxWindowBits == -1 || clientMaxWindowBits == 15);
+    }
+
+    /**
+     * Returns these parameters formatted for a {@code Sec-WebSocket-Extensions} header.
+     */
+    String header() {
+        StringBuilder result = new StringBuilder(PER_MESSAGE_DEFLATE);
+        if (clientMaxWindowBits != -1) result.append("; client_max_window_bits=").append(clientMaxWindowBits);
+        if (clientNoContextTakeover) result.append("; client_no_context_takeover");
+        if (serverMaxWindowBits != -1) result.append("; server_max_window_bits=").append(serverMaxWindowBits);
+        if (serverNoContextTakeover) result.append("; server_no_context_takeover");
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return perMessageDeflate ? header() : "none";
+    }
+
+}
@@ -48,14 +48,28 @@ final class WebSocketReader {
     private final Buffer messageFrameBuffer = new Buffer();
     private final byte[] maskKey;
     private final Buffer.UnsafeCursor maskCursor;
+    /**
+     * Non-null if permessage-deflate was negotiated.
+     */
+    private final MessageInflater messageInflater;
     boolean closed;
     // Stateful data about the current frame.
     int opcode;
     long frameLength;
     boolean isFinalFrame;
     boolean isControlFrame;
+    boolean readingCompressedMessage;
 
     WebSocketReader(boolean isClient, BufferedSource source, FrameCallback frameCallback) {
+        this(isClient, source, frameCallback, false, false);
+    }
+
+    /**
+     * @param perMessageDeflate true if permessage-deflate was negotiated
+     * @param noContextTakeover true if the peer resets its compressor after each message
+     */
+    WebSocketReader(boolean isClient, BufferedSource source, FrameCallback frameCallback,
+                    boolean perMessageDeflate, boolean noContextTakeover) {
         if (source == null) throw new NullPointerException("source == null");
         if (frameCallback == null) throw new NullPointerException("frameCallback == null");
         this.isClient = isClient;
@@ -65,6 +79,7 @@ final class WebSocketReader {
         // Masks are only a concern for server writers.
         maskKey = isClient ? null : new byte[4];
         maskCursor = isClient ? null : new Buffer.UnsafeCursor();
+        messageInflater = perMessageDeflate ? new MessageInflater(noContextTakeover) : null;
     }
 
     /**
@@ -109,9 +124,20 @@ final class WebSocketReader {
         }
 
         boolean reservedFlag1 = (b0 & WebSocketProtocol.B0_FLAG_RSV1) != 0;
+        if (reservedFlag1) {
+            // RSV1 marks a compressed message, and is only set on its first frame.
+            if (messageInflater == null || isControlFrame
+                    || opcode == WebSocketProtocol.OPCODE_CONTINUATION) {
+                throw new ProtocolException("Unexpected rsv1 flag");
+            }
+            readingCompressedMessage = true;
+        } else if (!isControlFrame && opcode != WebSocketProtocol.OPCODE_CONTINUATION) {
+            readingCompressedMessage = false;
+        }
+
         boolean reservedFlag2 = (b0 & WebSocketProtocol.B0_FLAG_RSV2) != 0;
         boolean reservedFlag3 = (b0 & WebSocketProtocol.B0_FLAG_RSV3) != 0;
-        if (reservedFlag1 || reservedFlag2 || reservedFlag3) {
+        if (reservedFlag2 || reservedFlag3) {
             // Reserved flags are for extensions which we currently do not support.
             throw new ProtocolException("Reserved flags are unsupported.");
         }
@@ -195,6 +221,10 @@ final class WebSocketReader {
 
         readMessage();
 
+        if (readingCompressedMessage) {
+            messageInflater.inflate(messageFrameBuffer);
+        }
+
         if (opcode == WebSocketProtocol.OPCODE_TEXT) {
             frameCallback.onReadMessage(messageFrameBuffer.readUtf8());
         } else {
@@ -256,4 +286,11 @@ final class WebSocketReader {
         void onReadClose(int code, String reason);
     }
 
+    /**
+     * Releases the decompression state of this reader. Doesn't close the source.
+     */
+    void close() {
+        if (messageInflater != null) messageInflater.close();
+    }
+
 }
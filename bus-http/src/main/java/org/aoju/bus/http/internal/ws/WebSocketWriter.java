@@ -24,6 +24,7 @@
 package org.aoju.bus.http.internal.ws;
 
 import org.aoju.bus.core.io.*;
+import org.aoju.bus.core.utils.IoUtils;
 
 import java.io.IOException;
 import java.util.Random;
@@ -51,10 +52,28 @@ final class WebSocketWriter {
     final FrameSink frameSink = new FrameSink();
     private final byte[] maskKey;
     private final Buffer.UnsafeCursor maskCursor;
+    /**
+     * Non-null if permessage-deflate was negotiated.
+     */
+    private final MessageDeflater messageDeflater;
+    /**
+     * Messages smaller than this are sent uncompressed.
+     */
+    private final long minimumDeflateSize;
     boolean writerClosed;
     boolean activeWriter;
 
     WebSocketWriter(boolean isClient, BufferedSink sink, Random random) {
+        this(isClient, sink, random, false, false, 0);
+    }
+
+    /**
+     * @param perMessageDeflate  true if permessage-deflate was negotiated
+     * @param noContextTakeover  true to reset the compressor after each message
+     * @param minimumDeflateSize messages smaller than this many bytes are sent uncompressed
+     */
+    WebSocketWriter(boolean isClient, BufferedSink sink, Random random,
+                    boolean perMessageDeflate, boolean noContextTakeover, long minimumDeflateSize) {
         if (sink == null) throw new NullPointerException("sink == null");
         if (random == null) throw new NullPointerException("random == null");
         this.isClient = isClient;
@@ -65,6 +84,8 @@ final class WebSocketWriter {
         // Masks are only a concern for client writers.
         maskKey = isClient ? new byte[4] : null;
         maskCursor = isClient ? new Buffer.UnsafeCursor() : null;
+        messageDeflater = perMessageDeflate ? new MessageDeflater(noContextTakeover) : null;
+        this.minimumDeflateSize = minimumDeflateSize;
     }
 
     /**
@@ -165,14 +186,43 @@ final class WebSocketWriter {
         return frameSink;
     }
 
+    /**
+     * Send a complete message. Messages of at least the minimum size are compressed into a single
+     * frame if permessage-deflate was negotiated; others are streamed like {@link #newMessageSink}.
+     */
+    void writeMessage(int formatOpcode, ByteString data) throws IOException {
+        if (messageDeflater == null || data.size() < minimumDeflateSize) {
+            BufferedSink sink = IoUtils.buffer(newMessageSink(formatOpcode, data.size()));
+            sink.write(data);
+            sink.close();
+            return;
+        }
+
+        if (writerClosed) throw new IOException("closed");
+        if (activeWriter) {
+            throw new IllegalStateException("Another message writer is active. Did you call close()?");
+        }
+        buffer.write(data);
+        messageDeflater.deflate(buffer);
+        writeMessageFrame(formatOpcode, buffer.size(), true, true, true);
+    }
+
     void writeMessageFrame(int formatOpcode, long byteCount, boolean isFirstFrame,
                            boolean isFinal) throws IOException {
+        writeMessageFrame(formatOpcode, byteCount, isFirstFrame, isFinal, false);
+    }
+
+    void writeMessageFrame(int formatOpcode, long byteCount, boolean isFirstFrame,
+                           boolean isFinal, boolean isCompressed) throws IOException {
         if (writerClosed) throw new IOException("closed");
 
         int b0 = isFirstFrame ? formatOpcode : WebSocketProtocol.OPCODE_CONTINUATION;
         if (isFinal) {
             b0 |= WebSocketProtocol.B0_FLAG_FIN;
         }
+        if (isFirstFrame && isCompressed) {
+            b0 |= WebSocketProtocol.B0_FLAG_RSV1;
+        }
         sinkBuffer.writeByte(b0);
 
         int b1 = 0;
@@ -212,6 +262,13 @@ final class WebSocketWriter {
         sink.emit();
     }
 
+    /**
+     * Releases the compression state of this writer. Doesn't close the sink.
+     */
+    void close() {
+        if (messageDeflater != null) messageDeflater.close();
+    }
+
     final class FrameSink implements Sink {
         int formatOpcode;
         long contentLength;
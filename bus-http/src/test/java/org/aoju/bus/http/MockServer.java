@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal HTTP/1.1 server on the loopback interface for tests. Every request is passed to a
+ * {@link Handler} with the connection's streams, so a handler may write a plain response or take
+ * over the connection, for example after a web socket upgrade.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class MockServer implements Closeable {
+
+    private final Handler handler;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    public MockServer(Handler handler) throws IOException {
+        this.handler = handler;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptConnections);
+    }
+
+    /**
+     * Writes a complete response with a UTF-8 {@code body}.
+     */
+    public static void respond(OutputStream out, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        out.write(("HTTP/1.1 " + code + " Mock\r\nContent-Length: " + bytes.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+    }
+
+    /**
+     * Returns a line without its CRLF, or null if the stream is exhausted.
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder result = new StringBuilder();
+        for (int c; (c = in.read()) != -1; ) {
+            if (c == '\n') {
+                int length = result.length();
+                if (length > 0 && result.charAt(length - 1) == '\r') result.setLength(length - 1);
+                return result.toString();
+            }
+            result.append((char) c);
+        }
+        return null;
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public InetAddress address() {
+        return serverSocket.getInetAddress();
+    }
+
+    public String url(String host, String path) {
+        return "http://" + host + ":" + port() + path;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    private void acceptConnections() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                executor.execute(() -> serve(socket));
+            }
+        } catch (IOException ignored) {
+            // The server was closed.
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            for (RecordedRequest request; (request = readRequest(in)) != null; ) {
+                requestCount.incrementAndGet();
+                handler.handle(request, in, out);
+                out.flush();
+            }
+        } catch (Exception ignored) {
+            // The client went away or the handler gave up the connection.
+        } finally {
+            sockets.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private RecordedRequest readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        if (requestLine == null || requestLine.isEmpty()) return null;
+        String[] parts = requestLine.split(" ");
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String line; (line = readLine(in)) != null && !line.isEmpty(); ) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            for (long remaining = Long.parseLong(contentLength); remaining > 0; remaining--) {
+                if (in.read() == -1) throw new EOFException();
+            }
+        }
+        return new RecordedRequest(parts[0], parts[1], headers);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answers the requests received by a {@link MockServer}.
+     */
+    public interface Handler {
+        void handle(RecordedRequest request, InputStream in, OutputStream out) throws Exception;
+    }
+
+    /**
+     * The request line and headers of a received request. Header names are lowercase.
+     */
+    public static final class RecordedRequest {
+        private final String method;
+        private final String path;
+        private final Map<String, String> headers;
+
+        RecordedRequest(String method, String path, Map<String, String> headers) {
+            this.method = method;
+            this.path = path;
+            this.headers = headers;
+        }
+
+        public String method() {
+            return method;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public String header(String name) {
+            return headers.get(name.toLowerCase(Locale.US));
+        }
+    }
+
+}
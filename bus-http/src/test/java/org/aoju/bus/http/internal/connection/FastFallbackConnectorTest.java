@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.connection;
+
+import org.aoju.bus.http.*;
+import org.aoju.bus.http.internal.Internal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Races connections between loopback listeners that accept connections and listeners that drop
+ * them. A listener drops connections once its accept backlog is full: the kernel then ignores new
+ * SYNs, just like a blackholed address.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class FastFallbackConnectorTest {
+
+    private final List<Socket> backlog = new ArrayList<>();
+    private final List<ServerSocket> listeners = new ArrayList<>();
+    private MockServer server;
+    private InetAddress accepting;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockServer((request, in, out) -> MockServer.respond(out, 200, "ok"));
+        accepting = server.address();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Socket socket : backlog) {
+            socket.close();
+        }
+        for (ServerSocket listener : listeners) {
+            listener.close();
+        }
+        server.close();
+    }
+
+    /**
+     * Returns a loopback address on which connections to the server's port are dropped.
+     */
+    private InetAddress dropping(String address) throws IOException {
+        InetAddress result = InetAddress.getByName(address);
+        ServerSocket listener = new ServerSocket();
+        try {
+            listener.bind(new InetSocketAddress(result, server.port()), 1);
+        } catch (IOException e) {
+            listener.close();
+            assumeTrue("cannot listen on " + address, false);
+        }
+        listeners.add(listener);
+        for (int i = 0; i < 16; i++) {
+            Socket socket = new Socket();
+            backlog.add(socket);
+            try {
+                socket.connect(listener.getLocalSocketAddress(), 200);
+            } catch (SocketTimeoutException e) {
+                return result;
+            }
+        }
+        assumeTrue("connections to " + address + " are never dropped", false);
+        return result;
+    }
+
+    /**
+     * Returns a loopback address on which connections to the server's port are refused.
+     */
+    private InetAddress refusing(String address) throws IOException {
+        InetAddress result = InetAddress.getByName(address);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(result, server.port()), 1000);
+            assumeTrue(address + " accepts connections", false);
+        } catch (ConnectException expected) {
+        }
+        return result;
+    }
+
+    private HttpClient.Builder client(InetAddress... addresses) {
+        return new HttpClient.Builder()
+                .dns(hostname -> Arrays.asList(addresses))
+                .connectTimeout(3, TimeUnit.SECONDS);
+    }
+
+    private long get(HttpClient client) throws IOException {
+        long start = System.nanoTime();
+        Request request = new Request.Builder().url(server.url("race.test", "/")).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals("ok", response.body().string());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private RouteDatabase routeDatabase(HttpClient client) {
+        return Internal.instance.routeDatabase(client.connectionPool());
+    }
+
+    @Test(timeout = 30000)
+    public void droppedAddressFallsBackAfterAttemptDelay() throws IOException {
+        RecordingListener listener = new RecordingListener();
+        HttpClient client = client(dropping("127.0.0.2"), accepting)
+                .fastFallback(true)
+                .connectionAttemptDelay(100, TimeUnit.MILLISECONDS)
+                .eventListener(listener)
+                .build();
+
+        long elapsed = get(client);
+
+        assertTrue("took " + elapsed + " ms", elapsed < 2000);
+        assertEquals(1, routeDatabase(client).cancelledCount());
+        assertEquals(Arrays.asList("connectStart 127.0.0.2", "connectStart " + accepting.getHostAddress(),
+                "connectEnd " + accepting.getHostAddress(), "connectFailed 127.0.0.2"), listener.events);
+    }
+
+    @Test(timeout = 30000)
+    public void droppedAddressWaitsForConnectTimeoutWithoutFastFallback() throws IOException {
+        HttpClient client = client(dropping("127.0.0.2"), accepting)
+                .connectTimeout(1, TimeUnit.SECONDS)
+                .build();
+
+        long elapsed = get(client);
+
+        assertTrue("took " + elapsed + " ms", elapsed >= 1000);
+        assertEquals(0, routeDatabase(client).cancelledCount());
+    }
+
+    @Test(timeout = 30000)
+    public void refusedAddressStartsNextAttemptImmediately() throws IOException {
+        HttpClient client = client(refusing("127.0.0.3"), accepting)
+                .fastFallback(true)
+                .connectionAttemptDelay(5, TimeUnit.SECONDS)
+                .build();
+
+        long elapsed = get(client);
+
+        assertTrue("took " + elapsed + " ms", elapsed < 2500);
+        assertEquals(0, routeDatabase(client).cancelledCount());
+    }
+
+    @Test(timeout = 30000)
+    public void cancelingCallCancelsEveryAttempt() throws Exception {
+        HttpClient client = client(dropping("127.0.0.2"), dropping("127.0.0.4"))
+                .fastFallback(true)
+                .connectionAttemptDelay(100, TimeUnit.MILLISECONDS)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .build();
+        Call call = client.newCall(new Request.Builder().url(server.url("race.test", "/")).build());
+        new Timer(true).schedule(new TimerTask() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        }, 500);
+
+        long start = System.nanoTime();
+        try {
+            call.execute().close();
+            fail();
+        } catch (IOException expected) {
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsed + " ms", elapsed < 5000);
+    }
+
+    static final class RecordingListener extends EventListener {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            events.add("connectStart " + inetSocketAddress.getAddress().getHostAddress());
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            events.add("connectEnd " + inetSocketAddress.getAddress().getHostAddress());
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            events.add("connectFailed " + inetSocketAddress.getAddress().getHostAddress());
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.http;
+
+import org.aoju.bus.http.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class HedgingInterceptorTest {
+
+    /**
+     * Response delays in milliseconds, one per request; requests beyond them are answered at once.
+     */
+    private final Queue<Long> delays = new ConcurrentLinkedQueue<>();
+    private MockServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockServer((request, in, out) -> {
+            Long delay = delays.poll();
+            if (delay != null) Thread.sleep(delay);
+            MockServer.respond(out, 200, "ok");
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private HttpClient client(RetryBudget budget) {
+        return new HttpClient.Builder()
+                .dns(hostname -> Collections.singletonList(server.address()))
+                .hedging(0.9)
+                .retryBudget(budget)
+                .build();
+    }
+
+    private String get(HttpClient client, String host) throws IOException {
+        Request request = new Request.Builder().url(server.url(host, "/")).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+
+    /**
+     * Records just enough samples for {@code host} to be hedged, so none of these calls is hedged.
+     */
+    private void warmUp(HttpClient client, String host) throws IOException {
+        for (int i = 0; i < 20; i++) {
+            get(client, host);
+        }
+    }
+
+    @Test
+    public void latenciesAreKeptPerHost() throws IOException {
+        HttpClient client = client(null);
+        for (int i = 0; i < 3; i++) {
+            get(client, "a.test");
+        }
+        get(client, "b.test");
+
+        assertEquals(3, client.latencyHistogram("a.test").count());
+        assertEquals(1, client.latencyHistogram("b.test").count());
+        assertEquals(0, client.latencyHistogram("c.test").count());
+    }
+
+    @Test(timeout = 30000)
+    public void slowResponseIsHedged() throws IOException {
+        RetryBudget budget = new RetryBudget(0.1, 10);
+        HttpClient client = client(budget);
+        warmUp(client, "a.test");
+
+        delays.add(5000L);
+        long start = System.nanoTime();
+        assertEquals("ok", get(client, "a.test"));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsed + " ms", elapsed < 2500);
+        assertEquals(22, server.requestCount());
+        assertEquals(1, budget.acquiredCount());
+    }
+
+    @Test(timeout = 30000)
+    public void hostWithoutSamplesIsNotHedged() throws IOException {
+        RetryBudget budget = new RetryBudget(0.1, 10);
+        HttpClient client = client(budget);
+        warmUp(client, "a.test");
+
+        delays.add(500L);
+        assertEquals("ok", get(client, "b.test"));
+
+        assertEquals(21, server.requestCount());
+        assertEquals(0, budget.acquiredCount());
+    }
+
+    @Test(timeout = 30000)
+    public void spentBudgetStopsHedges() throws IOException {
+        RetryBudget budget = new RetryBudget(0.01, 1);
+        HttpClient client = client(budget);
+        warmUp(client, "a.test");
+        assertTrue(budget.tryAcquire());
+
+        delays.add(500L);
+        long start = System.nanoTime();
+        assertEquals("ok", get(client, "a.test"));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsed + " ms", elapsed >= 500);
+        assertEquals(21, server.requestCount());
+        assertEquals(1, budget.rejectedCount());
+    }
+
+}
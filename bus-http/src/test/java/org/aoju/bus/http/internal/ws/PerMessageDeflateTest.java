@@ -0,0 +1,345 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.ws;
+
+import org.aoju.bus.http.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exchanges messages with a {@link MockServer} that speaks just enough of the web socket protocol
+ * to accept the handshake, inflate the client's messages and echo them back deflated.
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class PerMessageDeflateTest {
+
+    private static final byte[] EMPTY_DEFLATE_BLOCK = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+    private static final String LARGE = repeat("{\"id\":1,\"name\":\"value\"},", 200);
+
+    /**
+     * The {@code Sec-WebSocket-Extensions} the server answers with, or null to decline.
+     */
+    private volatile String accepted;
+    private volatile String offered;
+    private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+    private MockServer server;
+    private WebSocket webSocket;
+
+    private static String repeat(String s, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(s);
+        }
+        return result.toString();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockServer((request, in, out) -> {
+            offered = request.header(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION);
+            String extensions = accepted;
+            StringBuilder response = new StringBuilder("HTTP/1.1 101 Switching Protocols\r\n")
+                    .append("Upgrade: websocket\r\n")
+                    .append("Connection: Upgrade\r\n")
+                    .append("Sec-WebSocket-Accept: ")
+                    .append(WebSocketProtocol.acceptHeader(request.header("Sec-WebSocket-Key")))
+                    .append("\r\n");
+            if (extensions != null) {
+                response.append(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION).append(": ")
+                        .append(extensions).append("\r\n");
+            }
+            out.write(response.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            new ServerSide(in, out, extensions).run();
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (webSocket != null) webSocket.cancel();
+        server.close();
+    }
+
+    private void connect(HttpClient client) throws InterruptedException {
+        Request request = new Request.Builder().url(server.url("ws.test", "/")).build();
+        webSocket = client.newWebSocket(request, new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                events.add(response);
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                events.add(text);
+            }
+
+            @Override
+            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                events.add(t);
+            }
+        });
+        Object open = events.poll(10, TimeUnit.SECONDS);
+        if (open instanceof Throwable) throw new AssertionError(open);
+        assertTrue(open instanceof Response);
+    }
+
+    private HttpClient.Builder client() {
+        return new HttpClient.Builder()
+                .dns(hostname -> Collections.singletonList(server.address()));
+    }
+
+    private String echo(String text) throws InterruptedException {
+        assertTrue(webSocket.send(text));
+        Object event = events.poll(10, TimeUnit.SECONDS);
+        if (event instanceof Throwable) throw new AssertionError(event);
+        return (String) event;
+    }
+
+    private Frame frame() throws InterruptedException {
+        Frame frame = frames.poll(10, TimeUnit.SECONDS);
+        assertNotNull(frame);
+        return frame;
+    }
+
+    @Test(timeout = 30000)
+    public void largeMessagesAreCompressed() throws Exception {
+        accepted = "permessage-deflate";
+        connect(client().webSocketCompression(true).build());
+        assertEquals("permessage-deflate", offered);
+
+        assertEquals(LARGE, echo(LARGE));
+        Frame large = frame();
+        assertTrue(large.compressed);
+        assertTrue("wire length " + large.wireLength, large.wireLength < LARGE.length() / 4);
+        assertEquals(LARGE, large.text);
+
+        assertEquals("hi", echo("hi"));
+        Frame small = frame();
+        assertFalse(small.compressed);
+        assertEquals("hi", small.text);
+    }
+
+    @Test(timeout = 30000)
+    public void contextIsTakenOverBetweenMessages() throws Exception {
+        accepted = "permessage-deflate";
+        connect(client().webSocketCompression(true).build());
+
+        assertEquals(LARGE, echo(LARGE));
+        assertEquals(LARGE, echo(LARGE));
+        int first = frame().wireLength;
+        int second = frame().wireLength;
+        assertTrue(first + " then " + second, second < first);
+    }
+
+    @Test(timeout = 30000)
+    public void noContextTakeover() throws Exception {
+        accepted = "permessage-deflate; client_no_context_takeover; server_no_context_takeover";
+        connect(client().webSocketCompression(true).webSocketNoContextTakeover(true).build());
+        assertEquals("permessage-deflate; client_no_context_takeover; server_no_context_takeover", offered);
+
+        assertEquals(LARGE, echo(LARGE));
+        assertEquals(LARGE, echo(LARGE));
+        Frame first = frame();
+        Frame second = frame();
+        assertTrue(first.compressed && second.compressed);
+        assertEquals(first.wireLength, second.wireLength);
+        assertEquals(LARGE, second.text);
+    }
+
+    @Test(timeout = 30000)
+    public void serverMayDecline() throws Exception {
+        accepted = null;
+        connect(client().webSocketCompression(true).build());
+
+        assertEquals(LARGE, echo(LARGE));
+        Frame frame = frame();
+        assertFalse(frame.compressed);
+        assertEquals(LARGE.length(), frame.wireLength);
+    }
+
+    @Test(timeout = 30000)
+    public void notOfferedByDefault() throws Exception {
+        connect(client().build());
+        assertNull(offered);
+
+        assertEquals(LARGE, echo(LARGE));
+        assertFalse(frame().compressed);
+    }
+
+    @Test(timeout = 30000)
+    public void smallClientWindowFailsHandshake() throws Exception {
+        accepted = "permessage-deflate; client_max_window_bits=10";
+        webSocket = client().webSocketCompression(true).build().newWebSocket(
+                new Request.Builder().url(server.url("ws.test", "/")).build(), new WebSocketListener() {
+                    @Override
+                    public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                        events.add(t);
+                    }
+                });
+        Object event = events.poll(10, TimeUnit.SECONDS);
+        assertTrue(String.valueOf(event), event instanceof ProtocolException);
+    }
+
+    /**
+     * A message received by the server.
+     */
+    static final class Frame {
+        final boolean compressed;
+        final int wireLength;
+        final String text;
+
+        Frame(boolean compressed, int wireLength, String text) {
+            this.compressed = compressed;
+            this.wireLength = wireLength;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Reads the client's unfragmented frames, records its text messages and echoes them.
+     */
+    final class ServerSide {
+        private final InputStream in;
+        private final OutputStream out;
+        private final boolean deflate;
+        private final boolean clientNoContextTakeover;
+        private final boolean serverNoContextTakeover;
+        private final Inflater inflater = new Inflater(true);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+        ServerSide(InputStream in, OutputStream out, String extensions) {
+            this.in = in;
+            this.out = out;
+            this.deflate = extensions != null;
+            this.clientNoContextTakeover = deflate && extensions.contains("client_no_context_takeover");
+            this.serverNoContextTakeover = deflate && extensions.contains("server_no_context_takeover");
+        }
+
+        void run() throws IOException, DataFormatException {
+            try {
+                while (true) {
+                    int b0 = in.read();
+                    int b1 = in.read();
+                    if (b1 == -1) return;
+                    boolean compressed = (b0 & 0x40) != 0;
+                    int opcode = b0 & 0x0f;
+                    byte[] payload = new byte[length(b1 & 0x7f)];
+                    byte[] mask = new byte[4];
+                    new DataInputStream(in).readFully(mask);
+                    new DataInputStream(in).readFully(payload);
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= mask[i % 4];
+                    }
+
+                    if (opcode == WebSocketProtocol.OPCODE_CONTROL_CLOSE) {
+                        write(WebSocketProtocol.OPCODE_CONTROL_CLOSE, false, payload);
+                        return;
+                    }
+                    if (opcode != WebSocketProtocol.OPCODE_TEXT) continue;
+
+                    String text = new String(compressed ? inflate(payload) : payload, StandardCharsets.UTF_8);
+                    frames.add(new Frame(compressed, payload.length, text));
+                    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                    if (deflate) {
+                        write(WebSocketProtocol.OPCODE_TEXT, true, deflate(bytes));
+                    } else {
+                        write(WebSocketProtocol.OPCODE_TEXT, false, bytes);
+                    }
+                }
+            } finally {
+                inflater.end();
+                deflater.end();
+            }
+        }
+
+        private int length(int length) throws IOException {
+            DataInputStream data = new DataInputStream(in);
+            if (length == 126) return data.readUnsignedShort();
+            if (length == 127) return (int) data.readLong();
+            return length;
+        }
+
+        private byte[] inflate(byte[] payload) throws DataFormatException {
+            if (clientNoContextTakeover) inflater.reset();
+            byte[] input = Arrays.copyOf(payload, payload.length + EMPTY_DEFLATE_BLOCK.length);
+            System.arraycopy(EMPTY_DEFLATE_BLOCK, 0, input, payload.length, EMPTY_DEFLATE_BLOCK.length);
+            inflater.setInput(input);
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (inflater.getRemaining() > 0) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput()) break;
+                result.write(buffer, 0, count);
+            }
+            return result.toByteArray();
+        }
+
+        private byte[] deflate(byte[] bytes) {
+            if (serverNoContextTakeover) deflater.reset();
+            deflater.setInput(bytes);
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            do {
+                count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                result.write(buffer, 0, count);
+            } while (count == buffer.length);
+            byte[] deflated = result.toByteArray();
+            return Arrays.copyOf(deflated, deflated.length - EMPTY_DEFLATE_BLOCK.length);
+        }
+
+        private void write(int opcode, boolean compressed, byte[] payload) throws IOException {
+            out.write(0x80 | (compressed ? 0x40 : 0) | opcode);
+            if (payload.length < 126) {
+                out.write(payload.length);
+            } else {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length);
+            }
+            out.write(payload);
+            out.flush();
+        }
+    }
+
+}
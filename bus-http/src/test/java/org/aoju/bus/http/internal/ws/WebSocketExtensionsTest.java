@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.internal.ws;
+
+import org.aoju.bus.http.Headers;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class WebSocketExtensionsTest {
+
+    private static WebSocketExtensions parse(String... values) {
+        Headers.Builder headers = new Headers.Builder();
+        for (String value : values) {
+            headers.add(WebSocketExtensions.HEADER_WEB_SOCKET_EXTENSION, value);
+        }
+        return WebSocketExtensions.parse(headers.build());
+    }
+
+    @Test
+    public void offer() {
+        assertEquals("permessage-deflate", WebSocketExtensions.offer(false, -1).header());
+        assertEquals("permessage-deflate; client_no_context_takeover; server_max_window_bits=12;"
+                + " server_no_context_takeover", WebSocketExtensions.offer(true, 12).header());
+    }
+
+    @Test
+    public void noExtensions() {
+        WebSocketExtensions extensions = parse();
+        assertFalse(extensions.perMessageDeflate);
+        assertTrue(extensions.isValid());
+    }
+
+    @Test
+    public void parameters() {
+        WebSocketExtensions extensions = parse("permessage-deflate; client_max_window_bits;"
+                + " client_no_context_takeover; server_max_window_bits=\"10\"; server_no_context_takeover");
+        assertTrue(extensions.perMessageDeflate);
+        assertEquals(15, extensions.clientMaxWindowBits);
+        assertTrue(extensions.clientNoContextTakeover);
+        assertEquals(10, extensions.serverMaxWindowBits);
+        assertTrue(extensions.serverNoContextTakeover);
+        assertTrue(extensions.isValid());
+    }
+
+    @Test
+    public void namesAreCaseInsensitive() {
+        WebSocketExtensions extensions = parse("PerMessage-Deflate; Server_No_Context_Takeover");
+        assertTrue(extensions.perMessageDeflate);
+        assertTrue(extensions.serverNoContextTakeover);
+        assertTrue(extensions.isValid());
+    }
+
+    @Test
+    public void smallClientWindowIsRejected() {
+        WebSocketExtensions extensions = parse("permessage-deflate; client_max_window_bits=10");
+        assertTrue(extensions.perMessageDeflate);
+        assertFalse(extensions.isValid());
+    }
+
+    @Test
+    public void unknownValuesAreRejected() {
+        assertFalse(parse("permessage-deflate; unknown").isValid());
+        assertFalse(parse("permessage-deflate; server_max_window_bits=16").isValid());
+        assertFalse(parse("permessage-deflate; server_max_window_bits").isValid());
+        assertFalse(parse("permessage-deflate; client_no_context_takeover=1").isValid());
+        assertFalse(parse("x-webkit-deflate-frame").isValid());
+        assertFalse(parse("permessage-deflate", "permessage-deflate").isValid());
+    }
+
+}
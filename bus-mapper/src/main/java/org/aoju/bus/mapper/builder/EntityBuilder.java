@@ -71,6 +71,16 @@ public class EntityBuilder {
         return entityTable;
     }
 
+    /**
+     * 查找表对象，不存在时返回 null
+     *
+     * @param entityClass 对象
+     * @return EntityTable
+     */
+    public static EntityTable findEntityTable(Class<?> entityClass) {
+        return entityClass == null ? null : entityTableMap.get(entityClass);
+    }
+
     /**
      * 获取默认的orderby语句
      *
@@ -202,6 +212,7 @@ public class EntityBuilder {
             entityTable.setEntityClassPKColumns(entityTable.getEntityClassColumns());
         }
         entityTable.initPropertyMap();
+        entityTable.initAccessors();
         entityTableMap.put(entityClass, entityTable);
     }
 
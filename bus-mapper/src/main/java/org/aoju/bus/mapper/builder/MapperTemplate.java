@@ -129,6 +129,16 @@ public abstract class MapperTemplate {
         metaObject.setValue("resultMaps", Collections.unmodifiableList(resultMaps));
     }
 
+    /**
+     * 设置游标查询的 fetchSize，使结果集按批读取而不是一次加载到内存
+     *
+     * @param ms MappedStatement
+     */
+    protected void setCursorFetchSize(MappedStatement ms) {
+        MetaObject metaObject = SystemMetaObject.forObject(ms);
+        metaObject.setValue("fetchSize", mapperBuilder.getConfig().getCursorFetchSize(ms.getConfiguration()));
+    }
+
     /**
      * 重新设置SqlSource
      *
@@ -30,6 +30,18 @@ import org.aoju.bus.mapper.criteria.Criterion;
 import org.aoju.bus.mapper.entity.Condition;
 import org.aoju.bus.mapper.entity.EntityTableName;
 
+import org.apache.ibatis.io.Resources;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
 /**
  * OGNL静态方法
  *
@@ -39,6 +51,11 @@ import org.aoju.bus.mapper.entity.EntityTableName;
  */
 public abstract class OGNL {
 
+    /**
+     * 单个 in 列表参数个数的上限，与 Oracle 的 in 列表上限一致，更多的 ids 拆分为多个 in 列表以 or 连接
+     */
+    public static final int MAX_IDS_BUCKET = 1000;
+
     /**
      * 校验通用 Condition 的 entityClass 和当前方法是否匹配
      *
@@ -153,4 +170,134 @@ public abstract class OGNL {
         }
     }
 
+    /**
+     * 将 ids 字符串(如 "1,2,3" 或 "'a','b'")转换为 in 条件的绑定参数
+     * <p>
+     * 每 {@link #MAX_IDS_BUCKET} 个 id 为一组，每组对应一个 in 列表；最后一组的参数个数补齐到 2 的幂(重复最后一个值)，
+     * 使不同长度的 ids 只会产生少量不同的 SQL，便于数据库和驱动复用预编译语句；
+     * 每个 id 转换为主键类型后绑定，如 UUID 主键绑定为 {@link UUID}
+     *
+     * @param parameter ids 字符串
+     * @param javaType  主键类型
+     * @return 分组后的参数列表
+     */
+    public static List<List<Object>> bindIds(Object parameter, String javaType) {
+        List<Object> ids = new ArrayList<>();
+        if (parameter != null) {
+            Function<String, Object> converter = idConverter(javaType);
+            //单引号中的逗号不作为分隔符，'' 表示一个单引号
+            String text = parameter.toString();
+            StringBuilder id = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i <= text.length(); i++) {
+                char c = i < text.length() ? text.charAt(i) : ',';
+                if (c == '\'') {
+                    if (quoted && i + 1 < text.length() && text.charAt(i + 1) == '\'') {
+                        id.append(c);
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (c == ',' && !quoted) {
+                    String value = id.toString().trim();
+                    if (value.length() > 0) {
+                        ids.add(convertId(value, javaType, converter));
+                    }
+                    id.setLength(0);
+                } else {
+                    id.append(c);
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new MapperException("ids 不能为空");
+        }
+        List<List<Object>> buckets = new ArrayList<>((ids.size() + MAX_IDS_BUCKET - 1) / MAX_IDS_BUCKET);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_BUCKET) {
+            List<Object> bucket = new ArrayList<>(ids.subList(from, Math.min(from + MAX_IDS_BUCKET, ids.size())));
+            Object last = bucket.get(bucket.size() - 1);
+            for (int i = bucket.size(), size = bucketSize(bucket.size()); i < size; i++) {
+                bucket.add(last);
+            }
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    /**
+     * 计算补齐后的参数个数
+     *
+     * @param size 实际个数，不超过 {@link #MAX_IDS_BUCKET}
+     * @return 补齐后的个数
+     */
+    public static int bucketSize(int size) {
+        if (size <= 1) {
+            return size;
+        }
+        return Math.min(Integer.highestOneBit(size - 1) << 1, MAX_IDS_BUCKET);
+    }
+
+    private static Object convertId(String id, String javaType, Function<String, Object> converter) {
+        try {
+            return converter.apply(id);
+        } catch (IllegalArgumentException e) {
+            throw new MapperException("主键[" + id + "]不是合法的 " + javaType, e);
+        }
+    }
+
+    /**
+     * 主键字符串到主键类型的转换，其他类型使用 valueOf(String) 或 String 参数的构造方法(如枚举)
+     *
+     * @param javaType 主键类型
+     * @return 转换方法，转换失败时抛出 IllegalArgumentException
+     */
+    private static Function<String, Object> idConverter(String javaType) {
+        if (Long.class.getName().equals(javaType) || "long".equals(javaType)) {
+            return Long::valueOf;
+        } else if (Integer.class.getName().equals(javaType) || "int".equals(javaType)) {
+            return Integer::valueOf;
+        } else if (Short.class.getName().equals(javaType) || "short".equals(javaType)) {
+            return Short::valueOf;
+        } else if (BigInteger.class.getName().equals(javaType)) {
+            return BigInteger::new;
+        } else if (BigDecimal.class.getName().equals(javaType)) {
+            return BigDecimal::new;
+        } else if (UUID.class.getName().equals(javaType)) {
+            return UUID::fromString;
+        } else if (String.class.getName().equals(javaType) || Assert.isEmpty(javaType)) {
+            return id -> id;
+        }
+        Class<?> type;
+        try {
+            type = Resources.classForName(javaType);
+        } catch (ClassNotFoundException e) {
+            throw new MapperException("无法加载主键类型 " + javaType, e);
+        }
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+                return id -> {
+                    try {
+                        return valueOf.invoke(null, id);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalArgumentException(e);
+                    }
+                };
+            }
+        } catch (NoSuchMethodException ignore) {
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return id -> {
+                try {
+                    return constructor.newInstance(id);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            };
+        } catch (NoSuchMethodException ignore) {
+        }
+        return id -> id;
+    }
+
 }
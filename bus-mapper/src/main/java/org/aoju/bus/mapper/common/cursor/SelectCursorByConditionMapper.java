@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.mapper.common.cursor;
+
+import org.aoju.bus.mapper.provider.CursorProvider;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * 通用Mapper接口,Condition游标查询
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public interface SelectCursorByConditionMapper<T> {
+
+    /**
+     * 根据Condition条件进行游标查询
+     *
+     * @param object 对象
+     * @return 游标
+     */
+    @SelectProvider(type = CursorProvider.class, method = "dynamicSQL")
+    Cursor<T> selectCursorByCondition(Object object);
+
+    /**
+     * 根据Condition条件进行查询，结果逐行交给 handler 处理
+     *
+     * @param object  对象
+     * @param handler 结果处理
+     */
+    @SelectProvider(type = CursorProvider.class, method = "dynamicSQL")
+    void selectByConditionWithHandler(Object object, ResultHandler<T> handler);
+
+}
@@ -25,12 +25,15 @@ package org.aoju.bus.mapper.criteria;
 
 import org.aoju.bus.mapper.MapperException;
 import org.aoju.bus.mapper.entity.EntityColumn;
+import org.aoju.bus.mapper.entity.EntityField;
+import org.aoju.bus.mapper.entity.EntityTable;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * @author Kimi Liu
@@ -252,18 +255,12 @@ public class Criteria {
      * @return the Criteria
      */
     public Criteria andEqualTo(Object param) {
-        MetaObject metaObject = SystemMetaObject.forObject(param);
-        String[] properties = metaObject.getGetterNames();
-        for (String property : properties) {
-            //属性和列对应Map中有此属性
-            if (propertyMap.get(property) != null) {
-                Object value = metaObject.getValue(property);
-                //属性值不为空
-                if (value != null) {
-                    andEqualTo(property, value);
-                }
+        eachProperty(param, (property, value) -> {
+            //属性值不为空
+            if (value != null) {
+                andEqualTo(property, value);
             }
-        }
+        });
         return this;
     }
 
@@ -274,20 +271,14 @@ public class Criteria {
      * @return the Criteria
      */
     public Criteria andAllEqualTo(Object param) {
-        MetaObject metaObject = SystemMetaObject.forObject(param);
-        String[] properties = metaObject.getGetterNames();
-        for (String property : properties) {
-            //属性和列对应Map中有此属性
-            if (propertyMap.get(property) != null) {
-                Object value = metaObject.getValue(property);
-                //属性值不为空
-                if (value != null) {
-                    andEqualTo(property, value);
-                } else {
-                    andIsNull(property);
-                }
+        eachProperty(param, (property, value) -> {
+            //属性值不为空
+            if (value != null) {
+                andEqualTo(property, value);
+            } else {
+                andIsNull(property);
             }
-        }
+        });
         return this;
     }
 
@@ -391,18 +382,12 @@ public class Criteria {
      * @return the Criteria
      */
     public Criteria orEqualTo(Object param) {
-        MetaObject metaObject = SystemMetaObject.forObject(param);
-        String[] properties = metaObject.getGetterNames();
-        for (String property : properties) {
-            //属性和列对应Map中有此属性
-            if (propertyMap.get(property) != null) {
-                Object value = metaObject.getValue(property);
-                //属性值不为空
-                if (value != null) {
-                    orEqualTo(property, value);
-                }
+        eachProperty(param, (property, value) -> {
+            //属性值不为空
+            if (value != null) {
+                orEqualTo(property, value);
             }
-        }
+        });
         return this;
     }
 
@@ -413,21 +398,58 @@ public class Criteria {
      * @return the Criteria
      */
     public Criteria orAllEqualTo(Object param) {
+        eachProperty(param, (property, value) -> {
+            //属性值不为空
+            if (value != null) {
+                orEqualTo(property, value);
+            } else {
+                orIsNull(property);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 遍历参数对象中和列对应的属性，参数是当前实体类型时直接使用实体解析时创建的属性读写器，
+     * 其他类型仍然通过 MetaObject 反射读取
+     *
+     * @param param    参数对象
+     * @param consumer 属性名和属性值
+     */
+    private void eachProperty(Object param, BiConsumer<String, Object> consumer) {
+        EntityTable table = null;
+        if (param != null && !propertyMap.isEmpty()) {
+            table = propertyMap.values().iterator().next().getTable();
+        }
+        if (table != null && table.getEntityClass() != null && table.getEntityClass().isInstance(param)) {
+            MetaObject metaObject = null;
+            for (EntityColumn column : table.getEntityClassColumns()) {
+                String property = column.getProperty();
+                if (propertyMap.get(property) == null) {
+                    continue;
+                }
+                EntityField field = column.getEntityField();
+                if (field != null && field.isReadable()) {
+                    consumer.accept(property, field.getValue(param));
+                } else {
+                    if (metaObject == null) {
+                        metaObject = SystemMetaObject.forObject(param);
+                    }
+                    if (metaObject.hasGetter(property)) {
+                        consumer.accept(property, metaObject.getValue(property));
+                    }
+                }
+            }
+            return;
+        }
         MetaObject metaObject = SystemMetaObject.forObject(param);
         String[] properties = metaObject.getGetterNames();
         for (String property : properties) {
             //属性和列对应Map中有此属性
             if (propertyMap.get(property) != null) {
-                Object value = metaObject.getValue(property);
-                //属性值不为空
-                if (value != null) {
-                    orEqualTo(property, value);
-                } else {
-                    orIsNull(property);
-                }
+                consumer.accept(property, metaObject.getValue(property));
             }
         }
-        return this;
     }
 
     public List<Criterion> getAllCriteria() {
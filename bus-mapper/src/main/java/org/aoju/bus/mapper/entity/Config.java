@@ -28,7 +28,10 @@ import org.aoju.bus.mapper.criteria.Assert;
 import org.aoju.bus.mapper.criteria.Identity;
 import org.aoju.bus.mapper.criteria.SimpleType;
 import org.aoju.bus.mapper.criteria.Style;
+import org.apache.ibatis.session.Configuration;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -73,6 +76,14 @@ public class Config {
      * 处理关键字，默认空，mysql可以设置为 `{0}`, sqlserver 为 [{0}]，{0} 代表的列名
      */
     private String wrapKeyword = "";
+    /**
+     * 游标查询的 fetchSize，默认 MySQL 为 Integer.MIN_VALUE(逐行流式读取)，其他数据库为 1000
+     */
+    private Integer cursorFetchSize;
+    /**
+     * 实际连接的数据库是否为 MySQL，首次设置游标查询的 fetchSize 时确定
+     */
+    private volatile Boolean mysql;
 
     public String getCatalog() {
         return catalog;
@@ -204,6 +215,47 @@ public class Config {
         this.wrapKeyword = wrapKeyword;
     }
 
+    /**
+     * 获取游标查询的 fetchSize
+     * <p>
+     * 未配置时按实际连接的数据库确定，不使用 IDENTITY 的默认值(MYSQL)判断
+     *
+     * @param configuration mybatis 配置
+     * @return fetchSize
+     */
+    public Integer getCursorFetchSize(Configuration configuration) {
+        if (cursorFetchSize != null) {
+            return cursorFetchSize;
+        }
+        //MySQL 驱动只有 Integer.MIN_VALUE 时才会流式读取，其他驱动不接受负数
+        if (mysql == null) {
+            mysql = isMySql(configuration);
+        }
+        return mysql ? Integer.MIN_VALUE : 1000;
+    }
+
+    /**
+     * 优先使用 databaseId，未配置 DatabaseIdProvider 时读取连接的数据库产品名，无法确定时按非 MySQL 处理
+     */
+    private static boolean isMySql(Configuration configuration) {
+        String product = configuration.getDatabaseId();
+        if (Assert.isEmpty(product)) {
+            if (configuration.getEnvironment() == null) {
+                return false;
+            }
+            try (Connection connection = configuration.getEnvironment().getDataSource().getConnection()) {
+                product = connection.getMetaData().getDatabaseProductName();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+
+    public void setCursorFetchSize(Integer cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
     public boolean isBEFORE() {
         return BEFORE;
     }
@@ -350,6 +402,10 @@ public class Config {
         if (Assert.isNotEmpty(wrapKeyword)) {
             this.wrapKeyword = wrapKeyword;
         }
+        String cursorFetchSize = properties.getProperty("cursorFetchSize");
+        if (Assert.isNotEmpty(cursorFetchSize)) {
+            this.cursorFetchSize = Integer.valueOf(cursorFetchSize);
+        }
     }
 
 }
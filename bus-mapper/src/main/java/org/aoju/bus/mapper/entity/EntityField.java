@@ -23,10 +23,16 @@
  */
 package org.aoju.bus.mapper.entity;
 
+import org.aoju.bus.mapper.MapperException;
+
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * 封装字段和方法，统一调用某些方法
@@ -42,6 +48,11 @@ public class EntityField {
     private Class<?> javaType;
     private Method setter;
     private Method getter;
+    /**
+     * 读写属性的 MethodHandle，类型统一为 (Object)Object 和 (Object,Object)void
+     */
+    private volatile MethodHandle getterHandle;
+    private volatile MethodHandle setterHandle;
 
     /**
      * 构造方法
@@ -75,6 +86,104 @@ public class EntityField {
         this.name = other.name;
     }
 
+    /**
+     * 创建读写属性的 MethodHandle，优先使用 getter/setter，没有时直接读写字段，
+     * 之后读写属性不再经过反射查找；无法访问的属性保持不可读/不可写
+     */
+    public void initAccessor() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (getterHandle == null) {
+            try {
+                MethodHandle handle = null;
+                if (getter != null) {
+                    getter.setAccessible(true);
+                    handle = lookup.unreflect(getter);
+                } else if (field != null) {
+                    field.setAccessible(true);
+                    handle = lookup.unreflectGetter(field);
+                }
+                if (handle != null) {
+                    getterHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                // 无法访问时保持为空，由调用方回退到 MetaObject
+            }
+        }
+        if (setterHandle == null) {
+            try {
+                MethodHandle handle = null;
+                if (setter != null) {
+                    setter.setAccessible(true);
+                    handle = lookup.unreflect(setter);
+                } else if (field != null && !Modifier.isFinal(field.getModifiers())) {
+                    field.setAccessible(true);
+                    handle = lookup.unreflectSetter(field);
+                }
+                if (handle != null) {
+                    setterHandle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                // 无法访问时保持为空，由调用方回退到 MetaObject
+            }
+        }
+    }
+
+    /**
+     * 是否可读
+     *
+     * @return the boolean
+     */
+    public boolean isReadable() {
+        return getterHandle != null;
+    }
+
+    /**
+     * 是否可写
+     *
+     * @return the boolean
+     */
+    public boolean isWritable() {
+        return setterHandle != null;
+    }
+
+    /**
+     * 读取属性值
+     *
+     * @param object 实体
+     * @return 属性值
+     */
+    public Object getValue(Object object) {
+        if (getterHandle == null) {
+            throw new MapperException("属性[" + name + "]不可读");
+        }
+        try {
+            return (Object) getterHandle.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new MapperException("读取属性[" + name + "]失败", t);
+        }
+    }
+
+    /**
+     * 设置属性值
+     *
+     * @param object 实体
+     * @param value  属性值
+     */
+    public void setValue(Object object, Object value) {
+        if (setterHandle == null) {
+            throw new MapperException("属性[" + name + "]不可写");
+        }
+        try {
+            setterHandle.invokeExact(object, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new MapperException("设置属性[" + name + "]失败", t);
+        }
+    }
+
     /**
      * 是否有该注解
      *
@@ -122,6 +122,17 @@ public class EntityTable {
         }
     }
 
+    /**
+     * 初始化所有列的属性读写器，只在实体解析时执行一次
+     */
+    public void initAccessors() {
+        for (EntityColumn column : getEntityClassColumns()) {
+            if (column.getEntityField() != null) {
+                column.getEntityField().initAccessor();
+            }
+        }
+    }
+
     public <T> TypeHandler<T> getInstance(Class<?> javaTypeClass, Class<?> typeHandlerClass) {
         if (javaTypeClass != null) {
             try {
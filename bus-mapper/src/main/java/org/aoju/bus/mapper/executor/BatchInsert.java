@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.mapper.executor;
+
+import org.aoju.bus.mapper.MapperException;
+import org.aoju.bus.mapper.common.basic.insert.InsertListMapper;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 批量插入
+ * <p>
+ * {@link #insert} 使用 BATCH 执行器逐行 addBatch，每 batchSize 行 executeBatch 一次，
+ * 主键策略(JDBC 自增、selectKey)生成的主键会回写到实体中；
+ * {@link #insertList} 按固定大小分块调用 {@link InsertListMapper#insertList}，
+ * 使 SQL 文本可以被复用(预编译语句缓存)
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class BatchInsert {
+
+    /**
+     * 默认每批执行的行数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * 使用 BATCH 执行器批量插入
+     * <p>
+     * 事务由 Environment 的 TransactionFactory 创建，与 Spring 集成时会加入当前事务，
+     * 不在事务中时执行完成后提交
+     *
+     * @param sqlSessionFactory SqlSessionFactory
+     * @param statement         插入语句的 id，如 com.xx.UserMapper.insert
+     * @param list              实体列表
+     * @param batchSize         每批执行的行数
+     * @param <T>               对象
+     * @return 插入数量
+     */
+    public static <T> int insert(SqlSessionFactory sqlSessionFactory, String statement, List<T> list, int batchSize) {
+        if (list == null || list.isEmpty()) {
+            return 0;
+        }
+        if (batchSize <= 0) {
+            throw new MapperException("batchSize 必须大于 0");
+        }
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        MappedStatement ms = configuration.getMappedStatement(statement);
+        Environment environment = configuration.getEnvironment();
+        Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+        Executor executor = configuration.newExecutor(transaction, ExecutorType.BATCH);
+        boolean success = false;
+        try {
+            int count = 0;
+            for (int i = 0; i < list.size(); i++) {
+                executor.update(ms, list.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    count += updateCount(executor.flushStatements());
+                }
+            }
+            count += updateCount(executor.flushStatements());
+            executor.commit(true);
+            success = true;
+            return count;
+        } catch (SQLException e) {
+            throw new MapperException("批量插入失败: " + e.getMessage(), e);
+        } finally {
+            if (!success) {
+                try {
+                    executor.rollback(true);
+                } catch (SQLException e) {
+                    //ignore
+                }
+            }
+            executor.close(false);
+        }
+    }
+
+    /**
+     * 按固定大小分块的多 VALUES 批量插入
+     * <p>
+     * 整块之外剩余的行按 2 的幂拆分(如 chunkSize=256 时剩余 37 行拆为 32+4+1)，
+     * 因此最多只会产生 log2(chunkSize)+1 种不同的 SQL
+     *
+     * @param mapper    InsertListMapper
+     * @param list      实体列表
+     * @param chunkSize 每块的行数
+     * @param <T>       对象
+     * @return 插入数量
+     */
+    public static <T> int insertList(InsertListMapper<T> mapper, List<T> list, int chunkSize) {
+        if (list == null || list.isEmpty()) {
+            return 0;
+        }
+        if (chunkSize <= 0) {
+            throw new MapperException("chunkSize 必须大于 0");
+        }
+        int count = 0;
+        int from = 0;
+        int size = list.size();
+        while (from < size) {
+            int remaining = size - from;
+            int chunk = remaining >= chunkSize ? chunkSize : Integer.highestOneBit(remaining);
+            count += mapper.insertList(list.subList(from, from + chunk));
+            from += chunk;
+        }
+        return count;
+    }
+
+    private static int updateCount(List<BatchResult> results) {
+        int count = 0;
+        for (BatchResult result : results) {
+            for (int updateCount : result.getUpdateCounts()) {
+                //部分驱动批量执行时不返回具体的行数
+                count += updateCount == Statement.SUCCESS_NO_INFO ? 1 : updateCount;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.mapper.executor;
+
+import org.aoju.bus.mapper.MapperException;
+import org.aoju.bus.mapper.builder.OGNL;
+import org.aoju.bus.mapper.common.ids.DeleteByIdsMapper;
+import org.aoju.bus.mapper.common.ids.SelectByIdsMapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 分块执行 selectByIds/deleteByIds
+ * <p>
+ * ids 较多时按 chunkSize 拆分为多次查询后合并结果，每块的参数个数固定，SQL 文本可以被复用
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class IdsBatch {
+
+    /**
+     * 默认每块的 id 个数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 分块查询
+     * <p>
+     * executor 为 null 时在当前线程中依次查询；否则所有块都提交到 executor 并行查询，
+     * 各块使用各自的连接，不参与当前线程的事务，结果仍按 ids 的顺序合并。
+     * 查询会阻塞线程，executor 应为专用于数据库访问的线程池
+     *
+     * @param mapper    SelectByIdsMapper
+     * @param ids       主键集合
+     * @param chunkSize 每块的 id 个数
+     * @param executor  执行查询的线程池，为 null 时串行查询
+     * @param <T>       对象
+     * @return 结果集
+     */
+    public static <T> List<T> selectByIds(SelectByIdsMapper<T> mapper, Collection<?> ids, int chunkSize, Executor executor) {
+        List<String> chunks = chunks(ids, chunkSize);
+        if (chunks.size() == 1) {
+            return mapper.selectByIds(chunks.get(0));
+        }
+        List<T> result = new ArrayList<>();
+        if (executor != null) {
+            List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+            for (String chunk : chunks) {
+                futures.add(CompletableFuture.supplyAsync(() -> mapper.selectByIds(chunk), executor));
+            }
+            try {
+                for (CompletableFuture<List<T>> future : futures) {
+                    result.addAll(future.join());
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new MapperException(e.getCause());
+            }
+            return result;
+        }
+        for (String chunk : chunks) {
+            result.addAll(mapper.selectByIds(chunk));
+        }
+        return result;
+    }
+
+    /**
+     * 分块删除，在当前线程中依次执行
+     *
+     * @param mapper    DeleteByIdsMapper
+     * @param ids       主键集合
+     * @param chunkSize 每块的 id 个数
+     * @return 删除数量
+     */
+    public static int deleteByIds(DeleteByIdsMapper<?> mapper, Collection<?> ids, int chunkSize) {
+        int count = 0;
+        for (String chunk : chunks(ids, chunkSize)) {
+            count += mapper.deleteByIds(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 拆分为 ids 字符串，字符串主键使用单引号包裹
+     */
+    private static List<String> chunks(Collection<?> ids, int chunkSize) {
+        if (ids == null || ids.isEmpty()) {
+            throw new MapperException("ids 不能为空");
+        }
+        if (chunkSize <= 0 || chunkSize > OGNL.MAX_IDS_BUCKET) {
+            throw new MapperException("chunkSize 必须在 1 到 " + OGNL.MAX_IDS_BUCKET + " 之间");
+        }
+        List<String> chunks = new ArrayList<>((ids.size() + chunkSize - 1) / chunkSize);
+        StringBuilder chunk = new StringBuilder();
+        int count = 0;
+        Iterator<?> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            Object id = iterator.next();
+            if (count > 0) {
+                chunk.append(',');
+            }
+            if (id instanceof CharSequence) {
+                chunk.append('\'').append(id.toString().replace("'", "''")).append('\'');
+            } else {
+                chunk.append(id);
+            }
+            if (++count == chunkSize || !iterator.hasNext()) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+                count = 0;
+            }
+        }
+        return chunks;
+    }
+
+}
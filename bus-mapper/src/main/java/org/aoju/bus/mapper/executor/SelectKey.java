@@ -23,7 +23,10 @@
  */
 package org.aoju.bus.mapper.executor;
 
+import org.aoju.bus.mapper.builder.EntityBuilder;
 import org.aoju.bus.mapper.entity.EntityColumn;
+import org.aoju.bus.mapper.entity.EntityField;
+import org.aoju.bus.mapper.entity.EntityTable;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -165,10 +168,9 @@ public class SelectKey implements KeyGenerator {
                     } else {
                         MetaObject metaResult = configuration.newMetaObject(values.get(0));
                         if (keyProperties.length == 1) {
-                            if (metaResult.hasGetter(keyProperties[0])) {
-                                setValue(metaParam, keyProperties[0], metaResult.getValue(keyProperties[0]));
-                            } else {
-                                setValue(metaParam, keyProperties[0], values.get(0));
+                            Object value = metaResult.hasGetter(keyProperties[0]) ? metaResult.getValue(keyProperties[0]) : values.get(0);
+                            if (!setEntityValue(parameter, keyProperties[0], value)) {
+                                setValue(metaParam, keyProperties[0], value);
                             }
                         } else {
                             handleMultipleProperties(keyProperties, metaParam, metaResult);
@@ -202,6 +204,33 @@ public class SelectKey implements KeyGenerator {
         }
     }
 
+    /**
+     * 参数是已解析的实体时，通过实体属性读写器回写主键，只在主键为空时设置
+     *
+     * @param parameter 参数
+     * @param property  主键属性
+     * @param value     主键值
+     * @return 是否已处理
+     */
+    private boolean setEntityValue(Object parameter, String property, Object value) {
+        EntityTable entityTable = EntityBuilder.findEntityTable(parameter.getClass());
+        if (entityTable == null || entityTable.getPropertyMap() == null) {
+            return false;
+        }
+        EntityColumn column = entityTable.getPropertyMap().get(property);
+        if (column == null || column.getEntityField() == null) {
+            return false;
+        }
+        EntityField field = column.getEntityField();
+        if (!field.isReadable() || !field.isWritable()) {
+            return false;
+        }
+        if (field.getValue(parameter) == null) {
+            field.setValue(parameter, value);
+        }
+        return true;
+    }
+
     private void setValue(MetaObject metaParam, String property, Object value) {
         if (metaParam.hasSetter(property)) {
             if (metaParam.hasGetter(property)) {
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.mapper.provider;
+
+import org.aoju.bus.mapper.builder.MapperBuilder;
+import org.aoju.bus.mapper.builder.MapperTemplate;
+import org.aoju.bus.mapper.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * CursorProvider实现类，游标(流式)查询
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class CursorProvider extends MapperTemplate {
+
+    public CursorProvider(Class<?> mapperClass, MapperBuilder mapperBuilder) {
+        super(mapperClass, mapperBuilder);
+    }
+
+    /**
+     * 根据实体中的属性值进行游标查询
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectCursor(MappedStatement ms) {
+        Class<?> entityClass = getEntityClass(ms);
+        //修改返回值类型为实体类型
+        setResultType(ms, entityClass);
+        setCursorFetchSize(ms);
+        StringBuilder sql = new StringBuilder();
+        sql.append(SqlSourceBuilder.selectAllColumns(entityClass));
+        sql.append(SqlSourceBuilder.fromTable(entityClass, tableName(entityClass)));
+        sql.append(SqlSourceBuilder.whereAllIfColumns(entityClass, isNotEmpty()));
+        sql.append(SqlSourceBuilder.orderByDefault(entityClass));
+        return sql.toString();
+    }
+
+    /**
+     * 根据实体中的属性值进行查询，逐行交给 ResultHandler 处理
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectWithHandler(MappedStatement ms) {
+        return selectCursor(ms);
+    }
+
+    /**
+     * 游标查询全部结果
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectAllCursor(MappedStatement ms) {
+        final Class<?> entityClass = getEntityClass(ms);
+        //修改返回值类型为实体类型
+        setResultType(ms, entityClass);
+        setCursorFetchSize(ms);
+        StringBuilder sql = new StringBuilder();
+        sql.append(SqlSourceBuilder.selectAllColumns(entityClass));
+        sql.append(SqlSourceBuilder.fromTable(entityClass, tableName(entityClass)));
+        sql.append(SqlSourceBuilder.orderByDefault(entityClass));
+        return sql.toString();
+    }
+
+    /**
+     * 查询全部结果，逐行交给 ResultHandler 处理
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectAllWithHandler(MappedStatement ms) {
+        return selectAllCursor(ms);
+    }
+
+    /**
+     * 根据Condition进行游标查询
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectCursorByCondition(MappedStatement ms) {
+        Class<?> entityClass = getEntityClass(ms);
+        //将返回值修改为实体类型
+        setResultType(ms, entityClass);
+        setCursorFetchSize(ms);
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (isCheckEntityClass()) {
+            sql.append(SqlSourceBuilder.check(entityClass));
+        }
+        sql.append("<if test=\"distinct\">distinct</if>")
+                //支持查询指定列
+                .append(SqlSourceBuilder.selectColumns(entityClass))
+                .append(SqlSourceBuilder.fromTable(entityClass, tableName(entityClass)))
+                .append(SqlSourceBuilder.whereClause())
+                .append(SqlSourceBuilder.orderBy(entityClass))
+                .append(SqlSourceBuilder.forUpdate());
+        return sql.toString();
+    }
+
+    /**
+     * 根据Condition进行查询，逐行交给 ResultHandler 处理
+     *
+     * @param ms MappedStatement
+     * @return the string
+     */
+    public String selectByConditionWithHandler(MappedStatement ms) {
+        return selectCursorByCondition(ms);
+    }
+
+}
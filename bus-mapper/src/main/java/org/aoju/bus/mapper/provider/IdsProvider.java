@@ -60,9 +60,7 @@ public class IdsProvider extends MapperTemplate {
         Set<EntityColumn> columnList = EntityBuilder.getPKColumns(entityClass);
         if (columnList.size() == 1) {
             EntityColumn column = columnList.iterator().next();
-            sql.append(" where ")
-                    .append(column.getColumn())
-                    .append(" in (${_parameter})");
+            sql.append(idsCondition(column));
         } else {
             throw new MapperException("继承 deleteByIds 方法的实体类[" + entityClass.getCanonicalName() + "]中必须只有一个带有 @Id 注解的字段");
         }
@@ -85,13 +83,41 @@ public class IdsProvider extends MapperTemplate {
         Set<EntityColumn> columnList = EntityBuilder.getPKColumns(entityClass);
         if (columnList.size() == 1) {
             EntityColumn column = columnList.iterator().next();
-            sql.append(" where ")
-                    .append(column.getColumn())
-                    .append(" in (${_parameter})");
+            sql.append(idsCondition(column));
         } else {
             throw new MapperException("继承 selectByIds 方法的实体类[" + entityClass.getCanonicalName() + "]中必须只有一个带有 @Id 注解的字段");
         }
         return sql.toString();
     }
 
+    /**
+     * 主键 in 条件，ids 转换为补齐长度的绑定参数，避免拼接 SQL 文本
+     * <p>
+     * 超过 {@link org.aoju.bus.mapper.builder.OGNL#MAX_IDS_BUCKET} 个 id 时生成多个 in 列表以 or 连接，
+     * 所有数据库都可以直接执行；SQL Server 单条语句最多 2100 个参数，更多的 ids 请使用 IdsBatch 分块执行
+     *
+     * @param column 主键列
+     * @return the string
+     */
+    private static String idsCondition(EntityColumn column) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("<bind name=\"_ids\" value=\"@org.aoju.bus.mapper.builder.OGNL@bindIds(_parameter, '")
+                .append(column.getJavaType().getName())
+                .append("')\"/>")
+                .append(" where ")
+                .append("<foreach collection=\"_ids\" item=\"_bucket\" open=\"(\" separator=\" or \" close=\")\">")
+                .append(column.getColumn())
+                .append(" in ")
+                .append("<foreach collection=\"_bucket\" item=\"_id\" open=\"(\" separator=\",\" close=\")\">")
+                .append("#{_id");
+        //ids 已转换为主键类型，按主键列配置的 jdbcType/typeHandler 绑定，未配置时按值的类型绑定
+        if (column.getJdbcType() != null) {
+            sql.append(",jdbcType=").append(column.getJdbcType().toString());
+        } else if (column.getTypeHandler() != null) {
+            sql.append(",typeHandler=").append(column.getTypeHandler().getCanonicalName());
+        }
+        sql.append("}</foreach></foreach>");
+        return sql.toString();
+    }
+
 }
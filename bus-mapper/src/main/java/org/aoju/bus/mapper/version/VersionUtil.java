@@ -23,6 +23,8 @@
  */
 package org.aoju.bus.mapper.version;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Kimi Liu
@@ -31,6 +33,11 @@ package org.aoju.bus.mapper.version;
  */
 public class VersionUtil {
 
+    /**
+     * 版本类名 => 版本对象，避免每次更新都反射创建
+     */
+    private static final Map<String, NextVersion> CACHE = new ConcurrentHashMap<>();
+
     /**
      * 获取下一个版本
      *
@@ -41,7 +48,11 @@ public class VersionUtil {
      */
     public static Object nextVersion(String nextVersionClass, Object current) throws VersionException {
         try {
-            NextVersion nextVersion = (NextVersion) Class.forName(nextVersionClass).newInstance();
+            NextVersion nextVersion = CACHE.get(nextVersionClass);
+            if (nextVersion == null) {
+                nextVersion = (NextVersion) Class.forName(nextVersionClass).newInstance();
+                CACHE.putIfAbsent(nextVersionClass, nextVersion);
+            }
             return nextVersion.nextVersion(current);
         } catch (Exception e) {
             throw new VersionException("获取下一个版本号失败!", e);
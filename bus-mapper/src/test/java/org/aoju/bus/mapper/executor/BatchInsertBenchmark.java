@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.mapper.executor;
+
+import org.aoju.bus.mapper.builder.MapperBuilder;
+import org.aoju.bus.mapper.common.Mapper;
+import org.aoju.bus.mapper.common.basic.insert.InsertListMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * H2 上逐行 insertSelective、{@link BatchInsert#insert} 与 {@link BatchInsert#insertList} 的耗时对比，结果输出到控制台
+ * <p>
+ * 行数通过 -Drows=10000,1000000 指定；一次性多 VALUES 的 insertList 只在 10000 行以内比较，
+ * 更大的列表会生成过长的 SQL
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class BatchInsertBenchmark {
+
+    private static final int MULTI_VALUES_LIMIT = 10000;
+
+    private PooledDataSource dataSource;
+    private SqlSessionFactory factory;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:batch_insert;DB_CLOSE_DELAY=-1", "sa", "");
+        execute("drop table if exists t_user");
+        execute("create table t_user (id bigint auto_increment primary key, name varchar(64), age int)");
+
+        Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(UserMapper.class);
+        MapperBuilder mapperBuilder = new MapperBuilder();
+        mapperBuilder.registerMapper(Mapper.class);
+        mapperBuilder.registerMapper(InsertListMapper.class);
+        mapperBuilder.processConfiguration(configuration);
+        factory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    public void insert() throws SQLException {
+        for (String rows : System.getProperty("rows", "10000,1000000").split(",")) {
+            int size = Integer.parseInt(rows.trim());
+
+            long rowByRow = measure(size, false, list -> {
+                try (SqlSession session = factory.openSession(false)) {
+                    UserMapper mapper = session.getMapper(UserMapper.class);
+                    for (User user : list) {
+                        mapper.insertSelective(user);
+                    }
+                    session.commit();
+                }
+            });
+
+            long batch = measure(size, false, list -> {
+                assertEquals(list.size(), BatchInsert.insert(factory, UserMapper.class.getName() + ".insertSelective",
+                        list, BatchInsert.DEFAULT_BATCH_SIZE));
+                //JDBC 自增主键在 flush 时回写
+                assertNotNull(list.get(list.size() - 1).getId());
+            });
+
+            long chunked = measure(size, true, list -> {
+                try (SqlSession session = factory.openSession(false)) {
+                    BatchInsert.insertList(session.getMapper(UserMapper.class), list, 500);
+                    session.commit();
+                }
+            });
+
+            String multiValues = "skipped";
+            if (size <= MULTI_VALUES_LIMIT) {
+                multiValues = measure(size, true, list -> {
+                    try (SqlSession session = factory.openSession(false)) {
+                        session.getMapper(UserMapper.class).insertList(list);
+                        session.commit();
+                    }
+                }) + " ms";
+            }
+
+            System.out.printf("%d rows: insertSelective row by row %d ms, BatchInsert.insert %d ms, "
+                    + "BatchInsert.insertList(500) %d ms, insertList all at once %s%n", size, rowByRow, batch, chunked, multiValues);
+        }
+    }
+
+    /**
+     * 清空表后插入 size 行，返回耗时(毫秒)
+     *
+     * @param withId insertList 不支持主键策略，需要预先设置主键
+     */
+    private long measure(int size, boolean withId, Insert insert) throws SQLException {
+        execute("truncate table t_user restart identity");
+        List<User> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            if (withId) {
+                user.setId((long) i + 1);
+            }
+            user.setName("user" + i);
+            user.setAge(i % 100);
+            list.add(user);
+        }
+        long start = System.nanoTime();
+        insert.run(list);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertEquals(size, count());
+        return elapsed;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int count() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from t_user")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    interface Insert {
+        void run(List<User> list);
+    }
+
+    public interface UserMapper extends Mapper<User>, InsertListMapper<User> {
+
+    }
+
+    @Table(name = "t_user")
+    public static class User {
+
+        @Id
+        @GeneratedValue(generator = "JDBC")
+        private Long id;
+        private String name;
+        private Integer age;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+
+}
@@ -21,35 +21,32 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package org.aoju.bus.socket.netty;
-
-import org.aoju.bus.logger.Logger;
-
-import java.util.Iterator;
+package org.aoju.bus.pager;
 
 /**
+ * count 查询方式
+ *
  * @author Kimi Liu
  * @version 3.0.5
  * @since JDK 1.8
  */
-public class ChannelCommand implements Runnable {
+public enum CountMode {
 
-    @Override
-    public void run() {
-        try {
-            ClientMap clients = ClientService.getClients();
-            Iterator<SocketClient> iterator = clients.values().iterator();
-            while (iterator.hasNext()) {
-                SocketClient client = iterator.next();
-                if (client.needClose()) {
-                    client.close();
-                } else if (!client.isActive()) {
-                    client.sendHeartbeat();
-                }
-            }
-        } catch (Exception e) {
-            Logger.error("WebSocket channel check error: {}", e.getMessage(), e);
-        }
-    }
+    /**
+     * 每次执行 count 查询，总数精确
+     */
+    EXACT,
+    /**
+     * 按 count 查询的 SQL 和参数缓存总数，过期后重新查询，命中缓存时总数可能已过时
+     */
+    CACHED,
+    /**
+     * 根据数据库执行计划估算总数(MySQL/PostgreSQL)，不支持的数据库仍执行 count 查询
+     */
+    ESTIMATE,
+    /**
+     * 不查询总数，多取一行判断是否还有下一页
+     */
+    HAS_NEXT
 
 }
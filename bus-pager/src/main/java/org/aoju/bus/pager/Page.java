@@ -25,6 +25,7 @@ package org.aoju.bus.pager;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -86,6 +87,38 @@ public class Page<E> extends ArrayList<E> implements Closeable {
      * 只增加排序
      */
     private boolean orderByOnly;
+    /**
+     * count 查询方式
+     */
+    private CountMode countMode = CountMode.EXACT;
+    /**
+     * 总数是否精确，使用缓存或估算时为 false
+     */
+    private boolean totalExact = true;
+    /**
+     * 是否还有下一页，仅在 {@link CountMode#HAS_NEXT} 时有值
+     */
+    private Boolean hasNext;
+    /**
+     * 是否正在多取一行
+     */
+    private boolean probing;
+    /**
+     * 游标分页的排序列
+     */
+    private String[] seekColumns;
+    /**
+     * 游标分页各排序列是否倒序
+     */
+    private boolean[] seekDescending;
+    /**
+     * 上一页最后一行的排序列值，为空时查询第一页
+     */
+    private Object[] seekValues;
+    /**
+     * 本页最后一行的排序列值，作为下一页的游标
+     */
+    private Object[] seekCursor;
 
     public Page() {
         super();
@@ -245,6 +278,127 @@ public class Page<E> extends ArrayList<E> implements Closeable {
         this.orderByOnly = orderByOnly;
     }
 
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    /**
+     * 设置 count 查询方式
+     *
+     * @param countMode count 查询方式
+     * @return 结果
+     */
+    public Page<E> countMode(CountMode countMode) {
+        this.countMode = countMode == null ? CountMode.EXACT : countMode;
+        return this;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+
+    /**
+     * 是否还有下一页
+     *
+     * @return 结果，未使用 {@link CountMode#HAS_NEXT} 时为 null
+     */
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * 开始多取一行，用于判断是否还有下一页
+     */
+    public void beginProbe() {
+        if (!probing) {
+            probing = true;
+            pageSize++;
+            endRow++;
+        }
+    }
+
+    /**
+     * 结束多取一行，恢复分页大小
+     *
+     * @return 之前是否在多取一行
+     */
+    public boolean endProbe() {
+        if (probing) {
+            probing = false;
+            pageSize--;
+            endRow--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 是否为游标(seek)分页
+     *
+     * @return 结果
+     */
+    public boolean isSeek() {
+        return seekColumns != null;
+    }
+
+    public String[] getSeekColumns() {
+        return seekColumns;
+    }
+
+    public boolean[] getSeekDescending() {
+        return seekDescending;
+    }
+
+    public Object[] getSeekValues() {
+        return seekValues;
+    }
+
+    /**
+     * 设置游标分页条件
+     *
+     * @param columns    排序列
+     * @param descending 各排序列是否倒序
+     * @param values     上一页最后一行的排序列值，为空时查询第一页，单个值不能为 null
+     * @return 结果
+     */
+    public Page<E> seek(String[] columns, boolean[] descending, Object[] values) {
+        if (values != null && values.length > 0 && values.length != columns.length) {
+            throw new PageException("游标值的个数[" + values.length + "]与排序列的个数[" + columns.length + "]不一致!");
+        }
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    throw new PageException("游标分页的排序列[" + columns[i] + "]的值为 null，排序列必须为非空列!");
+                }
+            }
+        }
+        this.seekColumns = columns;
+        this.seekDescending = descending;
+        this.seekValues = values != null && values.length > 0 ? values : null;
+        return this;
+    }
+
+    /**
+     * 获取本页最后一行的排序列值，传给下一次 startSeek 即可查询下一页
+     *
+     * @return 结果，没有数据时为 null
+     */
+    public Object[] getSeekCursor() {
+        return seekCursor;
+    }
+
+    public void setSeekCursor(Object[] seekCursor) {
+        this.seekCursor = seekCursor;
+    }
+
     /**
      * 计算起止行号
      */
@@ -382,6 +536,8 @@ public class Page<E> extends ArrayList<E> implements Closeable {
                 ", pages=" + pages +
                 ", reasonable=" + reasonable +
                 ", pageSizeZero=" + pageSizeZero +
+                ", countMode=" + countMode +
+                (isSeek() ? ", seekColumns=" + Arrays.toString(seekColumns) : "") +
                 '}' + super.toString();
     }
 
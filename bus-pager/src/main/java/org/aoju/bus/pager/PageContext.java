@@ -124,6 +124,15 @@ public class PageContext extends PageMethod implements Dialect {
         clearPage();
     }
 
+    /**
+     * 获取当前使用的方言
+     *
+     * @return 结果，未分页时为 null
+     */
+    public AbstractHelperDialect getDelegate() {
+        return autoDialect.getDelegate();
+    }
+
     @Override
     public void setProperties(Properties properties) {
         setStaticProperties(properties);
@@ -23,12 +23,17 @@
  */
 package org.aoju.bus.pager.dialect;
 
+import org.aoju.bus.pager.cache.CacheFactory;
+import org.aoju.bus.pager.cache.StatsCache;
 import org.aoju.bus.pager.parser.CountSqlParser;
+import org.aoju.bus.pager.plugin.PageFromObject;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.RowBounds;
 
+import java.util.Properties;
+
 /**
  * 基于 CountSqlParser 的智能 Count 查询
  *
@@ -40,10 +45,62 @@ public abstract class AbstractDialect implements Dialect {
 
     //处理SQL
     protected CountSqlParser countSqlParser = new CountSqlParser();
+    //count 查询 SQL 缓存，key 为原始 SQL 和 count 列
+    protected StatsCache<String, String> countSqlCache = createSqlCache("count", new Properties());
 
     @Override
     public String getCountSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey countKey) {
-        return countSqlParser.getSmartCountSql(boundSql.getSql());
+        return getSmartCountSql(boundSql.getSql(), null);
+    }
+
+    /**
+     * 获取智能的countSql，解析结果按 SQL 缓存，避免重复解析
+     *
+     * @param sql         原查询sql
+     * @param countColumn count 列，为空时使用默认列
+     * @return the string
+     */
+    protected String getSmartCountSql(String sql, String countColumn) {
+        //SQL 中不会出现 \0，用它分隔列名不会和其他 SQL 冲突
+        String key = PageFromObject.isEmpty(countColumn) ? sql : sql + '\0' + countColumn;
+        String countSql = countSqlCache.get(key);
+        if (countSql == null) {
+            countSql = PageFromObject.isEmpty(countColumn)
+                    ? countSqlParser.getSmartCountSql(sql)
+                    : countSqlParser.getSmartCountSql(sql, countColumn);
+            countSqlCache.put(key, countSql);
+        }
+        return countSql;
+    }
+
+    /**
+     * 创建 SQL 缓存，sqlCacheClass 指定实现类，容量等参数使用 prefix 前缀配置，
+     * 例如 count.maximumSize（Guava）或 count.size（MyBatis）
+     *
+     * @param prefix     前缀
+     * @param properties 属性
+     * @return 带命中统计的缓存
+     */
+    protected StatsCache<String, String> createSqlCache(String prefix, Properties properties) {
+        String sqlCacheClass = properties.getProperty("sqlCacheClass");
+        if ("false".equalsIgnoreCase(sqlCacheClass)) {
+            sqlCacheClass = null;
+        }
+        return new StatsCache<>(CacheFactory.<String, String>createCache(sqlCacheClass, prefix, properties));
+    }
+
+    /**
+     * count 查询 SQL 缓存，可用于查看命中率
+     *
+     * @return the cache
+     */
+    public StatsCache<String, String> getCountSqlCache() {
+        return countSqlCache;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        countSqlCache = createSqlCache("count", properties);
     }
 
 }
@@ -23,10 +23,13 @@
  */
 package org.aoju.bus.pager.dialect;
 
+import org.aoju.bus.pager.CountMode;
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.PageContext;
+import org.aoju.bus.pager.PageException;
 import org.aoju.bus.pager.PageRowBounds;
 import org.aoju.bus.pager.parser.OrderByParser;
+import org.aoju.bus.pager.parser.SeekParser;
 import org.aoju.bus.pager.plugin.PageFromObject;
 import org.aoju.bus.pager.reflect.MetaObject;
 import org.apache.ibatis.cache.CacheKey;
@@ -35,6 +38,9 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.session.RowBounds;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
 import java.util.*;
 
 /**
@@ -65,17 +71,34 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
     @Override
     public boolean beforeCount(MappedStatement ms, Object parameterObject, RowBounds rowBounds) {
         Page page = getLocalPage();
-        return !page.isOrderByOnly() && page.isCount();
+        return !page.isOrderByOnly() && page.isCount() && page.getCountMode() != CountMode.HAS_NEXT;
     }
 
     @Override
     public String getCountSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey countKey) {
         Page<Object> page = getLocalPage();
-        String countColumn = page.getCountColumn();
-        if (PageFromObject.isNotEmpty(countColumn)) {
-            return countSqlParser.getSmartCountSql(boundSql.getSql(), countColumn);
-        }
-        return countSqlParser.getSmartCountSql(boundSql.getSql());
+        return getSmartCountSql(boundSql.getSql(), page.getCountColumn());
+    }
+
+    /**
+     * 获取估算总数的 SQL，如 EXPLAIN，返回 null 时表示不支持估算
+     *
+     * @param sql 原SQL
+     * @return 结果
+     */
+    public String getEstimateCountSql(String sql) {
+        return null;
+    }
+
+    /**
+     * 从估算 SQL 的结果中读取估算的总数
+     *
+     * @param rs 估算 SQL 的结果
+     * @return 结果，无法估算时返回 null
+     * @throws SQLException 异常
+     */
+    public Long getEstimateCount(ResultSet rs) throws SQLException {
+        return null;
     }
 
     @Override
@@ -136,9 +159,55 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
                 }
             }
         }
+        //游标分页的参数在原SQL参数之后、分页参数之前
+        if (page.isSeek() && page.getSeekValues() != null) {
+            processSeekParameter(ms, paramMap, page, boundSql, pageKey);
+        }
         return processPageParameter(ms, paramMap, page, boundSql, pageKey);
     }
 
+    /**
+     * 处理游标分页参数
+     *
+     * @param ms       MappedStatement
+     * @param paramMap Map
+     * @param page     Page
+     * @param boundSql BoundSql
+     * @param pageKey  CacheKey
+     */
+    protected void processSeekParameter(MappedStatement ms, Map<String, Object> paramMap, Page page, BoundSql boundSql, CacheKey pageKey) {
+        Object[] values = page.getSeekValues();
+        for (Object value : values) {
+            pageKey.update(value);
+        }
+        if (boundSql.getParameterMappings() != null) {
+            int[] indexes = SeekParser.parameterIndexes(page, SeekParser.useRowValue(page, supportsRowValueComparison()));
+            List<ParameterMapping> newParameterMappings = new ArrayList<ParameterMapping>(boundSql.getParameterMappings());
+            for (int i = 0; i < indexes.length; i++) {
+                String name = PAGEPARAMETER_SEEK + i;
+                Object value = values[indexes[i]];
+                //null 无法参与比较，(k1, k2) > (?, null) 永远不成立，直接拒绝
+                if (value == null) {
+                    throw new PageException("游标分页的排序列[" + page.getSeekColumns()[indexes[i]] + "]的值为 null，排序列必须为非空列!");
+                }
+                paramMap.put(name, value);
+                Class<?> javaType = ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(value.getClass()) ? value.getClass() : Object.class;
+                newParameterMappings.add(new ParameterMapping.Builder(ms.getConfiguration(), name, javaType).build());
+            }
+            org.apache.ibatis.reflection.MetaObject metaObject = MetaObject.forObject(boundSql);
+            metaObject.setValue("parameterMappings", newParameterMappings);
+        }
+    }
+
+    /**
+     * 是否支持行值比较 (k1, k2) &gt; (?, ?)，不支持时游标分页使用展开的 OR 条件
+     *
+     * @return 结果
+     */
+    protected boolean supportsRowValueComparison() {
+        return false;
+    }
+
     /**
      * 处理分页参数
      *
@@ -155,6 +224,10 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
     public boolean beforePage(MappedStatement ms, Object parameterObject, RowBounds rowBounds) {
         Page page = getLocalPage();
         if (page.isOrderByOnly() || page.getPageSize() > 0) {
+            //多取一行判断是否有下一页
+            if (!page.isOrderByOnly() && page.getCountMode() == CountMode.HAS_NEXT) {
+                page.beginProbe();
+            }
             return true;
         }
         return false;
@@ -164,6 +237,13 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
     public String getPageSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey pageKey) {
         String sql = boundSql.getSql();
         Page page = getLocalPage();
+        //游标分页，排序由排序列决定
+        if (page.isSeek()) {
+            pageKey.update(Arrays.toString(page.getSeekColumns()));
+            pageKey.update(Arrays.toString(page.getSeekDescending()));
+            sql = SeekParser.converToSeekSql(sql, page, SeekParser.useRowValue(page, supportsRowValueComparison()));
+            return getPageSql(sql, page, pageKey);
+        }
         //支持 order by
         String orderBy = page.getOrderBy();
         if (PageFromObject.isNotEmpty(orderBy)) {
@@ -192,9 +272,21 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
         if (page == null) {
             return pageList;
         }
+        boolean probed = page.endProbe();
+        if (probed) {
+            boolean hasNext = pageList.size() > page.getPageSize();
+            if (hasNext) {
+                pageList = pageList.subList(0, page.getPageSize());
+            }
+            page.setHasNext(hasNext);
+        }
         page.addAll(pageList);
-        if (!page.isCount()) {
+        if (page.isSeek()) {
+            page.setSeekCursor(pageList.isEmpty() ? null : getSeekCursor(page, pageList.get(pageList.size() - 1)));
+        }
+        if (!page.isCount() || probed) {
             page.setTotal(-1);
+            page.setTotalExact(!probed);
         } else if ((page.getPageSizeZero() != null && page.getPageSizeZero()) && page.getPageSize() == 0) {
             page.setTotal(pageList.size());
         } else if (page.isOrderByOnly()) {
@@ -203,14 +295,81 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
         return page;
     }
 
+    /**
+     * 从最后一行中取出排序列的值作为下一页的游标
+     *
+     * @param page 分页对象
+     * @param row  最后一行
+     * @return 结果
+     */
+    protected Object[] getSeekCursor(Page page, Object row) {
+        String[] columns = page.getSeekColumns();
+        Object[] cursor = new Object[columns.length];
+        //单列查询时结果就是列值
+        if (columns.length == 1 && isScalar(row)) {
+            cursor[0] = row;
+            return cursor;
+        }
+        org.apache.ibatis.reflection.MetaObject metaObject = MetaObject.forObject(row);
+        for (int i = 0; i < columns.length; i++) {
+            String column = columns[i];
+            if (row instanceof Map) {
+                Map map = (Map) row;
+                String key = null;
+                for (String candidate : new String[]{column, underlineToCamel(column), column.toUpperCase(), column.toLowerCase()}) {
+                    if (map.containsKey(candidate)) {
+                        key = candidate;
+                        break;
+                    }
+                }
+                if (key == null) {
+                    throw new PageException("查询结果中不存在游标分页的排序列[" + column + "]!");
+                }
+                cursor[i] = map.get(key);
+            } else {
+                String property = metaObject.findProperty(column, true);
+                if (property == null || !metaObject.hasGetter(property)) {
+                    throw new PageException("查询结果中不存在游标分页的排序列[" + column + "]!");
+                }
+                cursor[i] = metaObject.getValue(property);
+            }
+        }
+        return cursor;
+    }
+
+    private static boolean isScalar(Object row) {
+        return row instanceof CharSequence
+                || row instanceof Number
+                || row instanceof Date
+                || row instanceof Temporal;
+    }
+
+    private static String underlineToCamel(String column) {
+        StringBuilder builder = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toLowerCase().toCharArray()) {
+            if (c == '_') {
+                upper = builder.length() > 0;
+            } else {
+                builder.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+
     @Override
     public void afterAll() {
-
+        //分页查询异常时也要恢复分页大小
+        Page page = getLocalPage();
+        if (page != null) {
+            page.endProbe();
+        }
     }
 
     @Override
     public void setProperties(Properties properties) {
-
+        super.setProperties(properties);
     }
 
     protected void handleParameter(BoundSql boundSql, MappedStatement ms) {
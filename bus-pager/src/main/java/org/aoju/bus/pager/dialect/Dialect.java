@@ -48,6 +48,8 @@ public interface Dialect {
     String PAGEPARAMETER_FIRST = "First" + SUFFIX_PAGE;
     //第二个分页参数
     String PAGEPARAMETER_SECOND = "Second" + SUFFIX_PAGE;
+    //游标分页参数前缀
+    String PAGEPARAMETER_SEEK = "Seek" + SUFFIX_PAGE + "_";
 
     /**
      * 跳过 count 和 分页查询
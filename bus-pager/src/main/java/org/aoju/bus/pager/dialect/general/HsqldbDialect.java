@@ -78,4 +78,10 @@ public class HsqldbDialect extends AbstractHelperDialect {
         }
         return sqlBuilder.toString();
     }
+
+    @Override
+    protected boolean supportsRowValueComparison() {
+        return true;
+    }
+
 }
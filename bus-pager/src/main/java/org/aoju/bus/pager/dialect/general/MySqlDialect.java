@@ -31,6 +31,9 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -78,4 +81,44 @@ public class MySqlDialect extends AbstractHelperDialect {
         return sqlBuilder.toString();
     }
 
+    @Override
+    public String getEstimateCountSql(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    public Long getEstimateCount(ResultSet rs) throws SQLException {
+        //取第一行驱动表的 rows * filtered，sqlite 等没有 rows 列时无法估算
+        if (!rs.next()) {
+            return null;
+        }
+        ResultSetMetaData metaData = rs.getMetaData();
+        int rowsColumn = -1;
+        int filteredColumn = -1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            if ("rows".equalsIgnoreCase(label)) {
+                rowsColumn = i;
+            } else if ("filtered".equalsIgnoreCase(label)) {
+                filteredColumn = i;
+            }
+        }
+        if (rowsColumn == -1) {
+            return null;
+        }
+        long rows = rs.getLong(rowsColumn);
+        if (filteredColumn != -1) {
+            double filtered = rs.getDouble(filteredColumn);
+            if (!rs.wasNull()) {
+                rows = Math.round(rows * filtered / 100);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    protected boolean supportsRowValueComparison() {
+        return true;
+    }
+
 }
@@ -25,7 +25,7 @@ package org.aoju.bus.pager.dialect.general;
 
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.cache.Cache;
-import org.aoju.bus.pager.cache.CacheFactory;
+import org.aoju.bus.pager.cache.StatsCache;
 import org.aoju.bus.pager.dialect.AbstractHelperDialect;
 import org.aoju.bus.pager.dialect.ReplaceSql;
 import org.aoju.bus.pager.dialect.replace.RegexWithNolockReplaceSql;
@@ -49,8 +49,8 @@ import java.util.Properties;
  */
 public class SqlServerDialect extends AbstractHelperDialect {
     protected SqlServerParser pageSql = new SqlServerParser();
-    protected Cache<String, String> CACHE_COUNTSQL;
-    protected Cache<String, String> CACHE_PAGESQL;
+    protected Cache<String, String> CACHE_COUNTSQL = countSqlCache;
+    protected StatsCache<String, String> CACHE_PAGESQL = createSqlCache("proxy", new Properties());
     protected ReplaceSql replaceSql;
 
     @Override
@@ -92,6 +92,15 @@ public class SqlServerDialect extends AbstractHelperDialect {
         return cacheSql;
     }
 
+    /**
+     * 分页 SQL 缓存，可用于查看命中率
+     *
+     * @return the cache
+     */
+    public StatsCache<String, String> getPageSqlCache() {
+        return CACHE_PAGESQL;
+    }
+
     @Override
     public void setProperties(Properties properties) {
         super.setProperties(properties);
@@ -108,14 +117,9 @@ public class SqlServerDialect extends AbstractHelperDialect {
                         + ReplaceSql.class.getCanonicalName() + " 接口的全限定类名", e);
             }
         }
-        String sqlCacheClass = properties.getProperty("sqlCacheClass");
-        if (PageFromObject.isNotEmpty(sqlCacheClass) && !sqlCacheClass.equalsIgnoreCase("false")) {
-            CACHE_COUNTSQL = CacheFactory.createCache(sqlCacheClass, "count", properties);
-            CACHE_PAGESQL = CacheFactory.createCache(sqlCacheClass, "proxy", properties);
-        } else {
-            CACHE_COUNTSQL = CacheFactory.createCache(null, "count", properties);
-            CACHE_PAGESQL = CacheFactory.createCache(null, "proxy", properties);
-        }
+        //count 缓存由父类按 sqlCacheClass 创建，分页缓存使用同样的配置
+        CACHE_COUNTSQL = countSqlCache;
+        CACHE_PAGESQL = createSqlCache("proxy", properties);
     }
 
 }
@@ -23,6 +23,7 @@
  */
 package org.aoju.bus.pager.dialect.rowbounds;
 
+import org.aoju.bus.pager.cache.StatsCache;
 import org.aoju.bus.pager.dialect.AbstractRowBoundsDialect;
 import org.aoju.bus.pager.dialect.ReplaceSql;
 import org.aoju.bus.pager.dialect.replace.RegexWithNolockReplaceSql;
@@ -46,14 +47,19 @@ import java.util.Properties;
 public class SqlServerRowBoundsDialect extends AbstractRowBoundsDialect {
     protected SqlServerParser pageSql = new SqlServerParser();
     protected ReplaceSql replaceSql;
+    protected StatsCache<String, String> pageSqlCache = createSqlCache("proxy", new Properties());
 
     @Override
     public String getCountSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey countKey) {
         String sql = boundSql.getSql();
-        sql = replaceSql.replace(sql);
-        sql = countSqlParser.getSmartCountSql(sql);
-        sql = replaceSql.restore(sql);
-        return sql;
+        String cacheSql = countSqlCache.get(sql);
+        if (cacheSql == null) {
+            cacheSql = replaceSql.replace(sql);
+            cacheSql = countSqlParser.getSmartCountSql(cacheSql);
+            cacheSql = replaceSql.restore(cacheSql);
+            countSqlCache.put(sql, cacheSql);
+        }
+        return cacheSql;
     }
 
     @Override
@@ -61,12 +67,25 @@ public class SqlServerRowBoundsDialect extends AbstractRowBoundsDialect {
         //处理pageKey
         pageKey.update(rowBounds.getOffset());
         pageKey.update(rowBounds.getLimit());
-        sql = replaceSql.replace(sql);
-        sql = pageSql.convertToPageSql(sql, null, null);
-        sql = replaceSql.restore(sql);
-        sql = sql.replace(String.valueOf(Long.MIN_VALUE), String.valueOf(rowBounds.getOffset()));
-        sql = sql.replace(String.valueOf(Long.MAX_VALUE), String.valueOf(rowBounds.getLimit()));
-        return sql;
+        String cacheSql = pageSqlCache.get(sql);
+        if (cacheSql == null) {
+            cacheSql = replaceSql.replace(sql);
+            cacheSql = pageSql.convertToPageSql(cacheSql, null, null);
+            cacheSql = replaceSql.restore(cacheSql);
+            pageSqlCache.put(sql, cacheSql);
+        }
+        cacheSql = cacheSql.replace(String.valueOf(Long.MIN_VALUE), String.valueOf(rowBounds.getOffset()));
+        cacheSql = cacheSql.replace(String.valueOf(Long.MAX_VALUE), String.valueOf(rowBounds.getLimit()));
+        return cacheSql;
+    }
+
+    /**
+     * 分页 SQL 缓存，可用于查看命中率
+     *
+     * @return the cache
+     */
+    public StatsCache<String, String> getPageSqlCache() {
+        return pageSqlCache;
     }
 
     @Override
@@ -85,6 +104,7 @@ public class SqlServerRowBoundsDialect extends AbstractRowBoundsDialect {
                         + ReplaceSql.class.getCanonicalName() + " 接口的全限定类名", e);
             }
         }
+        pageSqlCache = createSqlCache("proxy", properties);
     }
 
 }
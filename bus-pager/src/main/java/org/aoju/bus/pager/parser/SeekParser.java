@@ -0,0 +1,249 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.pager.parser;
+
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.aoju.bus.pager.Page;
+import org.aoju.bus.pager.PageException;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 处理游标(seek)分页
+ * <p>
+ * 将原SQL作为子查询，按排序列的值定位上一页最后一行之后的数据：
+ * <pre>
+ * SELECT * FROM (原SQL) SEEK_TMP WHERE (k1, k2) &gt; (?, ?) ORDER BY k1, k2
+ * </pre>
+ * 分页部分(LIMIT等)仍由各个方言追加，游标参数总是位于原SQL的参数之后
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class SeekParser {
+
+    /**
+     * 子查询别名
+     */
+    public static final String SEEK_TABLE = "SEEK_TMP";
+
+    /**
+     * 合法的排序列，只允许普通标识符，避免SQL注入
+     */
+    private static final Pattern COLUMN = Pattern.compile("([A-Za-z_][A-Za-z0-9_$]*\\.)?[A-Za-z_][A-Za-z0-9_$]*");
+
+    /**
+     * 解析排序列，如 "created_at desc, t.id"
+     *
+     * @param sortColumns 排序列
+     * @return 结果
+     */
+    public static Columns parseColumns(String sortColumns) {
+        if (sortColumns == null || sortColumns.trim().length() == 0) {
+            throw new PageException("游标分页必须指定排序列!");
+        }
+        String[] items = sortColumns.trim().split("\\s*,\\s*");
+        String[] names = new String[items.length];
+        boolean[] descending = new boolean[items.length];
+        for (int i = 0; i < items.length; i++) {
+            String[] parts = items[i].trim().split("\\s+");
+            if (parts.length > 2 || !COLUMN.matcher(parts[0]).matches()) {
+                throw new PageException("游标分页的排序列[" + items[i] + "]不合法!");
+            }
+            if (parts.length == 2) {
+                if ("desc".equalsIgnoreCase(parts[1])) {
+                    descending[i] = true;
+                } else if (!"asc".equalsIgnoreCase(parts[1])) {
+                    throw new PageException("游标分页的排序列[" + items[i] + "]不合法!");
+                }
+            }
+            //外层查询只能看到子查询的列名，去掉表别名
+            int dot = parts[0].indexOf('.');
+            names[i] = dot == -1 ? parts[0] : parts[0].substring(dot + 1);
+        }
+        return new Columns(names, descending);
+    }
+
+    /**
+     * 是否可以使用行值比较 (k1, k2) &gt; (?, ?)，要求所有排序列的方向一致
+     *
+     * @param page             分页对象
+     * @param supportsRowValue 数据库是否支持行值比较
+     * @return 结果
+     */
+    public static boolean useRowValue(Page page, boolean supportsRowValue) {
+        if (!supportsRowValue) {
+            return false;
+        }
+        boolean[] descending = page.getSeekDescending();
+        for (int i = 1; i < descending.length; i++) {
+            if (descending[i] != descending[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取每个游标参数对应的排序列下标，展开形式的条件中同一个值会出现多次
+     *
+     * @param page     分页对象
+     * @param rowValue 是否使用行值比较
+     * @return 结果
+     */
+    public static int[] parameterIndexes(Page page, boolean rowValue) {
+        int n = page.getSeekColumns().length;
+        int[] indexes = new int[rowValue ? n : n * (n + 1) / 2];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (rowValue) {
+                indexes[k++] = i;
+            } else {
+                for (int j = 0; j <= i; j++) {
+                    indexes[k++] = j;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 转换为游标分页SQL，第一页(没有游标值)时只排序
+     *
+     * @param sql      原SQL
+     * @param page     分页对象
+     * @param rowValue 是否使用行值比较
+     * @return 结果
+     */
+    public static String converToSeekSql(String sql, Page page, boolean rowValue) {
+        String innerSql;
+        try {
+            Select select = (Select) CCJSqlParserUtil.parse(sql);
+            //去最外层order by，由游标的排序列代替
+            List<OrderByElement> orderByElements = OrderByParser.extraOrderBy(select.getSelectBody());
+            String defaultOrderBy = PlainSelect.orderByToString(orderByElements);
+            if (defaultOrderBy.indexOf('?') != -1) {
+                throw new PageException("原SQL[" + sql + "]中的order by包含参数，因此不能使用游标分页!");
+            }
+            innerSql = select.toString();
+        } catch (PageException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new PageException("处理游标分页失败: " + e, e);
+        }
+        String[] columns = page.getSeekColumns();
+        boolean[] descending = page.getSeekDescending();
+        StringBuilder sqlBuilder = new StringBuilder(innerSql.length() + 64);
+        sqlBuilder.append("SELECT * FROM (").append(innerSql).append(") ").append(SEEK_TABLE);
+        if (page.getSeekValues() != null) {
+            sqlBuilder.append(" WHERE ");
+            if (rowValue) {
+                appendRowValue(sqlBuilder, columns, descending[0]);
+            } else {
+                appendExpanded(sqlBuilder, columns, descending);
+            }
+        }
+        sqlBuilder.append(" ORDER BY ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sqlBuilder.append(", ");
+            }
+            sqlBuilder.append(columns[i]);
+            if (descending[i]) {
+                sqlBuilder.append(" DESC");
+            }
+        }
+        return sqlBuilder.toString();
+    }
+
+    /**
+     * (k1, k2) &gt; (?, ?)
+     */
+    private static void appendRowValue(StringBuilder sqlBuilder, String[] columns, boolean descending) {
+        String operator = descending ? " < " : " > ";
+        if (columns.length == 1) {
+            sqlBuilder.append(columns[0]).append(operator).append('?');
+            return;
+        }
+        sqlBuilder.append('(');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sqlBuilder.append(", ");
+            }
+            sqlBuilder.append(columns[i]);
+        }
+        sqlBuilder.append(')').append(operator).append('(');
+        for (int i = 0; i < columns.length; i++) {
+            sqlBuilder.append(i > 0 ? ", ?" : "?");
+        }
+        sqlBuilder.append(')');
+    }
+
+    /**
+     * (k1 &gt; ?) OR (k1 = ? AND k2 &gt; ?)，用于不支持行值比较或排序方向不一致的情况
+     */
+    private static void appendExpanded(StringBuilder sqlBuilder, String[] columns, boolean[] descending) {
+        sqlBuilder.append('(');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sqlBuilder.append(" OR ");
+            }
+            sqlBuilder.append('(');
+            for (int j = 0; j < i; j++) {
+                sqlBuilder.append(columns[j]).append(" = ? AND ");
+            }
+            sqlBuilder.append(columns[i]).append(descending[i] ? " < ?" : " > ?");
+            sqlBuilder.append(')');
+        }
+        sqlBuilder.append(')');
+    }
+
+    /**
+     * 排序列
+     */
+    public static class Columns {
+
+        private final String[] names;
+        private final boolean[] descending;
+
+        public Columns(String[] names, boolean[] descending) {
+            this.names = names;
+            this.descending = descending;
+        }
+
+        public String[] getNames() {
+            return names;
+        }
+
+        public boolean[] getDescending() {
+            return descending;
+        }
+    }
+
+}
@@ -24,9 +24,11 @@
 package org.aoju.bus.pager.plugin;
 
 import org.aoju.bus.pager.PageException;
+import org.aoju.bus.pager.dialect.AbstractHelperDialect;
 import org.aoju.bus.pager.dialect.Dialect;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
@@ -34,7 +36,11 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.List;
 import java.util.Map;
 
@@ -126,9 +132,29 @@ public abstract class CountExecutor {
     public static Long executeAutoCount(Dialect dialect, Executor executor, MappedStatement countMs,
                                         Object parameter, BoundSql boundSql,
                                         RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-        Map<String, Object> additionalParameters = getAdditionalParameter(boundSql);
         //创建 count 查询的缓存 key
         CacheKey countKey = executor.createCacheKey(countMs, parameter, RowBounds.DEFAULT, boundSql);
+        BoundSql countBoundSql = newAutoCountBoundSql(dialect, countMs, parameter, boundSql, rowBounds, countKey);
+        //执行 count 查询
+        Object countResultList = executor.query(countMs, parameter, RowBounds.DEFAULT, resultHandler, countKey, countBoundSql);
+        Long count = (Long) ((List) countResultList).get(0);
+        return count;
+    }
+
+    /**
+     * 创建自动生成的 count 查询的 BoundSql
+     *
+     * @param dialect   方言
+     * @param countMs   MappedStatement
+     * @param parameter 参数
+     * @param boundSql  BoundSql
+     * @param rowBounds RowBounds
+     * @param countKey  count 缓存 key
+     * @return the boundSql
+     */
+    public static BoundSql newAutoCountBoundSql(Dialect dialect, MappedStatement countMs, Object parameter,
+                                                BoundSql boundSql, RowBounds rowBounds, CacheKey countKey) {
+        Map<String, Object> additionalParameters = getAdditionalParameter(boundSql);
         //调用方言获取 count sql
         String countSql = dialect.getCountSql(countMs, boundSql, parameter, rowBounds, countKey);
         //countKey.update(countSql);
@@ -137,10 +163,79 @@ public abstract class CountExecutor {
         for (String key : additionalParameters.keySet()) {
             countBoundSql.setAdditionalParameter(key, additionalParameters.get(key));
         }
-        //执行 count 查询
-        Object countResultList = executor.query(countMs, parameter, RowBounds.DEFAULT, resultHandler, countKey, countBoundSql);
-        Long count = (Long) ((List) countResultList).get(0);
-        return count;
+        return countBoundSql;
+    }
+
+    /**
+     * 根据执行计划估算总数
+     * 在事务中执行时，估算语句在保存点内执行，失败时回滚到保存点，避免事务被中止(如PostgreSQL)；
+     * 不支持保存点时不进行估算
+     *
+     * @param dialect   方言
+     * @param executor  执行者
+     * @param ms        MappedStatement
+     * @param parameter 参数
+     * @param boundSql  BoundSql
+     * @return 估算的总数，方言不支持或估算失败时返回 null
+     * @throws SQLException 异常
+     */
+    public static Long executeEstimateCount(AbstractHelperDialect dialect, Executor executor, MappedStatement ms,
+                                            Object parameter, BoundSql boundSql) throws SQLException {
+        String estimateSql = dialect.getEstimateCountSql(boundSql.getSql());
+        if (estimateSql == null) {
+            return null;
+        }
+        BoundSql estimateBoundSql = new BoundSql(ms.getConfiguration(), estimateSql, boundSql.getParameterMappings(), parameter);
+        Map<String, Object> additionalParameters = getAdditionalParameter(boundSql);
+        for (String key : additionalParameters.keySet()) {
+            estimateBoundSql.setAdditionalParameter(key, additionalParameters.get(key));
+        }
+        Connection connection = executor.getTransaction().getConnection();
+        Savepoint savepoint = null;
+        if (!connection.getAutoCommit()) {
+            try {
+                savepoint = connection.setSavepoint();
+            } catch (SQLException | UnsupportedOperationException e) {
+                return null;
+            }
+        }
+        PreparedStatement statement = null;
+        ResultSet rs = null;
+        try {
+            statement = connection.prepareStatement(estimateSql);
+            new DefaultParameterHandler(ms, parameter, estimateBoundSql).setParameters(statement);
+            rs = statement.executeQuery();
+            Long count = dialect.getEstimateCount(rs);
+            if (savepoint != null) {
+                try {
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    //部分驱动不支持释放保存点，随事务结束释放
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            //估算失败时回滚到保存点，由调用方执行精确的 count 查询
+            if (savepoint != null) {
+                connection.rollback(savepoint);
+            }
+            return null;
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    //ignore
+                }
+            }
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    //ignore
+                }
+            }
+        }
     }
 
     /**
@@ -23,22 +23,38 @@
  */
 package org.aoju.bus.pager.plugin;
 
+import org.aoju.bus.pager.CountMode;
+import org.aoju.bus.pager.Page;
+import org.aoju.bus.pager.PageContext;
 import org.aoju.bus.pager.PageException;
 import org.aoju.bus.pager.cache.Cache;
 import org.aoju.bus.pager.cache.CacheFactory;
 import org.aoju.bus.pager.dialect.Dialect;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.plugin.*;
 import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Mybatis - 通用分页拦截器
@@ -56,6 +72,33 @@ import java.util.Properties;
 public class PageInterceptor implements Interceptor {
 
     protected Cache<String, MappedStatement> msCountMap = null;
+    /**
+     * CountMode.CACHED 时缓存的总数，值为 {总数, 过期时间}
+     */
+    protected Cache<CacheKey, long[]> countCache = null;
+    private long countCacheTtl = 60000;
+    /**
+     * 异步执行 count 查询的线程池，未开启 asyncCount 时为 null
+     */
+    private ExecutorService asyncCountExecutor;
+    /**
+     * 事务中是否也异步执行 count 查询，count 使用独立的连接，看不到当前事务未提交的数据
+     */
+    private boolean asyncCountInTransaction;
+    /**
+     * 等待异步 count 结果的最长时间(毫秒)，小于等于0时不限制
+     * <p>
+     * 超时后取消 count 语句，不再重新执行 count，总数为 -1 且 {@link Page#isTotalExact()} 为 false
+     */
+    private long asyncCountTimeout = 10000;
+    /**
+     * 异步 count 同时占用的连接数上限，没有剩余时同步执行 count
+     */
+    private Semaphore asyncCountPermits;
+    /**
+     * 传递给 count 线程的上下文，数据源按线程变量路由时需要设置
+     */
+    private AsyncCountContext asyncCountContext;
     private volatile Dialect dialect;
     private String countSuffix = "_COUNT";
     private String default_dialect_class = "org.aoju.bus.pager.PageContext";
@@ -87,7 +130,35 @@ public class PageInterceptor implements Interceptor {
             //调用方法判断是否需要进行分页，如果不需要，直接返回结果
             if (!dialect.skip(ms, parameter, rowBounds)) {
                 //判断是否需要进行 count 查询
-                if (dialect.beforeCount(ms, parameter, rowBounds)) {
+                boolean beforeCount = dialect.beforeCount(ms, parameter, rowBounds);
+                AsyncCount asyncCount = beforeCount ? asyncCount(executor, ms, parameter, rowBounds, boundSql) : null;
+                if (asyncCount != null) {
+                    //count 查询在独立的连接上执行，同时进行分页查询
+                    try {
+                        resultList = CountExecutor.pageQuery(dialect, executor,
+                                ms, parameter, rowBounds, resultHandler, boundSql, cacheKey);
+                    } catch (Throwable t) {
+                        asyncCount.abandon();
+                        throw t;
+                    }
+                    Long count = asyncCount.await(asyncCountTimeout);
+                    if (count == null && asyncCount.timedOut) {
+                        //count 已超时并被取消，再次执行只会加重数据库负载，总数按未知处理
+                        Page page = PageContext.getLocalPage();
+                        page.setTotal(-1);
+                        page.setTotalExact(false);
+                        return dialect.afterPage(resultList, parameter, rowBounds);
+                    }
+                    if (count == null) {
+                        //count 还未取得连接，已被放弃，在当前连接上执行，避免连接池耗尽时互相等待
+                        count = count(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+                    }
+                    if (!dialect.afterCount(count, parameter, rowBounds)) {
+                        return dialect.afterPage(new ArrayList(), parameter, rowBounds);
+                    }
+                    return dialect.afterPage(resultList, parameter, rowBounds);
+                }
+                if (beforeCount) {
                     //查询总数
                     Long count = count(executor, ms, parameter, rowBounds, resultHandler, boundSql);
                     //处理查询总数，返回 true 时继续分页查询，false 时直接返回
@@ -126,6 +197,25 @@ public class PageInterceptor implements Interceptor {
     private Long count(Executor executor, MappedStatement ms, Object parameter,
                        RowBounds rowBounds, ResultHandler resultHandler,
                        BoundSql boundSql) throws SQLException {
+        Page page = PageContext.getLocalPage();
+        CountMode countMode = page != null ? page.getCountMode() : CountMode.EXACT;
+        CacheKey countCacheKey = null;
+        if (countMode == CountMode.CACHED) {
+            countCacheKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+            long[] cached = countCache.get(countCacheKey);
+            if (cached != null && cached[1] > System.currentTimeMillis()) {
+                page.setTotalExact(false);
+                return cached[0];
+            }
+        } else if (countMode == CountMode.ESTIMATE && dialect instanceof PageContext) {
+            Long estimate = CountExecutor.executeEstimateCount(((PageContext) dialect).getDelegate(),
+                    executor, ms, parameter, boundSql);
+            //估算为 0 时可能是统计信息过时，仍执行精确查询
+            if (estimate != null && estimate > 0) {
+                page.setTotalExact(false);
+                return estimate;
+            }
+        }
         String countMsId = ms.getId() + countSuffix;
         Long count;
         //先判断是否存在手写的 count 查询
@@ -142,9 +232,93 @@ public class PageInterceptor implements Interceptor {
             }
             count = CountExecutor.executeAutoCount(dialect, executor, countMs, parameter, boundSql, rowBounds, resultHandler);
         }
+        if (countCacheKey != null) {
+            countCache.put(countCacheKey, new long[]{count, System.currentTimeMillis() + countCacheTtl});
+        }
         return count;
     }
 
+    /**
+     * 在独立的连接上异步执行 count 查询
+     * <p>
+     * count 结果会影响分页查询(合理化、只查询总数等)、处于事务中、没有剩余的连接或数据源按线程变量路由
+     * 而未设置 {@link AsyncCountContext} 时，仍然同步执行
+     *
+     * @return 异步 count，不能异步执行时返回 null
+     */
+    private AsyncCount asyncCount(Executor executor, MappedStatement ms, Object parameter,
+                                  RowBounds rowBounds, BoundSql boundSql) throws SQLException {
+        if (asyncCountExecutor == null) {
+            return null;
+        }
+        Page page = PageContext.getLocalPage();
+        if (page == null
+                || page.getCountMode() != CountMode.EXACT
+                || page.getPageSize() <= 0
+                || Boolean.TRUE.equals(page.getReasonable())) {
+            return null;
+        }
+        final Configuration configuration = ms.getConfiguration();
+        if (configuration.getEnvironment() == null) {
+            return null;
+        }
+        DataSource dataSource = configuration.getEnvironment().getDataSource();
+        if (asyncCountContext == null && isRoutingDataSource(dataSource)) {
+            return null;
+        }
+        if (!asyncCountInTransaction && !executor.getTransaction().getConnection().getAutoCommit()) {
+            return null;
+        }
+        //count sql 依赖当前线程的分页参数，在当前线程生成
+        final MappedStatement countMs;
+        final CacheKey countKey;
+        final BoundSql countBoundSql;
+        String countMsId = ms.getId() + countSuffix;
+        MappedStatement manualCountMs = CountExecutor.getExistedMappedStatement(configuration, countMsId);
+        if (manualCountMs != null) {
+            countMs = manualCountMs;
+            countKey = executor.createCacheKey(countMs, parameter, RowBounds.DEFAULT, boundSql);
+            countBoundSql = countMs.getBoundSql(parameter);
+        } else {
+            MappedStatement autoCountMs = msCountMap.get(countMsId);
+            if (autoCountMs == null) {
+                autoCountMs = CountMappedStatement.newCountMappedStatement(ms, countMsId);
+                msCountMap.put(countMsId, autoCountMs);
+            }
+            countMs = autoCountMs;
+            countKey = executor.createCacheKey(countMs, parameter, RowBounds.DEFAULT, boundSql);
+            countBoundSql = CountExecutor.newAutoCountBoundSql(dialect, countMs, parameter, boundSql, rowBounds, countKey);
+        }
+        if (!asyncCountPermits.tryAcquire()) {
+            return null;
+        }
+        AsyncCount asyncCount = new AsyncCount(dataSource, countMs, parameter, countKey, countBoundSql,
+                asyncCountContext, asyncCountContext != null ? asyncCountContext.capture() : null, asyncCountPermits);
+        try {
+            asyncCount.future = asyncCountExecutor.submit(asyncCount);
+        } catch (RejectedExecutionException e) {
+            asyncCountPermits.release();
+            return null;
+        }
+        return asyncCount;
+    }
+
+    /**
+     * 是否为按线程变量选择目标的路由数据源
+     */
+    private static boolean isRoutingDataSource(DataSource dataSource) {
+        for (Class<?> clazz = dataSource.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            if ("org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource".equals(clazz.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setAsyncCountContext(AsyncCountContext asyncCountContext) {
+        this.asyncCountContext = asyncCountContext;
+    }
+
     @Override
     public Object plugin(Object target) {
         return Plugin.wrap(target, this);
@@ -154,6 +328,12 @@ public class PageInterceptor implements Interceptor {
     public void setProperties(Properties properties) {
         //缓存 count ms
         msCountMap = CacheFactory.createCache(properties.getProperty("msCountCache"), "ms", properties);
+        //缓存总数
+        countCache = CacheFactory.createCache(properties.getProperty("countCache"), "countCache", properties);
+        String countCacheTtl = properties.getProperty("countCacheTtl");
+        if (PageFromObject.isNotEmpty(countCacheTtl)) {
+            this.countCacheTtl = Long.parseLong(countCacheTtl);
+        }
         String dialectClass = properties.getProperty("dialect");
         if (PageFromObject.isEmpty(dialectClass)) {
             dialectClass = default_dialect_class;
@@ -170,6 +350,204 @@ public class PageInterceptor implements Interceptor {
         if (PageFromObject.isNotEmpty(countSuffix)) {
             this.countSuffix = countSuffix;
         }
+        //count 查询与分页查询并行执行
+        if (Boolean.parseBoolean(properties.getProperty("asyncCount"))) {
+            String threads = properties.getProperty("asyncCountThreads");
+            int poolSize = PageFromObject.isNotEmpty(threads) ? Integer.parseInt(threads) : Runtime.getRuntime().availableProcessors();
+            final AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService previous = asyncCountExecutor;
+            asyncCountExecutor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "pager-async-count-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            if (previous != null) {
+                previous.shutdown();
+            }
+            asyncCountInTransaction = Boolean.parseBoolean(properties.getProperty("asyncCountInTransaction"));
+            String timeout = properties.getProperty("asyncCountTimeout");
+            if (PageFromObject.isNotEmpty(timeout)) {
+                asyncCountTimeout = Long.parseLong(timeout);
+            }
+            //每个异步 count 额外占用一个连接，应小于连接池大小减去并发的分页查询数
+            String connections = properties.getProperty("asyncCountConnections");
+            asyncCountPermits = new Semaphore(PageFromObject.isNotEmpty(connections) ? Integer.parseInt(connections) : poolSize);
+            String contextClass = properties.getProperty("asyncCountContext");
+            if (PageFromObject.isNotEmpty(contextClass)) {
+                try {
+                    asyncCountContext = (AsyncCountContext) Class.forName(contextClass).newInstance();
+                } catch (Exception e) {
+                    throw new PageException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在独立连接上执行的 count 查询
+     * <p>
+     * 取得连接前调用方已不再等待时直接放弃，由调用方在自己的连接上执行 count；
+     * 执行中被放弃时取消正在执行的语句。连接许可只在连接关闭后归还，任务未开始就被取消时由调用方归还
+     */
+    private static final class AsyncCount implements Callable<Long> {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final DataSource dataSource;
+        private final MappedStatement countMs;
+        private final Object parameter;
+        private final CacheKey countKey;
+        private final BoundSql countBoundSql;
+        private final AsyncCountContext context;
+        private final Object captured;
+        private final Semaphore permits;
+        private volatile Statement statement;
+        private Future<Long> future;
+        /**
+         * count 是否因等待超时被放弃
+         */
+        private boolean timedOut;
+
+        AsyncCount(DataSource dataSource, MappedStatement countMs, Object parameter, CacheKey countKey,
+                   BoundSql countBoundSql, AsyncCountContext context, Object captured, Semaphore permits) {
+            this.dataSource = dataSource;
+            this.countMs = countMs;
+            this.parameter = parameter;
+            this.countKey = countKey;
+            this.countBoundSql = countBoundSql;
+            this.context = context;
+            this.captured = captured;
+            this.permits = permits;
+        }
+
+        @Override
+        public Long call() throws Exception {
+            //调用方已放弃并归还了许可
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                if (context != null) {
+                    context.restore(captured);
+                }
+                //不经过插件，避免再次被分页拦截
+                Executor countExecutor = new SimpleExecutor(countMs.getConfiguration(), new CountTransaction(dataSource));
+                try {
+                    countExecutor.getTransaction().getConnection();
+                    if (!state.compareAndSet(PENDING, RUNNING)) {
+                        return null;
+                    }
+                    List countResultList = countExecutor.query(countMs, parameter, RowBounds.DEFAULT,
+                            Executor.NO_RESULT_HANDLER, countKey, countBoundSql);
+                    return ((Number) countResultList.get(0)).longValue();
+                } finally {
+                    countExecutor.close(false);
+                }
+            } finally {
+                if (context != null) {
+                    context.restore(null);
+                }
+                //连接已关闭，归还许可
+                permits.release();
+            }
+        }
+
+        /**
+         * 等待 count 结果
+         *
+         * @param timeout 超时时间(毫秒)，小于等于0时不限制
+         * @return 总数，count 还未取得连接或超时时返回 null
+         * @throws Throwable count 查询的异常
+         */
+        Long await(long timeout) throws Throwable {
+            if (state.compareAndSet(PENDING, ABANDONED)) {
+                abandon();
+                return null;
+            }
+            try {
+                return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+            } catch (TimeoutException e) {
+                timedOut = true;
+                abandon();
+                return null;
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                abandon();
+                Thread.currentThread().interrupt();
+                throw new PageException("等待 count 查询结果时被中断", e);
+            }
+        }
+
+        void abandon() {
+            state.set(ABANDONED);
+            cancelStatement();
+            //不中断 count 线程，中断可能导致驱动关闭底层连接，执行中的语句已通过 cancel 结束
+            future.cancel(false);
+            //任务还未开始执行，不会再执行，由这里归还许可
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        private void cancelStatement() {
+            Statement current = statement;
+            if (current != null) {
+                try {
+                    current.cancel();
+                } catch (SQLException ignore) {
+                    //语句已结束或驱动不支持取消
+                }
+            }
+        }
+
+        /**
+         * 记录 count 使用的语句，以便放弃时取消
+         */
+        private final class CountTransaction extends JdbcTransaction implements InvocationHandler {
+
+            private Connection target;
+
+            CountTransaction(DataSource dataSource) {
+                super(dataSource, null, true);
+            }
+
+            @Override
+            protected void openConnection() throws SQLException {
+                super.openConnection();
+                target = connection;
+                connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, this);
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Statement) {
+                    statement = (Statement) result;
+                    //语句创建前已被放弃，执行前的 cancel 可能被驱动忽略，直接结束
+                    if (state.get() == ABANDONED) {
+                        statement.close();
+                        throw new SQLException("count 查询已被放弃");
+                    }
+                }
+                return result;
+            }
+
+        }
+
     }
 
 }
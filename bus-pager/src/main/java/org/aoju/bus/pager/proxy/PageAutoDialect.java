@@ -54,7 +54,7 @@ public class PageAutoDialect {
         //注册别名
         registerDialectAlias("hsqldb", HsqldbDialect.class);
         registerDialectAlias("h2", HsqldbDialect.class);
-        registerDialectAlias("postgresql", HsqldbDialect.class);
+        registerDialectAlias("postgresql", PostgreSqlDialect.class);
         registerDialectAlias("phoenix", HsqldbDialect.class);
 
         registerDialectAlias("mysql", MySqlDialect.class);
@@ -25,6 +25,7 @@ package org.aoju.bus.pager.proxy;
 
 import org.aoju.bus.pager.ISelect;
 import org.aoju.bus.pager.Page;
+import org.aoju.bus.pager.parser.SeekParser;
 import org.aoju.bus.pager.plugin.PageFromObject;
 
 import java.util.Properties;
@@ -193,6 +194,26 @@ public abstract class PageMethod {
         return page;
     }
 
+    /**
+     * 开始游标(seek)分页，按排序列的值定位下一页，查询耗时与页的深度无关
+     * <p>
+     * 原SQL最外层的 order by 会被排序列替换，默认不进行count查询，
+     * 查询结束后通过 {@link Page#getSeekCursor()} 获取下一页的游标
+     *
+     * @param <E>           对象
+     * @param pageSize      每页显示数量
+     * @param sortColumns   排序列，多个用逗号分隔，如 "created_at desc, id desc"，组合后必须唯一且不能为 null
+     * @param lastRowValues 上一页最后一行的排序列值，为空时查询第一页，包含 null 时抛出 PageException
+     * @return 结果
+     */
+    public static <E> Page<E> startSeek(int pageSize, String sortColumns, Object... lastRowValues) {
+        Page<E> page = new Page<E>(1, pageSize, false);
+        SeekParser.Columns columns = SeekParser.parseColumns(sortColumns);
+        page.seek(columns.getNames(), columns.getDescending(), lastRowValues);
+        setLocalPage(page);
+        return page;
+    }
+
     /**
      * 排序
      *
@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.pager.plugin;
+
+import org.aoju.bus.pager.Page;
+import org.aoju.bus.pager.PageContext;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.*;
+
+/**
+ * 异步 count 在 H2 上的集成测试
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class AsyncCountTest {
+
+    private static final int ROWS = 1000;
+    private static final int CONNECTIONS = 2;
+
+    private PooledDataSource dataSource;
+    private PageInterceptor interceptor;
+    private SqlSessionFactory factory;
+
+    /**
+     * count 中逐行调用的慢函数，整个 count 约需 ROWS * 3 毫秒
+     */
+    public static int slow(int id) throws InterruptedException {
+        Thread.sleep(3);
+        return 1;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:async_count;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setPoolMaximumActiveConnections(4);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists user_info");
+            statement.execute("create table user_info (id int primary key, name varchar(32))");
+            statement.execute("create alias if not exists slow for \"" + AsyncCountTest.class.getName() + ".slow\"");
+            try (PreparedStatement insert = connection.prepareStatement("insert into user_info values (?, ?)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "user" + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        Properties properties = new Properties();
+        properties.setProperty("asyncCount", "true");
+        properties.setProperty("asyncCountThreads", String.valueOf(CONNECTIONS));
+        properties.setProperty("asyncCountTimeout", "200");
+        interceptor = new PageInterceptor();
+        interceptor.setProperties(properties);
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(UserMapper.class);
+        factory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        PageContext.clearPage();
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    public void asyncCountReturnsTotal() throws Exception {
+        try (SqlSession session = factory.openSession(true)) {
+            PageContext.startPage(2, 10);
+            List<Map<String, Object>> list = session.getMapper(UserMapper.class).selectAll();
+            Page<Map<String, Object>> page = (Page<Map<String, Object>>) list;
+            assertEquals(ROWS, page.getTotal());
+            assertTrue(page.isTotalExact());
+            assertEquals(10, page.size());
+            assertEquals(11, ((Number) page.get(0).get("ID")).intValue());
+        }
+        assertReleased(1000);
+    }
+
+    @Test
+    public void timeoutCancelsCountWithoutRecount() throws Exception {
+        long start = System.currentTimeMillis();
+        try (SqlSession session = factory.openSession(true)) {
+            PageContext.startPage(1, 10);
+            List<Map<String, Object>> list = session.getMapper(UserMapper.class).selectSlow();
+            Page<Map<String, Object>> page = (Page<Map<String, Object>>) list;
+            assertEquals(-1, page.getTotal());
+            assertFalse(page.isTotalExact());
+            assertEquals(10, page.size());
+        }
+        //没有在当前连接上重新执行约 3 秒的 count
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        //count 语句被取消后连接和许可都应很快归还，而不是等 count 执行完
+        assertReleased(1500);
+    }
+
+    private void assertReleased(long timeout) throws Exception {
+        Field field = PageInterceptor.class.getDeclaredField("asyncCountPermits");
+        field.setAccessible(true);
+        Semaphore permits = (Semaphore) field.get(interceptor);
+        long deadline = System.currentTimeMillis() + timeout;
+        while ((permits.availablePermits() < CONNECTIONS
+                || dataSource.getPoolState().getActiveConnectionCount() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(CONNECTIONS, permits.availablePermits());
+        assertEquals(0, dataSource.getPoolState().getActiveConnectionCount());
+    }
+
+    public interface UserMapper {
+
+        @Select("select id, name from user_info order by id")
+        List<Map<String, Object>> selectAll();
+
+        @Select("select id, name from user_info order by id")
+        List<Map<String, Object>> selectSlow();
+
+        @Select("select count(0) from user_info where slow(id) = 1")
+        Long selectSlow_COUNT();
+
+    }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel;
+
+import org.aoju.bus.core.bean.BeanDesc;
+import org.aoju.bus.core.consts.Normal;
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.utils.BeanUtils;
+import org.aoju.bus.core.utils.MapUtils;
+import org.aoju.bus.poi.excel.cell.FormulaCellValue;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Bean写出的列计划
+ * <p>
+ * 按Bean类型、标题别名及是否只输出别名字段一次性确定输出的列、列顺序、标题、属性读取方法和单元格样式，
+ * 写出每行时直接读取属性并写入单元格，不再经过Bean转Map。列顺序与{@link ExcelWriter#writeRow(Object, boolean)}一致：
+ * 无别名时按属性顺序；有别名时无别名的属性按名称排序在前，别名属性按别名添加顺序在后。
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class ColumnPlan<T> {
+
+    // 属性值类型：基本类型数值、基本类型布尔、日期、其它按运行时类型处理
+    private static final byte KIND_DOUBLE = 1;
+    private static final byte KIND_BOOLEAN = 2;
+    private static final byte KIND_DATE = 3;
+    private static final byte KIND_OBJECT = 4;
+
+    private static final MethodType DOUBLE_GETTER = MethodType.methodType(double.class, Object.class);
+    private static final MethodType BOOLEAN_GETTER = MethodType.methodType(boolean.class, Object.class);
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<T> beanClass;
+    private final String[] headers;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] values;
+    private final byte[] kinds;
+    private final CellStyle[] styles;
+    private final StyleSet styleSet;
+
+    private ColumnPlan(Class<T> beanClass, String[] headers, MethodHandle[] getters, MethodHandle[] values, byte[] kinds, CellStyle[] styles, StyleSet styleSet) {
+        this.beanClass = beanClass;
+        this.headers = headers;
+        this.getters = getters;
+        this.values = values;
+        this.kinds = kinds;
+        this.styles = styles;
+        this.styleSet = styleSet;
+    }
+
+    /**
+     * 创建列计划
+     *
+     * @param <T>         Bean类型
+     * @param beanClass   Bean类
+     * @param headerAlias 标题别名，key为属性名，value为别名，可为{@code null}
+     * @param onlyAlias   是否只输出有别名的属性
+     * @param styleSet    样式集，{@code null}表示无样式
+     * @return 列计划
+     */
+    public static <T> ColumnPlan<T> of(Class<T> beanClass, Map<String, String> headerAlias, boolean onlyAlias, StyleSet styleSet) {
+        final BeanDesc beanDesc = BeanUtils.getBeanDesc(beanClass);
+        final List<BeanDesc.PropDesc> props = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        if (MapUtils.isEmpty(headerAlias)) {
+            for (BeanDesc.PropDesc prop : beanDesc.getProps()) {
+                if (null != prop.getGetter()) {
+                    props.add(prop);
+                    names.add(prop.getFieldName());
+                }
+            }
+        } else {
+            if (!onlyAlias) {
+                final TreeMap<String, BeanDesc.PropDesc> others = new TreeMap<>();
+                for (BeanDesc.PropDesc prop : beanDesc.getProps()) {
+                    if (null != prop.getGetter() && !headerAlias.containsKey(prop.getFieldName())) {
+                        others.put(prop.getFieldName(), prop);
+                    }
+                }
+                props.addAll(others.values());
+                names.addAll(others.keySet());
+            }
+            for (Map.Entry<String, String> entry : headerAlias.entrySet()) {
+                final BeanDesc.PropDesc prop = beanDesc.getProp(entry.getKey());
+                if (null != prop && null != prop.getGetter()) {
+                    props.add(prop);
+                    names.add(entry.getValue());
+                }
+            }
+        }
+
+        final int size = props.size();
+        final MethodHandle[] getters = new MethodHandle[size];
+        final MethodHandle[] values = new MethodHandle[size];
+        final byte[] kinds = new byte[size];
+        final CellStyle[] styles = new CellStyle[size];
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < size; i++) {
+            final Method getter = props.get(i).getGetter();
+            final Class<?> type = getter.getReturnType();
+            try {
+                getter.setAccessible(true);
+                final MethodHandle handle = lookup.unreflect(getter);
+                values[i] = handle.asType(OBJECT_GETTER);
+                if (type.isPrimitive() && boolean.class != type && char.class != type) {
+                    kinds[i] = KIND_DOUBLE;
+                    getters[i] = handle.asType(DOUBLE_GETTER);
+                } else if (boolean.class == type) {
+                    kinds[i] = KIND_BOOLEAN;
+                    getters[i] = handle.asType(BOOLEAN_GETTER);
+                } else {
+                    kinds[i] = Date.class.isAssignableFrom(type) ? KIND_DATE : KIND_OBJECT;
+                    getters[i] = handle.asType(OBJECT_GETTER);
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new InstrumentException(e);
+            }
+            styles[i] = styleOf(styleSet, type);
+        }
+        return new ColumnPlan<>(beanClass, names.toArray(new String[0]), getters, values, kinds, styles, styleSet);
+    }
+
+    /**
+     * 按属性声明类型预先确定单元格样式
+     */
+    private static CellStyle styleOf(StyleSet styleSet, Class<?> type) {
+        if (null == styleSet) {
+            return null;
+        }
+        if (Date.class.isAssignableFrom(type) && null != styleSet.getCellStyleForDate()) {
+            return styleSet.getCellStyleForDate();
+        }
+        if ((double.class == type || float.class == type || Double.class == type || Float.class == type)
+                && null != styleSet.getCellStyleForNumber()) {
+            return styleSet.getCellStyleForNumber();
+        }
+        return styleSet.getCellStyle();
+    }
+
+    /**
+     * 是否为指定Bean类型和样式集创建的列计划
+     *
+     * @param beanClass Bean类
+     * @param styleSet  样式集
+     * @return the boolean
+     */
+    public boolean isFor(Class<?> beanClass, StyleSet styleSet) {
+        return this.beanClass == beanClass && this.styleSet == styleSet;
+    }
+
+    /**
+     * 标题行
+     *
+     * @return 标题列表
+     */
+    public List<String> getHeaders() {
+        return Collections.unmodifiableList(Arrays.asList(headers));
+    }
+
+    /**
+     * 列数
+     *
+     * @return 列数
+     */
+    public int size() {
+        return headers.length;
+    }
+
+    /**
+     * 读取Bean指定列的值，基本类型按属性类型装箱
+     *
+     * @param bean  Bean
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public Object getValue(T bean, int index) {
+        try {
+            return (Object) values[index].invokeExact((Object) bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 将Bean写入行
+     *
+     * @param row  行
+     * @param bean Bean，为{@code null}时不写出单元格
+     */
+    public void writeRow(Row row, T bean) {
+        if (null == bean) {
+            return;
+        }
+        try {
+            for (int i = 0; i < getters.length; i++) {
+                final Cell cell = row.createCell(i);
+                if (null != styles[i]) {
+                    cell.setCellStyle(styles[i]);
+                }
+                switch (kinds[i]) {
+                    case KIND_DOUBLE:
+                        cell.setCellValue((double) getters[i].invokeExact((Object) bean));
+                        break;
+                    case KIND_BOOLEAN:
+                        cell.setCellValue((boolean) getters[i].invokeExact((Object) bean));
+                        break;
+                    case KIND_DATE:
+                        final Object date = (Object) getters[i].invokeExact((Object) bean);
+                        if (null == date) {
+                            cell.setCellValue(Normal.EMPTY);
+                        } else {
+                            cell.setCellValue((Date) date);
+                        }
+                        break;
+                    default:
+                        setCellValue(cell, (Object) getters[i].invokeExact((Object) bean));
+                        break;
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 按运行时类型写入单元格，与{@link CellUtils#setCellValue(Cell, Object, StyleSet, boolean)}一致
+     */
+    private void setCellValue(Cell cell, Object value) {
+        if (null == value) {
+            cell.setCellValue(Normal.EMPTY);
+        } else if (value instanceof CharSequence) {
+            cell.setCellValue(value.toString());
+        } else if (value instanceof Number) {
+            if ((value instanceof Double || value instanceof Float) && null != styleSet && null != styleSet.getCellStyleForNumber()) {
+                cell.setCellStyle(styleSet.getCellStyleForNumber());
+            }
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Date) {
+            if (null != styleSet && null != styleSet.getCellStyleForDate()) {
+                cell.setCellStyle(styleSet.getCellStyleForDate());
+            }
+            cell.setCellValue((Date) value);
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if (value instanceof Calendar) {
+            cell.setCellValue((Calendar) value);
+        } else if (value instanceof FormulaCellValue) {
+            cell.setCellFormula(((FormulaCellValue) value).getValue());
+        } else if (value instanceof RichTextString) {
+            cell.setCellValue((RichTextString) value);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+}
@@ -545,6 +545,26 @@ public class ExcelUtils {
         }
     }
 
+    /**
+     * 获得{@link StreamingExcelWriter}，直接写出xlsx，不依赖POI
+     *
+     * @param destFile 目标文件
+     * @return {@link StreamingExcelWriter}
+     */
+    public static StreamingExcelWriter getStreamingWriter(File destFile) {
+        return new StreamingExcelWriter(destFile);
+    }
+
+    /**
+     * 获得{@link StreamingExcelWriter}，直接写出xlsx，不依赖POI
+     *
+     * @param out 输出流，{@link StreamingExcelWriter#close()}时关闭
+     * @return {@link StreamingExcelWriter}
+     */
+    public static StreamingExcelWriter getStreamingWriter(OutputStream out) {
+        return new StreamingExcelWriter(out);
+    }
+
     /**
      * 将Sheet列号变为列名
      *
@@ -35,6 +35,7 @@ import java.io.OutputStream;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Excel 写入器
@@ -75,6 +76,10 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
      * 样式集，定义不同类型数据样式
      */
     private StyleSet styleSet;
+    /**
+     * 最近一次使用的Bean列计划，别名或样式变更时失效
+     */
+    private ColumnPlan<?> columnPlan;
 
     /**
      * 构造，默认生成xls格式的Excel文件
@@ -299,6 +304,7 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
      */
     public ExcelWriter setStyleSet(StyleSet styleSet) {
         this.styleSet = styleSet;
+        this.columnPlan = null;
         return this;
     }
 
@@ -391,6 +397,7 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
      */
     public ExcelWriter setHeaderAlias(Map<String, String> headerAlias) {
         this.headerAlias = headerAlias;
+        resetAlias();
         return this;
     }
 
@@ -402,6 +409,7 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
      */
     public ExcelWriter clearHeaderAlias() {
         this.headerAlias = null;
+        resetAlias();
         return this;
     }
 
@@ -414,6 +422,7 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
      */
     public ExcelWriter setOnlyAlias(boolean isOnlyAlias) {
         this.onlyAlias = isOnlyAlias;
+        resetAlias();
         return this;
     }
 
@@ -432,6 +441,7 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
         }
         this.headerAlias = headerAlias;
         headerAlias.put(name, alias);
+        resetAlias();
         return this;
     }
 
@@ -664,6 +674,90 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
         return this;
     }
 
+    /**
+     * 按列计划写出Bean数据，写出的起始行为当前行号，当前行为0时写出标题行
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @param data      数据
+     * @return this
+     * @see #write(Class, Iterator, boolean)
+     */
+    public <T> ExcelWriter write(Class<T> beanClass, Iterable<? extends T> data) {
+        return write(beanClass, data.iterator(), 0 == getCurrentRow());
+    }
+
+    /**
+     * 按列计划写出Bean数据，写出的起始行为当前行号，当前行为0时写出标题行，流不会被关闭
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @param data      数据
+     * @return this
+     * @see #write(Class, Iterator, boolean)
+     */
+    public <T> ExcelWriter write(Class<T> beanClass, Stream<? extends T> data) {
+        return write(beanClass, data.iterator(), 0 == getCurrentRow());
+    }
+
+    /**
+     * 按列计划写出Bean数据，写出的起始行为当前行号，当前行为0时写出标题行
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @param data      数据
+     * @return this
+     * @see #write(Class, Iterator, boolean)
+     */
+    public <T> ExcelWriter write(Class<T> beanClass, Iterator<? extends T> data) {
+        return write(beanClass, data, 0 == getCurrentRow());
+    }
+
+    /**
+     * 按列计划写出Bean数据，本方法只是将数据写入Workbook中的Sheet，并不写出到文件
+     * 列、标题、属性读取方法和样式按Bean类型只计算一次(见{@link ColumnPlan})，每行直接写入单元格，
+     * 数据逐条从迭代器读取，配合{@link BigExcelWriter}可在固定内存中写出任意行数
+     *
+     * @param <T>              Bean类型
+     * @param beanClass        Bean类
+     * @param data             数据，元素为{@code null}时跳过一行
+     * @param isWriteKeyAsHead 是否写出标题行
+     * @return this
+     */
+    public <T> ExcelWriter write(Class<T> beanClass, Iterator<? extends T> data, boolean isWriteKeyAsHead) {
+        Assert.isFalse(this.isClosed, "ExcelWriter has been closed!");
+        final ColumnPlan<T> plan = getColumnPlan(beanClass);
+        if (isWriteKeyAsHead) {
+            writeHeadRow(plan.getHeaders());
+        }
+        T bean;
+        while (data.hasNext()) {
+            bean = data.next();
+            if (null == bean) {
+                passCurrentRow();
+            } else {
+                plan.writeRow(this.sheet.createRow(this.currentRow.getAndIncrement()), bean);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 获取Bean的列计划，根据当前的标题别名、是否只输出别名字段和样式集创建
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @return 列计划
+     */
+    public <T> ColumnPlan<T> getColumnPlan(Class<T> beanClass) {
+        ColumnPlan<?> plan = this.columnPlan;
+        if (null == plan || false == plan.isFor(beanClass, this.styleSet)) {
+            plan = ColumnPlan.of(beanClass, this.headerAlias, this.onlyAlias, this.styleSet);
+            this.columnPlan = plan;
+        }
+        return (ColumnPlan<T>) plan;
+    }
+
     /**
      * 写出一行标题数据
      * 本方法只是将数据写入Workbook中的Sheet，并不写出到文件
@@ -894,6 +988,14 @@ public class ExcelWriter extends ExcelBase<ExcelWriter> {
         return filteredMap;
     }
 
+    /**
+     * 别名变更后重置别名比较器和列计划
+     */
+    private void resetAlias() {
+        this.aliasComparator = null;
+        this.columnPlan = null;
+    }
+
     /**
      * 获取单例的别名比较器，比较器的顺序为别名加入的顺序
      *
@@ -0,0 +1,933 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel;
+
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.utils.BeanUtils;
+import org.aoju.bus.core.utils.IoUtils;
+import org.aoju.bus.core.utils.MapUtils;
+import org.aoju.bus.core.utils.StringUtils;
+import org.aoju.bus.poi.excel.cell.FormulaCellValue;
+import org.apache.poi.ss.util.WorkbookUtil;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 流式Excel(xlsx)写出器
+ * <p>
+ * 不经过POI的Workbook/Row/Cell对象，直接将sheet的XML写入{@link ZipOutputStream}，
+ * 没有临时文件，内存占用与行数无关，输出流可以是文件或HTTP响应。写出方法与{@link ExcelWriter}保持一致，
+ * 但只能顺序写出：行号只能前进，切换sheet后不能再回到之前的sheet，也不支持合并单元格、自定义样式等。
+ * 样式使用固定的样式表(与{@link StyleSet}默认样式一致：标题、普通、日期、小数)。
+ * 字符串默认以内联字符串写出，也可设置为共享字符串，此时字符串到序号的映射保存在内存中，内容写入临时文件，结束时写入包中；
+ * 映射在整个写出过程中保留所有不同的字符串，条目数达到{@link #setSharedStringsLimit(int)}后新的字符串改为内联写出，内存不再增长。
+ * sheet名与{@link ExcelWriter}一样按POI的规则校验：不超过31个字符，不含{@code []:*?/\}，不区分大小写不能重复。
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class StreamingExcelWriter implements Closeable {
+
+    /**
+     * xlsx最大行数
+     */
+    public static final int MAX_ROWS = 1048576;
+    /**
+     * 默认共享字符串表的最大条目数
+     */
+    public static final int DEFAULT_SHARED_STRINGS_LIMIT = 100000;
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String XML_HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    // 固定样式表中的样式索引
+    private static final int STYLE_NONE = 0;
+    private static final int STYLE_CELL = 1;
+    private static final int STYLE_HEAD = 2;
+    private static final int STYLE_DATE = 3;
+    private static final int STYLE_NUMBER = 4;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // 1970-01-01 对应的Excel日期序号
+    private static final int EPOCH_SERIAL = 25569;
+    // 1900-03-01 对应的Excel日期序号，之前的日期受Excel的1900年闰年问题影响，按文本写出
+    private static final int MIN_SERIAL = 61;
+
+    private final OutputStream out;
+    private final boolean closeOut;
+    private ZipOutputStream zip;
+    private Writer writer;
+
+    private final List<String> sheetNames = new ArrayList<>();
+    private String sheetName;
+    private boolean sheetDataStarted;
+    private final Map<Integer, Integer> columnWidths = new TreeMap<>();
+    private int currentRow;
+    private String[] columnNames = new String[0];
+
+    private boolean useSharedStrings;
+    private boolean styled = true;
+    private int sharedStringsLimit = DEFAULT_SHARED_STRINGS_LIMIT;
+    private Map<String, Integer> sharedStrings;
+    private File sharedStringsFile;
+    private Writer sharedStringsWriter;
+    private long sharedStringsCount;
+
+    private Map<String, String> headerAlias;
+    private boolean onlyAlias;
+    private ColumnPlan<?> columnPlan;
+
+    private boolean isClosed;
+
+    /**
+     * 构造，写出到文件
+     *
+     * @param destFile 目标文件
+     */
+    public StreamingExcelWriter(File destFile) {
+        this(openFile(destFile), true);
+    }
+
+    /**
+     * 构造，写出到流，{@link #close()}时关闭流
+     *
+     * @param out 输出流
+     */
+    public StreamingExcelWriter(OutputStream out) {
+        this(out, true);
+    }
+
+    /**
+     * 构造
+     *
+     * @param out      输出流
+     * @param closeOut {@link #close()}时是否关闭流，为false时只结束Excel包，可继续使用流
+     */
+    public StreamingExcelWriter(OutputStream out, boolean closeOut) {
+        this.out = out;
+        this.closeOut = closeOut;
+    }
+
+    private static OutputStream openFile(File destFile) {
+        try {
+            final File parent = destFile.getParentFile();
+            if (null != parent && !parent.exists()) {
+                parent.mkdirs();
+            }
+            return new FileOutputStream(destFile);
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 设置是否使用共享字符串，需在写出数据前设置
+     * 共享字符串可减小重复文本多的文件体积，但字符串表会保存在内存中
+     *
+     * @param useSharedStrings 是否使用共享字符串
+     * @return this
+     */
+    public StreamingExcelWriter setUseSharedStrings(boolean useSharedStrings) {
+        assertNotStarted();
+        this.useSharedStrings = useSharedStrings;
+        return this;
+    }
+
+    /**
+     * 设置共享字符串表的最大条目数，需在写出数据前设置
+     * 字符串表在整个写出过程中保存在内存中，达到上限后已有的字符串仍然共享，新的字符串以内联字符串写出
+     *
+     * @param sharedStringsLimit 最大条目数
+     * @return this
+     */
+    public StreamingExcelWriter setSharedStringsLimit(int sharedStringsLimit) {
+        assertNotStarted();
+        if (sharedStringsLimit < 0) {
+            throw new IllegalArgumentException("Shared strings limit must not be negative");
+        }
+        this.sharedStringsLimit = sharedStringsLimit;
+        return this;
+    }
+
+    /**
+     * 设置是否写出样式，为false时所有单元格不带样式
+     *
+     * @param styled 是否写出样式
+     * @return this
+     */
+    public StreamingExcelWriter setStyled(boolean styled) {
+        this.styled = styled;
+        return this;
+    }
+
+    /**
+     * 设置标题别名，key为Map中的key，value为别名
+     *
+     * @param headerAlias 标题别名
+     * @return this
+     */
+    public StreamingExcelWriter setHeaderAlias(Map<String, String> headerAlias) {
+        this.headerAlias = headerAlias;
+        this.columnPlan = null;
+        return this;
+    }
+
+    /**
+     * 增加标题别名
+     *
+     * @param name  原标题
+     * @param alias 别名
+     * @return this
+     */
+    public StreamingExcelWriter addHeaderAlias(String name, String alias) {
+        if (null == this.headerAlias) {
+            this.headerAlias = new LinkedHashMap<>();
+        }
+        this.headerAlias.put(name, alias);
+        this.columnPlan = null;
+        return this;
+    }
+
+    /**
+     * 设置是否只保留别名中的字段值
+     *
+     * @param isOnlyAlias 是否只保留别名中的字段值
+     * @return this
+     */
+    public StreamingExcelWriter setOnlyAlias(boolean isOnlyAlias) {
+        this.onlyAlias = isOnlyAlias;
+        this.columnPlan = null;
+        return this;
+    }
+
+    /**
+     * 结束当前sheet并开始写出新的sheet，行号归零
+     *
+     * @param sheetName sheet名，不超过31个字符，不含{@code []:*?/\}，不区分大小写不能重复
+     * @return this
+     */
+    public StreamingExcelWriter setSheet(String sheetName) {
+        assertOpen();
+        if (StringUtils.isBlank(sheetName)) {
+            throw new IllegalArgumentException("Sheet name must not be blank");
+        }
+        WorkbookUtil.validateSheetName(sheetName);
+        if (sheetName.equalsIgnoreCase(this.sheetName) || containsIgnoreCase(sheetNames, sheetName)) {
+            throw new IllegalArgumentException("Sheet [" + sheetName + "] has already been written");
+        }
+        endSheet();
+        this.sheetName = sheetName;
+        this.currentRow = 0;
+        return this;
+    }
+
+    /**
+     * 设置列宽，需在当前sheet写出数据前设置
+     *
+     * @param columnIndex 列号，从0开始
+     * @param width       宽度，单位为一个字符的宽度
+     * @return this
+     */
+    public StreamingExcelWriter setColumnWidth(int columnIndex, int width) {
+        if (sheetDataStarted) {
+            throw new IllegalStateException("Column width must be set before writing rows of the sheet");
+        }
+        columnWidths.put(columnIndex, width);
+        return this;
+    }
+
+    /**
+     * 获得当前行
+     *
+     * @return 当前行
+     */
+    public int getCurrentRow() {
+        return this.currentRow;
+    }
+
+    /**
+     * 设置当前所在行，只能向后移动
+     *
+     * @param rowIndex 行号
+     * @return this
+     */
+    public StreamingExcelWriter setCurrentRow(int rowIndex) {
+        if (rowIndex < this.currentRow) {
+            throw new IllegalArgumentException("Streaming writer can not move back to row " + rowIndex);
+        }
+        this.currentRow = rowIndex;
+        return this;
+    }
+
+    /**
+     * 跳过当前行
+     *
+     * @return this
+     */
+    public StreamingExcelWriter passCurrentRow() {
+        this.currentRow++;
+        return this;
+    }
+
+    /**
+     * 跳过指定行数
+     *
+     * @param rows 跳过的行数
+     * @return this
+     */
+    public StreamingExcelWriter passRows(int rows) {
+        return setCurrentRow(this.currentRow + rows);
+    }
+
+    /**
+     * 写出数据，当前行为0时，Map或Bean的第一个元素会写出标题行
+     *
+     * @param data 数据
+     * @return this
+     * @see ExcelWriter#write(Iterable)
+     */
+    public StreamingExcelWriter write(Iterable<?> data) {
+        return write(data, 0 == getCurrentRow());
+    }
+
+    /**
+     * 写出数据
+     *
+     * @param data             数据
+     * @param isWriteKeyAsHead 是否强制写出标题行（Map或Bean）
+     * @return this
+     * @see ExcelWriter#write(Iterable, boolean)
+     */
+    public StreamingExcelWriter write(Iterable<?> data, boolean isWriteKeyAsHead) {
+        boolean isFirst = true;
+        for (Object object : data) {
+            writeRow(object, isFirst && isWriteKeyAsHead);
+            isFirst = false;
+        }
+        return this;
+    }
+
+    /**
+     * 按列计划写出Bean数据，当前行为0时写出标题行
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @param data      数据
+     * @return this
+     */
+    public <T> StreamingExcelWriter write(Class<T> beanClass, Iterable<? extends T> data) {
+        return write(beanClass, data.iterator(), 0 == getCurrentRow());
+    }
+
+    /**
+     * 按列计划写出Bean数据，当前行为0时写出标题行，流不会被关闭
+     *
+     * @param <T>       Bean类型
+     * @param beanClass Bean类
+     * @param data      数据
+     * @return this
+     */
+    public <T> StreamingExcelWriter write(Class<T> beanClass, Stream<? extends T> data) {
+        return write(beanClass, data.iterator(), 0 == getCurrentRow());
+    }
+
+    /**
+     * 按列计划写出Bean数据，列、标题和属性读取方法按Bean类型只计算一次
+     *
+     * @param <T>              Bean类型
+     * @param beanClass        Bean类
+     * @param data             数据，元素为{@code null}时跳过一行
+     * @param isWriteKeyAsHead 是否写出标题行
+     * @return this
+     * @see ExcelWriter#write(Class, Iterator, boolean)
+     */
+    public <T> StreamingExcelWriter write(Class<T> beanClass, Iterator<? extends T> data, boolean isWriteKeyAsHead) {
+        final ColumnPlan<T> plan = getColumnPlan(beanClass);
+        if (isWriteKeyAsHead) {
+            writeHeadRow(plan.getHeaders());
+        }
+        while (data.hasNext()) {
+            final T bean = data.next();
+            if (null == bean) {
+                passCurrentRow();
+                continue;
+            }
+            final int rowNum = beginRow();
+            try {
+                for (int i = 0; i < plan.size(); i++) {
+                    writeCell(i, rowNum, plan.getValue(bean, i), false);
+                }
+                writer.write("</row>");
+            } catch (IOException e) {
+                throw new InstrumentException(e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 写出一行标题数据
+     *
+     * @param rowData 一行的数据
+     * @return this
+     */
+    public StreamingExcelWriter writeHeadRow(Iterable<?> rowData) {
+        return writeRow(rowData, true);
+    }
+
+    /**
+     * 写出一行数据
+     *
+     * @param rowData 一行的数据
+     * @return this
+     */
+    public StreamingExcelWriter writeRow(Iterable<?> rowData) {
+        return writeRow(rowData, false);
+    }
+
+    /**
+     * 写出一行，根据rowBean数据类型不同，写出情况与{@link ExcelWriter#writeRow(Object, boolean)}相同
+     *
+     * @param rowBean          写出的Bean
+     * @param isWriteKeyAsHead 为true写出两行，Map的keys做为一行，values做为第二行，否则只写出一行values
+     * @return this
+     */
+    public StreamingExcelWriter writeRow(Object rowBean, boolean isWriteKeyAsHead) {
+        if (rowBean instanceof Iterable) {
+            return writeRow((Iterable<?>) rowBean);
+        }
+        if (rowBean instanceof Map) {
+            return writeRow((Map<?, ?>) rowBean, isWriteKeyAsHead);
+        }
+        if (null != rowBean && BeanUtils.isBean(rowBean.getClass())) {
+            return write((Class<Object>) rowBean.getClass(), Collections.singletonList(rowBean).iterator(), isWriteKeyAsHead);
+        }
+        return writeRow(Collections.singletonList(rowBean));
+    }
+
+    /**
+     * 将一个Map写出，isWriteKeyAsHead为true写出两行，Map的keys做为一行，values做为第二行，否则只写出一行values
+     *
+     * @param rowMap           写出的Map，为空（包括null），则跳过一行
+     * @param isWriteKeyAsHead 是否写出标题行
+     * @return this
+     */
+    public StreamingExcelWriter writeRow(Map<?, ?> rowMap, boolean isWriteKeyAsHead) {
+        if (MapUtils.isEmpty(rowMap)) {
+            return passCurrentRow();
+        }
+        final Map<?, ?> aliasMap = aliasMap(rowMap);
+        if (isWriteKeyAsHead) {
+            writeHeadRow(aliasMap.keySet());
+        }
+        return writeRow(aliasMap.values());
+    }
+
+    /**
+     * 结束Excel包：写出当前sheet的结尾、工作簿、样式和共享字符串，输出流保持打开
+     *
+     * @return this
+     */
+    public StreamingExcelWriter flush() {
+        if (isClosed) {
+            return this;
+        }
+        try {
+            ensureSheet();
+            endSheet();
+            writeWorkbook();
+            writer.flush();
+            zip.finish();
+            out.flush();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        } finally {
+            isClosed = true;
+            closeSharedStrings();
+        }
+        return this;
+    }
+
+    /**
+     * 结束Excel包，按构造参数关闭输出流
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            if (closeOut) {
+                IoUtils.close(out);
+            }
+        }
+    }
+
+    private <T> ColumnPlan<T> getColumnPlan(Class<T> beanClass) {
+        ColumnPlan<?> plan = this.columnPlan;
+        if (null == plan || false == plan.isFor(beanClass, null)) {
+            plan = ColumnPlan.of(beanClass, this.headerAlias, this.onlyAlias, null);
+            this.columnPlan = plan;
+        }
+        return (ColumnPlan<T>) plan;
+    }
+
+    /**
+     * 为Map添加标题别名并排序，有别名时无别名的键按名称排序在前，别名键按别名添加顺序在后
+     */
+    private Map<?, ?> aliasMap(Map<?, ?> rowMap) {
+        if (MapUtils.isEmpty(this.headerAlias)) {
+            return rowMap;
+        }
+        final Map<Object, Object> result = new LinkedHashMap<>();
+        if (false == this.onlyAlias) {
+            final TreeMap<String, Object> others = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : rowMap.entrySet()) {
+                if (!this.headerAlias.containsKey(entry.getKey())) {
+                    others.put(String.valueOf(entry.getKey()), entry.getValue());
+                }
+            }
+            result.putAll(others);
+        }
+        for (Map.Entry<String, String> entry : this.headerAlias.entrySet()) {
+            if (rowMap.containsKey(entry.getKey())) {
+                result.put(entry.getValue(), rowMap.get(entry.getKey()));
+            }
+        }
+        return result;
+    }
+
+    private StreamingExcelWriter writeRow(Iterable<?> rowData, boolean isHeader) {
+        final int rowNum = beginRow();
+        try {
+            int column = 0;
+            for (Object value : rowData) {
+                writeCell(column++, rowNum, value, isHeader);
+            }
+            writer.write("</row>");
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+        return this;
+    }
+
+    /**
+     * 开始一行，返回从1开始的行号
+     */
+    private int beginRow() {
+        assertOpen();
+        if (this.currentRow >= MAX_ROWS) {
+            throw new InstrumentException("Row index " + this.currentRow + " exceeds the max rows of xlsx: " + MAX_ROWS);
+        }
+        try {
+            ensureSheetData();
+            final int rowNum = ++this.currentRow;
+            writer.write("<row r=\"");
+            writer.write(Integer.toString(rowNum));
+            writer.write("\">");
+            return rowNum;
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 写出单元格，值的处理与{@link CellUtils#setCellValue}一致
+     */
+    private void writeCell(int column, int rowNum, Object value, boolean isHeader) throws IOException {
+        int style = isHeader ? STYLE_HEAD : STYLE_CELL;
+        String type = null;
+        String text;
+        boolean formula = false;
+        if (null == value) {
+            text = null;
+        } else if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                type = "str";
+                text = value.toString();
+            } else {
+                if (!isHeader && (value instanceof Double || value instanceof Float)) {
+                    style = STYLE_NUMBER;
+                }
+                text = (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                        ? value.toString() : Double.toString(number);
+            }
+        } else if (value instanceof Date || value instanceof Calendar) {
+            final long millis;
+            final TimeZone timeZone;
+            if (value instanceof Date) {
+                millis = ((Date) value).getTime();
+                timeZone = TimeZone.getDefault();
+            } else {
+                millis = ((Calendar) value).getTimeInMillis();
+                timeZone = ((Calendar) value).getTimeZone();
+            }
+            final double serial = (double) (millis + timeZone.getOffset(millis)) / DAY_MILLIS + EPOCH_SERIAL;
+            if (serial < MIN_SERIAL) {
+                type = "str";
+                text = value instanceof Date ? value.toString() : ((Calendar) value).getTime().toString();
+            } else {
+                if (!isHeader && value instanceof Date) {
+                    style = STYLE_DATE;
+                }
+                text = Double.toString(serial);
+            }
+        } else if (value instanceof Boolean) {
+            type = "b";
+            text = (Boolean) value ? "1" : "0";
+        } else if (value instanceof FormulaCellValue) {
+            formula = true;
+            text = ((FormulaCellValue) value).getValue();
+        } else {
+            text = value.toString();
+            final int index = useSharedStrings ? sharedString(text) : -1;
+            if (index >= 0) {
+                type = "s";
+                text = Integer.toString(index);
+            } else {
+                type = "inlineStr";
+            }
+        }
+
+        writer.write("<c r=\"");
+        writer.write(columnName(column));
+        writer.write(Integer.toString(rowNum));
+        writer.write('"');
+        if (styled) {
+            writer.write(" s=\"");
+            writer.write(Integer.toString(style));
+            writer.write('"');
+        }
+        if (null != type) {
+            writer.write(" t=\"");
+            writer.write(type);
+            writer.write('"');
+        }
+        if (null == text) {
+            writer.write("/>");
+            return;
+        }
+        writer.write('>');
+        if (formula) {
+            writer.write("<f>");
+            escape(writer, text);
+            writer.write("</f>");
+        } else if ("inlineStr".equals(type)) {
+            writer.write(needPreserve(text) ? "<is><t xml:space=\"preserve\">" : "<is><t>");
+            escape(writer, text);
+            writer.write("</t></is>");
+        } else {
+            writer.write("<v>");
+            escape(writer, text);
+            writer.write("</v>");
+        }
+        writer.write("</c>");
+    }
+
+    /**
+     * 获取共享字符串的序号
+     *
+     * @param text 字符串
+     * @return 序号，字符串表已满且不包含该字符串时返回-1
+     */
+    private int sharedString(String text) throws IOException {
+        Integer index = sharedStrings.get(text);
+        if (null == index) {
+            if (sharedStrings.size() >= sharedStringsLimit) {
+                return -1;
+            }
+            index = sharedStrings.size();
+            sharedStrings.put(text, index);
+            sharedStringsWriter.write(needPreserve(text) ? "<si><t xml:space=\"preserve\">" : "<si><t>");
+            escape(sharedStringsWriter, text);
+            sharedStringsWriter.write("</t></si>");
+        }
+        sharedStringsCount++;
+        return index;
+    }
+
+    /**
+     * 列名，如A、B、AA，按列号缓存
+     */
+    private String columnName(int column) {
+        if (column >= columnNames.length) {
+            final String[] names = Arrays.copyOf(columnNames, Math.max(column + 1, columnNames.length << 1));
+            for (int i = columnNames.length; i < names.length; i++) {
+                final StringBuilder builder = new StringBuilder();
+                for (int n = i + 1; n > 0; n = (n - 1) / 26) {
+                    builder.append((char) ('A' + (n - 1) % 26));
+                }
+                names[i] = builder.reverse().toString();
+            }
+            columnNames = names;
+        }
+        return columnNames[column];
+    }
+
+    private static boolean needPreserve(String text) {
+        return !text.isEmpty() && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)));
+    }
+
+    /**
+     * XML转义，XML中不允许的控制字符按 _xHHHH_ 形式转义
+     */
+    private static void escape(Writer writer, String text) throws IOException {
+        int last = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            String replacement = null;
+            if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '"') {
+                replacement = "&quot;";
+            } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF) {
+                replacement = String.format("_x%04X_", (int) c);
+            } else if (c == '_' && i + 6 < length && text.charAt(i + 1) == 'x' && text.charAt(i + 6) == '_' && isHex(text, i + 2, i + 6)) {
+                // 原文中形如 _xHHHH_ 的文本需转义下划线，避免读取时被解码
+                replacement = "_x005F_";
+            }
+            if (null != replacement) {
+                if (i > last) {
+                    writer.write(text, last, i - last);
+                }
+                writer.write(replacement);
+                last = i + 1;
+            }
+        }
+        if (last < length) {
+            writer.write(text, last, length - last);
+        }
+    }
+
+    private static boolean isHex(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assertOpen() {
+        if (isClosed) {
+            throw new IllegalStateException("StreamingExcelWriter has been closed!");
+        }
+    }
+
+    private static boolean containsIgnoreCase(List<String> names, String name) {
+        for (String existing : names) {
+            if (existing.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void assertNotStarted() {
+        if (null != zip) {
+            throw new IllegalStateException("Option must be set before writing");
+        }
+    }
+
+    /**
+     * 创建Excel包
+     */
+    private void ensureStarted() throws IOException {
+        if (null != zip) {
+            return;
+        }
+        zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        if (useSharedStrings) {
+            sharedStrings = new HashMap<>();
+            sharedStringsFile = File.createTempFile("bus-xlsx-sst-", ".tmp");
+            sharedStringsFile.deleteOnExit();
+            sharedStringsWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(sharedStringsFile), StandardCharsets.UTF_8), 64 * 1024);
+        }
+    }
+
+    private void ensureSheet() {
+        if (null == sheetName) {
+            sheetName = "sheet1";
+        }
+    }
+
+    /**
+     * 开始写出当前sheet的数据部分
+     */
+    private void ensureSheetData() throws IOException {
+        if (sheetDataStarted) {
+            return;
+        }
+        ensureStarted();
+        ensureSheet();
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + (sheetNames.size() + 1) + ".xml"));
+        writer.write(XML_HEAD);
+        writer.write("<worksheet xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_REL + "\">");
+        if (!columnWidths.isEmpty()) {
+            writer.write("<cols>");
+            for (Map.Entry<Integer, Integer> entry : columnWidths.entrySet()) {
+                final String index = Integer.toString(entry.getKey() + 1);
+                writer.write("<col min=\"" + index + "\" max=\"" + index + "\" width=\"" + entry.getValue() + "\" customWidth=\"1\"/>");
+            }
+            writer.write("</cols>");
+        }
+        writer.write("<sheetData>");
+        sheetDataStarted = true;
+    }
+
+    /**
+     * 结束当前sheet
+     */
+    private void endSheet() {
+        if (null == sheetName) {
+            return;
+        }
+        try {
+            ensureSheetData();
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+        sheetNames.add(sheetName);
+        sheetName = null;
+        sheetDataStarted = false;
+        columnWidths.clear();
+    }
+
+    /**
+     * 写出工作簿、关系、样式、内容类型及共享字符串
+     */
+    private void writeWorkbook() throws IOException {
+        final int sheets = sheetNames.size();
+
+        entry("[Content_Types].xml");
+        writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheets; i++) {
+            writer.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        if (useSharedStrings) {
+            writer.write("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+        }
+        writer.write("</Types>");
+
+        entry("_rels/.rels");
+        writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+
+        entry("xl/workbook.xml");
+        writer.write("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_REL + "\"><sheets>");
+        for (int i = 1; i <= sheets; i++) {
+            writer.write("<sheet name=\"");
+            escape(writer, sheetNames.get(i - 1));
+            writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        writer.write("</sheets></workbook>");
+
+        entry("xl/_rels/workbook.xml.rels");
+        writer.write("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheets; i++) {
+            writer.write("<Relationship Id=\"rId" + i + "\" Type=\"" + NS_REL + "/worksheet\" Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        writer.write("<Relationship Id=\"rId" + (sheets + 1) + "\" Type=\"" + NS_REL + "/styles\" Target=\"styles.xml\"/>");
+        if (useSharedStrings) {
+            writer.write("<Relationship Id=\"rId" + (sheets + 2) + "\" Type=\"" + NS_REL + "/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+        }
+        writer.write("</Relationships>");
+
+        entry("xl/styles.xml");
+        final String border = "<color indexed=\"8\"/>";
+        final String cellXf = "fontId=\"0\" borderId=\"1\" xfId=\"0\" applyBorder=\"1\" applyAlignment=\"1\">"
+                + "<alignment horizontal=\"center\" vertical=\"center\"/></xf>";
+        writer.write("<styleSheet xmlns=\"" + NS_MAIN + "\">"
+                + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font></fonts>"
+                + "<fills count=\"3\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill>"
+                + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"22\"/><bgColor indexed=\"64\"/></patternFill></fill></fills>"
+                + "<borders count=\"2\"><border><left/><right/><top/><bottom/><diagonal/></border>"
+                + "<border><left style=\"thin\">" + border + "</left><right style=\"thin\">" + border + "</right>"
+                + "<top style=\"thin\">" + border + "</top><bottom style=\"thin\">" + border + "</bottom><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"5\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"0\" fillId=\"0\" " + cellXf
+                + "<xf numFmtId=\"0\" fillId=\"2\" applyFill=\"1\" " + cellXf
+                + "<xf numFmtId=\"22\" fillId=\"0\" applyNumberFormat=\"1\" " + cellXf
+                + "<xf numFmtId=\"2\" fillId=\"0\" applyNumberFormat=\"1\" " + cellXf
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>");
+
+        if (useSharedStrings) {
+            entry("xl/sharedStrings.xml");
+            writer.write("<sst xmlns=\"" + NS_MAIN + "\" count=\"" + sharedStringsCount + "\" uniqueCount=\"" + sharedStrings.size() + "\">");
+            writer.flush();
+            sharedStringsWriter.close();
+            sharedStringsWriter = null;
+            Files.copy(sharedStringsFile.toPath(), zip);
+            writer.write("</sst>");
+        }
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * 结束上一个条目并开始新的XML条目
+     */
+    private void entry(String name) throws IOException {
+        writer.flush();
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(XML_HEAD);
+    }
+
+    private void closeSharedStrings() {
+        IoUtils.close(sharedStringsWriter);
+        sharedStringsWriter = null;
+        if (null != sharedStringsFile) {
+            sharedStringsFile.delete();
+            sharedStringsFile = null;
+        }
+        sharedStrings = null;
+    }
+
+}
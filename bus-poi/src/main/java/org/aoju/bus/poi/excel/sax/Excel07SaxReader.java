@@ -28,11 +28,14 @@ import org.aoju.bus.core.utils.IoUtils;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.poi.excel.ExcelSaxUtils;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.xml.sax.*;
 import org.xml.sax.helpers.XMLReaderFactory;
 
@@ -40,8 +43,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 
 /**
  * Sax方式读取Excel文件
@@ -77,18 +84,28 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
     private static final String S_ATTR_VALUE = "s";
     // 列中属性值
     private static final String T_ATTR_VALUE = "t";
+    // 并行按序读取时每个sheet缓冲的最大行数
+    private static final int SHEET_QUEUE_SIZE = 1024;
+    // 样式缓存状态：未解析、数字格式、日期格式
+    private static final byte STYLE_UNRESOLVED = 0;
+    private static final byte STYLE_NUMBER = 1;
+    private static final byte STYLE_DATE = 2;
     // sheet r:Id前缀
     private static final String RID_PREFIX = "rId";
     // 存储每行的列元素
     List<Object> rowCellList = new ArrayList<>();
     // excel 2007 的共享字符串表,对应sharedString.xml
     private SharedStringsTable sharedStringsTable;
+    // 低内存模式下基于磁盘的共享字符串表
+    private SharedStrings sharedStrings;
+    // 是否使用低内存模式
+    private boolean lowMemory;
     // 当前行
     private int curRow;
     // 当前列
     private int curCell;
     // 上一次的内容
-    private String lastContent;
+    private final StringBuilder lastContent = new StringBuilder();
     // 单元数据类型
     private CellDataType cellDataType;
     // 当前列坐标， 如A1，B5
@@ -103,12 +120,30 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
     private int numFmtIndex;
     // 单元格存储的格式化字符串，nmtFmt的formateCode属性的值
     private String numFmtString;
+    // 按xf索引缓存的数字格式、格式索引及是否为日期格式，避免每个单元格都解析样式
+    private String[] xfNumFmtStrings;
+    private int[] xfNumFmtIndexes;
+    private byte[] xfStates;
     // sheet的索引
     private int sheetIndex;
     /**
      * 行处理器
      */
     private RowHandler rowHandler;
+    /**
+     * 类型化行处理器，设置后优先使用
+     */
+    private TypedRowHandler typedRowHandler;
+    /**
+     * 类型化行处理器使用的行数据
+     */
+    private RowView rowView;
+
+    /**
+     * 构造，需通过{@link #setRowHandler(RowHandler)}或{@link #setTypedRowHandler(TypedRowHandler)}设置行处理器
+     */
+    public Excel07SaxReader() {
+    }
 
     /**
      * 构造
@@ -130,6 +165,29 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
         return this;
     }
 
+    /**
+     * 设置类型化行处理器，行数据以可复用的{@link RowView}提供
+     *
+     * @param typedRowHandler 类型化行处理器
+     * @return this
+     */
+    public Excel07SaxReader setTypedRowHandler(TypedRowHandler typedRowHandler) {
+        this.typedRowHandler = typedRowHandler;
+        return this;
+    }
+
+    /**
+     * 设置是否使用低内存模式，低内存模式下共享字符串流式写入临时文件并通过内存映射读取，
+     * 不再整体加载到内存
+     *
+     * @param lowMemory 是否使用低内存模式
+     * @return this
+     */
+    public Excel07SaxReader setLowMemory(boolean lowMemory) {
+        this.lowMemory = lowMemory;
+        return this;
+    }
+
     @Override
     public Excel07SaxReader read(File file, int rid) throws InstrumentException {
         try {
@@ -161,12 +219,10 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
     public Excel07SaxReader read(OPCPackage opcPackage, int rid) throws InstrumentException {
         InputStream sheetInputStream = null;
         try {
-            final XSSFReader xssfReader = new XSSFReader(opcPackage);
-
-            // 获取共享样式表
-            stylesTable = xssfReader.getStylesTable();
-            // 获取共享字符串表
-            this.sharedStringsTable = xssfReader.getSharedStringsTable();
+            final XSSFReader xssfReader = prepare(opcPackage);
+            if (null != typedRowHandler) {
+                this.rowView = new RowView(this::getSharedString);
+            }
 
             if (rid > -1) {
                 this.sheetIndex = rid;
@@ -181,6 +237,7 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
                     // 重新读取一个sheet时行归零
                     curRow = 0;
                     this.sheetIndex++;
+                    IoUtils.close(sheetInputStream);
                     sheetInputStream = sheetInputStreams.next();
                     parse(sheetInputStream);
                 }
@@ -192,10 +249,267 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
         } finally {
             IoUtils.close(sheetInputStream);
             IoUtils.close(opcPackage);
+            IoUtils.close(sharedStrings);
+            this.sharedStrings = null;
+            this.sharedStringsTable = null;
+            this.rowView = null;
+        }
+        return this;
+    }
+
+    /**
+     * 并行读取Excel中所有sheet，共享字符串和样式只加载一次，各sheet在执行器中并发解析，
+     * 每个sheet使用各自的行处理器，行处理器在执行线程中回调
+     *
+     * @param file        Excel文件
+     * @param executor    执行器
+     * @param rowHandlers sheet序号 =&gt; 行处理器
+     * @return this
+     * @throws InstrumentException POI异常
+     */
+    public Excel07SaxReader readParallel(File file, Executor executor, IntFunction<RowHandler> rowHandlers) throws InstrumentException {
+        try {
+            return readParallel(OPCPackage.open(file), executor, rowHandlers);
+        } catch (InstrumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 并行读取Excel中所有sheet，共享字符串和样式只加载一次，各sheet在执行器中并发解析，
+     * 每个sheet使用各自的行处理器，行处理器在执行线程中回调
+     *
+     * @param opcPackage  {@link OPCPackage}，Excel包
+     * @param executor    执行器
+     * @param rowHandlers sheet序号 =&gt; 行处理器
+     * @return this
+     * @throws InstrumentException POI异常
+     */
+    public Excel07SaxReader readParallel(OPCPackage opcPackage, Executor executor, IntFunction<RowHandler> rowHandlers) throws InstrumentException {
+        return readParallel(opcPackage, executor, rowHandlers, false);
+    }
+
+    /**
+     * 并行读取Excel中所有sheet，使用当前设置的行处理器
+     *
+     * @param file     Excel文件
+     * @param executor 执行器
+     * @param ordered  是否按sheet顺序回调，参见{@link #readParallel(OPCPackage, Executor, boolean)}
+     * @return this
+     * @throws InstrumentException POI异常
+     */
+    public Excel07SaxReader readParallel(File file, Executor executor, boolean ordered) throws InstrumentException {
+        try {
+            return readParallel(OPCPackage.open(file), executor, ordered);
+        } catch (InstrumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 并行读取Excel中所有sheet，使用当前设置的行处理器
+     * <p>
+     * ordered为true时，解析结果经有界队列交给调用线程，按sheet顺序、行顺序依次回调{@link RowHandler}，
+     * 行处理器无需线程安全；轮到某个sheet时如执行器还未开始解析它，调用线程直接解析该sheet，
+     * 因此同线程执行器、线程数少于sheet数或不按提交顺序执行的执行器都不会因队列已满而死锁，只是并行度降低；
+     * ordered为false时在执行线程中直接回调，行处理器(或类型化行处理器)须线程安全。
+     *
+     * @param opcPackage {@link OPCPackage}，Excel包
+     * @param executor   执行器
+     * @param ordered    是否按sheet顺序回调
+     * @return this
+     * @throws InstrumentException POI异常
+     */
+    public Excel07SaxReader readParallel(OPCPackage opcPackage, Executor executor, boolean ordered) throws InstrumentException {
+        if (ordered && null == rowHandler) {
+            IoUtils.close(opcPackage);
+            throw new InstrumentException("Ordered parallel reading requires a RowHandler");
+        }
+        final RowHandler handler = rowHandler;
+        return readParallel(opcPackage, executor, sheet -> handler, ordered);
+    }
+
+    private Excel07SaxReader readParallel(OPCPackage opcPackage, Executor executor, IntFunction<RowHandler> rowHandlers, boolean ordered) {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final List<InputStream> sheetInputStreams = new ArrayList<>();
+        final Thread caller = Thread.currentThread();
+        try {
+            final XSSFReader xssfReader = prepare(opcPackage);
+            // 样式在主线程中全部解析，各sheet使用副本
+            for (int i = 0; i < xfStates.length; i++) {
+                resolveStyle(i);
+            }
+            final Iterator<InputStream> iterator = xssfReader.getSheetsData();
+            while (iterator.hasNext()) {
+                sheetInputStreams.add(iterator.next());
+            }
+
+            final List<BlockingQueue<SheetRow>> queues = new ArrayList<>();
+            // 每个sheet只由执行线程或调用线程中先认领的一方解析
+            final List<AtomicBoolean> claims = new ArrayList<>();
+            for (int i = 0; i < sheetInputStreams.size(); i++) {
+                final InputStream in = sheetInputStreams.get(i);
+                final Excel07SaxReader reader;
+                if (ordered) {
+                    final BlockingQueue<SheetRow> queue = new ArrayBlockingQueue<>(SHEET_QUEUE_SIZE);
+                    final AtomicBoolean claimed = new AtomicBoolean();
+                    queues.add(queue);
+                    claims.add(claimed);
+                    reader = fork(i, (sheet, row, cells) -> offer(queue, new SheetRow(row, new ArrayList<>(cells)), aborted), null);
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        // 同线程执行器在提交时就地执行，此时写入队列会在队列满后永久阻塞，留给调用线程按顺序解析
+                        if (Thread.currentThread() == caller || !claimed.compareAndSet(false, true)) {
+                            return;
+                        }
+                        try {
+                            reader.parseSheet(in);
+                        } finally {
+                            // 无论成功与否都放入结束标记，保证调用线程不会一直等待
+                            offer(queue, SheetRow.END, aborted);
+                        }
+                    }, executor));
+                } else {
+                    reader = fork(i, rowHandlers.apply(i), typedRowHandler);
+                    futures.add(CompletableFuture.runAsync(() -> reader.parseSheet(in), executor));
+                }
+            }
+
+            if (ordered) {
+                for (int i = 0; i < queues.size(); i++) {
+                    if (claims.get(i).compareAndSet(false, true)) {
+                        // 执行器还未开始解析该sheet，在调用线程中直接解析并回调
+                        fork(i, rowHandler, null).parseSheet(sheetInputStreams.get(i));
+                        continue;
+                    }
+                    final BlockingQueue<SheetRow> queue = queues.get(i);
+                    for (SheetRow row = queue.take(); SheetRow.END != row; row = queue.take()) {
+                        rowHandler.handle(i, row.rowIndex, row.cells);
+                    }
+                    // sheet结束，如有异常立即抛出
+                    futures.get(i).join();
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            aborted.set(true);
+            throw e.getCause() instanceof InstrumentException ? (InstrumentException) e.getCause() : new InstrumentException(e.getCause());
+        } catch (InstrumentException e) {
+            aborted.set(true);
+            throw e;
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            Thread.currentThread().interrupt();
+            throw new InstrumentException(e);
+        } catch (Exception e) {
+            aborted.set(true);
+            throw new InstrumentException(e);
+        } finally {
+            // 等待所有解析任务结束后再释放共享资源
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException | CancellationException ignored) {
+                    // 异常已处理
+                }
+            }
+            for (InputStream in : sheetInputStreams) {
+                IoUtils.close(in);
+            }
+            IoUtils.close(opcPackage);
+            IoUtils.close(sharedStrings);
+            this.sharedStrings = null;
+            this.sharedStringsTable = null;
         }
         return this;
     }
 
+    /**
+     * 加载样式表和共享字符串表
+     *
+     * @param opcPackage {@link OPCPackage}，Excel包
+     * @return {@link XSSFReader}
+     * @throws Exception 异常
+     */
+    private XSSFReader prepare(OPCPackage opcPackage) throws Exception {
+        final XSSFReader xssfReader = new XSSFReader(opcPackage);
+
+        // 获取共享样式表
+        stylesTable = xssfReader.getStylesTable();
+        resetStyleCache();
+        // 获取共享字符串表
+        if (lowMemory) {
+            this.sharedStrings = readSharedStrings(opcPackage);
+        } else {
+            this.sharedStringsTable = xssfReader.getSharedStringsTable();
+        }
+        return xssfReader;
+    }
+
+    /**
+     * 创建读取单个sheet的读取器，共享只读的共享字符串表，样式缓存使用副本
+     *
+     * @param sheetIndex      sheet序号
+     * @param rowHandler      行处理器
+     * @param typedRowHandler 类型化行处理器
+     * @return 读取器
+     */
+    private Excel07SaxReader fork(int sheetIndex, RowHandler rowHandler, TypedRowHandler typedRowHandler) {
+        final Excel07SaxReader reader = new Excel07SaxReader(rowHandler);
+        reader.typedRowHandler = typedRowHandler;
+        reader.lowMemory = this.lowMemory;
+        reader.stylesTable = this.stylesTable;
+        reader.xfStates = this.xfStates.clone();
+        reader.xfNumFmtIndexes = this.xfNumFmtIndexes.clone();
+        reader.xfNumFmtStrings = this.xfNumFmtStrings.clone();
+        reader.sharedStrings = this.sharedStrings;
+        reader.sharedStringsTable = this.sharedStringsTable;
+        reader.sheetIndex = sheetIndex;
+        if (null != typedRowHandler) {
+            reader.rowView = new RowView(reader::getSharedString);
+        }
+        return reader;
+    }
+
+    /**
+     * 解析单个sheet，流使用后关闭
+     *
+     * @param sheetInputStream sheet流
+     */
+    private void parseSheet(InputStream sheetInputStream) {
+        try {
+            parse(sheetInputStream);
+        } catch (IOException | SAXException e) {
+            throw new InstrumentException(e);
+        } finally {
+            IoUtils.close(sheetInputStream);
+        }
+    }
+
+    /**
+     * 放入有界队列，调用线程放弃读取后不再等待
+     *
+     * @param queue   队列
+     * @param row     行
+     * @param aborted 是否已放弃
+     */
+    private static void offer(BlockingQueue<SheetRow> queue, SheetRow row, AtomicBoolean aborted) {
+        try {
+            while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) {
+                    throw new InstrumentException("Parallel reading aborted");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InstrumentException(e);
+        }
+    }
+
     /**
      * 读到一个xml开始标签时的回调处理方法
      */
@@ -219,7 +533,7 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
             setCellType(attributes);
         }
 
-        lastContent = "";
+        lastContent.setLength(0);
     }
 
     /**
@@ -237,17 +551,54 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
         final String xfIndexStr = attribute.getValue(S_ATTR_VALUE);
         if (xfIndexStr != null) {
             int xfIndex = Integer.parseInt(xfIndexStr);
-            XSSFCellStyle xssfCellStyle = stylesTable.getStyleAt(xfIndex);
-            numFmtIndex = xssfCellStyle.getDataFormat();
-            numFmtString = xssfCellStyle.getDataFormatString();
-
-            if (numFmtString == null) {
-                numFmtString = BuiltinFormats.getBuiltinFormat(numFmtIndex);
-            } else if (CellDataType.NUMBER == this.cellDataType && org.apache.poi.ss.usermodel.DateUtil.isADateFormat(numFmtIndex, numFmtString)) {
+            byte state = resolveStyle(xfIndex);
+            numFmtIndex = xfNumFmtIndexes[xfIndex];
+            numFmtString = xfNumFmtStrings[xfIndex];
+            if (STYLE_DATE == state && CellDataType.NUMBER == this.cellDataType) {
                 cellDataType = CellDataType.DATE;
             }
         }
+    }
+
+    /**
+     * 解析并缓存xf索引对应的数字格式
+     *
+     * @param xfIndex xf索引
+     * @return 缓存状态
+     */
+    private byte resolveStyle(int xfIndex) {
+        if (xfIndex >= xfStates.length) {
+            int capacity = Math.max(xfIndex + 1, xfStates.length << 1);
+            xfStates = Arrays.copyOf(xfStates, capacity);
+            xfNumFmtIndexes = Arrays.copyOf(xfNumFmtIndexes, capacity);
+            xfNumFmtStrings = Arrays.copyOf(xfNumFmtStrings, capacity);
+        }
+        byte state = xfStates[xfIndex];
+        if (STYLE_UNRESOLVED == state) {
+            XSSFCellStyle xssfCellStyle = stylesTable.getStyleAt(xfIndex);
+            int index = xssfCellStyle.getDataFormat();
+            String format = xssfCellStyle.getDataFormatString();
+            state = STYLE_NUMBER;
+            if (format == null) {
+                format = BuiltinFormats.getBuiltinFormat(index);
+            } else if (org.apache.poi.ss.usermodel.DateUtil.isADateFormat(index, format)) {
+                state = STYLE_DATE;
+            }
+            xfNumFmtIndexes[xfIndex] = index;
+            xfNumFmtStrings[xfIndex] = format;
+            xfStates[xfIndex] = state;
+        }
+        return state;
+    }
 
+    /**
+     * 重置样式缓存
+     */
+    private void resetStyleCache() {
+        int size = null == stylesTable ? 0 : Math.max(stylesTable.getNumCellStyles(), 0);
+        xfStates = new byte[size];
+        xfNumFmtIndexes = new int[size];
+        xfNumFmtStrings = new String[size];
     }
 
     /**
@@ -255,17 +606,19 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
      */
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
-        final String contentStr = StringUtils.trim(lastContent);
-
         if (T_ELEMENT.equals(qName)) {
             // type标签
             // rowCellList.add(curCell++, contentStr);
         } else if (C_ELEMENT.equals(qName)) {
             // cell标签
-            Object value = ExcelSaxUtils.getDataValue(this.cellDataType, contentStr, this.sharedStringsTable, this.numFmtString);
             // 补全单元格之间的空格
             fillBlankCell(preCoordinate, curCoordinate, false);
-            rowCellList.add(curCell++, value);
+            if (null != rowView) {
+                rowView.add(this.cellDataType, lastContent, this.numFmtString);
+                curCell++;
+            } else {
+                rowCellList.add(curCell++, getDataValue(StringUtils.trim(lastContent.toString())));
+            }
         } else if (ROW_ELEMENT.equals(qName)) {
             // 如果是row标签，说明已经到了一行的结尾
             // 最大列坐标以第一行的为准
@@ -278,7 +631,12 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
                 fillBlankCell(curCoordinate, maxCellCoordinate, true);
             }
 
-            rowHandler.handle(sheetIndex, curRow, rowCellList);
+            if (null != rowView) {
+                typedRowHandler.handle(sheetIndex, curRow, rowView);
+                rowView.clear();
+            } else {
+                rowHandler.handle(sheetIndex, curRow, rowCellList);
+            }
 
             // 一行结束
             // 清空rowCellList,
@@ -299,7 +657,23 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
         // 得到单元格内容的值
-        lastContent = lastContent.concat(new String(ch, start, length));
+        lastContent.append(ch, start, length);
+    }
+
+    /**
+     * 并行按序读取时在线程间传递的行数据
+     */
+    private static class SheetRow {
+
+        static final SheetRow END = new SheetRow(-1, null);
+
+        final int rowIndex;
+        final List<Object> cells;
+
+        SheetRow(int rowIndex, List<Object> cells) {
+            this.rowIndex = rowIndex;
+            this.cells = cells;
+        }
     }
 
     @Override
@@ -370,9 +744,61 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
                 len++;
             }
             while (len-- > 0) {
-                rowCellList.add(curCell++, "");
+                if (null != rowView) {
+                    rowView.addBlank();
+                    curCell++;
+                } else {
+                    rowCellList.add(curCell++, "");
+                }
+            }
+        }
+    }
+
+    /**
+     * 根据单元格类型获取单元格值
+     *
+     * @param content 单元格内容
+     * @return 值
+     */
+    private Object getDataValue(String content) {
+        if (CellDataType.SSTINDEX == this.cellDataType && null != this.sharedStrings && null != content) {
+            try {
+                return this.sharedStrings.get(Integer.parseInt(content));
+            } catch (NumberFormatException e) {
+                return content;
             }
         }
+        return ExcelSaxUtils.getDataValue(this.cellDataType, content, this.sharedStringsTable, this.numFmtString);
+    }
+
+    /**
+     * 按索引获取共享字符串
+     *
+     * @param index 索引
+     * @return 字符串
+     */
+    private String getSharedString(int index) {
+        if (null != this.sharedStrings) {
+            return this.sharedStrings.get(index);
+        }
+        return new XSSFRichTextString(this.sharedStringsTable.getEntryAt(index)).getString();
+    }
+
+    /**
+     * 流式读取共享字符串到临时文件
+     *
+     * @param opcPackage {@link OPCPackage}
+     * @return {@link SharedStrings}
+     * @throws Exception 异常
+     */
+    private SharedStrings readSharedStrings(OPCPackage opcPackage) throws Exception {
+        final List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return SharedStrings.of(null, null);
+        }
+        try (InputStream in = parts.get(0).getInputStream()) {
+            return SharedStrings.of(in, createReader());
+        }
     }
 
     /**
@@ -382,6 +808,18 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
      * @throws SAXException SAX异常
      */
     private XMLReader fetchSheetReader() throws SAXException {
+        XMLReader xmlReader = createReader();
+        xmlReader.setContentHandler(this);
+        return xmlReader;
+    }
+
+    /**
+     * 创建XML解析器
+     *
+     * @return {@link XMLReader}
+     * @throws SAXException SAX异常
+     */
+    private XMLReader createReader() throws SAXException {
         XMLReader xmlReader = null;
         try {
             xmlReader = XMLReaderFactory.createXMLReader(CLASS_SAXPARSER);
@@ -392,7 +830,6 @@ public class Excel07SaxReader extends AbstractExcelSaxReader<Excel07SaxReader> i
                 throw e;
             }
         }
-        xmlReader.setContentHandler(this);
         return xmlReader;
     }
 
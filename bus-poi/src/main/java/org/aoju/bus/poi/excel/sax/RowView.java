@@ -0,0 +1,321 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel.sax;
+
+import org.aoju.bus.core.utils.StringUtils;
+import org.aoju.bus.poi.excel.ExcelSaxUtils;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Sax方式读取的一行数据
+ * <p>
+ * 单元格原始内容保存在共享的字符缓冲区中，读取下一行时整体复用，
+ * 数值、布尔等类型可直接以基本类型读取，不产生装箱对象。
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public final class RowView {
+
+    private static final CellDataType[] TYPES = CellDataType.values();
+
+    /**
+     * 共享字符串查找
+     */
+    private final IntFunction<String> sharedStrings;
+
+    // 单元格内容缓冲区
+    private char[] chars = new char[256];
+    private int length;
+    // 每个单元格在缓冲区中的起止位置、类型和格式
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] types = new byte[16];
+    private String[] numFmts = new String[16];
+    private int size;
+
+    RowView(IntFunction<String> sharedStrings) {
+        this.sharedStrings = sharedStrings;
+    }
+
+    /**
+     * 单元格数
+     *
+     * @return 单元格数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 单元格类型，空白单元格为{@link CellDataType#NULL}
+     *
+     * @param index 列号，从0开始
+     * @return 类型
+     */
+    public CellDataType getType(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    /**
+     * 单元格是否没有内容
+     *
+     * @param index 列号，从0开始
+     * @return the boolean
+     */
+    public boolean isBlank(int index) {
+        checkIndex(index);
+        for (int i = starts[index]; i < ends[index]; i++) {
+            if (!Character.isWhitespace(chars[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 单元格数字格式
+     *
+     * @param index 列号，从0开始
+     * @return 格式
+     */
+    public String getNumFmt(int index) {
+        checkIndex(index);
+        return numFmts[index];
+    }
+
+    /**
+     * 单元格原始内容，共享字符串单元格为其索引
+     *
+     * @param index 列号，从0开始
+     * @return 原始内容
+     */
+    public CharSequence getRaw(int index) {
+        checkIndex(index);
+        return CharBuffer.wrap(chars, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * 单元格文本，共享字符串单元格返回对应字符串
+     *
+     * @param index 列号，从0开始
+     * @return 文本
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        if (CellDataType.SSTINDEX == TYPES[types[index]] && null != sharedStrings) {
+            return sharedStrings.apply((int) getLong(index));
+        }
+        return trimmed(index);
+    }
+
+    /**
+     * 以long读取数值单元格，带小数时截断
+     *
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        while (start < end && Character.isWhitespace(chars[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(chars[end - 1])) {
+            end--;
+        }
+        if (start == end) {
+            throw new NumberFormatException("Blank cell at column " + index);
+        }
+        boolean negative = chars[start] == '-';
+        int i = negative || chars[start] == '+' ? start + 1 : start;
+        long result = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return (long) getDouble(index);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * 以int读取数值单元格，带小数时截断
+     *
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public int getInt(int index) {
+        return (int) getLong(index);
+    }
+
+    /**
+     * 以double读取数值单元格
+     *
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public double getDouble(int index) {
+        return Double.parseDouble(trimmed(index));
+    }
+
+    /**
+     * 读取布尔单元格，"0"为false，其他为true
+     *
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public boolean getBoolean(int index) {
+        checkIndex(index);
+        return ends[index] > starts[index] && chars[starts[index]] != '0';
+    }
+
+    /**
+     * 读取日期单元格
+     *
+     * @param index 列号，从0开始
+     * @return 日期
+     */
+    public Date getDate(int index) {
+        return DateUtil.getJavaDate(getDouble(index), false);
+    }
+
+    /**
+     * 以{@link RowHandler}相同的规则读取单元格值
+     *
+     * @param index 列号，从0开始
+     * @return 值
+     */
+    public Object getValue(int index) {
+        checkIndex(index);
+        final CellDataType type = TYPES[types[index]];
+        if (CellDataType.SSTINDEX == type && null != sharedStrings) {
+            try {
+                return getString(index);
+            } catch (NumberFormatException e) {
+                return trimmed(index);
+            }
+        }
+        return ExcelSaxUtils.getDataValue(type, trimmed(index), null, numFmts[index]);
+    }
+
+    /**
+     * 转为值列表，每个单元格都会创建对象
+     *
+     * @return 值列表
+     */
+    public List<Object> toList() {
+        final List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(getValue(i));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    /**
+     * 追加一个单元格
+     *
+     * @param type    类型
+     * @param content 原始内容
+     * @param numFmt  数字格式
+     */
+    void add(CellDataType type, CharSequence content, String numFmt) {
+        ensureCell();
+        final int contentLength = content.length();
+        if (length + contentLength > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length << 1, length + contentLength));
+        }
+        if (content instanceof StringBuilder) {
+            ((StringBuilder) content).getChars(0, contentLength, chars, length);
+        } else {
+            for (int i = 0; i < contentLength; i++) {
+                chars[length + i] = content.charAt(i);
+            }
+        }
+        starts[size] = length;
+        length += contentLength;
+        ends[size] = length;
+        types[size] = (byte) (null == type ? CellDataType.NULL : type).ordinal();
+        numFmts[size] = numFmt;
+        size++;
+    }
+
+    /**
+     * 追加一个空白单元格
+     */
+    void addBlank() {
+        ensureCell();
+        starts[size] = length;
+        ends[size] = length;
+        types[size] = (byte) CellDataType.NULL.ordinal();
+        numFmts[size] = null;
+        size++;
+    }
+
+    /**
+     * 清空，准备读取下一行
+     */
+    void clear() {
+        length = 0;
+        size = 0;
+    }
+
+    private void ensureCell() {
+        if (size == starts.length) {
+            final int capacity = size << 1;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            types = Arrays.copyOf(types, capacity);
+            numFmts = Arrays.copyOf(numFmts, capacity);
+        }
+    }
+
+    private String trimmed(int index) {
+        checkIndex(index);
+        return StringUtils.trim(new String(chars, starts[index], ends[index] - starts[index]));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Cell index " + index + " out of range [0, " + size + ")");
+        }
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel.sax;
+
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.utils.IoUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 基于磁盘的共享字符串表(sharedStrings.xml)
+ * <p>
+ * 流式解析共享字符串，将字符串以UTF-8写入临时文件，内存中只保留每个字符串的偏移量，
+ * 读取时通过内存映射(超过2GB时按位置读取)按索引取出，适合共享字符串很大的文件。
+ * 使用完毕后需调用{@link #close()}删除临时文件。
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class SharedStrings extends DefaultHandler implements Closeable {
+
+    // 共享字符串元素
+    private static final String SI_ELEMENT = "si";
+    // 文本元素
+    private static final String T_ELEMENT = "t";
+    // 拼音元素，其中的文本不属于单元格内容
+    private static final String RPH_ELEMENT = "rPh";
+
+    private final File file;
+    private OutputStream out;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    /**
+     * 每个字符串的起始偏移，最后一个元素为文件长度
+     */
+    private long[] offsets = new long[1024];
+    private int count;
+    private long position;
+
+    // 解析状态
+    private final StringBuilder text = new StringBuilder();
+    private boolean inText;
+    private boolean inPhonetic;
+
+    /**
+     * 从流中解析共享字符串，流由调用方关闭
+     *
+     * @param in        sharedStrings.xml流
+     * @param xmlReader XML解析器
+     * @return SharedStrings
+     * @throws InstrumentException 读取或解析失败
+     */
+    public static SharedStrings of(InputStream in, XMLReader xmlReader) throws InstrumentException {
+        final SharedStrings sharedStrings = new SharedStrings();
+        try {
+            if (null != in) {
+                xmlReader.setContentHandler(sharedStrings);
+                xmlReader.parse(new InputSource(in));
+            }
+            sharedStrings.open();
+        } catch (IOException | SAXException | RuntimeException e) {
+            IoUtils.close(sharedStrings);
+            throw e instanceof InstrumentException ? (InstrumentException) e : new InstrumentException(e);
+        }
+        return sharedStrings;
+    }
+
+    private SharedStrings() {
+        try {
+            this.file = File.createTempFile("bus-sst-", ".tmp");
+            this.file.deleteOnExit();
+            this.out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+        } catch (IOException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 共享字符串数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 按索引获取共享字符串
+     *
+     * @param index 索引
+     * @return 字符串
+     */
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Shared string index " + index + " out of range [0, " + count + ")");
+        }
+        final long start = offsets[index];
+        final int length = (int) (offsets[index + 1] - start);
+        if (length == 0) {
+            return "";
+        }
+        final byte[] bytes = new byte[length];
+        if (null != mapped) {
+            // 复制视图，保证多线程读取时位置互不影响
+            // 经Buffer调用position，避免以JDK 9+编译后在JDK 8上抛出NoSuchMethodError
+            final ByteBuffer view = mapped.duplicate();
+            ((Buffer) view).position((int) start);
+            view.get(bytes);
+        } else {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new EOFException();
+                    }
+                }
+            } catch (IOException e) {
+                throw new InstrumentException(e);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        IoUtils.close(out);
+        IoUtils.close(channel);
+        out = null;
+        channel = null;
+        mapped = null;
+        file.delete();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        final String name = localName(qName);
+        if (SI_ELEMENT.equals(name)) {
+            text.setLength(0);
+        } else if (RPH_ELEMENT.equals(name)) {
+            inPhonetic = true;
+        } else if (T_ELEMENT.equals(name) && !inPhonetic) {
+            inText = true;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        final String name = localName(qName);
+        if (SI_ELEMENT.equals(name)) {
+            try {
+                append(utfDecode(text));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        } else if (RPH_ELEMENT.equals(name)) {
+            inPhonetic = false;
+        } else if (T_ELEMENT.equals(name)) {
+            inText = false;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inText) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private void append(CharSequence value) throws IOException {
+        final byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes);
+        if (count + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length << 1);
+        }
+        offsets[count++] = position;
+        position += bytes.length;
+    }
+
+    /**
+     * 写入完成，映射文件供读取
+     */
+    private void open() throws IOException {
+        offsets[count] = position;
+        out.close();
+        out = null;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        if (position > 0 && position <= Integer.MAX_VALUE) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        }
+    }
+
+    private static String localName(String qName) {
+        final int index = qName.indexOf(':');
+        return index < 0 ? qName : qName.substring(index + 1);
+    }
+
+    /**
+     * 解码 _xHHHH_ 形式转义的字符，与 XSSFRichTextString 的处理一致
+     *
+     * @param value 文本
+     * @return 解码后的文本
+     */
+    private static CharSequence utfDecode(StringBuilder value) {
+        if (value.indexOf("_x") < 0) {
+            return value;
+        }
+        final StringBuilder result = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            if (i + 7 <= value.length() && value.charAt(i) == '_' && value.charAt(i + 1) == 'x' && value.charAt(i + 6) == '_') {
+                try {
+                    result.append((char) Integer.parseInt(value.substring(i + 2, i + 6), 16));
+                    i += 7;
+                    continue;
+                } catch (NumberFormatException e) {
+                    // 不是转义字符，原样保留
+                }
+            }
+            result.append(value.charAt(i++));
+        }
+        return result;
+    }
+
+}
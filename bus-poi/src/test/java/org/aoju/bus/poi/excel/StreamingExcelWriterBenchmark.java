@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link StreamingExcelWriter}与{@link BigExcelWriter}写出相同数据的耗时与堆内存对比，结果输出到控制台
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class StreamingExcelWriterBenchmark {
+
+    private static final int ROWS = 200000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    public void streamingVersusBigExcelWriter() throws Exception {
+        File file = File.createTempFile("benchmark", ".xlsx");
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] big = measure(() -> {
+                    try (BigExcelWriter writer = new BigExcelWriter(file)) {
+                        for (int i = 0; i < ROWS; i++) {
+                            writer.writeRow(row(i));
+                        }
+                    }
+                });
+                long[] streaming = measure(() -> {
+                    try (StreamingExcelWriter writer = new StreamingExcelWriter(file)) {
+                        for (int i = 0; i < ROWS; i++) {
+                            writer.writeRow(row(i));
+                        }
+                    }
+                });
+                long[] shared = measure(() -> {
+                    try (StreamingExcelWriter writer = new StreamingExcelWriter(file).setUseSharedStrings(true)) {
+                        for (int i = 0; i < ROWS; i++) {
+                            writer.writeRow(row(i));
+                        }
+                    }
+                });
+                System.out.printf("round %d: BigExcelWriter %d ms / %d KB, streaming %d ms / %d KB, streaming+sst %d ms / %d KB%n",
+                        round, big[0], big[1], streaming[0], streaming[1], shared[0], shared[1]);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static List<Object> row(int i) {
+        return new ArrayList<>(Arrays.asList(i, "name" + (i % 1000), i * 0.5, i % 2 == 0));
+    }
+
+    /**
+     * @return {耗时(毫秒), 结束时相对开始时的已用堆(KB)}
+     */
+    private static long[] measure(Runnable task) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        return new long[]{elapsed, Math.max(after - before, 0) / 1024};
+    }
+
+}
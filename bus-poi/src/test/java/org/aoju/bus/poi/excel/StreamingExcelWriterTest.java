@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class StreamingExcelWriterTest {
+
+    @Test
+    public void writesReadableWorkbook() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingExcelWriter writer = new StreamingExcelWriter(out)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", "a & <b>");
+            row.put("count", 3);
+            row.put("flag", true);
+            writer.write(Arrays.asList(row, row));
+            writer.setSheet("第二页");
+            writer.writeRow(Arrays.asList("x", 1.5));
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, workbook.getNumberOfSheets());
+            assertEquals("sheet1", workbook.getSheetName(0));
+            assertEquals("第二页", workbook.getSheetName(1));
+            Sheet first = workbook.getSheetAt(0);
+            assertEquals("name", first.getRow(0).getCell(0).getStringCellValue());
+            Row data = first.getRow(2);
+            assertEquals("a & <b>", data.getCell(0).getStringCellValue());
+            assertEquals(3, data.getCell(1).getNumericCellValue(), 0);
+            assertTrue(data.getCell(2).getBooleanCellValue());
+            assertEquals(1.5, workbook.getSheetAt(1).getRow(0).getCell(1).getNumericCellValue(), 0);
+        }
+    }
+
+    @Test
+    public void sharedStringsStopGrowingAtLimit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingExcelWriter writer = new StreamingExcelWriter(out)) {
+            writer.setUseSharedStrings(true).setSharedStringsLimit(2);
+            writer.writeRow(Arrays.asList("a", "b", "c", "a", "d", "b"));
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, workbook.getSharedStringSource().getUniqueCount());
+            Row row = workbook.getSheetAt(0).getRow(0);
+            String[] expected = {"a", "b", "c", "a", "d", "b"};
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], row.getCell(i).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void rejectsInvalidSheetNames() {
+        try (StreamingExcelWriter writer = new StreamingExcelWriter(new ByteArrayOutputStream())) {
+            writer.setSheet("Data");
+            for (String name : new String[]{"a/b", "a[1]", "what?", "0123456789012345678901234567890123", "DATA", " "}) {
+                try {
+                    writer.setSheet(name);
+                    fail("Sheet name accepted: " + name);
+                } catch (IllegalArgumentException expected) {
+                    // sheet名不合法或重复
+                }
+            }
+            writer.setSheet("Data 2");
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel.sax;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 串行读取与并行读取的耗时对比，结果输出到控制台
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class Excel07SaxReaderBenchmark {
+
+    private static final int SHEETS = 4;
+    private static final int ROWS = 50000;
+    private static final int ROUNDS = 3;
+
+    private static File file;
+
+    @BeforeClass
+    public static void createWorkbook() throws Exception {
+        file = File.createTempFile("benchmark", ".xlsx");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(1000, true, true);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int s = 0; s < SHEETS; s++) {
+                Sheet sheet = workbook.createSheet("sheet" + s);
+                for (int r = 0; r < ROWS; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(r);
+                    row.createCell(1).setCellValue("name" + (r % 1000));
+                    row.createCell(2).setCellValue(r * 0.5);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    @AfterClass
+    public static void deleteWorkbook() {
+        file.delete();
+    }
+
+    @Test
+    public void serialVersusParallel() {
+        ExecutorService executor = Executors.newFixedThreadPool(SHEETS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LongAdder serialRows = new LongAdder();
+                long start = System.nanoTime();
+                new Excel07SaxReader((sheetIndex, rowIndex, rowList) -> serialRows.increment()).read(file, -1);
+                long serial = System.nanoTime() - start;
+
+                LongAdder parallelRows = new LongAdder();
+                start = System.nanoTime();
+                new Excel07SaxReader().readParallel(file, executor,
+                        sheet -> (sheetIndex, rowIndex, rowList) -> parallelRows.increment());
+                long parallel = System.nanoTime() - start;
+
+                LongAdder orderedRows = new LongAdder();
+                start = System.nanoTime();
+                new Excel07SaxReader((sheetIndex, rowIndex, rowList) -> orderedRows.increment())
+                        .readParallel(file, executor, true);
+                long ordered = System.nanoTime() - start;
+
+                assertEquals(SHEETS * ROWS, serialRows.sum());
+                assertEquals(SHEETS * ROWS, parallelRows.sum());
+                assertEquals(SHEETS * ROWS, orderedRows.sum());
+                System.out.printf("round %d: serial %d ms, parallel %d ms, parallel ordered %d ms%n", round,
+                        serial / 1000000, parallel / 1000000, ordered / 1000000);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.poi.excel.sax;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 并行按序读取的测试，sheet行数超过队列容量时不应死锁
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class Excel07SaxReaderTest {
+
+    private static final int SHEETS = 3;
+    private static final int ROWS = 3000;
+
+    private static File file;
+
+    @BeforeClass
+    public static void createWorkbook() throws Exception {
+        file = File.createTempFile("parallel", ".xlsx");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int s = 0; s < SHEETS; s++) {
+                Sheet sheet = workbook.createSheet("sheet" + s);
+                for (int r = 0; r < ROWS; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(s);
+                    row.createCell(1).setCellValue(r);
+                    row.createCell(2).setCellValue("row" + r);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    @AfterClass
+    public static void deleteWorkbook() {
+        file.delete();
+    }
+
+    @Test(timeout = 60000)
+    public void orderedWithSameThreadExecutor() {
+        assertOrdered(Runnable::run);
+    }
+
+    @Test(timeout = 60000)
+    public void orderedWithFewerThreadsThanSheets() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertOrdered(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void orderedWithLastInFirstOutExecutor() {
+        // 所有sheet提交后才开始执行，且先执行最后提交的sheet
+        final LinkedBlockingDeque<Runnable> tasks = new LinkedBlockingDeque<>();
+        Executor executor = new Executor() {
+            private int submitted;
+
+            @Override
+            public void execute(Runnable command) {
+                tasks.addLast(command);
+                if (++submitted == SHEETS) {
+                    Thread worker = new Thread(() -> {
+                        for (Runnable task = tasks.pollLast(); task != null; task = tasks.pollLast()) {
+                            task.run();
+                        }
+                    });
+                    worker.setDaemon(true);
+                    worker.start();
+                }
+            }
+        };
+        assertOrdered(executor);
+    }
+
+    private static void assertOrdered(Executor executor) {
+        final List<int[]> rows = new ArrayList<>();
+        new Excel07SaxReader((sheetIndex, rowIndex, rowList) -> rows.add(new int[]{sheetIndex, rowIndex,
+                ((Number) rowList.get(0)).intValue(), ((Number) rowList.get(1)).intValue()}))
+                .readParallel(file, executor, true);
+        assertEquals(SHEETS * ROWS, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            int[] row = rows.get(i);
+            assertEquals(i / ROWS, row[0]);
+            assertEquals(i % ROWS, row[1]);
+            assertEquals(row[0], row[2]);
+            assertEquals(row[1], row[3]);
+        }
+    }
+
+}
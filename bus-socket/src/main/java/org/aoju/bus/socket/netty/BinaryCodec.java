@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.aoju.bus.logger.Logger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 二进制协议编解码器,数据格式: 事件(1字节) + 主题编号(4字节) + 数据(UTF-8)
+ * 主题编号由客户端发送register事件(数据为主题名)申请,服务端以同样格式回复分配的编号,
+ * 下行帧只使用已注册的编号,未注册的主题编号为0
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class BinaryCodec implements SocketCodec {
+
+    private static final int HEADER_LENGTH = 5;
+    private static final String PING = "ping";
+
+    @Override
+    public boolean supports(WebSocketFrame frame) {
+        return frame instanceof BinaryWebSocketFrame;
+    }
+
+    @Override
+    public SocketRequest decode(ChannelHandlerContext ctx, WebSocketFrame frame) {
+        ByteBuf content = frame.content();
+        if (content.readableBytes() < HEADER_LENGTH) {
+            Logger.error("SocketRequest decode exception: frame too short");
+            return null;
+        }
+        if (content.getByte(content.readerIndex()) == NettyConsts.REGISTER_CODE) {
+            register(ctx, content.skipBytes(HEADER_LENGTH));
+            return null;
+        }
+        String event = event(content.readByte());
+        if (event == null) {
+            Logger.error("SocketRequest decode exception: unknown event");
+            return null;
+        }
+        int id = content.readInt();
+
+        SocketRequest request = new SocketRequest();
+        request.setContext(ctx);
+        request.setEvent(event);
+        if (id != 0) {
+            String topic = TopicRegistry.topic(id);
+            if (topic == null) {
+                Logger.error("SocketRequest decode exception: unknown topic {}", id);
+                return null;
+            }
+            request.setTopic(new String[]{topic});
+        }
+        if (content.isReadable()) {
+            request.setData(content.toString(content.readerIndex(), content.readableBytes(), StandardCharsets.UTF_8));
+        }
+        return request;
+    }
+
+    @Override
+    public WebSocketFrame encode(String topic, String message) {
+        return frame(NettyConsts.MESSAGE, topic, message);
+    }
+
+    @Override
+    public WebSocketFrame reply(String event, String topic, String message) {
+        return frame(event, topic, message);
+    }
+
+    @Override
+    public WebSocketFrame heartbeat() {
+        return frame(NettyConsts.HEARTBEAT, null, PING);
+    }
+
+    /**
+     * 注册主题并回复编号: register(5) + 编号 + 主题名,编号为0表示注册失败
+     *
+     * @param ctx     上下文
+     * @param content 主题名
+     */
+    private void register(ChannelHandlerContext ctx, ByteBuf content) {
+        String topic = content.toString(content.readerIndex(), content.readableBytes(), StandardCharsets.UTF_8);
+        int id = topic.isEmpty() ? 0 : TopicRegistry.intern(topic);
+        if (id == 0) {
+            Logger.error("SocketRequest register failed: {}", topic);
+        }
+        ctx.writeAndFlush(frame(NettyConsts.REGISTER_CODE, id, topic));
+    }
+
+    private WebSocketFrame frame(String event, String topic, String message) {
+        return frame(code(event), TopicRegistry.id(topic), message);
+    }
+
+    private WebSocketFrame frame(byte code, int id, String message) {
+        ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(HEADER_LENGTH + (message == null ? 0 : message.length()));
+        buf.writeByte(code);
+        buf.writeInt(id);
+        if (message != null) {
+            ByteBufUtil.writeUtf8(buf, message);
+        }
+        return new BinaryWebSocketFrame(buf);
+    }
+
+    private static String event(byte code) {
+        switch (code) {
+            case NettyConsts.SUBSCRIBE_CODE:
+                return NettyConsts.SUBSCRIBE;
+            case NettyConsts.MESSAGE_CODE:
+                return NettyConsts.MESSAGE;
+            case NettyConsts.CANCEL_CODE:
+                return NettyConsts.CANCEL;
+            case NettyConsts.HEARTBEAT_CODE:
+                return NettyConsts.HEARTBEAT;
+            default:
+                return null;
+        }
+    }
+
+    private static byte code(String event) {
+        if (NettyConsts.SUBSCRIBE.equals(event)) {
+            return NettyConsts.SUBSCRIBE_CODE;
+        } else if (NettyConsts.CANCEL.equals(event)) {
+            return NettyConsts.CANCEL_CODE;
+        } else if (NettyConsts.HEARTBEAT.equals(event)) {
+            return NettyConsts.HEARTBEAT_CODE;
+        }
+        return NettyConsts.MESSAGE_CODE;
+    }
+
+}
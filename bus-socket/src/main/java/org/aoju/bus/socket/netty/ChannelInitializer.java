@@ -27,8 +27,14 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Kimi Liu
@@ -38,9 +44,23 @@ import io.netty.handler.stream.ChunkedWriteHandler;
 public class ChannelInitializer extends io.netty.channel.ChannelInitializer<SocketChannel> {
 
     private String endPoint;
+    private int heartbeatInterval;
+    private int maxMissedHeartbeats;
+    private List<SocketCodec> codecs;
 
     public ChannelInitializer(String endPoint) {
+        this(endPoint, NettyConsts.HEARTBEAT_INTERVAL, NettyConsts.MAX_MISSED_HEARTBEATS);
+    }
+
+    public ChannelInitializer(String endPoint, int heartbeatInterval, int maxMissedHeartbeats) {
+        this(endPoint, heartbeatInterval, maxMissedHeartbeats, Arrays.asList(new TextCodec(), new BinaryCodec()));
+    }
+
+    public ChannelInitializer(String endPoint, int heartbeatInterval, int maxMissedHeartbeats, List<SocketCodec> codecs) {
         this.endPoint = endPoint;
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxMissedHeartbeats = maxMissedHeartbeats;
+        this.codecs = codecs;
     }
 
     @Override
@@ -48,14 +68,18 @@ public class ChannelInitializer extends io.netty.channel.ChannelInitializer<Sock
         ChannelPipeline pipeline = ch.pipeline();
         //HttpServerCodec: 针对http协议进行编解码
         pipeline.addLast("httpServerCodec", new HttpServerCodec());
+        //IdleStateHandler: 基于事件循环的定时轮检测读空闲,无需全量扫描连接
+        pipeline.addLast("idleStateHandler", new IdleStateHandler(heartbeatInterval, 0, 0, TimeUnit.SECONDS));
         //ChunkedWriteHandler分块写处理，文件过大会将内存撑爆
         pipeline.addLast("chunkedWriteHandler", new ChunkedWriteHandler());
         //作用是将一个Http的消息组装成一个HttpRequest或者HttpResponse, 该Handler必须放在HttpServerCodec后的后面
         pipeline.addLast("httpObjectAggregator", new HttpObjectAggregator(8192));
         //用于处理websocket, /ws为访问websocket时的uri
         pipeline.addLast("webSocketServerProtocolHandler", new WebSocketServerProtocolHandler(endPoint));
+        //将分片的continuation帧聚合为完整的文本或二进制帧
+        pipeline.addLast("webSocketFrameAggregator", new WebSocketFrameAggregator(NettyConsts.MAX_MESSAGE_LENGTH));
         //自定义处理器
-        pipeline.addLast("myWebSocketHandler", new SocketHandler());
+        pipeline.addLast("myWebSocketHandler", new SocketHandler(maxMissedHeartbeats, codecs));
     }
 
 }
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 心跳及空闲检测统计
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class HeartbeatStats {
+
+    private static final LongAdder heartbeats = new LongAdder();
+    private static final LongAdder pongs = new LongAdder();
+    private static final LongAdder idleCloses = new LongAdder();
+    private static final LongAdder rttTotal = new LongAdder();
+    private static final LongAccumulator rttMax = new LongAccumulator(Long::max, 0L);
+
+    public static void heartbeatSent() {
+        heartbeats.increment();
+    }
+
+    public static void heartbeatReceived(long rttNanos) {
+        pongs.increment();
+        rttTotal.add(rttNanos);
+        rttMax.accumulate(rttNanos);
+    }
+
+    public static void idleClosed() {
+        idleCloses.increment();
+    }
+
+    /**
+     * @return 已发送心跳次数
+     */
+    public static long getHeartbeatCount() {
+        return heartbeats.sum();
+    }
+
+    /**
+     * @return 已收到心跳响应次数
+     */
+    public static long getPongCount() {
+        return pongs.sum();
+    }
+
+    /**
+     * @return 因空闲超时而关闭的连接数
+     */
+    public static long getIdleCloseCount() {
+        return idleCloses.sum();
+    }
+
+    /**
+     * @return 心跳往返平均耗时(毫秒)
+     */
+    public static long getAverageRttMillis() {
+        long count = pongs.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(rttTotal.sum() / count);
+    }
+
+    /**
+     * @return 心跳往返最大耗时(毫秒)
+     */
+    public static long getMaxRttMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(rttMax.get());
+    }
+
+    public static void reset() {
+        heartbeats.reset();
+        pongs.reset();
+        idleCloses.reset();
+        rttTotal.reset();
+        rttMax.reset();
+    }
+
+}
@@ -34,6 +34,12 @@ public class NettyConsts {
     public static final String CANCEL = "cancel";
     public static final String HEARTBEAT = "heartbeat";
 
+    public static final byte SUBSCRIBE_CODE = 1;
+    public static final byte MESSAGE_CODE = 2;
+    public static final byte CANCEL_CODE = 3;
+    public static final byte HEARTBEAT_CODE = 4;
+    public static final byte REGISTER_CODE = 5;
+
     public static final String HEARTBEAT_TEXT = "{\"e\":\"heartbeat\",\"d\":\"ping\"}";
 
     public static final String TOPIC_ALL = "all";
@@ -41,5 +47,21 @@ public class NettyConsts {
     public static int BOSS_GROUP_THREADS = 1;
     public static int WORKER_GROUP_THREADS = 0;
     public static String END_POINT = "/ws";
+    /**
+     * 心跳间隔(秒),连接在该时间内未收到数据时发送心跳
+     */
+    public static int HEARTBEAT_INTERVAL = 60;
+    /**
+     * 允许丢失的心跳次数,超过后断开连接
+     */
+    public static int MAX_MISSED_HEARTBEATS = 2;
+    /**
+     * 二进制协议可注册的主题数上限,超出后注册返回编号0
+     */
+    public static int MAX_TOPICS = 65536;
+    /**
+     * 聚合分片帧后单条消息的最大字节数,超出时以1009关闭连接
+     */
+    public static int MAX_MESSAGE_LENGTH = 65536;
 
 }
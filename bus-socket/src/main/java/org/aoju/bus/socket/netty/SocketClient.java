@@ -24,7 +24,6 @@
 package org.aoju.bus.socket.netty;
 
 import io.netty.channel.Channel;
-import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,38 +37,80 @@ public class SocketClient {
 
     private Channel channel;
     private List<String> topics = new ArrayList<>();
-    private Long lastUpdateTime = System.currentTimeMillis();
-    private Long inactiveTime = 60000L;
+    private volatile SocketCodec codec;
+    /**
+     * 连续未收到数据的空闲周期数
+     */
+    private int idleCount;
+    /**
+     * 最近一次发送心跳的时间(纳秒), 0表示没有等待中的心跳
+     */
+    private volatile long pingTime;
 
     public SocketClient(Channel channel) {
+        this(channel, new TextCodec());
+    }
+
+    public SocketClient(Channel channel, SocketCodec codec) {
         this.channel = channel;
+        this.codec = codec;
+    }
+
+    public void setCodec(SocketCodec codec) {
+        this.codec = codec;
     }
 
     public void send(String topic, String message) {
         if (this.topics.contains(topic)) {
-            channel.writeAndFlush(new TextWebSocketFrame(message));
-            lastUpdateTime = System.currentTimeMillis();
+            channel.writeAndFlush(codec.encode(topic, message));
         }
     }
 
     public void send(String message) {
-        channel.writeAndFlush(new TextWebSocketFrame(message));
-        lastUpdateTime = System.currentTimeMillis();
+        channel.writeAndFlush(codec.encode(null, message));
+    }
+
+    public void reply(String event, String topic, String message) {
+        channel.writeAndFlush(codec.reply(event, topic, message));
     }
 
     public void sendHeartbeat() {
-        channel.writeAndFlush(new TextWebSocketFrame(NettyConsts.HEARTBEAT_TEXT));
+        pingTime = System.nanoTime();
+        channel.writeAndFlush(codec.heartbeat());
+        HeartbeatStats.heartbeatSent();
     }
 
     public void receiveHeartbeat() {
-        lastUpdateTime = System.currentTimeMillis();
+        long sent = pingTime;
+        if (sent != 0) {
+            pingTime = 0;
+            HeartbeatStats.heartbeatReceived(System.nanoTime() - sent);
+        }
+    }
+
+    /**
+     * 读空闲时由{@link SocketHandler}在IO线程中回调,
+     * 连续空闲次数超过允许丢失的心跳数时关闭连接,否则发送心跳
+     *
+     * @param first     是否为本轮空闲的第一次事件
+     * @param maxMissed 允许丢失的心跳次数
+     */
+    public void idle(boolean first, int maxMissed) {
+        if (first) {
+            idleCount = 0;
+        }
+        if (++idleCount > maxMissed) {
+            HeartbeatStats.idleClosed();
+            close();
+        } else {
+            sendHeartbeat();
+        }
     }
 
     public void subscribe(String topic) {
         if (!this.topics.contains(topic)) {
             this.topics.add(topic);
         }
-        lastUpdateTime = System.currentTimeMillis();
     }
 
     public void cancel(String data) {
@@ -77,7 +118,6 @@ public class SocketClient {
             SocketService.onCancel(this, topic, data);
         }
         topics.clear();
-        lastUpdateTime = System.currentTimeMillis();
     }
 
     public void cancel(String topic, String data) {
@@ -85,15 +125,6 @@ public class SocketClient {
             this.topics.remove(topic);
             SocketService.onCancel(this, topic, data);
         }
-        lastUpdateTime = System.currentTimeMillis();
-    }
-
-    public boolean isActive() {
-        return System.currentTimeMillis() - lastUpdateTime <= inactiveTime;
-    }
-
-    public boolean needClose() {
-        return System.currentTimeMillis() - lastUpdateTime > inactiveTime * 3;
     }
 
     public void close() {
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+
+/**
+ * 消息编解码器,每个连接使用最后一次成功解码请求的编解码器进行响应
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public interface SocketCodec {
+
+    /**
+     * 是否支持该数据帧
+     *
+     * @param frame 数据帧
+     * @return true: 支持
+     */
+    boolean supports(WebSocketFrame frame);
+
+    /**
+     * 解码请求
+     *
+     * @param ctx   通信通道上下文
+     * @param frame 数据帧
+     * @return 请求信息, 无法解码时返回null
+     */
+    SocketRequest decode(ChannelHandlerContext ctx, WebSocketFrame frame);
+
+    /**
+     * 编码推送消息
+     *
+     * @param topic   主题
+     * @param message 消息内容
+     * @return 数据帧
+     */
+    WebSocketFrame encode(String topic, String message);
+
+    /**
+     * 编码事件处理器的响应
+     *
+     * @param event   事件类型
+     * @param topic   主题
+     * @param message 响应内容
+     * @return 数据帧
+     */
+    WebSocketFrame reply(String event, String topic, String message);
+
+    /**
+     * 编码心跳请求
+     *
+     * @return 数据帧
+     */
+    WebSocketFrame heartbeat();
+
+}
@@ -23,10 +23,17 @@
  */
 package org.aoju.bus.socket.netty;
 
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.timeout.IdleStateEvent;
+
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author Kimi Liu
@@ -34,17 +41,50 @@ import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
  * @since JDK 1.8
  */
 @ChannelHandler.Sharable
-public class SocketHandler extends SimpleChannelInboundHandler<TextWebSocketFrame> {
+public class SocketHandler extends SimpleChannelInboundHandler<WebSocketFrame> {
+
+    /**
+     * 不支持的数据类型
+     */
+    private static final int UNSUPPORTED_DATA = 1003;
+    /**
+     * 消息过大
+     */
+    private static final int MESSAGE_TOO_BIG = 1009;
+
+    private List<SocketCodec> codecs;
+    private int maxMissedHeartbeats;
+
+    public SocketHandler() {
+        this(NettyConsts.MAX_MISSED_HEARTBEATS);
+    }
+
+    public SocketHandler(int maxMissedHeartbeats) {
+        this(maxMissedHeartbeats, Arrays.asList(new TextCodec(), new BinaryCodec()));
+    }
 
-    private RequestDecoder decoder = new RequestDecoder();
+    public SocketHandler(int maxMissedHeartbeats, List<SocketCodec> codecs) {
+        this.maxMissedHeartbeats = maxMissedHeartbeats;
+        this.codecs = codecs;
+    }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, TextWebSocketFrame msg) throws Exception {
-        String message = msg.text();
-        SocketRequest request = decoder.decode(ctx, message);
-        if (request != null) {
-            RequestHandler.execute(request);
+    protected void channelRead0(ChannelHandlerContext ctx, WebSocketFrame msg) throws Exception {
+        for (SocketCodec codec : codecs) {
+            if (codec.supports(msg)) {
+                SocketRequest request = codec.decode(ctx, msg);
+                if (request != null) {
+                    SocketClient client = ClientService.getClient(ctx);
+                    if (client != null) {
+                        client.setCodec(codec);
+                    }
+                    RequestHandler.execute(request);
+                }
+                return;
+            }
         }
+        // 没有编解码器支持的帧(如未聚合的continuation帧)直接拒绝
+        close(ctx, UNSUPPORTED_DATA, "unsupported frame");
     }
 
     @Override
@@ -58,8 +98,24 @@ public class SocketHandler extends SimpleChannelInboundHandler<TextWebSocketFram
     }
 
     @Override
-    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            SocketClient client = ClientService.getClient(ctx);
+            if (client != null) {
+                client.idle(((IdleStateEvent) evt).isFirst(), maxMissedHeartbeats);
+            } else {
+                ctx.channel().close();
+            }
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
 
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (cause instanceof TooLongFrameException) {
+            close(ctx, MESSAGE_TOO_BIG, "message too big");
+        }
     }
 
     @Override
@@ -67,4 +123,8 @@ public class SocketHandler extends SimpleChannelInboundHandler<TextWebSocketFram
         ctx.channel().close();
     }
 
+    private static void close(ChannelHandlerContext ctx, int status, String reason) {
+        ctx.writeAndFlush(new CloseWebSocketFrame(status, reason)).addListener(ChannelFutureListener.CLOSE);
+    }
+
 }
@@ -33,6 +33,9 @@ import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import org.aoju.bus.logger.Logger;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * @author Kimi Liu
  * @version 3.0.5
@@ -44,12 +47,29 @@ public class SocketServer implements Runnable {
     private int bossGroupThreads;
     private int workerGroupThreads;
     private String endPoint;
+    private int heartbeatInterval;
+    private int maxMissedHeartbeats;
+    private List<SocketCodec> codecs;
 
     public SocketServer(int port, int bossGroupThreads, int workerGroupThreads, String endPoint) {
+        this(port, bossGroupThreads, workerGroupThreads, endPoint, NettyConsts.HEARTBEAT_INTERVAL, NettyConsts.MAX_MISSED_HEARTBEATS);
+    }
+
+    public SocketServer(int port, int bossGroupThreads, int workerGroupThreads, String endPoint,
+                        int heartbeatInterval, int maxMissedHeartbeats) {
+        this(port, bossGroupThreads, workerGroupThreads, endPoint, heartbeatInterval, maxMissedHeartbeats,
+                Arrays.asList(new TextCodec(), new BinaryCodec()));
+    }
+
+    public SocketServer(int port, int bossGroupThreads, int workerGroupThreads, String endPoint,
+                        int heartbeatInterval, int maxMissedHeartbeats, List<SocketCodec> codecs) {
         this.port = port;
         this.bossGroupThreads = bossGroupThreads;
         this.workerGroupThreads = workerGroupThreads;
         this.endPoint = endPoint;
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxMissedHeartbeats = maxMissedHeartbeats;
+        this.codecs = codecs;
     }
 
     @Override
@@ -61,7 +81,7 @@ public class SocketServer implements Runnable {
             b.group(bossGroup, workerGroup)
                     .channel(NioServerSocketChannel.class)
                     .handler(new LoggingHandler(LogLevel.INFO))
-                    .childHandler(new ChannelInitializer(endPoint))
+                    .childHandler(new ChannelInitializer(endPoint, heartbeatInterval, maxMissedHeartbeats, codecs))
                     .option(ChannelOption.SO_BACKLOG, 1024)
                     .childOption(ChannelOption.SO_KEEPALIVE, true);
             ChannelFuture f = b.bind(this.port).sync();
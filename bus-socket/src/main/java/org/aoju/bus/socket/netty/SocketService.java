@@ -23,12 +23,12 @@
  */
 package org.aoju.bus.socket.netty;
 
-import com.alibaba.fastjson.JSON;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Kimi Liu
@@ -39,6 +39,7 @@ public class SocketService {
 
     private static Map<String, List<EventHandler>> handlers = new HashMap<>();
     private static List<CustomizeEventHandler> customizeHandlers = new ArrayList<>();
+    private static List<SocketCodec> codecs = new CopyOnWriteArrayList<>(Arrays.asList(new TextCodec(), new BinaryCodec()));
 
     public static void start(int port) {
         start(port, NettyConsts.END_POINT);
@@ -53,14 +54,28 @@ public class SocketService {
     }
 
     public static void start(int port, int bossGroupThreads, int workerGroupThreads, String endPoint) {
-        ChannelExecutor.start();
-        new SocketServer(port, bossGroupThreads, workerGroupThreads, endPoint).run();
+        start(port, bossGroupThreads, workerGroupThreads, endPoint, NettyConsts.HEARTBEAT_INTERVAL, NettyConsts.MAX_MISSED_HEARTBEATS);
+    }
+
+    public static void start(int port, int bossGroupThreads, int workerGroupThreads, String endPoint,
+                             int heartbeatInterval, int maxMissedHeartbeats) {
+        new SocketServer(port, bossGroupThreads, workerGroupThreads, endPoint, heartbeatInterval, maxMissedHeartbeats, codecs).run();
     }
 
     public static void addHandler(String topic, EventHandler handler) {
+        TopicRegistry.intern(topic);
         handlers.computeIfAbsent(topic, k -> new ArrayList<>()).add(handler);
     }
 
+    /**
+     * 注册编解码器,优先于内置的JSON文本及二进制编解码器
+     *
+     * @param codec 编解码器
+     */
+    public static void addCodec(SocketCodec codec) {
+        codecs.add(0, codec);
+    }
+
     public static void addCustomizeHandler(CustomizeEventHandler customizeHandler) {
         customizeHandlers.add(customizeHandler);
     }
@@ -71,7 +86,7 @@ public class SocketService {
             for (EventHandler handler : eventHandlers) {
                 String message = handler.onSubscribe(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.SUBSCRIBE, topic, message);
                 }
             }
         }
@@ -79,7 +94,7 @@ public class SocketService {
             if (customizeHandler.equalsTopic(topic)) {
                 String message = customizeHandler.onSubscribe(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.SUBSCRIBE, topic, message);
                 }
             }
         }
@@ -91,7 +106,7 @@ public class SocketService {
             for (EventHandler handler : eventHandlers) {
                 String message = handler.onMessage(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.MESSAGE, topic, message);
                 }
             }
         }
@@ -99,7 +114,7 @@ public class SocketService {
             if (customizeHandler.equalsTopic(topic)) {
                 String message = customizeHandler.onMessage(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.MESSAGE, topic, message);
                 }
             }
         }
@@ -111,7 +126,7 @@ public class SocketService {
             for (EventHandler handler : eventHandlers) {
                 String message = handler.onCancel(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.CANCEL, topic, message);
                 }
             }
         }
@@ -119,7 +134,7 @@ public class SocketService {
             if (customizeHandler.equalsTopic(topic)) {
                 String message = customizeHandler.onCancel(topic, data);
                 if (message != null) {
-                    client.send(JSON.toJSONString(message));
+                    client.reply(NettyConsts.CANCEL, topic, message);
                 }
             }
         }
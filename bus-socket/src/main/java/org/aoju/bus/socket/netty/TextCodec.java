@@ -26,14 +26,28 @@ package org.aoju.bus.socket.netty;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import org.aoju.bus.logger.Logger;
 
 /**
+ * JSON文本协议编解码器,供浏览器等文本客户端使用
+ *
  * @author Kimi Liu
  * @version 3.0.5
  * @since JDK 1.8
  */
-public class RequestDecoder {
+public class TextCodec implements SocketCodec {
+
+    @Override
+    public boolean supports(WebSocketFrame frame) {
+        return frame instanceof TextWebSocketFrame;
+    }
+
+    @Override
+    public SocketRequest decode(ChannelHandlerContext ctx, WebSocketFrame frame) {
+        return decode(ctx, ((TextWebSocketFrame) frame).text());
+    }
 
     public SocketRequest decode(ChannelHandlerContext ctx, String message) {
         try {
@@ -65,4 +79,19 @@ public class RequestDecoder {
         }
     }
 
+    @Override
+    public WebSocketFrame encode(String topic, String message) {
+        return new TextWebSocketFrame(message);
+    }
+
+    @Override
+    public WebSocketFrame reply(String event, String topic, String message) {
+        return new TextWebSocketFrame(JSON.toJSONString(message));
+    }
+
+    @Override
+    public WebSocketFrame heartbeat() {
+        return new TextWebSocketFrame(NettyConsts.HEARTBEAT_TEXT);
+    }
+
 }
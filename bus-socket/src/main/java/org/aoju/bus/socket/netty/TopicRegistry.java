@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 主题注册表,将主题映射为整数编号供二进制协议使用
+ * 编号0保留,表示无主题或注册失败
+ * 只有客户端通过register事件注册的主题才会分配编号,
+ * 注册数量受{@link NettyConsts#MAX_TOPICS}限制,避免无限增长
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class TopicRegistry {
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] topics = new String[16];
+    private static int size = 1;
+
+    /**
+     * 获取主题编号,不存在时分配新编号
+     *
+     * @param topic 主题
+     * @return 编号, 超出注册上限时返回0
+     */
+    public static int intern(String topic) {
+        if (topic == null) {
+            return 0;
+        }
+        Integer id = ids.get(topic);
+        if (id != null) {
+            return id;
+        }
+        synchronized (TopicRegistry.class) {
+            id = ids.get(topic);
+            if (id != null) {
+                return id;
+            }
+            if (size > NettyConsts.MAX_TOPICS) {
+                return 0;
+            }
+            String[] current = topics;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length << 1);
+            }
+            id = size++;
+            current[id] = topic;
+            // 重新发布数组,保证无锁读取可见
+            topics = current;
+            ids.put(topic, id);
+            return id;
+        }
+    }
+
+    /**
+     * 获取已注册主题的编号,不会分配新编号
+     *
+     * @param topic 主题
+     * @return 编号, 未注册时返回0
+     */
+    public static int id(String topic) {
+        if (topic == null) {
+            return 0;
+        }
+        Integer id = ids.get(topic);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * 根据编号获取主题
+     *
+     * @param id 编号
+     * @return 主题, 不存在时返回null
+     */
+    public static String topic(int id) {
+        String[] snapshot = topics;
+        return id > 0 && id < snapshot.length ? snapshot[id] : null;
+    }
+
+    /**
+     * 当前所有主题与编号的映射,可下发给二进制客户端
+     *
+     * @return 主题:编号
+     */
+    public static Map<String, Integer> ids() {
+        return Collections.unmodifiableMap(new HashMap<>(ids));
+    }
+
+}
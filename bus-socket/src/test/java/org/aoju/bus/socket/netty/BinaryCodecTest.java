@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class BinaryCodecTest {
+
+    private BinaryCodec codec;
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        codec = new BinaryCodec();
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    }
+
+    @After
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void supportsBinaryFramesOnly() {
+        assertTrue(codec.supports(new BinaryWebSocketFrame()));
+        assertFalse(codec.supports(new TextWebSocketFrame("{}")));
+    }
+
+    @Test
+    public void registerRepliesWithTopicId() {
+        SocketRequest request = codec.decode(channel.pipeline().firstContext(), frame(NettyConsts.REGISTER_CODE, 0, "binary.register"));
+        assertNull(request);
+
+        BinaryWebSocketFrame reply = channel.readOutbound();
+        ByteBuf content = reply.content();
+        assertEquals(NettyConsts.REGISTER_CODE, content.readByte());
+        int id = content.readInt();
+        assertEquals(TopicRegistry.id("binary.register"), id);
+        assertTrue(id > 0);
+        assertEquals("binary.register", content.toString(StandardCharsets.UTF_8));
+        reply.release();
+    }
+
+    @Test
+    public void decodeResolvesRegisteredTopic() {
+        int id = TopicRegistry.intern("binary.decode");
+        SocketRequest request = codec.decode(null, frame(NettyConsts.SUBSCRIBE_CODE, id, "hello"));
+        assertEquals(NettyConsts.SUBSCRIBE, request.getEvent());
+        assertArrayEquals(new String[]{"binary.decode"}, request.getTopic());
+        assertEquals("hello", request.getData());
+    }
+
+    @Test
+    public void decodeRejectsUnknownTopicAndShortFrame() {
+        assertNull(codec.decode(null, frame(NettyConsts.MESSAGE_CODE, Integer.MAX_VALUE, "x")));
+        assertNull(codec.decode(null, new BinaryWebSocketFrame(Unpooled.wrappedBuffer(new byte[]{NettyConsts.MESSAGE_CODE}))));
+    }
+
+    @Test
+    public void encodeDoesNotInternTopics() {
+        BinaryWebSocketFrame frame = (BinaryWebSocketFrame) codec.encode("binary.unregistered", "payload");
+        ByteBuf content = frame.content();
+        assertEquals(NettyConsts.MESSAGE_CODE, content.readByte());
+        assertEquals(0, content.readInt());
+        assertEquals("payload", content.toString(StandardCharsets.UTF_8));
+        assertEquals(0, TopicRegistry.id("binary.unregistered"));
+        frame.release();
+    }
+
+    @Test
+    public void replyUsesRegisteredTopicId() {
+        int id = TopicRegistry.intern("binary.reply");
+        BinaryWebSocketFrame frame = (BinaryWebSocketFrame) codec.reply(NettyConsts.CANCEL, "binary.reply", "bye");
+        ByteBuf content = frame.content();
+        assertEquals(NettyConsts.CANCEL_CODE, content.readByte());
+        assertEquals(id, content.readInt());
+        assertEquals("bye", content.toString(StandardCharsets.UTF_8));
+        frame.release();
+    }
+
+    private static BinaryWebSocketFrame frame(byte code, int id, String data) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(code);
+        buf.writeInt(id);
+        buf.writeCharSequence(data, StandardCharsets.UTF_8);
+        return new BinaryWebSocketFrame(buf);
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.*;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class SocketHandlerTest {
+
+    @Test
+    public void continuationFramesAreAggregated() {
+        RecordingCodec codec = new RecordingCodec();
+        EmbeddedChannel channel = new EmbeddedChannel(new WebSocketFrameAggregator(NettyConsts.MAX_MESSAGE_LENGTH),
+                new SocketHandler(NettyConsts.MAX_MISSED_HEARTBEATS, Collections.singletonList(codec)));
+
+        channel.writeInbound(new TextWebSocketFrame(false, 0, "{\"e\":\"mes"));
+        channel.writeInbound(new ContinuationWebSocketFrame(true, 0, "sage\"}"));
+
+        assertEquals(Collections.singletonList("{\"e\":\"message\"}"), codec.texts);
+        assertTrue(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void unsupportedFrameClosesWith1003() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new SocketHandler(NettyConsts.MAX_MISSED_HEARTBEATS, Collections.singletonList(new RecordingCodec())));
+
+        channel.writeInbound(new ContinuationWebSocketFrame(true, 0, Unpooled.copiedBuffer("orphan", StandardCharsets.UTF_8)));
+
+        CloseWebSocketFrame close = channel.readOutbound();
+        assertEquals(1003, close.statusCode());
+        close.release();
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void oversizedMessageClosesWith1009() {
+        EmbeddedChannel channel = new EmbeddedChannel(new WebSocketFrameAggregator(8),
+                new SocketHandler(NettyConsts.MAX_MISSED_HEARTBEATS, Collections.singletonList(new RecordingCodec())));
+
+        channel.writeInbound(new TextWebSocketFrame(false, 0, "12345"));
+        channel.writeInbound(new ContinuationWebSocketFrame(true, 0, "67890"));
+
+        CloseWebSocketFrame close = channel.readOutbound();
+        assertEquals(1009, close.statusCode());
+        close.release();
+        assertFalse(channel.isOpen());
+    }
+
+    private static class RecordingCodec extends TextCodec {
+
+        private final List<String> texts = new ArrayList<>();
+
+        @Override
+        public SocketRequest decode(ChannelHandlerContext ctx, WebSocketFrame frame) {
+            texts.add(((TextWebSocketFrame) frame).text());
+            return null;
+        }
+
+    }
+
+}
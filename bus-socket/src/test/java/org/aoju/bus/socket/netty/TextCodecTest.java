@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class TextCodecTest {
+
+    private final TextCodec codec = new TextCodec();
+
+    @Test
+    public void decodeReadsEnvelope() {
+        SocketRequest request = codec.decode(null, new TextWebSocketFrame("{\"e\":\"subscribe\",\"t\":[\"a\",\"b\"],\"d\":\"hi\"}"));
+        assertEquals(NettyConsts.SUBSCRIBE, request.getEvent());
+        assertArrayEquals(new String[]{"a", "b"}, request.getTopic());
+        assertEquals("hi", request.getData());
+    }
+
+    @Test
+    public void decodeRejectsMalformedJson() {
+        assertNull(codec.decode(null, new TextWebSocketFrame("not json")));
+    }
+
+    @Test
+    public void replyKeepsJsonStringFormat() {
+        TextWebSocketFrame frame = (TextWebSocketFrame) codec.reply(NettyConsts.SUBSCRIBE, "a", "subscribe success!");
+        assertEquals("\"subscribe success!\"", frame.text());
+        frame.release();
+    }
+
+    @Test
+    public void encodeSendsMessageAsIs() {
+        TextWebSocketFrame frame = (TextWebSocketFrame) codec.encode("a", "{\"k\":1}");
+        assertEquals("{\"k\":1}", frame.text());
+        frame.release();
+    }
+
+    @Test
+    public void heartbeatIsPing() {
+        TextWebSocketFrame frame = (TextWebSocketFrame) codec.heartbeat();
+        assertEquals(NettyConsts.HEARTBEAT_TEXT, frame.text());
+        frame.release();
+    }
+
+}
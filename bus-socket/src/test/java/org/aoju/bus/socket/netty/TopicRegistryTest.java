@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.netty;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class TopicRegistryTest {
+
+    private final int maxTopics = NettyConsts.MAX_TOPICS;
+
+    @After
+    public void tearDown() {
+        NettyConsts.MAX_TOPICS = maxTopics;
+    }
+
+    @Test
+    public void internIsStable() {
+        int id = TopicRegistry.intern("registry.stable");
+        assertTrue(id > 0);
+        assertEquals(id, TopicRegistry.intern("registry.stable"));
+        assertEquals(id, TopicRegistry.id("registry.stable"));
+        assertEquals("registry.stable", TopicRegistry.topic(id));
+        assertEquals(0, TopicRegistry.intern(null));
+        assertNull(TopicRegistry.topic(0));
+    }
+
+    @Test
+    public void internStopsAtLimit() {
+        NettyConsts.MAX_TOPICS = TopicRegistry.ids().size() + 20;
+        for (int i = 0; i < 20; i++) {
+            assertTrue(TopicRegistry.intern("registry.limit." + i) > 0);
+        }
+        assertEquals(0, TopicRegistry.intern("registry.limit.overflow"));
+        assertEquals(0, TopicRegistry.id("registry.limit.overflow"));
+        assertEquals("registry.limit.19", TopicRegistry.topic(TopicRegistry.id("registry.limit.19")));
+    }
+
+}
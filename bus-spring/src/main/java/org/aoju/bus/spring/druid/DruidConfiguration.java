@@ -83,6 +83,7 @@ public class DruidConfiguration {
         Map defaultConfig = beanToMap(this.druidProperties);
         DataSource defaultDatasource = bind(defaultConfig);
         sourceMap.put("dataSource", defaultDatasource);
+        MultiDataSource dataSource = new MultiDataSource();
         if (ObjectUtils.isNotEmpty(druidProperties.getMulti())) {
             Logger.info("Enabled Multiple DataSource");
             List<DruidProperties> list = this.druidProperties.getMulti();
@@ -92,10 +93,30 @@ public class DruidConfiguration {
                     Map properties = new HashMap(defaultConfig);
                     properties.putAll(config);
                 }
-                sourceMap.put(config.get("key").toString(), bind(config));
+                String key = config.get("key").toString();
+                DataSource target = bind(config);
+                sourceMap.put(key, target);
+                if (Boolean.TRUE.equals(config.get("replica"))) {
+                    Integer weight = (Integer) config.get("weight");
+                    dataSource.addReplica(key, target, null == weight ? 1 : weight);
+                }
             }
         }
-        MultiDataSource dataSource = new MultiDataSource();
+        if (StringUtils.isNotEmpty(druidProperties.getBalance())) {
+            dataSource.setBalance(Balance.valueOf(druidProperties.getBalance().toUpperCase()));
+        }
+        if (null != druidProperties.getProbeInterval()) {
+            dataSource.setProbeInterval(druidProperties.getProbeInterval());
+        }
+        if (StringUtils.isNotEmpty(druidProperties.getProbeQuery())) {
+            dataSource.setProbeQuery(druidProperties.getProbeQuery());
+        }
+        if (StringUtils.isNotEmpty(druidProperties.getLagQuery())) {
+            dataSource.setLagQuery(druidProperties.getLagQuery());
+        }
+        if (null != druidProperties.getMaxLag()) {
+            dataSource.setMaxLag(druidProperties.getMaxLag());
+        }
         dataSource.setDefaultTargetDataSource(defaultDatasource);
         dataSource.setTargetDataSources(sourceMap);
         return dataSource;
@@ -61,6 +61,21 @@ public class DruidProperties {
     private String maxOpenPreparedStatements;
     private String privateKey;
 
+    /**
+     * 读写分离: 是否作为从库(仅多数据源项)及其权重
+     */
+    private Boolean replica;
+    private Integer weight;
+    /**
+     * 读写分离: 从库负载均衡策略(WEIGHT/LEAST_CONNECTIONS/LATENCY)、探测间隔(毫秒)、
+     * 探测语句、复制延迟查询及允许的最大复制延迟(秒)
+     */
+    private String balance;
+    private Long probeInterval;
+    private String probeQuery;
+    private String lagQuery;
+    private Long maxLag;
+
     private List<DruidProperties> multi;
 
 }
@@ -24,8 +24,10 @@
 package org.aoju.bus.spring.druid;
 
 import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.core.thread.ThreadFactoryBuilder;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.logger.Logger;
+import org.aoju.bus.pager.plugin.AsyncCountContext;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -38,11 +40,26 @@ import org.springframework.stereotype.Component;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 多数据源支持
+ * <p>
+ * 未通过 {@link DataSource} 指定数据源且配置了从库时启用读写分离：只读事务和自动提交模式下的
+ * SELECT 使用从库，写语句及写事务中的所有语句使用主库。从库按 {@link Balance} 选择，
+ * 并定期探测，连接失败或复制延迟超过阈值的从库会被摘除，恢复后重新加入。
  *
  * @author Kimi Liu
  * @version 3.0.5
@@ -54,6 +71,33 @@ public class MultiDataSource extends AbstractRoutingDataSource {
 
     private Set<Object> keySet;
 
+    /**
+     * 参与读写分离的从库
+     */
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+    /**
+     * 从库负载均衡策略
+     */
+    private Balance balance = Balance.WEIGHT;
+    /**
+     * 探测间隔(毫秒)，小于等于0时不探测
+     */
+    private long probeInterval = 5000;
+    /**
+     * 探测语句
+     */
+    private String probeQuery = "SELECT 1";
+    /**
+     * 复制延迟查询，第一行第一列返回延迟秒数，为空时不检查复制延迟
+     * 没有结果、结果为 NULL(如 MySQL 复制停止时的 Seconds_Behind_Master)或不是数字时按探测失败处理
+     */
+    private String lagQuery;
+    /**
+     * 允许的最大复制延迟(秒)
+     */
+    private long maxLag = 30;
+    private ScheduledExecutorService prober;
+
     private static void add(String key) {
         DATA_SOURCE_KEY.set(key);
     }
@@ -62,17 +106,249 @@ public class MultiDataSource extends AbstractRoutingDataSource {
         DATA_SOURCE_KEY.remove();
     }
 
+    /**
+     * 把当前线程指定的数据源带到分页插件的异步 count 线程
+     */
+    public static class CountContext implements AsyncCountContext {
+
+        @Override
+        public Object capture() {
+            return DATA_SOURCE_KEY.get();
+        }
+
+        @Override
+        public void restore(Object context) {
+            if (null == context) {
+                clear();
+            } else {
+                add((String) context);
+            }
+        }
+
+    }
+
     @Override
     protected Object determineCurrentLookupKey() {
         String key = DATA_SOURCE_KEY.get();
-        if (keySet.contains(key)) {
-            Logger.info("this session may use dataSource by key: {}", key);
+        if (null != key && null != keySet && !keySet.contains(key)) {
+            Logger.warn("unknown dataSource key: {}, use default dataSource", key);
         }
         return key;
     }
 
     /**
-     * 在获取key的集合，目的只是为了添加一些告警日志
+     * 未指定数据源且存在从库时返回读写分离连接，实际连接在创建语句时获取
+     *
+     * @return 连接
+     * @throws SQLException 异常
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || null != DATA_SOURCE_KEY.get()) {
+            return super.getConnection();
+        }
+        return ReadWriteConnection.create(this);
+    }
+
+    /**
+     * 添加从库
+     *
+     * @param key        数据源名称
+     * @param dataSource 数据源
+     * @param weight     权重
+     */
+    public void addReplica(String key, javax.sql.DataSource dataSource, int weight) {
+        this.replicas.add(new Replica(key, dataSource, weight));
+    }
+
+    public void setBalance(Balance balance) {
+        this.balance = balance;
+    }
+
+    public void setProbeInterval(long probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    public void setProbeQuery(String probeQuery) {
+        this.probeQuery = probeQuery;
+    }
+
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    public void setMaxLag(long maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * 从库运行统计
+     *
+     * @return 数据源名称 => 统计信息
+     */
+    public Map<String, Map<String, Object>> getReplicaStatistics() {
+        Map<String, Map<String, Object>> map = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            map.put(replica.getKey(), replica.getStatistics());
+        }
+        return map;
+    }
+
+    Connection getPrimaryConnection() throws SQLException {
+        return determineTargetDataSource().getConnection();
+    }
+
+    int getReplicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * 按负载均衡策略选择一个健康的从库
+     *
+     * @return 从库，没有健康的从库时返回 null
+     */
+    Replica chooseReplica() {
+        Replica chosen = null;
+        switch (balance) {
+            case LEAST_CONNECTIONS:
+            case LATENCY:
+                long best = Long.MAX_VALUE;
+                int size = replicas.size();
+                int offset = size > 1 ? ThreadLocalRandom.current().nextInt(size) : 0;
+                for (int i = 0; i < size; i++) {
+                    Replica replica = replicas.get((offset + i) % size);
+                    if (!replica.isHealthy()) {
+                        continue;
+                    }
+                    long score = replica.getActive() + 1;
+                    if (balance == Balance.LATENCY) {
+                        score *= Math.max(replica.getLatency(), 1);
+                    }
+                    if (score < best) {
+                        best = score;
+                        chosen = replica;
+                    }
+                }
+                return chosen;
+            default:
+                int total = 0;
+                for (Replica replica : replicas) {
+                    if (replica.isHealthy()) {
+                        total += replica.getWeight();
+                    }
+                }
+                if (total == 0) {
+                    return null;
+                }
+                int random = ThreadLocalRandom.current().nextInt(total);
+                for (Replica replica : replicas) {
+                    if (replica.isHealthy()) {
+                        random -= replica.getWeight();
+                        if (random < 0) {
+                            return replica;
+                        }
+                    }
+                }
+                return null;
+        }
+    }
+
+    /**
+     * 从从库获取连接，失败时摘除该从库
+     *
+     * @param replica 从库
+     * @return 连接，失败时返回 null
+     */
+    Connection borrowReplica(Replica replica) {
+        try {
+            Connection connection = replica.getDataSource().getConnection();
+            replica.borrow();
+            return connection;
+        } catch (SQLException e) {
+            replica.failed();
+            if (replica.eject(e.getMessage())) {
+                Logger.warn("replica {} ejected: {}", replica.getKey(), e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    void returnReplica(Replica replica, Connection connection) throws SQLException {
+        try {
+            connection.close();
+        } finally {
+            replica.release();
+        }
+    }
+
+    /**
+     * 探测所有从库，更新延迟并摘除或恢复从库
+     */
+    void probe() {
+        for (Replica replica : replicas) {
+            long lag = -1;
+            long start = System.nanoTime();
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(TimeUnit.MILLISECONDS.toSeconds(probeInterval), 1));
+                statement.execute(probeQuery);
+                long nanos = System.nanoTime() - start;
+                if (StringUtils.hasLength(lagQuery)) {
+                    try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                        lag = lag(rs.next() ? rs.getObject(1) : null);
+                    }
+                }
+                replica.probed(nanos, lag);
+            } catch (SQLException | RuntimeException e) {
+                replica.failed();
+                if (replica.eject(e.getMessage())) {
+                    Logger.warn("replica {} ejected: {}", replica.getKey(), e.getMessage());
+                }
+                continue;
+            }
+            if (maxLag > 0 && lag > maxLag) {
+                if (replica.eject("replication lag " + lag + "s")) {
+                    Logger.warn("replica {} ejected: replication lag {}s", replica.getKey(), lag);
+                }
+            } else if (replica.recover()) {
+                Logger.info("replica {} recovered", replica.getKey());
+            }
+        }
+    }
+
+    /**
+     * 解析复制延迟，无法得到延迟时说明复制已停止或状态未知
+     *
+     * @param value 延迟查询的结果
+     * @return 延迟秒数
+     * @throws SQLException 延迟为空或不是数字
+     */
+    private static long lag(Object value) throws SQLException {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value != null) {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new SQLException("replication lag is not numeric: " + value);
+            }
+        }
+        throw new SQLException("replication lag is unknown, replication may be stopped");
+    }
+
+    /**
+     * 停止从库探测
+     */
+    public void close() {
+        if (null != prober) {
+            prober.shutdownNow();
+            prober = null;
+        }
+    }
+
+    /**
+     * 在获取key的集合，目的只是为了添加一些告警日志，存在从库时启动从库探测
      */
     @Override
     public void afterPropertiesSet() {
@@ -86,6 +362,12 @@ public class MultiDataSource extends AbstractRoutingDataSource {
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new InstrumentException(e);
         }
+        if (!replicas.isEmpty() && probeInterval > 0 && null == prober) {
+            Logger.info("Enabled read/write splitting with {} replica(s), balance: {}", replicas.size(), balance);
+            prober = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNamePrefix("replica-probe-").setDaemon(true).build());
+            prober.scheduleWithFixedDelay(this::probe, 0, probeInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Order(-1)
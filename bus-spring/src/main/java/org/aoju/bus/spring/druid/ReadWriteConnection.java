@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.spring.druid;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.regex.Pattern;
+
+/**
+ * 读写分离连接，延迟到创建语句时才决定使用主库还是从库
+ * <p>
+ * 只读连接(只读事务)使用从库，写事务使用主库；自动提交模式下 SELECT 使用从库，
+ * 其他语句使用主库，且一旦有语句走了主库，后续语句都使用主库，保证读到自己的写入。
+ * 在获取实际连接前设置的连接属性会被记录，并在获取实际连接后重放。
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+class ReadWriteConnection implements InvocationHandler {
+
+    /**
+     * 加锁读或写入变量/文件的查询，关键字之间可以是任意空白
+     */
+    private static final Pattern NOT_READ_ONLY = Pattern.compile(
+            "\\b(for\\s+(update|share|no\\s+key\\s+update|key\\s+share)|lock\\s+in\\s+share\\s+mode|into)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final MultiDataSource dataSource;
+
+    private Connection primary;
+    private Connection replica;
+    private Replica replicaInfo;
+    /**
+     * 最近一次使用的连接
+     */
+    private Connection current;
+
+    private Boolean autoCommit;
+    private Boolean readOnly;
+    private Integer isolation;
+    private String catalog;
+    private String schema;
+    /**
+     * 是否已有语句路由到主库
+     */
+    private boolean written;
+    private boolean closed;
+
+    private ReadWriteConnection(MultiDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    static Connection create(MultiDataSource dataSource) {
+        return (Connection) Proxy.newProxyInstance(ReadWriteConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ReadWriteConnection(dataSource));
+    }
+
+    /**
+     * 是否为只读查询，FOR UPDATE 等加锁查询按写处理
+     *
+     * @param sql SQL
+     * @return the boolean
+     */
+    static boolean isSelect(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? length : end + 1;
+            } else {
+                break;
+            }
+        }
+        if (!sql.regionMatches(true, i, "select", 0, 6)) {
+            return false;
+        }
+        return !NOT_READ_ONLY.matcher(sql).find();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ReadWriteConnection[" + (current == null ? "not bound" : current) + "]";
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "isClosed":
+                return closed;
+            case "close":
+                close();
+                return null;
+            case "setAutoCommit":
+                autoCommit = (Boolean) args[0];
+                apply(method, args);
+                return null;
+            case "getAutoCommit":
+                if (current == null) {
+                    return autoCommit == null ? Boolean.TRUE : autoCommit;
+                }
+                break;
+            case "setReadOnly":
+                readOnly = (Boolean) args[0];
+                apply(method, args);
+                return null;
+            case "isReadOnly":
+                if (current == null) {
+                    return readOnly == null ? Boolean.FALSE : readOnly;
+                }
+                break;
+            case "setTransactionIsolation":
+                isolation = (Integer) args[0];
+                apply(method, args);
+                return null;
+            case "getTransactionIsolation":
+                if (current == null && isolation != null) {
+                    return isolation;
+                }
+                break;
+            case "setCatalog":
+                catalog = (String) args[0];
+                apply(method, args);
+                return null;
+            case "getCatalog":
+                if (current == null && catalog != null) {
+                    return catalog;
+                }
+                break;
+            case "setSchema":
+                schema = (String) args[0];
+                apply(method, args);
+                return null;
+            case "getSchema":
+                if (current == null && schema != null) {
+                    return schema;
+                }
+                break;
+            case "commit":
+            case "rollback":
+                // 尚未获取实际连接时没有需要提交或回滚的内容
+                if (primary == null && replica == null) {
+                    return null;
+                }
+                apply(method, args);
+                return null;
+            case "createStatement":
+                return invoke(route(null, false), method, args);
+            case "prepareStatement":
+                return invoke(route((String) args[0], false), method, args);
+            case "prepareCall":
+                return invoke(route((String) args[0], true), method, args);
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        return invoke(current == null ? primary() : current, method, args);
+    }
+
+    /**
+     * 选择执行语句的连接
+     *
+     * @param sql  SQL
+     * @param call 是否为存储过程调用
+     * @return 连接
+     * @throws SQLException 异常
+     */
+    private Connection route(String sql, boolean call) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if (Boolean.TRUE.equals(readOnly) || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return current = replica();
+        }
+        if (Boolean.FALSE.equals(autoCommit) || written || call || !isSelect(sql)) {
+            written = true;
+            return current = primary();
+        }
+        return current = replica();
+    }
+
+    private Connection primary() throws SQLException {
+        if (primary == null) {
+            Connection connection = dataSource.getPrimaryConnection();
+            try {
+                prepare(connection);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            primary = connection;
+        }
+        return primary;
+    }
+
+    private Connection replica() throws SQLException {
+        // 依次尝试可用从库，获取连接失败的从库会被摘除
+        for (int i = dataSource.getReplicaCount(); replica == null && i > 0; i--) {
+            Replica chosen = dataSource.chooseReplica();
+            if (chosen == null) {
+                break;
+            }
+            Connection connection = dataSource.borrowReplica(chosen);
+            if (connection == null) {
+                continue;
+            }
+            try {
+                prepare(connection);
+            } catch (SQLException e) {
+                dataSource.returnReplica(chosen, connection);
+                throw e;
+            }
+            replica = connection;
+            replicaInfo = chosen;
+        }
+        // 没有可用从库时退回主库
+        return replica == null ? primary() : replica;
+    }
+
+    private void prepare(Connection connection) throws SQLException {
+        if (autoCommit != null && connection.getAutoCommit() != autoCommit) {
+            connection.setAutoCommit(autoCommit);
+        }
+        if (readOnly != null) {
+            connection.setReadOnly(readOnly);
+        }
+        if (isolation != null) {
+            connection.setTransactionIsolation(isolation);
+        }
+        if (catalog != null) {
+            connection.setCatalog(catalog);
+        }
+        if (schema != null) {
+            connection.setSchema(schema);
+        }
+    }
+
+    private void apply(Method method, Object[] args) throws Throwable {
+        if (primary != null) {
+            invoke(primary, method, args);
+        }
+        if (replica != null) {
+            invoke(replica, method, args);
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SQLException error = null;
+        if (primary != null) {
+            try {
+                primary.close();
+            } catch (SQLException e) {
+                error = e;
+            }
+        }
+        if (replica != null) {
+            try {
+                dataSource.returnReplica(replicaInfo, replica);
+            } catch (SQLException e) {
+                error = error == null ? e : error;
+            }
+        }
+        primary = null;
+        replica = null;
+        current = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2017, aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.spring.druid;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 从库信息及运行统计
+ *
+ * @author Kimi Liu
+ * @version 3.0.5
+ * @since JDK 1.8
+ */
+public class Replica {
+
+    /**
+     * 延迟平滑系数
+     */
+    private static final double ALPHA = 0.3;
+
+    private final String key;
+    private final DataSource dataSource;
+    private final int weight;
+
+    /**
+     * 当前借出的连接数
+     */
+    private final AtomicInteger active = new AtomicInteger();
+    /**
+     * 借出的连接总数
+     */
+    private final AtomicLong borrowed = new AtomicLong();
+    /**
+     * 获取连接或探测失败次数
+     */
+    private final AtomicLong failures = new AtomicLong();
+    /**
+     * 被摘除次数
+     */
+    private final AtomicLong ejections = new AtomicLong();
+
+    private volatile boolean healthy = true;
+    /**
+     * 平滑后的探测延迟(纳秒)，0表示尚未探测
+     */
+    private volatile long latency;
+    /**
+     * 最近一次探测到的复制延迟(秒)，-1表示未知
+     */
+    private volatile long lag = -1;
+    private volatile String reason;
+
+    public Replica(String key, DataSource dataSource, int weight) {
+        this.key = key;
+        this.dataSource = dataSource;
+        this.weight = Math.max(weight, 1);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getLatency() {
+        return latency;
+    }
+
+    public long getLag() {
+        return lag;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    void borrow() {
+        active.incrementAndGet();
+        borrowed.incrementAndGet();
+    }
+
+    void release() {
+        active.decrementAndGet();
+    }
+
+    /**
+     * 记录一次成功探测
+     *
+     * @param nanos 探测耗时
+     * @param lag   复制延迟(秒)，未知时为-1
+     */
+    void probed(long nanos, long lag) {
+        long last = this.latency;
+        this.latency = last == 0 ? nanos : (long) (ALPHA * nanos + (1 - ALPHA) * last);
+        this.lag = lag;
+    }
+
+    /**
+     * 摘除从库
+     *
+     * @param reason 原因
+     * @return 是否由健康变为摘除
+     */
+    boolean eject(String reason) {
+        this.reason = reason;
+        if (healthy) {
+            healthy = false;
+            ejections.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 恢复从库
+     *
+     * @return 是否由摘除变为健康
+     */
+    boolean recover() {
+        if (!healthy) {
+            healthy = true;
+            reason = null;
+            return true;
+        }
+        return false;
+    }
+
+    void failed() {
+        failures.incrementAndGet();
+    }
+
+    /**
+     * 运行统计
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("key", key);
+        map.put("weight", weight);
+        map.put("healthy", healthy);
+        map.put("reason", reason);
+        map.put("active", active.get());
+        map.put("borrowed", borrowed.get());
+        map.put("failures", failures.get());
+        map.put("ejections", ejections.get());
+        map.put("latencyMillis", TimeUnit.NANOSECONDS.toMillis(latency));
+        map.put("lagSeconds", lag);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "Replica" + getStatistics();
+    }
+
+}
@@ -27,6 +27,7 @@ package org.aoju.bus.spring.mapper;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.pager.plugin.PageInterceptor;
+import org.aoju.bus.spring.druid.MultiDataSource;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
@@ -69,6 +70,9 @@ public class MybatisConfiguration {
             properties.setProperty("returnPageInfo", this.properties.getReturnPageInfo());
             properties.setProperty("params", this.properties.getParams());
             interceptor.setProperties(properties);
+            if (dataSource instanceof MultiDataSource) {
+                interceptor.setAsyncCountContext(new MultiDataSource.CountContext());
+            }
 
             ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
             Interceptor[] plugins = new Interceptor[]{
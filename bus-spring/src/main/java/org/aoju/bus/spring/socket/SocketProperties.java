@@ -43,4 +43,14 @@ public class SocketProperties {
 
     private String endPoint = "/ws";
 
+    /**
+     * 心跳间隔(秒)
+     */
+    private int heartbeatInterval = 60;
+
+    /**
+     * 允许丢失的心跳次数
+     */
+    private int maxMissedHeartbeats = 2;
+
 }
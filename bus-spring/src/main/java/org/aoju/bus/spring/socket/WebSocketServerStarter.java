@@ -48,7 +48,8 @@ public class WebSocketServerStarter {
     }
 
     public void start() {
-        executor.execute(() -> SocketService.start(properties.getPort(), properties.getBossGroupThreads(), properties.getWorkerGroupThreads(), properties.getEndPoint()));
+        executor.execute(() -> SocketService.start(properties.getPort(), properties.getBossGroupThreads(), properties.getWorkerGroupThreads(), properties.getEndPoint(),
+                properties.getHeartbeatInterval(), properties.getMaxMissedHeartbeats()));
     }
 
 }